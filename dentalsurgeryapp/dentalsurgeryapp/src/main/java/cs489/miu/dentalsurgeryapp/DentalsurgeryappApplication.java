@@ -2,8 +2,10 @@ package cs489.miu.dentalsurgeryapp;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class DentalsurgeryappApplication {
 
 	public static void main(String[] args) {
@@ -3,6 +3,7 @@ package cs489.miu.dentalsurgeryapp.config;
 import cs489.miu.dentalsurgeryapp.service.impl.DentalSurgeryUserDetailsService;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
@@ -48,6 +49,11 @@ public class DentalSurgeryWebAppSecurityConfiguration {
                                     .requestMatchers("/services").permitAll()
                                     .requestMatchers("/contact").permitAll()
                                     .requestMatchers("/public/**").permitAll()
+                                    // Admin operations under the open API tree; they must match before its permitAll
+                                    .requestMatchers(HttpMethod.POST, "/dentalsugery/api/bills/reconcile").hasRole("SYSADMIN")
+                                    .requestMatchers("/dentalsugery/api/statements", "/dentalsugery/api/statements/**").hasRole("SYSADMIN")
+                                    .requestMatchers(HttpMethod.GET, "/dentalsugery/api/appointments/*/history",
+                                            "/dentalsugery/api/bills/*/history").hasRole("SYSADMIN")
                                     .requestMatchers("/dentalsugery/api/**").permitAll()
                                     .requestMatchers("/secured/appointment/my-appointments").hasRole("DENTIST")
                                     .requestMatchers("/secured/patient/history").hasRole("PATIENT")
@@ -5,10 +5,8 @@ import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 
-import cs489.miu.dentalsurgeryapp.service.PatientService;
-import cs489.miu.dentalsurgeryapp.service.DentistService;
-import cs489.miu.dentalsurgeryapp.service.AppointmentService;
-import cs489.miu.dentalsurgeryapp.service.BillService;
+import cs489.miu.dentalsurgeryapp.dto.DashboardStatsDTO;
+import cs489.miu.dentalsurgeryapp.service.DashboardStatsService;
 
 /**
  * Controller for handling system administration pages
@@ -17,19 +15,10 @@ import cs489.miu.dentalsurgeryapp.service.BillService;
 @RequestMapping("/secured")
 public class SysAdminController {
 
-    private final PatientService patientService;
-    private final DentistService dentistService;
-    private final AppointmentService appointmentService;
-    private final BillService billService;
+    private final DashboardStatsService dashboardStatsService;
 
-    public SysAdminController(PatientService patientService, 
-                             DentistService dentistService,
-                             AppointmentService appointmentService,
-                             BillService billService) {
-        this.patientService = patientService;
-        this.dentistService = dentistService;
-        this.appointmentService = appointmentService;
-        this.billService = billService;
+    public SysAdminController(DashboardStatsService dashboardStatsService) {
+        this.dashboardStatsService = dashboardStatsService;
     }
 
     /**
@@ -37,38 +26,13 @@ public class SysAdminController {
      */
     @GetMapping({"/", "/index", "/dashboard"})
     public String adminDashboard(Model model) {
-        // Add statistics for the dashboard
-        try {
-            int totalPatients = patientService.getAllPatients().size();
-            int totalDentists = dentistService.getAllDentists().size();
-            
-            // Get today's appointments count
-            int todayAppointments = (int) appointmentService.getAllAppointments().stream()
-                .filter(appointment -> {
-                    if (appointment.getAppointmentDateTime() != null) {
-                        return appointment.getAppointmentDateTime().toLocalDate().equals(java.time.LocalDate.now());
-                    }
-                    return false;
-                })
-                .count();
-            
-            // Get pending bills count (bills with paymentStatus not "Paid")
-            int pendingBills = (int) billService.getAllBills().stream()
-                .filter(bill -> bill.paymentStatus() != null && !"Paid".equalsIgnoreCase(bill.paymentStatus()))
-                .count();
-            
-            model.addAttribute("totalPatients", totalPatients);
-            model.addAttribute("totalDentists", totalDentists);
-            model.addAttribute("todayAppointments", todayAppointments);
-            model.addAttribute("pendingBills", pendingBills);
-        } catch (Exception e) {
-            // Handle any service exceptions gracefully
-            model.addAttribute("totalPatients", 0);
-            model.addAttribute("totalDentists", 0);
-            model.addAttribute("todayAppointments", 0);
-            model.addAttribute("pendingBills", 0);
-        }
-        
+        // Maintained counters: one in-memory read instead of loading the tables
+        DashboardStatsDTO stats = dashboardStatsService.getStats();
+        model.addAttribute("totalPatients", stats.totalPatients());
+        model.addAttribute("totalDentists", stats.totalDentists());
+        model.addAttribute("todayAppointments", stats.todayAppointments());
+        model.addAttribute("pendingBills", stats.pendingBills());
+
         model.addAttribute("pageTitle", "Admin Dashboard");
         return "secured/index";
     }
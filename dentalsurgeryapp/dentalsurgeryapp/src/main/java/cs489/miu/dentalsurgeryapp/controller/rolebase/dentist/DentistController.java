@@ -1,10 +1,12 @@
 package cs489.miu.dentalsurgeryapp.controller.rolebase.dentist;
 
+import cs489.miu.dentalsurgeryapp.dto.AppointmentStatsDTO;
 import cs489.miu.dentalsurgeryapp.model.Appointment;
 import cs489.miu.dentalsurgeryapp.model.AppointmentStatus;
 import cs489.miu.dentalsurgeryapp.model.Dentist;
 import cs489.miu.dentalsurgeryapp.model.User;
 import cs489.miu.dentalsurgeryapp.service.AppointmentService;
+import cs489.miu.dentalsurgeryapp.service.AppointmentStatsService;
 import cs489.miu.dentalsurgeryapp.service.DentistService;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
@@ -36,10 +38,13 @@ public class DentistController {
 
     private final DentistService dentistService;
     private final AppointmentService appointmentService;
+    private final AppointmentStatsService appointmentStatsService;
 
-    public DentistController(DentistService dentistService, AppointmentService appointmentService) {
+    public DentistController(DentistService dentistService, AppointmentService appointmentService,
+                             AppointmentStatsService appointmentStatsService) {
         this.dentistService = dentistService;
         this.appointmentService = appointmentService;
+        this.appointmentStatsService = appointmentStatsService;
     }
 
     @GetMapping("/dashboard")
@@ -50,15 +55,15 @@ public class DentistController {
             return "error/403";
         }
 
-        // Get dashboard statistics
-        long totalAppointments = appointmentService.countAppointmentsByDentist(dentist);
-        long upcomingAppointments = appointmentService.countUpcomingAppointmentsByDentist(dentist);
-        long completedAppointments = appointmentService.countCompletedAppointmentsByDentist(dentist);
+        // Get dashboard statistics (one aggregation, cached for a short time)
+        AppointmentStatsDTO stats = appointmentStatsService.getDentistStats(dentist.getDentistId());
 
         model.addAttribute("dentist", dentist);
-        model.addAttribute("totalAppointments", totalAppointments);
-        model.addAttribute("upcomingAppointments", upcomingAppointments);
-        model.addAttribute("completedAppointments", completedAppointments);
+        model.addAttribute("appointmentStats", stats);
+        model.addAttribute("totalAppointments", stats.total());
+        model.addAttribute("upcomingAppointments", stats.upcoming());
+        model.addAttribute("completedAppointments", stats.count(AppointmentStatus.COMPLETED));
+        model.addAttribute("nextAppointmentDateTime", stats.nextAppointmentDateTime());
 
         return DENTIST_DASHBOARD_VIEW;
     }
@@ -1,9 +1,11 @@
 package cs489.miu.dentalsurgeryapp.controller.rolebase.patient;
 
 import cs489.miu.dentalsurgeryapp.dto.AppointmentRequestDTO;
+import cs489.miu.dentalsurgeryapp.dto.AppointmentStatsDTO;
 import cs489.miu.dentalsurgeryapp.dto.request.UserUpdateRequestDTO;
 import cs489.miu.dentalsurgeryapp.exception.AppointmentLimitExceededException;
 import cs489.miu.dentalsurgeryapp.exception.OutstandingBillException;
+import cs489.miu.dentalsurgeryapp.exception.PatientNotFoundException;
 import cs489.miu.dentalsurgeryapp.model.Appointment;
 import cs489.miu.dentalsurgeryapp.model.AppointmentStatus;
 import cs489.miu.dentalsurgeryapp.model.Dentist;
@@ -12,6 +14,8 @@ import cs489.miu.dentalsurgeryapp.model.Patient;
 import cs489.miu.dentalsurgeryapp.model.SurgeryLocation;
 import cs489.miu.dentalsurgeryapp.model.User;
 import cs489.miu.dentalsurgeryapp.service.AppointmentService;
+import cs489.miu.dentalsurgeryapp.service.AppointmentStatsService;
+import cs489.miu.dentalsurgeryapp.service.DentistAssignmentService;
 import cs489.miu.dentalsurgeryapp.service.DentistService;
 import cs489.miu.dentalsurgeryapp.service.PatientService;
 import cs489.miu.dentalsurgeryapp.service.SurgeryLocationService;
@@ -56,30 +60,39 @@ public class PatientController {
     @Autowired
     private SurgeryLocationService surgeryLocationService;
 
+    @Autowired
+    private AppointmentStatsService appointmentStatsService;
+
+    @Autowired
+    private DentistAssignmentService dentistAssignmentService;
+
     /**
      * Patient Dashboard
      */
     @GetMapping("/dashboard")
     public String dashboard(Model model) {
-        Patient currentPatient = getCurrentPatient();
+        // The patient link was loaded with the user at login; the dashboard only needs its id
+        Patient currentPatient = getPrincipalPatient();
+        if (currentPatient == null) {
+            currentPatient = getCurrentPatient();
+        }
         if (currentPatient == null) {
             return "redirect:/login";
         }
 
         // Get recent appointments
-        Pageable pageable = PageRequest.of(0, 5, Sort.by("appointmentDateTime").descending());
-        Page<Appointment> recentAppointments = appointmentService.findAppointmentsByPatient(currentPatient, pageable);
+        List<Appointment> recentAppointments = appointmentService.findRecentAppointmentsByPatient(currentPatient.getPatientId(), 5);
 
-        // Get appointment counts
-        long totalAppointments = appointmentService.countAppointmentsByPatient(currentPatient);
-        long upcomingAppointments = appointmentService.countUpcomingAppointmentsByPatient(currentPatient);
-        long completedAppointments = appointmentService.countCompletedAppointmentsByPatient(currentPatient);
+        // All appointment counts come from one aggregation, cached for a short time
+        AppointmentStatsDTO stats = appointmentStatsService.getPatientStats(currentPatient.getPatientId());
 
         model.addAttribute("patient", currentPatient);
-        model.addAttribute("recentAppointments", recentAppointments.getContent());
-        model.addAttribute("totalAppointments", totalAppointments);
-        model.addAttribute("upcomingAppointments", upcomingAppointments);
-        model.addAttribute("completedAppointments", completedAppointments);
+        model.addAttribute("recentAppointments", recentAppointments);
+        model.addAttribute("appointmentStats", stats);
+        model.addAttribute("totalAppointments", stats.total());
+        model.addAttribute("upcomingAppointments", stats.upcoming());
+        model.addAttribute("completedAppointments", stats.count(AppointmentStatus.COMPLETED));
+        model.addAttribute("nextAppointmentDateTime", stats.nextAppointmentDateTime());
 
         return "rolebase/patient/dashboard";
     }
@@ -89,7 +102,7 @@ public class PatientController {
      */
     @GetMapping("/profile")
     public String viewProfile(Model model) {
-        Patient currentPatient = getCurrentPatient();
+        Patient currentPatient = getCurrentPatientWithAddress();
         if (currentPatient == null) {
             return "redirect:/login";
         }
@@ -131,7 +144,7 @@ public class PatientController {
                               RedirectAttributes redirectAttributes,
                               Model model) {
         
-        Patient currentPatient = getCurrentPatient();
+        Patient currentPatient = getCurrentPatientWithAddress();
         if (currentPatient == null) {
             return "redirect:/login";
         }
@@ -241,12 +254,8 @@ public class PatientController {
             appointmentDto.setPatientId(currentPatient.getPatientId().longValue());
         }
         
-        List<Dentist> dentists = dentistService.findAllDentists();
-        List<SurgeryLocation> surgeryLocations = surgeryLocationService.getAllSurgeryLocations();
-        
         model.addAttribute("appointment", appointmentDto);
-        model.addAttribute("dentists", dentists);
-        model.addAttribute("surgeryLocations", surgeryLocations);
+        addBookingOptions(model);
 
         return "rolebase/patient/appointment-new";
     }
@@ -278,10 +287,7 @@ public class PatientController {
         System.err.println("=== END DEBUG ===");
 
         if (bindingResult.hasErrors()) {
-            List<Dentist> dentists = dentistService.findAllDentists();
-            List<SurgeryLocation> surgeryLocations = surgeryLocationService.getAllSurgeryLocations();
-            model.addAttribute("dentists", dentists);
-            model.addAttribute("surgeryLocations", surgeryLocations);
+            addBookingOptions(model);
             
             // Debug: Log binding errors
             System.err.println("=== BINDING ERRORS ===");
@@ -332,30 +338,30 @@ public class PatientController {
                 appointmentDto.setAppointmentType("ONLINE");
             }
 
+            // "Any dentist": the least-loaded dentist with room that week takes the slot
+            if (appointmentDto.getDentistId() == AppointmentRequestDTO.ANY_DENTIST_ID) {
+                Appointment appointment = dentistAssignmentService.bookWithLeastLoadedDentist(appointmentDto);
+                redirectAttributes.addFlashAttribute("successMessage",
+                    "Appointment booked successfully with Dr. " + appointment.getDentist().getFullName().trim()
+                        + "! Reference ID: " + appointment.getAppointmentId());
+                return "redirect:/dentalsurgeryapp/rolebase/patient/appointments";
+            }
+
             Appointment appointment = appointmentService.createAppointment(appointmentDto);
             redirectAttributes.addFlashAttribute("successMessage", 
                 "Appointment booked successfully! Reference ID: " + appointment.getAppointmentId());
             return "redirect:/dentalsurgeryapp/rolebase/patient/appointments";
 
         } catch (AppointmentLimitExceededException | OutstandingBillException e) {
-            List<Dentist> dentists = dentistService.findAllDentists();
-            List<SurgeryLocation> surgeryLocations = surgeryLocationService.getAllSurgeryLocations();
-            model.addAttribute("dentists", dentists);
-            model.addAttribute("surgeryLocations", surgeryLocations);
+            addBookingOptions(model);
             model.addAttribute("errorMessage", e.getMessage());
             return "rolebase/patient/appointment-new";
         } catch (IllegalArgumentException e) {
-            List<Dentist> dentists = dentistService.findAllDentists();
-            List<SurgeryLocation> surgeryLocations = surgeryLocationService.getAllSurgeryLocations();
-            model.addAttribute("dentists", dentists);
-            model.addAttribute("surgeryLocations", surgeryLocations);
+            addBookingOptions(model);
             model.addAttribute("errorMessage", e.getMessage());
             return "rolebase/patient/appointment-new";
         } catch (Exception e) {
-            List<Dentist> dentists = dentistService.findAllDentists();
-            List<SurgeryLocation> surgeryLocations = surgeryLocationService.getAllSurgeryLocations();
-            model.addAttribute("dentists", dentists);
-            model.addAttribute("surgeryLocations", surgeryLocations);
+            addBookingOptions(model);
             model.addAttribute("errorMessage", "Error booking appointment: " + e.getMessage());
             return "rolebase/patient/appointment-new";
         }
@@ -531,6 +537,22 @@ public class PatientController {
         return "redirect:/dentalsurgeryapp/rolebase/patient/appointments";
     }
 
+    /**
+     * Dentists, surgery locations and the specializations an "any dentist" booking can ask for
+     */
+    private void addBookingOptions(Model model) {
+        List<Dentist> dentists = dentistService.findAllDentists();
+        model.addAttribute("dentists", dentists);
+        model.addAttribute("surgeryLocations", surgeryLocationService.getAllSurgeryLocations());
+        model.addAttribute("specializations", dentists.stream()
+            .map(Dentist::getSpecialization)
+            .filter(specialization -> specialization != null && !specialization.isBlank())
+            .map(String::trim)
+            .distinct()
+            .sorted()
+            .toList());
+    }
+
     /**
      * Get current authenticated patient
      */
@@ -550,6 +572,32 @@ public class PatientController {
         // Get patient directly from user
         return userOpt.get().getPatient();
     }
+
+    /**
+     * Patient linked to the principal when it logged in (a detached snapshot; no query)
+     */
+    private Patient getPrincipalPatient() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof User user) {
+            return user.getPatient();
+        }
+        return null;
+    }
+
+    /**
+     * Current patient reloaded together with its address (the profile screens show and edit it)
+     */
+    private Patient getCurrentPatientWithAddress() {
+        Patient currentPatient = getCurrentPatient();
+        if (currentPatient == null) {
+            return null;
+        }
+        try {
+            return patientService.getPatientById(currentPatient.getPatientId());
+        } catch (PatientNotFoundException e) {
+            return null;
+        }
+    }
     /**
      * View Appointment Details
      */
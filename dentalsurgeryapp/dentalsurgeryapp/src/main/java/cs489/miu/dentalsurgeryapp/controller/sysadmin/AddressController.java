@@ -8,6 +8,7 @@ import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import cs489.miu.dentalsurgeryapp.dto.AddressResponseDTO;
@@ -15,6 +16,8 @@ import cs489.miu.dentalsurgeryapp.dto.AddressWithPatientsResponseDTO;
 import cs489.miu.dentalsurgeryapp.dto.DeleteResponseDTO;
 import cs489.miu.dentalsurgeryapp.model.Address;
 import cs489.miu.dentalsurgeryapp.service.AddressService;
+import cs489.miu.dentalsurgeryapp.service.util.StreamingExportService;
+import cs489.miu.dentalsurgeryapp.service.util.StreamingExportService.CsvColumn;
 import jakarta.validation.Valid;
 
 /**
@@ -25,10 +28,20 @@ import jakarta.validation.Valid;
 @Controller("addressController")
 public class AddressController {
 
+    private static final List<CsvColumn<AddressResponseDTO>> EXPORT_COLUMNS = List.of(
+            new CsvColumn<>("addressId", AddressResponseDTO::addressId),
+            new CsvColumn<>("street", AddressResponseDTO::street),
+            new CsvColumn<>("city", AddressResponseDTO::city),
+            new CsvColumn<>("state", AddressResponseDTO::state),
+            new CsvColumn<>("zipcode", AddressResponseDTO::zipcode)
+    );
+
     private final AddressService addressService;
+    private final StreamingExportService streamingExportService;
 
-    public AddressController(AddressService addressService) {
+    public AddressController(AddressService addressService, StreamingExportService streamingExportService) {
         this.addressService = addressService;
+        this.streamingExportService = streamingExportService;
     }
 
     // ===================== MVC (Thymeleaf) endpoints =====================
@@ -197,6 +210,13 @@ public class AddressController {
         return ResponseEntity.ok(addresses);
     }
 
+    /** Streams every row as NDJSON (default) or CSV: ?format=ndjson|csv */
+    @ResponseBody
+    @GetMapping("/dentalsugery/api/addresses/export")
+    public ResponseEntity<StreamingResponseBody> exportAddresses(@RequestParam(required = false) String format) {
+        return streamingExportService.export(format, "addresses", addressService::streamAllAddresses, this::mapToDTO, EXPORT_COLUMNS);
+    }
+
     @ResponseBody
     @GetMapping("/dentalsugery/api/addresses/{id}")
     public ResponseEntity<AddressResponseDTO> getAddressById(@PathVariable Integer id) {
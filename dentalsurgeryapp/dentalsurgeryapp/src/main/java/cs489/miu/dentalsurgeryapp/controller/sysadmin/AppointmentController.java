@@ -1,15 +1,21 @@
 package cs489.miu.dentalsurgeryapp.controller.sysadmin;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Collection;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.DayOfWeek;
 
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
@@ -17,13 +23,22 @@ import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.servlet.http.HttpServletRequest;
+
 import cs489.miu.dentalsurgeryapp.dto.*;
 import cs489.miu.dentalsurgeryapp.model.*;
 import cs489.miu.dentalsurgeryapp.service.*;
 import cs489.miu.dentalsurgeryapp.exception.AppointmentLimitExceededException;
 import cs489.miu.dentalsurgeryapp.exception.OutstandingBillException;
+import cs489.miu.dentalsurgeryapp.util.BusinessHours;
+import cs489.miu.dentalsurgeryapp.service.util.StreamingExportService;
+import cs489.miu.dentalsurgeryapp.service.util.StreamingExportService.CsvColumn;
 
 @Controller("appointmentController")
 public class AppointmentController {
@@ -40,66 +55,96 @@ public class AppointmentController {
     private static final String EDIT_APPOINTMENT_TITLE = "Edit Appointment";
     private static final String APPOINTMENT_NOT_FOUND_MSG = "Appointment not found with ID: ";
 
+    private static final List<CsvColumn<AppointmentResponseDTO>> EXPORT_COLUMNS = List.of(
+            new CsvColumn<>("appointmentId", AppointmentResponseDTO::appointmentId),
+            new CsvColumn<>("appointmentType", AppointmentResponseDTO::appointmentType),
+            new CsvColumn<>("appointmentStatus", AppointmentResponseDTO::appointmentStatus),
+            new CsvColumn<>("appointmentDateTime", AppointmentResponseDTO::appointmentDateTime),
+            CsvColumn.nested("patientId", AppointmentResponseDTO::patientResponseDTO, PatientResponseDTO::patientId),
+            CsvColumn.nested("patientFirstName", AppointmentResponseDTO::patientResponseDTO, PatientResponseDTO::firstName),
+            CsvColumn.nested("patientLastName", AppointmentResponseDTO::patientResponseDTO, PatientResponseDTO::lastName),
+            CsvColumn.nested("patientEmail", AppointmentResponseDTO::patientResponseDTO, PatientResponseDTO::email),
+            CsvColumn.nested("dentistId", AppointmentResponseDTO::dentistResponseDTO, DentistResponseDTO::dentistId),
+            CsvColumn.nested("dentistFirstName", AppointmentResponseDTO::dentistResponseDTO, DentistResponseDTO::firstName),
+            CsvColumn.nested("dentistLastName", AppointmentResponseDTO::dentistResponseDTO, DentistResponseDTO::lastName),
+            CsvColumn.nested("surgeryLocationId", AppointmentResponseDTO::surgeryLocationResponseDTO, SurgeryLocationResponseDTO::surgeryLocationId),
+            CsvColumn.nested("surgeryLocationName", AppointmentResponseDTO::surgeryLocationResponseDTO, SurgeryLocationResponseDTO::name)
+    );
+
     private final AppointmentService appointmentService;
     private final PatientService patientService;
     private final DentistService dentistService;
     private final SurgeryLocationService surgeryLocationService;
     private final AddressService addressService;
     private final BillService billService;
+    private final DentistWeeklyLoadService dentistWeeklyLoadService;
+    private final AppointmentReminderService appointmentReminderService;
+    private final AppointmentImportService appointmentImportService;
+    private final ObjectMapper objectMapper;
+    private final StreamingExportService streamingExportService;
 
     public AppointmentController(AppointmentService appointmentService, 
                                PatientService patientService,
                                DentistService dentistService,
                                SurgeryLocationService surgeryLocationService,
                                AddressService addressService,
-                               BillService billService) {
+                               BillService billService,
+                               DentistWeeklyLoadService dentistWeeklyLoadService,
+                               AppointmentReminderService appointmentReminderService,
+                               AppointmentImportService appointmentImportService,
+                               ObjectMapper objectMapper,
+                               StreamingExportService streamingExportService) {
         this.appointmentService = appointmentService;
         this.patientService = patientService;
         this.dentistService = dentistService;
         this.surgeryLocationService = surgeryLocationService;
         this.addressService = addressService;
         this.billService = billService;
+        this.dentistWeeklyLoadService = dentistWeeklyLoadService;
+        this.appointmentReminderService = appointmentReminderService;
+        this.appointmentImportService = appointmentImportService;
+        this.objectMapper = objectMapper;
+        this.streamingExportService = streamingExportService;
     }
 
     // ===================== MVC (Thymeleaf) endpoints =====================
     @GetMapping({"/secured/appointment/", "/secured/appointment/list"})
-    public String listAppointments(Model model, @RequestParam(required = false) String searchTerm) {
-    List<Appointment> appointments = appointmentService.getAllAppointments();
-    // Safety: drop any transient appointments lacking an ID to avoid invalid links
-    appointments = appointments.stream()
-        .filter(appt -> appt != null && appt.getAppointmentId() != null)
-        .collect(java.util.stream.Collectors.toList());
-        
-        // Filter by search term if provided
-        if (searchTerm != null && !searchTerm.trim().isEmpty()) {
-            String search = searchTerm.trim().toLowerCase();
-            appointments = appointments.stream()
-                .filter(appt -> {
-                    boolean matchesPatient = appt.getPatient() != null && 
-                        (appt.getPatient().getFirstName().toLowerCase().contains(search) ||
-                         appt.getPatient().getLastName().toLowerCase().contains(search));
-                    boolean matchesDentist = appt.getDentist() != null && 
-                        (appt.getDentist().getFirstName().toLowerCase().contains(search) ||
-                         appt.getDentist().getLastName().toLowerCase().contains(search));
-                    boolean matchesType = appt.getAppointmentType() != null && 
-                        appt.getAppointmentType().toLowerCase().contains(search);
-                    boolean matchesStatus = appt.getAppointmentStatus() != null && 
-                        appt.getAppointmentStatus().toLowerCase().contains(search);
-                    return matchesPatient || matchesDentist || matchesType || matchesStatus;
-                })
-                .collect(java.util.stream.Collectors.toList());
-        }
-        
-        // Sort by appointmentDateTime descending (most recent first)
-        appointments.sort((a1, a2) -> {
-            if (a1.getAppointmentDateTime() == null && a2.getAppointmentDateTime() == null) return 0;
-            if (a1.getAppointmentDateTime() == null) return 1;
-            if (a2.getAppointmentDateTime() == null) return -1;
-            return a2.getAppointmentDateTime().compareTo(a1.getAppointmentDateTime());
-        });
-        
-        model.addAttribute("appointments", appointments);
-        model.addAttribute("searchTerm", searchTerm);
+    public String listAppointments(Model model,
+                                   @RequestParam(required = false) Integer patientId,
+                                   @RequestParam(required = false) String patientName,
+                                   @RequestParam(required = false) Integer dentistId,
+                                   @RequestParam(required = false) String type,
+                                   @RequestParam(required = false) String status,
+                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                   @RequestParam(required = false) String cursor,
+                                   @RequestParam(defaultValue = "next") String dir,
+                                   @RequestParam(defaultValue = "20") int size) {
+        // Filters and the (appointmentDateTime, id) seek are evaluated by the database, so page
+        // cost no longer depends on the size of the appointments table.
+        AppointmentFilterDTO filter = new AppointmentFilterDTO(
+                patientId,
+                patientName,
+                dentistId,
+                type,
+                status,
+                from != null ? from.atStartOfDay() : null,
+                to != null ? to.plusDays(1).atStartOfDay() : null);
+        KeysetPageDTO<Appointment> page = appointmentService.findAppointmentsPage(
+                filter, cursor, "prev".equalsIgnoreCase(dir), size);
+
+        model.addAttribute("appointments", page.content());
+        model.addAttribute("page", page);
+        model.addAttribute("patientId", patientId);
+        model.addAttribute("patientName", patientName);
+        model.addAttribute("dentistId", dentistId);
+        model.addAttribute("type", type);
+        model.addAttribute("status", status);
+        model.addAttribute("from", from);
+        model.addAttribute("to", to);
+        model.addAttribute("size", page.size());
+        model.addAttribute("dentists", dentistService.getAllDentistsOrderedByName());
+        model.addAttribute("appointmentStatuses", AppointmentStatus.values());
         model.addAttribute(PAGE_TITLE, "Appointment List");
         return "secured/appointment/list";
     }
@@ -298,29 +343,19 @@ public class AppointmentController {
 
             // Handle billing updates/creation
             try {
-                // Find existing bill for this appointment (via DTOs, then load entity)
-                cs489.miu.dentalsurgeryapp.dto.BillResponseDTO existingBillDto = billService.getAllBills().stream()
-                    .filter(b -> b.appointment() != null
-                              && b.appointment().appointmentId() != null
-                              && b.appointment().appointmentId().equals(updated.getAppointmentId()))
-                    .findFirst()
-                    .orElse(null);
-
-                if (existingBillDto != null) {
+                // Find existing bill for this appointment (unique appointment_id)
+                cs489.miu.dentalsurgeryapp.model.Bill existingBill = billService.getBillByAppointment(updated);
+
+                if (existingBill != null) {
                     // Update existing bill's amount/status if provided
-                    cs489.miu.dentalsurgeryapp.model.Bill existingBill = billService.getBillById(existingBillDto.billId());
-                    if (existingBill != null) {
-                        if (totalCost != null && totalCost > 0) {
-                            existingBill.setTotalCost(java.math.BigDecimal.valueOf(totalCost));
-                        }
-                        if (paymentStatus != null && !paymentStatus.isBlank()) {
-                            existingBill.setPaymentStatus(paymentStatus);
-                        }
-                        billService.updateBill(existingBill);
-                        ra.addFlashAttribute("successMessage", "Appointment updated and bill updated successfully.");
-                    } else {
-                        ra.addFlashAttribute("successMessage", "Appointment updated. Related bill could not be loaded for update.");
+                    if (totalCost != null && totalCost > 0) {
+                        existingBill.setTotalCost(java.math.BigDecimal.valueOf(totalCost));
                     }
+                    if (paymentStatus != null && !paymentStatus.isBlank()) {
+                        existingBill.setPaymentStatus(paymentStatus);
+                    }
+                    billService.updateBill(existingBill);
+                    ra.addFlashAttribute("successMessage", "Appointment updated and bill updated successfully.");
                 } else if ("CHECKOUT".equals(appointment.getAppointmentStatus()) && totalCost != null && totalCost > 0) {
                     // No existing bill; create if status is CHECKOUT and amount provided
                     cs489.miu.dentalsurgeryapp.model.Bill bill = new cs489.miu.dentalsurgeryapp.model.Bill();
@@ -408,7 +443,6 @@ public class AppointmentController {
         }
 
         DayOfWeek dayOfWeek = appointmentDateTime.getDayOfWeek();
-        int hour = appointmentDateTime.getHour();
 
         // Sunday closed
         if (dayOfWeek == DayOfWeek.SUNDAY) {
@@ -417,14 +451,14 @@ public class AppointmentController {
 
         // Saturday 9 AM - 3 PM
         if (dayOfWeek == DayOfWeek.SATURDAY) {
-            if (hour < 9 || hour >= 15) {
+            if (!BusinessHours.isOpen(appointmentDateTime)) {
                 return "Saturday appointments are only available between 9:00 AM and 3:00 PM.";
             }
             return null;
         }
 
         // Monday-Friday 8 AM - 6 PM
-        if (hour < 8 || hour >= 18) {
+        if (!BusinessHours.isOpen(appointmentDateTime)) {
             return "Weekday appointments are only available between 8:00 AM and 6:00 PM.";
         }
 
@@ -441,6 +475,25 @@ public class AppointmentController {
         return ResponseEntity.ok(appointmentDTOs);
     }
 
+    /** Streams every row as NDJSON (default) or CSV: ?format=ndjson|csv */
+    @ResponseBody
+    @GetMapping("/dentalsugery/api/appointments/export")
+    public ResponseEntity<StreamingResponseBody> exportAppointments(@RequestParam(required = false) String format) {
+        return streamingExportService.export(format, "appointments", appointmentService::streamAllAppointments, this::mapToDTO, EXPORT_COLUMNS);
+    }
+
+    @ResponseBody
+    @GetMapping("/dentalsugery/api/appointments/load-index/stats")
+    public ResponseEntity<DentistLoadIndexStatsDTO> getLoadIndexStats() {
+        return ResponseEntity.ok(dentistWeeklyLoadService.getStats());
+    }
+
+    @ResponseBody
+    @GetMapping("/dentalsugery/api/appointments/reminders/stats")
+    public ResponseEntity<ReminderStatsDTO> getReminderStats() {
+        return ResponseEntity.ok(appointmentReminderService.getStats());
+    }
+
     @ResponseBody
     @GetMapping("/dentalsugery/api/appointments/{id}")
     public ResponseEntity<AppointmentResponseDTO> getAppointmentById(@PathVariable Integer id) {
@@ -476,6 +529,28 @@ public class AppointmentController {
         }
     }
 
+    // Accepts a JSON array or newline-delimited JSON (one appointment per line)
+    @ResponseBody
+    @PostMapping(value = "/dentalsugery/api/appointments/bulk",
+                 consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<Object> bulkImportAppointments(HttpServletRequest request) {
+        List<AppointmentImportRowDTO> rows;
+        try (MappingIterator<AppointmentImportRowDTO> iterator = objectMapper
+                .readerFor(AppointmentImportRowDTO.class)
+                .readValues(request.getInputStream())) {
+            rows = iterator.readAll();
+        } catch (IOException | RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponseDTO("Bad Request", "Could not parse appointments: " + e.getMessage()));
+        }
+        try {
+            return ResponseEntity.ok(appointmentImportService.importAppointments(rows));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                    .body(new ErrorResponseDTO("Too Many Rows", e.getMessage()));
+        }
+    }
+
     @ResponseBody
     @PutMapping("/dentalsugery/api/appointments/{id}")
     public ResponseEntity<Object> updateAppointment(@PathVariable Integer id, @RequestBody AppointmentRequestDTO appointmentRequestDTO) {
@@ -505,6 +580,35 @@ public class AppointmentController {
         }
     }
 
+    /** Checks the appointment out and creates or updates its bill, all or nothing */
+    @ResponseBody
+    @PostMapping("/dentalsugery/api/appointments/{id}/checkout")
+    public ResponseEntity<Object> checkoutAppointment(@PathVariable Integer id,
+                                                      @RequestBody(required = false) CheckoutRequestDTO checkoutRequestDTO) {
+        CheckoutRequestDTO request = checkoutRequestDTO != null ? checkoutRequestDTO : new CheckoutRequestDTO(null, null);
+        try {
+            Bill bill = appointmentService.checkoutAppointment(id, request.totalCost(), request.paymentStatus());
+            if (bill == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(new ErrorResponseDTO("Not Found", "Appointment not found with ID: " + id));
+            }
+            return ResponseEntity.ok(mapBillToDTO(bill));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponseDTO("Bad Request", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ErrorResponseDTO("Checkout Not Allowed", e.getMessage()));
+        } catch (AppointmentLimitExceededException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ErrorResponseDTO("Appointment Limit Exceeded", e.getMessage()));
+        } catch (DataIntegrityViolationException | ConcurrencyFailureException e) {
+            // Another checkout created the bill, or took the week's slot, at the same time
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ErrorResponseDTO("Checkout Conflict", "Appointment #" + id + " was checked out concurrently; please retry"));
+        }
+    }
+
     @ResponseBody
     @DeleteMapping("/dentalsugery/api/appointments/{id}")
     public ResponseEntity<DeleteResponseDTO> deleteAppointment(@PathVariable Integer id) {
@@ -593,6 +697,20 @@ public class AppointmentController {
         );
     }
 
+    private BillResponseDTO mapBillToDTO(Bill bill) {
+        Patient patient = bill.getPatient();
+        Appointment appointment = bill.getAppointment();
+        return new BillResponseDTO(
+                bill.getBillId(),
+                bill.getTotalCost(),
+                bill.getPaymentStatus(),
+                new BillResponseDTO.PatientBasicInfoDTO(patient.getPatientId(), patient.getFirstName(),
+                        patient.getLastName(), patient.getEmail()),
+                new BillResponseDTO.AppointmentBasicInfoDTO(appointment.getAppointmentId(), appointment.getAppointmentType(),
+                        appointment.getAppointmentStatus(), appointment.getAppointmentDateTime())
+        );
+    }
+
     private Appointment mapToEntity(AppointmentRequestDTO dto) {
         Appointment appointment = new Appointment();
         appointment.setAppointmentType(dto.getAppointmentType());
@@ -0,0 +1,158 @@
+package cs489.miu.dentalsurgeryapp.controller.sysadmin;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+
+import cs489.miu.dentalsurgeryapp.dto.AppointmentOccurrenceDTO;
+import cs489.miu.dentalsurgeryapp.dto.AppointmentSeriesRequestDTO;
+import cs489.miu.dentalsurgeryapp.dto.AppointmentSeriesResponseDTO;
+import cs489.miu.dentalsurgeryapp.dto.DeleteResponseDTO;
+import cs489.miu.dentalsurgeryapp.dto.ErrorResponseDTO;
+import cs489.miu.dentalsurgeryapp.exception.AppointmentLimitExceededException;
+import cs489.miu.dentalsurgeryapp.exception.OutstandingBillException;
+import cs489.miu.dentalsurgeryapp.exception.PatientNotFoundException;
+import cs489.miu.dentalsurgeryapp.model.AppointmentSeries;
+import cs489.miu.dentalsurgeryapp.model.Dentist;
+import cs489.miu.dentalsurgeryapp.model.SurgeryLocation;
+import cs489.miu.dentalsurgeryapp.service.AppointmentSeriesService;
+import cs489.miu.dentalsurgeryapp.service.DentistService;
+import cs489.miu.dentalsurgeryapp.service.PatientService;
+import cs489.miu.dentalsurgeryapp.service.SurgeryLocationService;
+
+/**
+ * Recurring appointment series
+ * - REST API under /dentalsugery/api/appointment-series
+ */
+@Controller("appointmentSeriesController")
+public class AppointmentSeriesController {
+
+    private static final int DEFAULT_RANGE_DAYS = 90;
+    private static final int MAX_RANGE_DAYS = 366;
+
+    private final AppointmentSeriesService appointmentSeriesService;
+    private final PatientService patientService;
+    private final DentistService dentistService;
+    private final SurgeryLocationService surgeryLocationService;
+
+    public AppointmentSeriesController(AppointmentSeriesService appointmentSeriesService,
+                                       PatientService patientService,
+                                       DentistService dentistService,
+                                       SurgeryLocationService surgeryLocationService) {
+        this.appointmentSeriesService = appointmentSeriesService;
+        this.patientService = patientService;
+        this.dentistService = dentistService;
+        this.surgeryLocationService = surgeryLocationService;
+    }
+
+    @ResponseBody
+    @PostMapping("/dentalsugery/api/appointment-series")
+    public ResponseEntity<Object> createSeries(@RequestBody AppointmentSeriesRequestDTO request) {
+        if (request.patientId() == null || request.dentistId() == null || request.surgeryLocationId() == null
+                || request.firstStart() == null || request.intervalWeeks() == null || request.occurrenceCount() == null) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponseDTO("Invalid Request",
+                            "patientId, dentistId, surgeryLocationId, appointmentType, firstStart, intervalWeeks and occurrenceCount are required."));
+        }
+        AppointmentSeries series = new AppointmentSeries();
+        try {
+            series.setPatient(patientService.getPatientById(request.patientId()));
+        } catch (PatientNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new ErrorResponseDTO("Not Found", e.getMessage()));
+        }
+        Optional<Dentist> dentist = dentistService.findDentistById(request.dentistId());
+        if (dentist.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new ErrorResponseDTO("Not Found", "Dentist not found with ID: " + request.dentistId()));
+        }
+        Optional<SurgeryLocation> location = surgeryLocationService.findSurgeryLocationById(request.surgeryLocationId());
+        if (location.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new ErrorResponseDTO("Not Found", "Surgery location not found with ID: " + request.surgeryLocationId()));
+        }
+        series.setDentist(dentist.get());
+        series.setSurgeryLocation(location.get());
+        series.setAppointmentType(request.appointmentType());
+        series.setFirstStart(request.firstStart());
+        series.setIntervalWeeks(request.intervalWeeks());
+        series.setOccurrenceCount(request.occurrenceCount());
+        try {
+            AppointmentSeries created = appointmentSeriesService.createSeries(series);
+            return ResponseEntity.status(HttpStatus.CREATED).body(mapToDTO(created));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponseDTO("Invalid Series", e.getMessage()));
+        } catch (OutstandingBillException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ErrorResponseDTO("Outstanding Bills", e.getMessage()));
+        } catch (AppointmentLimitExceededException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ErrorResponseDTO("Appointment Limit Exceeded", e.getMessage()));
+        }
+    }
+
+    @ResponseBody
+    @GetMapping("/dentalsugery/api/appointment-series/{id}")
+    public ResponseEntity<AppointmentSeriesResponseDTO> getSeriesById(@PathVariable Integer id) {
+        return appointmentSeriesService.findSeriesById(id)
+                .map(series -> ResponseEntity.ok(mapToDTO(series)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @ResponseBody
+    @DeleteMapping("/dentalsugery/api/appointment-series/{id}")
+    public ResponseEntity<DeleteResponseDTO> cancelSeries(@PathVariable Integer id) {
+        if (appointmentSeriesService.cancelSeries(id)) {
+            return ResponseEntity.ok(new DeleteResponseDTO(true, "Appointment series cancelled successfully"));
+        }
+        return ResponseEntity.ok(new DeleteResponseDTO(false, "Appointment series not found or already cancelled"));
+    }
+
+    // Stored appointments merged with the virtual occurrences of recurring series
+    @ResponseBody
+    @GetMapping("/dentalsugery/api/appointment-series/occurrences")
+    public ResponseEntity<Object> getOccurrences(
+            @RequestParam(required = false) Integer dentistId,
+            @RequestParam(required = false) Integer patientId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        if (dentistId == null && patientId == null) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponseDTO("Invalid Request", "dentistId or patientId is required."));
+        }
+        LocalDate start = from != null ? from : LocalDate.now();
+        LocalDate end = to != null ? to : start.plusDays(DEFAULT_RANGE_DAYS - 1);
+        if (end.isBefore(start) || end.isAfter(start.plusDays(MAX_RANGE_DAYS - 1))) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponseDTO("Invalid Range", "'to' must be on or after 'from' and at most " + MAX_RANGE_DAYS + " days later."));
+        }
+        List<AppointmentOccurrenceDTO> occurrences = appointmentSeriesService.findOccurrences(
+                dentistId, patientId, start.atStartOfDay(), end.plusDays(1).atStartOfDay());
+        return ResponseEntity.ok(occurrences);
+    }
+
+    private AppointmentSeriesResponseDTO mapToDTO(AppointmentSeries series) {
+        return new AppointmentSeriesResponseDTO(
+                series.getSeriesId(),
+                series.getPatient().getPatientId(),
+                series.getDentist().getDentistId(),
+                series.getSurgeryLocation().getSurgeryLocationId(),
+                series.getAppointmentType(),
+                series.getFirstStart(),
+                series.getIntervalWeeks(),
+                series.getOccurrenceCount(),
+                series.getMaterializedCount(),
+                series.getSkippedCount(),
+                series.getNextStart(),
+                series.getCreatedAt(),
+                series.getCancelledAt()
+        );
+    }
+}
@@ -0,0 +1,48 @@
+package cs489.miu.dentalsurgeryapp.controller.sysadmin;
+
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+
+import cs489.miu.dentalsurgeryapp.dto.AuditEventDTO;
+import cs489.miu.dentalsurgeryapp.dto.ErrorResponseDTO;
+import cs489.miu.dentalsurgeryapp.service.AuditJournalService;
+
+/**
+ * Change history of appointments and bills
+ * - REST API under /dentalsugery/api/{appointments,bills}/{id}/history
+ * The history outlives the entity, so a deleted appointment or bill still has one.
+ */
+@Controller("auditController")
+public class AuditController {
+
+    private final AuditJournalService auditJournalService;
+
+    public AuditController(AuditJournalService auditJournalService) {
+        this.auditJournalService = auditJournalService;
+    }
+
+    @ResponseBody
+    @GetMapping("/dentalsugery/api/appointments/{id}/history")
+    public ResponseEntity<Object> getAppointmentHistory(@PathVariable Integer id) {
+        return history(AuditJournalService.APPOINTMENT, id, "appointment");
+    }
+
+    @ResponseBody
+    @GetMapping("/dentalsugery/api/bills/{id}/history")
+    public ResponseEntity<Object> getBillHistory(@PathVariable Integer id) {
+        return history(AuditJournalService.BILL, id, "bill");
+    }
+
+    private ResponseEntity<Object> history(String entityType, Integer id, String name) {
+        List<AuditEventDTO> events = auditJournalService.findHistory(entityType, id);
+        if (events.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new ErrorResponseDTO("Not Found", "No history found for " + name + " with ID: " + id));
+        }
+        return ResponseEntity.ok(events);
+    }
+}
@@ -0,0 +1,64 @@
+package cs489.miu.dentalsurgeryapp.controller.sysadmin;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+
+import cs489.miu.dentalsurgeryapp.dto.AvailableSlotDTO;
+import cs489.miu.dentalsurgeryapp.dto.ErrorResponseDTO;
+import cs489.miu.dentalsurgeryapp.service.AvailabilityService;
+import cs489.miu.dentalsurgeryapp.service.DentistService;
+import cs489.miu.dentalsurgeryapp.service.SurgeryLocationService;
+
+/**
+ * Free-slot search
+ * - REST API under /dentalsugery/api/availability
+ */
+@Controller("availabilityController")
+public class AvailabilityController {
+
+    private static final int DEFAULT_RANGE_DAYS = 14;
+
+    private final AvailabilityService availabilityService;
+    private final DentistService dentistService;
+    private final SurgeryLocationService surgeryLocationService;
+
+    public AvailabilityController(AvailabilityService availabilityService,
+                                  DentistService dentistService,
+                                  SurgeryLocationService surgeryLocationService) {
+        this.availabilityService = availabilityService;
+        this.dentistService = dentistService;
+        this.surgeryLocationService = surgeryLocationService;
+    }
+
+    @ResponseBody
+    @GetMapping("/dentalsugery/api/availability")
+    public ResponseEntity<Object> getAvailability(
+            @RequestParam Integer dentistId,
+            @RequestParam(required = false) Integer locationId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "10") int limit) {
+        LocalDate start = from != null ? from : LocalDate.now();
+        LocalDate end = to != null ? to : start.plusDays(DEFAULT_RANGE_DAYS - 1);
+        if (end.isBefore(start)) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponseDTO("Invalid Range", "'to' must not be before 'from'."));
+        }
+        if (dentistService.findDentistById(dentistId).isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new ErrorResponseDTO("Not Found", "Dentist not found with ID: " + dentistId));
+        }
+        if (locationId != null && surgeryLocationService.findSurgeryLocationById(locationId).isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new ErrorResponseDTO("Not Found", "Surgery location not found with ID: " + locationId));
+        }
+        List<AvailableSlotDTO> slots = availabilityService.findFreeSlots(dentistId, locationId, start, end, limit);
+        return ResponseEntity.ok(slots);
+    }
+}
@@ -1,25 +1,40 @@
 package cs489.miu.dentalsurgeryapp.controller.sysadmin;
 
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
-import java.util.stream.Collectors;
 
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import cs489.miu.dentalsurgeryapp.dto.BillFilterDTO;
+import cs489.miu.dentalsurgeryapp.dto.BillListItemDTO;
 import cs489.miu.dentalsurgeryapp.dto.BillRequestDTO;
 import cs489.miu.dentalsurgeryapp.dto.BillResponseDTO;
+import cs489.miu.dentalsurgeryapp.dto.BillSort;
 import cs489.miu.dentalsurgeryapp.dto.DeleteResponseDTO;
+import cs489.miu.dentalsurgeryapp.dto.ErrorResponseDTO;
+import cs489.miu.dentalsurgeryapp.dto.KeysetPageDTO;
 import cs489.miu.dentalsurgeryapp.dto.OutstandingBillCheckDTO;
-import cs489.miu.dentalsurgeryapp.model.Appointment;
+import cs489.miu.dentalsurgeryapp.dto.PatientBalanceDTO;
 import cs489.miu.dentalsurgeryapp.model.Bill;
-import cs489.miu.dentalsurgeryapp.model.Patient;
+import cs489.miu.dentalsurgeryapp.model.PaymentStatus;
 import cs489.miu.dentalsurgeryapp.service.BillService;
 import cs489.miu.dentalsurgeryapp.service.PatientService;
 import cs489.miu.dentalsurgeryapp.service.AppointmentService;
+import cs489.miu.dentalsurgeryapp.service.DashboardStatsService;
+import cs489.miu.dentalsurgeryapp.service.PaymentReconciliationService;
+import cs489.miu.dentalsurgeryapp.service.util.StreamingExportService;
+import cs489.miu.dentalsurgeryapp.service.util.StreamingExportService.CsvColumn;
+import jakarta.servlet.http.HttpServletRequest;
 
 /**
  * Unified Bill Controller
@@ -29,61 +44,83 @@ import cs489.miu.dentalsurgeryapp.service.AppointmentService;
 @Controller("billController")
 public class BillController {
 
+    private static final List<CsvColumn<BillResponseDTO>> EXPORT_COLUMNS = List.of(
+            new CsvColumn<>("billId", BillResponseDTO::billId),
+            new CsvColumn<>("totalCost", BillResponseDTO::totalCost),
+            new CsvColumn<>("paymentStatus", BillResponseDTO::paymentStatus),
+            CsvColumn.nested("patientId", BillResponseDTO::patient, BillResponseDTO.PatientBasicInfoDTO::patientId),
+            CsvColumn.nested("patientFirstName", BillResponseDTO::patient, BillResponseDTO.PatientBasicInfoDTO::firstName),
+            CsvColumn.nested("patientLastName", BillResponseDTO::patient, BillResponseDTO.PatientBasicInfoDTO::lastName),
+            CsvColumn.nested("patientEmail", BillResponseDTO::patient, BillResponseDTO.PatientBasicInfoDTO::email),
+            CsvColumn.nested("appointmentId", BillResponseDTO::appointment, BillResponseDTO.AppointmentBasicInfoDTO::appointmentId),
+            CsvColumn.nested("appointmentType", BillResponseDTO::appointment, BillResponseDTO.AppointmentBasicInfoDTO::appointmentType),
+            CsvColumn.nested("appointmentStatus", BillResponseDTO::appointment, BillResponseDTO.AppointmentBasicInfoDTO::appointmentStatus),
+            CsvColumn.nested("appointmentDateTime", BillResponseDTO::appointment, BillResponseDTO.AppointmentBasicInfoDTO::appointmentDateTime)
+    );
+
     private final BillService billService;
     private final PatientService patientService;
     private final AppointmentService appointmentService;
+    private final StreamingExportService streamingExportService;
+    private final DashboardStatsService dashboardStatsService;
+    private final PaymentReconciliationService paymentReconciliationService;
 
     public BillController(BillService billService, 
                          PatientService patientService,
-                         AppointmentService appointmentService) {
+                         AppointmentService appointmentService,
+                         StreamingExportService streamingExportService,
+                         DashboardStatsService dashboardStatsService,
+                         PaymentReconciliationService paymentReconciliationService) {
         this.billService = billService;
         this.patientService = patientService;
         this.appointmentService = appointmentService;
+        this.streamingExportService = streamingExportService;
+        this.dashboardStatsService = dashboardStatsService;
+        this.paymentReconciliationService = paymentReconciliationService;
     }
 
     // ===================== MVC (Thymeleaf) endpoints =====================
 
     @GetMapping({"/secured/bill/", "/secured/bill/list"})
-    public String listBills(@RequestParam(required = false) String searchTerm, Model model) {
-        List<Bill> bills = billService.getAllBills().stream()
-            .map(dto -> {
-                Bill bill = new Bill();
-                bill.setBillId(dto.billId());
-                bill.setTotalCost(dto.totalCost());
-                bill.setPaymentStatus(dto.paymentStatus());
-                
-                Patient patient = new Patient();
-                patient.setPatientId(dto.patient().patientId());
-                patient.setFirstName(dto.patient().firstName());
-                patient.setLastName(dto.patient().lastName());
-                patient.setEmail(dto.patient().email());
-                bill.setPatient(patient);
-                
-                Appointment appointment = new Appointment();
-                appointment.setAppointmentId(dto.appointment().appointmentId());
-                appointment.setAppointmentType(dto.appointment().appointmentType());
-                appointment.setAppointmentStatus(dto.appointment().appointmentStatus());
-                appointment.setAppointmentDateTime(dto.appointment().appointmentDateTime());
-                bill.setAppointment(appointment);
-                
-                return bill;
-            })
-            .collect(Collectors.toList());
-        
-        // Filter by searchTerm if provided
-        if (searchTerm != null && !searchTerm.trim().isEmpty()) {
-            String searchLower = searchTerm.trim().toLowerCase();
-            bills = bills.stream()
-                .filter(b -> 
-                    (b.getPatient().getFirstName() != null && b.getPatient().getFirstName().toLowerCase().contains(searchLower)) ||
-                    (b.getPatient().getLastName() != null && b.getPatient().getLastName().toLowerCase().contains(searchLower)) ||
-                    (b.getPaymentStatus() != null && b.getPaymentStatus().toLowerCase().contains(searchLower))
-                )
-                .collect(Collectors.toList());
-        }
-        
-        model.addAttribute("bills", bills);
-        model.addAttribute("searchTerm", searchTerm);
+    public String listBills(Model model,
+                            @RequestParam(required = false) String patientName,
+                            @RequestParam(required = false) String status,
+                            @RequestParam(required = false) BigDecimal minAmount,
+                            @RequestParam(required = false) BigDecimal maxAmount,
+                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                            @RequestParam(defaultValue = "date") String sort,
+                            @RequestParam(defaultValue = "desc") String order,
+                            @RequestParam(required = false) String cursor,
+                            @RequestParam(defaultValue = "next") String dir,
+                            @RequestParam(defaultValue = "20") int size) {
+        // Filters, sort and the (sort key, id) seek run in the database and only the listed
+        // columns are selected, so a page costs the same however many bills there are.
+        BillFilterDTO filter = new BillFilterDTO(
+                patientName,
+                status,
+                minAmount,
+                maxAmount,
+                from != null ? from.atStartOfDay() : null,
+                to != null ? to.plusDays(1).atStartOfDay() : null);
+        BillSort billSort = BillSort.fromName(sort);
+        boolean ascending = "asc".equalsIgnoreCase(order);
+        KeysetPageDTO<BillListItemDTO> page = billService.findBillsPage(
+                filter, billSort, ascending, cursor, "prev".equalsIgnoreCase(dir), size);
+
+        model.addAttribute("bills", page.content());
+        model.addAttribute("page", page);
+        model.addAttribute("patientName", patientName);
+        model.addAttribute("status", status);
+        model.addAttribute("minAmount", minAmount);
+        model.addAttribute("maxAmount", maxAmount);
+        model.addAttribute("from", from);
+        model.addAttribute("to", to);
+        model.addAttribute("sort", billSort == BillSort.TOTAL_COST ? "amount" : "date");
+        model.addAttribute("order", ascending ? "asc" : "desc");
+        model.addAttribute("size", page.size());
+        model.addAttribute("paymentStatuses", PaymentStatus.values());
+        model.addAttribute("unpaidBills", dashboardStatsService.getStats().pendingBills());
         model.addAttribute("pageTitle", "Bill List");
         return "secured/bill/list";
     }
@@ -159,6 +196,13 @@ public class BillController {
         return ResponseEntity.ok(bills);
     }
 
+    /** Streams every row as NDJSON (default) or CSV: ?format=ndjson|csv */
+    @ResponseBody
+    @GetMapping("/dentalsugery/api/bills/export")
+    public ResponseEntity<StreamingResponseBody> exportBills(@RequestParam(required = false) String format) {
+        return streamingExportService.export(format, "bills", billService::streamAllBills, this::mapToDTO, EXPORT_COLUMNS);
+    }
+
     @GetMapping("/dentalsugery/api/bills/{id}")
     @ResponseBody
     public ResponseEntity<BillResponseDTO> getBillById(@PathVariable Integer id) {
@@ -190,6 +234,13 @@ public class BillController {
         return ResponseEntity.ok(outstandingBills);
     }
 
+    /** Total still owed and number of unpaid bills, from the balance ledger without loading the bills */
+    @GetMapping("/dentalsugery/api/bills/patient/{patientId}/outstanding/summary")
+    @ResponseBody
+    public ResponseEntity<PatientBalanceDTO> getOutstandingBalance(@PathVariable Integer patientId) {
+        return ResponseEntity.ok(billService.getOutstandingBalance(patientId));
+    }
+
     @GetMapping("/dentalsugery/api/bills/patient/{patientId}/has-outstanding")
     @ResponseBody
     public ResponseEntity<OutstandingBillCheckDTO> hasOutstandingBills(@PathVariable Integer patientId) {
@@ -209,6 +260,22 @@ public class BillController {
         }
     }
 
+    // A bank payment file as the raw CSV body; settles the bills it pays and reports the rows that settled none
+    @ResponseBody
+    @PostMapping(value = "/dentalsugery/api/bills/reconcile",
+                 consumes = {"text/csv", MediaType.TEXT_PLAIN_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<Object> reconcilePayments(HttpServletRequest request) {
+        try {
+            return ResponseEntity.ok(paymentReconciliationService.reconcile(request.getInputStream()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponseDTO("Bad Request", e.getMessage()));
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponseDTO("Bad Request", "Could not read the payment file: " + e.getMessage()));
+        }
+    }
+
     @PutMapping("/dentalsugery/api/bills/{id}")
     @ResponseBody
     public ResponseEntity<BillResponseDTO> updateBillApi(@PathVariable Integer id, @RequestBody BillRequestDTO billRequestDTO) {
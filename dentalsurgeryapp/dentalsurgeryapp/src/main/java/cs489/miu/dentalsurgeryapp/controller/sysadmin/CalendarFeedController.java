@@ -0,0 +1,66 @@
+package cs489.miu.dentalsurgeryapp.controller.sysadmin;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import cs489.miu.dentalsurgeryapp.dto.CalendarFeedDTO;
+import cs489.miu.dentalsurgeryapp.dto.ErrorResponseDTO;
+import cs489.miu.dentalsurgeryapp.service.CalendarFeedService;
+import cs489.miu.dentalsurgeryapp.service.CalendarFeedService.Owner;
+
+/**
+ * Subscribable appointment calendars
+ * - REST API under /dentalsugery/api/dentists/{id}/calendar.ics and
+ *   /dentalsugery/api/surgerylocations/{id}/calendar.ics
+ * - Conditional GET: a poll whose If-None-Match / If-Modified-Since still matches gets 304
+ *   straight from the in-memory validators
+ */
+@Controller("calendarFeedController")
+public class CalendarFeedController {
+
+    private static final MediaType TEXT_CALENDAR = new MediaType("text", "calendar", StandardCharsets.UTF_8);
+
+    private final CalendarFeedService calendarFeedService;
+
+    public CalendarFeedController(CalendarFeedService calendarFeedService) {
+        this.calendarFeedService = calendarFeedService;
+    }
+
+    @ResponseBody
+    @GetMapping("/dentalsugery/api/dentists/{id}/calendar.ics")
+    public ResponseEntity<Object> getDentistCalendar(@PathVariable Integer id, WebRequest webRequest) {
+        return calendar(Owner.DENTIST, id, webRequest, "Dentist not found with ID: ");
+    }
+
+    @ResponseBody
+    @GetMapping("/dentalsugery/api/surgerylocations/{id}/calendar.ics")
+    public ResponseEntity<Object> getSurgeryLocationCalendar(@PathVariable Integer id, WebRequest webRequest) {
+        return calendar(Owner.SURGERY_LOCATION, id, webRequest, "Surgery location not found with ID: ");
+    }
+
+    private ResponseEntity<Object> calendar(Owner owner, Integer id, WebRequest webRequest, String notFoundMessage) {
+        CalendarFeedDTO validators = calendarFeedService.getValidators(owner, id);
+        if (validators != null
+                && webRequest.checkNotModified(validators.eTag(), validators.lastModified().toEpochMilli())) {
+            return null; // 304 with the validators already written
+        }
+        Optional<CalendarFeedDTO> feed = calendarFeedService.getFeed(owner, id);
+        if (feed.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new ErrorResponseDTO("Not Found", notFoundMessage + id));
+        }
+        CalendarFeedDTO current = feed.get();
+        return ResponseEntity.ok()
+                .eTag(current.eTag())
+                .lastModified(current.lastModified())
+                .contentType(TEXT_CALENDAR)
+                .body(current.body());
+    }
+}
@@ -10,12 +10,15 @@ import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import cs489.miu.dentalsurgeryapp.dto.DentistResponseDTO;
 import cs489.miu.dentalsurgeryapp.dto.DeleteResponseDTO;
 import cs489.miu.dentalsurgeryapp.model.Dentist;
 import cs489.miu.dentalsurgeryapp.service.DentistService;
+import cs489.miu.dentalsurgeryapp.service.util.StreamingExportService;
+import cs489.miu.dentalsurgeryapp.service.util.StreamingExportService.CsvColumn;
 import jakarta.validation.Valid;
 import org.springframework.dao.DataIntegrityViolationException;
 
@@ -27,10 +30,21 @@ import org.springframework.dao.DataIntegrityViolationException;
 @Controller("dentistController")
 public class DentistController {
 
+    private static final List<CsvColumn<DentistResponseDTO>> EXPORT_COLUMNS = List.of(
+            new CsvColumn<>("dentistId", DentistResponseDTO::dentistId),
+            new CsvColumn<>("firstName", DentistResponseDTO::firstName),
+            new CsvColumn<>("lastName", DentistResponseDTO::lastName),
+            new CsvColumn<>("contactNumber", DentistResponseDTO::contactNumber),
+            new CsvColumn<>("email", DentistResponseDTO::email),
+            new CsvColumn<>("specialization", DentistResponseDTO::specialization)
+    );
+
     private final DentistService dentistService;
+    private final StreamingExportService streamingExportService;
 
-    public DentistController(DentistService dentistService) {
+    public DentistController(DentistService dentistService, StreamingExportService streamingExportService) {
         this.dentistService = dentistService;
+        this.streamingExportService = streamingExportService;
     }
 
     // ===================== MVC (Thymeleaf) endpoints =====================
@@ -181,6 +195,13 @@ public class DentistController {
         return ResponseEntity.ok(dentistDTOs);
     }
 
+    /** Streams every row as NDJSON (default) or CSV: ?format=ndjson|csv */
+    @ResponseBody
+    @GetMapping("/dentalsugery/api/dentists/export")
+    public ResponseEntity<StreamingResponseBody> exportDentists(@RequestParam(required = false) String format) {
+        return streamingExportService.export(format, "dentists", dentistService::streamAllDentists, this::mapToDTO, EXPORT_COLUMNS);
+    }
+
     @ResponseBody
     @GetMapping("/dentalsugery/api/dentists/{id}")
     public ResponseEntity<DentistResponseDTO> getDentistByIdApi(@PathVariable Integer id) {
@@ -8,6 +8,7 @@ import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import cs489.miu.dentalsurgeryapp.dto.AddressRequestDTO;
@@ -19,6 +20,8 @@ import cs489.miu.dentalsurgeryapp.exception.PatientNotFoundException;
 import cs489.miu.dentalsurgeryapp.model.Address;
 import cs489.miu.dentalsurgeryapp.model.Patient;
 import cs489.miu.dentalsurgeryapp.service.PatientService;
+import cs489.miu.dentalsurgeryapp.service.util.StreamingExportService;
+import cs489.miu.dentalsurgeryapp.service.util.StreamingExportService.CsvColumn;
 
 import jakarta.validation.Valid;
 
@@ -30,10 +33,25 @@ import jakarta.validation.Valid;
 @Controller("patientController")
 public class PatientController {
 
+    private static final List<CsvColumn<PatientResponseDTO>> EXPORT_COLUMNS = List.of(
+            new CsvColumn<>("patientId", PatientResponseDTO::patientId),
+            new CsvColumn<>("firstName", PatientResponseDTO::firstName),
+            new CsvColumn<>("lastName", PatientResponseDTO::lastName),
+            new CsvColumn<>("contactNumber", PatientResponseDTO::contactNumber),
+            new CsvColumn<>("email", PatientResponseDTO::email),
+            new CsvColumn<>("dob", PatientResponseDTO::dob),
+            CsvColumn.nested("street", PatientResponseDTO::addressResponseDTO, AddressResponseDTO::street),
+            CsvColumn.nested("city", PatientResponseDTO::addressResponseDTO, AddressResponseDTO::city),
+            CsvColumn.nested("state", PatientResponseDTO::addressResponseDTO, AddressResponseDTO::state),
+            CsvColumn.nested("zipcode", PatientResponseDTO::addressResponseDTO, AddressResponseDTO::zipcode)
+    );
+
     private final PatientService patientService;
+    private final StreamingExportService streamingExportService;
 
-    public PatientController(PatientService patientService) {
+    public PatientController(PatientService patientService, StreamingExportService streamingExportService) {
         this.patientService = patientService;
+        this.streamingExportService = streamingExportService;
     }
 
     // ===================== MVC (Thymeleaf) endpoints =====================
@@ -207,6 +225,13 @@ public class PatientController {
         return ResponseEntity.ok(patientService.getAllPatients());
     }
 
+    /** Streams every row as NDJSON (default) or CSV: ?format=ndjson|csv */
+    @ResponseBody
+    @GetMapping("/dentalsugery/api/patients/export")
+    public ResponseEntity<StreamingResponseBody> exportPatients(@RequestParam(required = false) String format) {
+        return streamingExportService.export(format, "patients", patientService::streamAllPatients, this::mapToDTO, EXPORT_COLUMNS);
+    }
+
     @ResponseBody
     @PostMapping("/dentalsugery/api/patients")
     public ResponseEntity<PatientResponseDTO> apiCreatePatient(@RequestBody PatientRequestDTO patientRequestDTO) {
@@ -0,0 +1,83 @@
+package cs489.miu.dentalsurgeryapp.controller.sysadmin;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+
+import cs489.miu.dentalsurgeryapp.dto.ErrorResponseDTO;
+import cs489.miu.dentalsurgeryapp.service.BillRollupService;
+import cs489.miu.dentalsurgeryapp.service.BillRollupService.Grouping;
+
+/**
+ * Finance reports, answered from the billing rollups
+ * - REST API under /dentalsugery/api/reports
+ * Dates are appointment dates: a bill ages, and counts as revenue, from its appointment.
+ */
+@Controller("reportController")
+public class ReportController {
+
+    private static final int DEFAULT_REVENUE_MONTHS = 12;
+
+    private final BillRollupService billRollupService;
+
+    public ReportController(BillRollupService billRollupService) {
+        this.billRollupService = billRollupService;
+    }
+
+    // asOf: yyyy-MM-dd, today when omitted
+    @ResponseBody
+    @GetMapping("/dentalsugery/api/reports/ar-aging")
+    public ResponseEntity<Object> getArAging(@RequestParam(required = false) String asOf,
+                                             @RequestParam(required = false) Integer dentistId,
+                                             @RequestParam(required = false) Integer locationId) {
+        LocalDate date;
+        try {
+            date = asOf == null || asOf.isBlank() ? LocalDate.now() : LocalDate.parse(asOf.trim());
+        } catch (DateTimeParseException e) {
+            return badRequest("asOf must be a date (yyyy-MM-dd): " + asOf);
+        }
+        return ResponseEntity.ok(billRollupService.getAging(date, dentistId, locationId));
+    }
+
+    // from/to: yyyy-MM, both inclusive; the last 12 months up to the current one when omitted
+    @ResponseBody
+    @GetMapping("/dentalsugery/api/reports/revenue")
+    public ResponseEntity<Object> getMonthlyRevenue(@RequestParam(defaultValue = "dentist") String by,
+                                                    @RequestParam(required = false) String from,
+                                                    @RequestParam(required = false) String to) {
+        Grouping grouping;
+        try {
+            grouping = Grouping.valueOf(by.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return badRequest("by must be dentist or location: " + by);
+        }
+        YearMonth last;
+        YearMonth first;
+        try {
+            last = to == null || to.isBlank() ? YearMonth.now() : YearMonth.parse(to.trim());
+            first = from == null || from.isBlank() ? last.minusMonths(DEFAULT_REVENUE_MONTHS - 1L) : YearMonth.parse(from.trim());
+        } catch (DateTimeParseException e) {
+            return badRequest("from and to must be months (yyyy-MM)");
+        }
+        if (first.isAfter(last)) {
+            return badRequest("from must not be after to");
+        }
+        return ResponseEntity.ok(billRollupService.getMonthlyRevenue(first, last, grouping));
+    }
+
+    @ResponseBody
+    @PostMapping("/dentalsugery/api/reports/rebuild")
+    public ResponseEntity<Object> rebuildRollups() {
+        return ResponseEntity.ok(billRollupService.rebuild());
+    }
+
+    private static ResponseEntity<Object> badRequest(String message) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ErrorResponseDTO("Bad Request", message));
+    }
+}
@@ -0,0 +1,62 @@
+package cs489.miu.dentalsurgeryapp.controller.sysadmin;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+
+import cs489.miu.dentalsurgeryapp.dto.ErrorResponseDTO;
+import cs489.miu.dentalsurgeryapp.dto.StatementRunDTO;
+import cs489.miu.dentalsurgeryapp.service.PatientStatementService;
+
+/**
+ * Monthly patient statements
+ * - REST API under /dentalsugery/api/statements
+ * A run writes files on the server and is followed through its progress.
+ */
+@Controller("statementController")
+public class StatementController {
+
+    private final PatientStatementService patientStatementService;
+
+    public StatementController(PatientStatementService patientStatementService) {
+        this.patientStatementService = patientStatementService;
+    }
+
+    // month: yyyy-MM, last month when omitted; fresh=true discards the month's checkpoints
+    @ResponseBody
+    @PostMapping("/dentalsugery/api/statements")
+    public ResponseEntity<Object> startStatements(@RequestParam(required = false) String month,
+                                                  @RequestParam(defaultValue = "false") boolean fresh) {
+        YearMonth statementMonth;
+        try {
+            statementMonth = month == null || month.isBlank() ? YearMonth.now().minusMonths(1) : YearMonth.parse(month.trim());
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponseDTO("Bad Request", "month must be a month (yyyy-MM): " + month));
+        }
+        if (statementMonth.isAfter(YearMonth.now())) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponseDTO("Bad Request", "month must not be in the future: " + statementMonth));
+        }
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(patientStatementService.start(statementMonth, fresh));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ErrorResponseDTO("Run In Progress", e.getMessage()));
+        }
+    }
+
+    @ResponseBody
+    @GetMapping("/dentalsugery/api/statements/progress")
+    public ResponseEntity<StatementRunDTO> getStatementProgress() {
+        StatementRunDTO run = patientStatementService.getProgress();
+        if (run == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(run);
+    }
+}
@@ -9,6 +9,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import cs489.miu.dentalsurgeryapp.dto.SurgeryLocationResponseDTO;
@@ -16,6 +17,8 @@ import cs489.miu.dentalsurgeryapp.dto.AddressResponseDTO;
 import cs489.miu.dentalsurgeryapp.dto.DeleteResponseDTO;
 import cs489.miu.dentalsurgeryapp.model.SurgeryLocation;
 import cs489.miu.dentalsurgeryapp.service.SurgeryLocationService;
+import cs489.miu.dentalsurgeryapp.service.util.StreamingExportService;
+import cs489.miu.dentalsurgeryapp.service.util.StreamingExportService.CsvColumn;
 
 /**
  * Unified Surgery Location Controller
@@ -25,10 +28,22 @@ import cs489.miu.dentalsurgeryapp.service.SurgeryLocationService;
 @Controller("surgeryLocationController")
 public class SurgeryLocationController {
 
+    private static final List<CsvColumn<SurgeryLocationResponseDTO>> EXPORT_COLUMNS = List.of(
+            new CsvColumn<>("surgeryLocationId", SurgeryLocationResponseDTO::surgeryLocationId),
+            new CsvColumn<>("name", SurgeryLocationResponseDTO::name),
+            new CsvColumn<>("contactNumber", SurgeryLocationResponseDTO::contactNumber),
+            CsvColumn.nested("street", SurgeryLocationResponseDTO::location, AddressResponseDTO::street),
+            CsvColumn.nested("city", SurgeryLocationResponseDTO::location, AddressResponseDTO::city),
+            CsvColumn.nested("state", SurgeryLocationResponseDTO::location, AddressResponseDTO::state),
+            CsvColumn.nested("zipcode", SurgeryLocationResponseDTO::location, AddressResponseDTO::zipcode)
+    );
+
     private final SurgeryLocationService surgeryLocationService;
+    private final StreamingExportService streamingExportService;
 
-    public SurgeryLocationController(SurgeryLocationService surgeryLocationService) {
+    public SurgeryLocationController(SurgeryLocationService surgeryLocationService, StreamingExportService streamingExportService) {
         this.surgeryLocationService = surgeryLocationService;
+        this.streamingExportService = streamingExportService;
     }
 
     // ===================== MVC (Thymeleaf) endpoints =====================
@@ -161,6 +176,13 @@ public class SurgeryLocationController {
         return ResponseEntity.ok(surgeryLocationDTOs);
     }
 
+    /** Streams every row as NDJSON (default) or CSV: ?format=ndjson|csv */
+    @ResponseBody
+    @GetMapping("/dentalsugery/api/surgerylocations/export")
+    public ResponseEntity<StreamingResponseBody> exportSurgeryLocations(@RequestParam(required = false) String format) {
+        return streamingExportService.export(format, "surgery-locations", surgeryLocationService::streamAllSurgeryLocations, this::mapToDTO, EXPORT_COLUMNS);
+    }
+
     @ResponseBody
     @GetMapping("/dentalsugery/api/surgerylocations/ordered")
     public ResponseEntity<List<SurgeryLocationResponseDTO>> getAllSurgeryLocationsOrderedByName() {
@@ -0,0 +1,118 @@
+package cs489.miu.dentalsurgeryapp.controller.sysadmin;
+
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+
+import cs489.miu.dentalsurgeryapp.dto.DeleteResponseDTO;
+import cs489.miu.dentalsurgeryapp.dto.ErrorResponseDTO;
+import cs489.miu.dentalsurgeryapp.dto.WaitlistEntryResponseDTO;
+import cs489.miu.dentalsurgeryapp.dto.WaitlistRequestDTO;
+import cs489.miu.dentalsurgeryapp.exception.PatientNotFoundException;
+import cs489.miu.dentalsurgeryapp.model.WaitlistEntry;
+import cs489.miu.dentalsurgeryapp.service.DentistService;
+import cs489.miu.dentalsurgeryapp.service.PatientService;
+import cs489.miu.dentalsurgeryapp.service.SurgeryLocationService;
+import cs489.miu.dentalsurgeryapp.service.WaitlistService;
+
+/**
+ * Cancellation waitlist
+ * - REST API under /dentalsugery/api/waitlist
+ */
+@Controller("waitlistController")
+public class WaitlistController {
+
+    private final WaitlistService waitlistService;
+    private final PatientService patientService;
+    private final DentistService dentistService;
+    private final SurgeryLocationService surgeryLocationService;
+
+    public WaitlistController(WaitlistService waitlistService,
+                              PatientService patientService,
+                              DentistService dentistService,
+                              SurgeryLocationService surgeryLocationService) {
+        this.waitlistService = waitlistService;
+        this.patientService = patientService;
+        this.dentistService = dentistService;
+        this.surgeryLocationService = surgeryLocationService;
+    }
+
+    @ResponseBody
+    @PostMapping("/dentalsugery/api/waitlist")
+    public ResponseEntity<Object> joinWaitlist(@RequestBody WaitlistRequestDTO request) {
+        if (request.patientId() == null || request.dentistId() == null || request.earliest() == null
+                || request.latest() == null || request.appointmentType() == null || request.appointmentType().isBlank()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponseDTO("Invalid Request", "patientId, dentistId, earliest, latest and appointmentType are required."));
+        }
+        try {
+            patientService.getPatientById(request.patientId());
+        } catch (PatientNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new ErrorResponseDTO("Not Found", e.getMessage()));
+        }
+        if (dentistService.findDentistById(request.dentistId()).isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new ErrorResponseDTO("Not Found", "Dentist not found with ID: " + request.dentistId()));
+        }
+        if (request.surgeryLocationId() != null && surgeryLocationService.findSurgeryLocationById(request.surgeryLocationId()).isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new ErrorResponseDTO("Not Found", "Surgery location not found with ID: " + request.surgeryLocationId()));
+        }
+        WaitlistEntry entry = new WaitlistEntry();
+        entry.setPatientId(request.patientId());
+        entry.setDentistId(request.dentistId());
+        entry.setSurgeryLocationId(request.surgeryLocationId());
+        entry.setEarliest(request.earliest());
+        entry.setLatest(request.latest());
+        entry.setAppointmentType(request.appointmentType().trim());
+        try {
+            WaitlistEntry saved = waitlistService.join(entry);
+            return ResponseEntity.status(HttpStatus.CREATED).body(mapToDTO(saved));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponseDTO("Invalid Request", e.getMessage()));
+        }
+    }
+
+    @ResponseBody
+    @GetMapping("/dentalsugery/api/waitlist/{id}")
+    public ResponseEntity<WaitlistEntryResponseDTO> getWaitlistEntry(@PathVariable Integer id) {
+        return waitlistService.findById(id)
+                .map(entry -> ResponseEntity.ok(mapToDTO(entry)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @ResponseBody
+    @GetMapping("/dentalsugery/api/waitlist/patient/{patientId}")
+    public ResponseEntity<List<WaitlistEntryResponseDTO>> getWaitlistForPatient(@PathVariable Integer patientId) {
+        return ResponseEntity.ok(waitlistService.findForPatient(patientId).stream().map(this::mapToDTO).toList());
+    }
+
+    @ResponseBody
+    @DeleteMapping("/dentalsugery/api/waitlist/{id}")
+    public ResponseEntity<DeleteResponseDTO> withdrawFromWaitlist(@PathVariable Integer id) {
+        if (waitlistService.withdraw(id)) {
+            return ResponseEntity.ok(new DeleteResponseDTO(true, "Waitlist entry withdrawn successfully"));
+        }
+        return ResponseEntity.ok(new DeleteResponseDTO(false, "Waitlist entry not found or no longer waiting"));
+    }
+
+    private WaitlistEntryResponseDTO mapToDTO(WaitlistEntry entry) {
+        return new WaitlistEntryResponseDTO(
+                entry.getWaitlistEntryId(),
+                entry.getPatientId(),
+                entry.getDentistId(),
+                entry.getSurgeryLocationId(),
+                entry.getEarliest(),
+                entry.getLatest(),
+                entry.getAppointmentType(),
+                entry.getStatus() != null ? entry.getStatus().name() : null,
+                entry.getCreatedAt(),
+                entry.getOfferedAppointmentId()
+        );
+    }
+}
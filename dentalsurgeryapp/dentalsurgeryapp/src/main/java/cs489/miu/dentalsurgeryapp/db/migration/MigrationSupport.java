@@ -0,0 +1,68 @@
+package cs489.miu.dentalsurgeryapp.db.migration;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Locale;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Schema lookups and id generator seeding shared by the Java migrations. The lookups go
+ * through JDBC metadata so the same migration runs on MySQL and on H2 in MySQL mode.
+ */
+final class MigrationSupport {
+
+    private MigrationSupport() {
+    }
+
+    // Start a table's pooled id generator past the ids already in use, unless it has a row already
+    static void seedGenerator(JdbcTemplate jdbcTemplate, String table, String idColumn) {
+        Integer rows = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM id_generators WHERE sequence_name = ?", Integer.class, table);
+        if (rows == null || rows == 0) {
+            jdbcTemplate.update("INSERT INTO id_generators (sequence_name, next_val)"
+                + " SELECT ?, COALESCE(MAX(" + idColumn + "), 0) + 1 FROM " + table, table);
+        }
+    }
+
+    // MySQL keeps the declared case, H2 folds unquoted names to upper case
+    static String tableName(DatabaseMetaData metaData, String table) throws SQLException {
+        for (String candidate : new String[] {table, table.toUpperCase(Locale.ROOT)}) {
+            try (ResultSet tables = metaData.getTables(metaData.getConnection().getCatalog(), null, candidate, null)) {
+                if (tables.next()) {
+                    return tables.getString("TABLE_NAME");
+                }
+            }
+        }
+        return null;
+    }
+
+    // java.sql.Types code of a column, or null when the table or column does not exist
+    static Integer columnType(DatabaseMetaData metaData, String table, String column) throws SQLException {
+        String name = tableName(metaData, table);
+        if (name == null) {
+            return null;
+        }
+        try (ResultSet columns = metaData.getColumns(metaData.getConnection().getCatalog(), null, name, null)) {
+            while (columns.next()) {
+                if (column.equalsIgnoreCase(columns.getString("COLUMN_NAME"))) {
+                    return columns.getInt("DATA_TYPE");
+                }
+            }
+        }
+        return null;
+    }
+
+    static boolean hasIndex(DatabaseMetaData metaData, String table, String index) throws SQLException {
+        String name = tableName(metaData, table);
+        try (ResultSet indexes = metaData.getIndexInfo(metaData.getConnection().getCatalog(), null, name, false, false)) {
+            while (indexes.next()) {
+                if (index.equalsIgnoreCase(indexes.getString("INDEX_NAME"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
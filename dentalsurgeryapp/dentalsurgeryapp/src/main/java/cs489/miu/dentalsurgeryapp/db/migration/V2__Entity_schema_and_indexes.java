@@ -0,0 +1,134 @@
+package cs489.miu.dentalsurgeryapp.db.migration;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.Locale;
+import java.util.StringJoiner;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+/**
+ * Brings the V1 dump schema up to what the entities map. Databases that ran with
+ * ddl-auto=update already have part of this (id_generators, dentist_week_slots, some
+ * indexes), so every step checks the catalog first instead of failing on a duplicate:
+ * <ul>
+ *   <li>id_generators and dentist_week_slots, with the generators moved past existing ids</li>
+ *   <li>appointments.appointmentStatus and bills.payment_status rewritten from free text
+ *       ("CHECKOUT", "Confirmed", "Paid") to their TINYINT codes; a value that is not a known
+ *       status stops the migration with the values listed</li>
+ *   <li>indexes for the repository hot paths</li>
+ * </ul>
+ * Status codes are spelled out here rather than read from the enums so this migration
+ * keeps producing the same schema whatever the enums become later.
+ */
+public class V2__Entity_schema_and_indexes extends BaseJavaMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(V2__Entity_schema_and_indexes.class);
+
+    // stored text (upper case, '_' for spaces and dashes), code
+    private static final String[][] APPOINTMENT_STATUS_CODES = {
+        {"PENDING", "1"}, {"SCHEDULED", "2"}, {"CONFIRMED", "3"}, {"CHECKIN", "4"}, {"CHECKED_IN", "4"},
+        {"IN_PROGRESS", "5"}, {"CHECKOUT", "6"}, {"CHECKED_OUT", "6"}, {"COMPLETED", "7"},
+        {"CANCELLED", "8"}, {"NO_SHOW", "9"}
+    };
+
+    private static final String[][] PAYMENT_STATUS_CODES = {
+        {"PENDING", "1"}, {"PAID", "2"}, {"OVERDUE", "3"}, {"CANCELLED", "4"}
+    };
+
+    // index name, table, columns
+    private static final String[][] INDEXES = {
+        // keyset pagination of the admin list
+        {"idx_appointments_datetime_id", "appointments", "appointmentDateTime, appointment_id"},
+        // dentist/patient calendars, weekly capacity checks and portal "upcoming" counts
+        {"idx_appointments_dentist_datetime", "appointments", "dentist_id, appointmentDateTime"},
+        {"idx_appointments_patient_datetime", "appointments", "patient_id, appointmentDateTime"},
+        // portal status filters and per-status counts
+        {"idx_appointments_dentist_status", "appointments", "dentist_id, appointmentStatus"},
+        {"idx_appointments_patient_status", "appointments", "patient_id, appointmentStatus"},
+        // unpaid bills per patient
+        {"idx_bills_patient_status", "bills", "patient_id, payment_status"},
+        // login and registration lookups by email
+        {"idx_patients_email", "patients", "email"},
+        // findOrCreate of an address by its full value
+        {"idx_addresses_full", "addresses", "street, city, state, zipcode"}
+    };
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+        DatabaseMetaData metaData = connection.getMetaData();
+        boolean mySql = metaData.getDatabaseProductName().toLowerCase(Locale.ROOT).contains("mysql");
+
+        if (MigrationSupport.tableName(metaData, "id_generators") == null) {
+            jdbcTemplate.execute("CREATE TABLE id_generators ("
+                + " sequence_name varchar(255) NOT NULL,"
+                + " next_val bigint DEFAULT NULL,"
+                + " PRIMARY KEY (sequence_name)"
+                + ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4");
+        }
+        MigrationSupport.seedGenerator(jdbcTemplate, "appointments", "appointment_id");
+        MigrationSupport.seedGenerator(jdbcTemplate, "bills", "bill_id");
+        MigrationSupport.seedGenerator(jdbcTemplate, "patients", "patient_id");
+
+        if (MigrationSupport.tableName(metaData, "dentist_week_slots") == null) {
+            jdbcTemplate.execute("CREATE TABLE dentist_week_slots ("
+                + " slot_id int NOT NULL AUTO_INCREMENT,"
+                + " dentist_id int NOT NULL,"
+                + " weekStart date NOT NULL,"
+                + " slotNumber int NOT NULL,"
+                + " appointment_id int NOT NULL,"
+                + " PRIMARY KEY (slot_id),"
+                + " CONSTRAINT uk_dentist_week_slot UNIQUE (dentist_id, weekStart, slotNumber),"
+                + " CONSTRAINT uk_dentist_week_slot_appointment UNIQUE (appointment_id)"
+                + ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4");
+        }
+
+        convertStatusColumn(jdbcTemplate, metaData, mySql, "appointments", "appointmentStatus", APPOINTMENT_STATUS_CODES);
+        convertStatusColumn(jdbcTemplate, metaData, mySql, "bills", "payment_status", PAYMENT_STATUS_CODES);
+
+        for (String[] index : INDEXES) {
+            if (!MigrationSupport.hasIndex(metaData, index[1], index[0])) {
+                jdbcTemplate.execute("CREATE INDEX " + index[0] + " ON " + index[1] + " (" + index[2] + ")");
+                log.info("Created index {} on {} ({})", index[0], index[1], index[2]);
+            }
+        }
+    }
+
+    private static void convertStatusColumn(JdbcTemplate jdbcTemplate, DatabaseMetaData metaData, boolean mySql,
+                                            String table, String column, String[][] codes) throws SQLException {
+        Integer type = MigrationSupport.columnType(metaData, table, column);
+        if (type == null || !(type == Types.VARCHAR || type == Types.CHAR || type == Types.LONGVARCHAR
+                || type == Types.NVARCHAR || type == Types.NCHAR)) {
+            return;
+        }
+        String normalized = "UPPER(REPLACE(REPLACE(TRIM(" + column + "), ' ', '_'), '-', '_'))";
+        StringJoiner known = new StringJoiner(", ");
+        StringBuilder cases = new StringBuilder();
+        for (String[] code : codes) {
+            known.add("'" + code[0] + "'");
+            cases.append(" WHEN '").append(code[0]).append("' THEN '").append(code[1]).append("'");
+        }
+        // No status is guessed for an unknown, empty or missing value: those rows need a decision first
+        List<String> unknown = jdbcTemplate.queryForList("SELECT DISTINCT " + column + " FROM " + table
+            + " WHERE " + column + " IS NULL OR " + normalized + " NOT IN (" + known + ")", String.class);
+        if (!unknown.isEmpty()) {
+            throw new IllegalStateException("Cannot convert " + table + "." + column + " to status codes: it has values "
+                + unknown + " that are not a known status; correct those rows and restart");
+        }
+        int rows = jdbcTemplate.update("UPDATE " + table + " SET " + column + " = CASE " + normalized + cases + " END");
+        jdbcTemplate.execute(mySql
+            ? "ALTER TABLE " + table + " MODIFY " + column + " TINYINT NOT NULL"
+            : "ALTER TABLE " + table + " ALTER COLUMN " + column + " TINYINT NOT NULL");
+        log.info("Converted {}.{} to TINYINT status codes ({} rows)", table, column, rows);
+    }
+}
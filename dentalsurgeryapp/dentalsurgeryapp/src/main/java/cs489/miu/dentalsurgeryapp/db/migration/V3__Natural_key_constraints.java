@@ -0,0 +1,122 @@
+package cs489.miu.dentalsurgeryapp.db.migration;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+/**
+ * Unique constraints on the natural keys the findOrCreate paths upsert against
+ * (NaturalKeyUpsertImpl), which until now were only enforced by a lookup before the insert:
+ * <ul>
+ *   <li>addresses (street, city, state, zipcode): duplicates are merged into the lowest id,
+ *       since an address row carries nothing but its key</li>
+ *   <li>patients (email), dentists (email) and appointments (dentist_id, appointmentDateTime,
+ *       patient_id, surgerylocation): duplicates stop the migration, as picking a survivor
+ *       means choosing whose bills and logins win</li>
+ * </ul>
+ * Blank emails are set to NULL first, as the services already treat them as "no email".
+ * The constraints replace idx_addresses_full, idx_patients_email and
+ * idx_appointments_dentist_datetime, whose columns they lead with. Dentists and addresses
+ * also move to the pooled id_generators table, so their generators start past existing ids.
+ */
+public class V3__Natural_key_constraints extends BaseJavaMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(V3__Natural_key_constraints.class);
+
+    // constraint name, table, columns, index it replaces (or null)
+    private static final String[][] CONSTRAINTS = {
+        {"uk_addresses_full", "addresses", "street, city, state, zipcode", "idx_addresses_full"},
+        {"uk_patients_email", "patients", "email", "idx_patients_email"},
+        {"uk_dentists_email", "dentists", "email", null},
+        {"uk_appointments_booking", "appointments", "dentist_id, appointmentDateTime, patient_id, surgerylocation",
+            "idx_appointments_dentist_datetime"}
+    };
+
+    // Columns pointing at addresses.address_id
+    private static final Map<String, String> ADDRESS_REFERENCES = Map.of(
+        "patients", "billing_address_id",
+        "surgerylocations", "address_id");
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+        DatabaseMetaData metaData = connection.getMetaData();
+        boolean mySql = metaData.getDatabaseProductName().toLowerCase(Locale.ROOT).contains("mysql");
+
+        MigrationSupport.seedGenerator(jdbcTemplate, "addresses", "address_id");
+        MigrationSupport.seedGenerator(jdbcTemplate, "dentists", "dentist_id");
+
+        mergeDuplicateAddresses(jdbcTemplate, metaData);
+        // A blank email means none (the services skip deduplication for it), so it must not collide either
+        for (String table : new String[] {"patients", "dentists"}) {
+            int blanks = jdbcTemplate.update("UPDATE " + table + " SET email = NULL WHERE TRIM(email) = ''");
+            if (blanks > 0) {
+                log.info("Cleared {} blank emails in {}", blanks, table);
+            }
+        }
+
+        for (String[] constraint : CONSTRAINTS) {
+            if (MigrationSupport.hasIndex(metaData, constraint[1], constraint[0])) {
+                continue;
+            }
+            // Rows with a NULL key part never collide, both databases allow any number of them
+            String notNull = String.join(" IS NOT NULL AND ", constraint[2].split(", ")) + " IS NOT NULL";
+            // H2's CONCAT_WS wants two values at least
+            String shown = constraint[2].contains(",") ? "CONCAT_WS(', ', " + constraint[2] + ")" : constraint[2];
+            List<String> duplicates = jdbcTemplate.queryForList("SELECT " + shown
+                + " FROM " + constraint[1] + " WHERE " + notNull
+                + " GROUP BY " + constraint[2] + " HAVING COUNT(*) > 1", String.class);
+            if (!duplicates.isEmpty()) {
+                throw new IllegalStateException("Cannot add " + constraint[0] + ": " + constraint[1]
+                    + " has duplicate (" + constraint[2] + ") values " + duplicates
+                    + "; merge or correct those rows and restart");
+            }
+            jdbcTemplate.execute("ALTER TABLE " + constraint[1] + " ADD CONSTRAINT " + constraint[0]
+                + " UNIQUE (" + constraint[2] + ")");
+            log.info("Added unique constraint {} on {} ({})", constraint[0], constraint[1], constraint[2]);
+            if (constraint[3] != null && MigrationSupport.hasIndex(metaData, constraint[1], constraint[3])) {
+                jdbcTemplate.execute(mySql
+                    ? "DROP INDEX " + constraint[3] + " ON " + constraint[1]
+                    : "DROP INDEX " + constraint[3]);
+                log.info("Dropped index {}, covered by {}", constraint[3], constraint[0]);
+            }
+        }
+    }
+
+    private static void mergeDuplicateAddresses(JdbcTemplate jdbcTemplate, DatabaseMetaData metaData) throws SQLException {
+        // Every duplicate id with the lowest id of its group, which survives
+        List<Map<String, Object>> losers = jdbcTemplate.queryForList("SELECT d.address_id AS loser, k.keeper"
+            + " FROM addresses d JOIN (SELECT street, city, state, zipcode, MIN(address_id) AS keeper"
+            + " FROM addresses GROUP BY street, city, state, zipcode HAVING COUNT(*) > 1) k"
+            + " ON d.street = k.street AND d.city = k.city AND d.state = k.state AND d.zipcode = k.zipcode"
+            + " WHERE d.address_id <> k.keeper");
+        if (losers.isEmpty()) {
+            return;
+        }
+        for (Map<String, Object> row : losers) {
+            Object loser = row.get("loser");
+            Object keeper = row.get("keeper");
+            for (Map.Entry<String, String> reference : ADDRESS_REFERENCES.entrySet()) {
+                jdbcTemplate.update("UPDATE " + reference.getKey() + " SET " + reference.getValue() + " = ?"
+                    + " WHERE " + reference.getValue() + " = ?", keeper, loser);
+            }
+            // Unmapped legacy column from the dump, still under a foreign key
+            if (MigrationSupport.columnType(metaData, "surgerylocations", "addressId") != null) {
+                jdbcTemplate.update("UPDATE surgerylocations SET addressId = ? WHERE addressId = ?", keeper, loser);
+            }
+            jdbcTemplate.update("DELETE FROM addresses WHERE address_id = ?", loser);
+        }
+        log.info("Merged {} duplicate addresses into their lowest id", losers.size());
+    }
+}
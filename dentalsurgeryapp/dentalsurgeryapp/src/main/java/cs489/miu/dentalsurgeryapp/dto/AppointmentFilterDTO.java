@@ -0,0 +1,21 @@
+package cs489.miu.dentalsurgeryapp.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filters for the admin appointment list. Every field is optional; a null field
+ * means "no restriction" and is pushed down into the repository query as-is.
+ */
+public record AppointmentFilterDTO(
+    Integer patientId,
+    String patientName,
+    Integer dentistId,
+    String appointmentType,
+    String appointmentStatus,
+    LocalDateTime from,
+    LocalDateTime to
+) {
+    public static AppointmentFilterDTO none() {
+        return new AppointmentFilterDTO(null, null, null, null, null, null, null);
+    }
+}
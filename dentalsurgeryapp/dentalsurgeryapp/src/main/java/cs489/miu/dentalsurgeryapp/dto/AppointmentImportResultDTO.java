@@ -0,0 +1,27 @@
+package cs489.miu.dentalsurgeryapp.dto;
+
+import java.util.List;
+
+public record AppointmentImportResultDTO(
+    int received,
+    int created,
+    int duplicates,
+    int rejected,
+    List<RowResult> rows
+) {
+
+    public enum Outcome {
+        CREATED,
+        DUPLICATE,
+        REJECTED
+    }
+
+    // Outcome of one input row; row numbers start at 1
+    public record RowResult(
+        int row,
+        Outcome outcome,
+        Integer appointmentId,
+        String message
+    ) {
+    }
+}
@@ -0,0 +1,16 @@
+package cs489.miu.dentalsurgeryapp.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * One appointment in a bulk import. Status defaults to PENDING when omitted.
+ */
+public record AppointmentImportRowDTO(
+    Integer patientId,
+    Integer dentistId,
+    Integer surgeryLocationId,
+    LocalDateTime appointmentDateTime,
+    String appointmentType,
+    String appointmentStatus
+) {
+}
@@ -0,0 +1,21 @@
+package cs489.miu.dentalsurgeryapp.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Natural key of an appointment (patient, dentist, location, time) with its id.
+ * Lets duplicate checks run against ids instead of loaded entities.
+ */
+public record AppointmentKeyDTO(
+    Integer appointmentId,
+    Integer patientId,
+    Integer dentistId,
+    Integer surgeryLocationId,
+    LocalDateTime appointmentDateTime
+) {
+
+    // Same key without the id, for lookups
+    public AppointmentKeyDTO withoutId() {
+        return new AppointmentKeyDTO(null, patientId, dentistId, surgeryLocationId, appointmentDateTime);
+    }
+}
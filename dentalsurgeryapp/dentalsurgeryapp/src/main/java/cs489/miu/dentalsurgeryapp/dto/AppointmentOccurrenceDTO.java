@@ -0,0 +1,24 @@
+package cs489.miu.dentalsurgeryapp.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * One entry of a merged appointment list: a stored appointment, or a virtual occurrence of
+ * a series that has not been expanded yet (appointmentId null, seriesId and occurrence set).
+ * occurrence numbers start at 1.
+ */
+public record AppointmentOccurrenceDTO(
+    Integer appointmentId,
+    Integer seriesId,
+    Integer occurrence,
+    LocalDateTime appointmentDateTime,
+    String appointmentType,
+    String appointmentStatus,
+    Integer patientId,
+    String patientName,
+    Integer dentistId,
+    String dentistName,
+    Integer surgeryLocationId,
+    boolean virtual
+) {
+}
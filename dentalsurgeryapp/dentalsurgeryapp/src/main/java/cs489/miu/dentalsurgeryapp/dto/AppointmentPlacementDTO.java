@@ -0,0 +1,14 @@
+package cs489.miu.dentalsurgeryapp.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Minimal projection of an appointment: which dentist it occupies and when.
+ * Used to (re)build in-memory indexes without loading full entities.
+ */
+public record AppointmentPlacementDTO(
+    Integer appointmentId,
+    Integer dentistId,
+    LocalDateTime appointmentDateTime
+) {
+}
@@ -0,0 +1,21 @@
+package cs489.miu.dentalsurgeryapp.dto;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * One reminder handed to a ReminderNotifier: the appointment as it stands when the reminder
+ * fires, and how far ahead of it the reminder was scheduled (24h, 2h, ...).
+ */
+public record AppointmentReminderDTO(
+    Integer appointmentId,
+    Duration leadTime,
+    LocalDateTime appointmentDateTime,
+    String appointmentType,
+    Integer patientId,
+    String patientName,
+    String patientEmail,
+    String dentistName,
+    String surgeryLocationName
+) {
+}
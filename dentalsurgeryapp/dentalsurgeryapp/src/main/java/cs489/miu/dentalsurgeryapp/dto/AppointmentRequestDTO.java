@@ -14,6 +14,9 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 public class AppointmentRequestDTO {
+
+    // dentistId of an "any dentist" booking: the least-loaded dentist is assigned
+    public static final long ANY_DENTIST_ID = 0L;
     
     private Long appointmentId;
     
@@ -33,6 +36,9 @@ public class AppointmentRequestDTO {
     
     @NotNull(message = "Dentist ID is required")  
     private Long dentistId;
+
+    // Optional filter of an "any dentist" booking
+    private String specialization;
     
     @NotNull(message = "Surgery location is required")
     private Long surgeryLocationId;
@@ -0,0 +1,30 @@
+package cs489.miu.dentalsurgeryapp.dto;
+
+import java.time.LocalDateTime;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+public record AppointmentSeriesRequestDTO(
+    @NotNull(message = "Patient ID is required")
+    Integer patientId,
+
+    @NotNull(message = "Dentist ID is required")
+    Integer dentistId,
+
+    @NotNull(message = "Surgery location is required")
+    Integer surgeryLocationId,
+
+    @NotBlank(message = "Appointment type is required")
+    String appointmentType,
+
+    @NotNull(message = "First appointment date and time is required")
+    LocalDateTime firstStart,
+
+    @NotNull(message = "Interval in weeks is required")
+    Integer intervalWeeks,
+
+    @NotNull(message = "Number of occurrences is required")
+    Integer occurrenceCount
+) {
+}
@@ -0,0 +1,20 @@
+package cs489.miu.dentalsurgeryapp.dto;
+
+import java.time.LocalDateTime;
+
+public record AppointmentSeriesResponseDTO(
+    Integer seriesId,
+    Integer patientId,
+    Integer dentistId,
+    Integer surgeryLocationId,
+    String appointmentType,
+    LocalDateTime firstStart,
+    Integer intervalWeeks,
+    Integer occurrenceCount,
+    Integer materializedCount,
+    Integer skippedCount,
+    LocalDateTime nextStart,
+    LocalDateTime createdAt,
+    LocalDateTime cancelledAt
+) {
+}
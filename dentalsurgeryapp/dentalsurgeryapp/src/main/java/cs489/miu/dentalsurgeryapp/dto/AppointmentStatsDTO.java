@@ -0,0 +1,24 @@
+package cs489.miu.dentalsurgeryapp.dto;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import cs489.miu.dentalsurgeryapp.model.AppointmentStatus;
+
+/**
+ * Dashboard figures of one patient or dentist.
+ * nextAppointmentDateTime is the earliest upcoming appointment that is not cancelled (null when none).
+ */
+public record AppointmentStatsDTO(
+    long total,
+    long upcoming,
+    long past,
+    Map<String, Long> byStatus,
+    LocalDateTime nextAppointmentDateTime,
+    LocalDateTime computedAt
+) {
+
+    public long count(AppointmentStatus status) {
+        return byStatus.getOrDefault(status.name(), 0L);
+    }
+}
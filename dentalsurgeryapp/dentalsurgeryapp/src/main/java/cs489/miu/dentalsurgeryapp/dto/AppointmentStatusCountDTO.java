@@ -0,0 +1,17 @@
+package cs489.miu.dentalsurgeryapp.dto;
+
+import java.time.LocalDateTime;
+
+import cs489.miu.dentalsurgeryapp.model.AppointmentStatus;
+
+/**
+ * One status row of the dashboard aggregation: how many appointments have the status,
+ * how many of those are still ahead, and when the earliest of those is.
+ */
+public record AppointmentStatusCountDTO(
+    AppointmentStatus appointmentStatus,
+    Long total,
+    Long upcoming,
+    LocalDateTime nextAppointmentDateTime
+) {
+}
@@ -0,0 +1,19 @@
+package cs489.miu.dentalsurgeryapp.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Accounts-receivable aging: bills still PENDING or OVERDUE, bucketed by the days between
+ * their appointment and asOf. Bills of appointments after asOf fall in the first bucket.
+ */
+public record ArAgingDTO(
+    LocalDate asOf,
+    List<AgingBucket> buckets,
+    int totalBills,
+    BigDecimal totalOutstanding
+) {
+    public record AgingBucket(String label, int bills, BigDecimal amount) {
+    }
+}
@@ -0,0 +1,15 @@
+package cs489.miu.dentalsurgeryapp.dto;
+
+import java.time.LocalDateTime;
+
+public record AuditEventDTO(
+    String entityType,
+    Integer entityId,
+    String action,
+    String fieldName,
+    String oldValue,
+    String newValue,
+    String actor,
+    LocalDateTime occurredAt
+) {
+}
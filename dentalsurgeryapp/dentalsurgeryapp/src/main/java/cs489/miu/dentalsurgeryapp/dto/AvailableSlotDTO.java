@@ -0,0 +1,11 @@
+package cs489.miu.dentalsurgeryapp.dto;
+
+import java.time.LocalDateTime;
+
+public record AvailableSlotDTO(
+    Integer dentistId,
+    Integer surgeryLocationId,
+    LocalDateTime start,
+    LocalDateTime end
+) {
+}
@@ -0,0 +1,22 @@
+package cs489.miu.dentalsurgeryapp.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Filters for the admin bill list. Every field is optional; a null field means
+ * "no restriction". Amounts are inclusive bounds on the total cost; from/to bound
+ * the appointment date (from inclusive, to exclusive).
+ */
+public record BillFilterDTO(
+    String patientName,
+    String paymentStatus,
+    BigDecimal minAmount,
+    BigDecimal maxAmount,
+    LocalDateTime from,
+    LocalDateTime to
+) {
+    public static BillFilterDTO none() {
+        return new BillFilterDTO(null, null, null, null, null, null);
+    }
+}
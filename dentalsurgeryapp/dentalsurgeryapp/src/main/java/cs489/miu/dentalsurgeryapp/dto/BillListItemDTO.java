@@ -0,0 +1,26 @@
+package cs489.miu.dentalsurgeryapp.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import cs489.miu.dentalsurgeryapp.model.PaymentStatus;
+
+/**
+ * One row of the admin bill list: just the columns the page shows, selected in a single
+ * query over bills, patients and appointments.
+ */
+public record BillListItemDTO(
+    Integer billId,
+    BigDecimal totalCost,
+    PaymentStatus paymentStatus,
+    Integer patientId,
+    String patientFirstName,
+    String patientLastName,
+    Integer appointmentId,
+    String appointmentType,
+    LocalDateTime appointmentDateTime
+) {
+    public String patientName() {
+        return patientFirstName + " " + patientLastName;
+    }
+}
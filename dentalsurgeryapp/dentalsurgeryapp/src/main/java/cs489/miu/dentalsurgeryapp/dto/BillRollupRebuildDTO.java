@@ -0,0 +1,16 @@
+package cs489.miu.dentalsurgeryapp.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of a rebuild of the billing rollups: bills read, rollup rows written, and bills
+ * changed while it ran that were brought up to date afterwards.
+ */
+public record BillRollupRebuildDTO(
+    int bills,
+    int rollupRows,
+    int resynced,
+    long elapsedMillis,
+    LocalDateTime rebuiltAt
+) {
+}
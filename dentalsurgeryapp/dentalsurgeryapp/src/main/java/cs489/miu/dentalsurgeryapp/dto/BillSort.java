@@ -0,0 +1,28 @@
+package cs489.miu.dentalsurgeryapp.dto;
+
+import java.util.Locale;
+
+/**
+ * Sort keys of the admin bill list. Each is paired with the bill id as a tie-breaker
+ * for keyset pagination.
+ */
+public enum BillSort {
+    // The appointment's date and time
+    DATE,
+    TOTAL_COST;
+
+    /**
+     * Parses a request parameter ("date", "amount", "totalCost").
+     * @return DATE for a null, blank or unknown value
+     */
+    public static BillSort fromName(String name) {
+        if (name == null || name.isBlank()) {
+            return DATE;
+        }
+        String normalized = name.trim().toUpperCase(Locale.ROOT).replace("-", "_");
+        if (normalized.equals("AMOUNT") || normalized.equals("TOTALCOST") || normalized.equals("TOTAL_COST")) {
+            return TOTAL_COST;
+        }
+        return DATE;
+    }
+}
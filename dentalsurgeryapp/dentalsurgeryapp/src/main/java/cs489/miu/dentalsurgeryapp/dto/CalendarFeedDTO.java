@@ -0,0 +1,14 @@
+package cs489.miu.dentalsurgeryapp.dto;
+
+import java.time.Instant;
+
+/**
+ * An iCalendar feed with its validators. eTag is unquoted and strong: it changes whenever
+ * the body does. body is null when only the validators were asked for.
+ */
+public record CalendarFeedDTO(
+    String eTag,
+    Instant lastModified,
+    byte[] body
+) {
+}
@@ -0,0 +1,14 @@
+package cs489.miu.dentalsurgeryapp.dto;
+
+import java.math.BigDecimal;
+
+import jakarta.validation.constraints.DecimalMin;
+
+// Both optional: a missing amount or status keeps the bill's current one
+public record CheckoutRequestDTO(
+    @DecimalMin(value = "0.00", message = "Total cost must be non-negative")
+    BigDecimal totalCost,
+
+    String paymentStatus
+) {
+}
@@ -0,0 +1,16 @@
+package cs489.miu.dentalsurgeryapp.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Sysadmin dashboard figures. pendingBills counts every bill not marked PAID.
+ */
+public record DashboardStatsDTO(
+    long totalPatients,
+    long totalDentists,
+    long todayAppointments,
+    long pendingBills,
+    LocalDateTime rebuiltAt,
+    long lastDrift
+) {
+}
@@ -0,0 +1,18 @@
+package cs489.miu.dentalsurgeryapp.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public record DentistLoadIndexStatsDTO(
+    long hits,
+    long misses,
+    double hitRate,
+    int trackedDentistWeeks,
+    int trackedAppointments,
+    LocalDate coveredFromWeek,
+    long reconciliations,
+    long lastDrift,
+    long totalDrift,
+    LocalDateTime lastReconciledAt
+) {
+}
@@ -0,0 +1,17 @@
+package cs489.miu.dentalsurgeryapp.dto;
+
+import java.time.Instant;
+
+/**
+ * A response recorded under an Idempotency-Key, replayed byte for byte to retries.
+ * requestHash fingerprints the request it answered, so reusing the key for a different
+ * request can be told apart from a retry.
+ */
+public record IdempotentResponseDTO(
+    String requestHash,
+    int status,
+    String contentType,
+    byte[] body,
+    Instant storedAt
+) {
+}
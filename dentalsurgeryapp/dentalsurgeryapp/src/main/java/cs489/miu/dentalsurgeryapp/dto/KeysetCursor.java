@@ -0,0 +1,58 @@
+package cs489.miu.dentalsurgeryapp.dto;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Position of a row in a keyset ordered list: the value of the sort column plus
+ * the primary key as a tie-breaker. Encoded as a URL-safe token so it can be
+ * passed around as a plain request parameter.
+ */
+public record KeysetCursor(String sortKey, Integer id) {
+
+    private static final String SEPARATOR = "|";
+
+    public static KeysetCursor of(LocalDateTime sortKey, Integer id) {
+        return new KeysetCursor(sortKey.toString(), id);
+    }
+
+    public static KeysetCursor of(BigDecimal sortKey, Integer id) {
+        return new KeysetCursor(sortKey.toPlainString(), id);
+    }
+
+    public LocalDateTime sortKeyAsDateTime() {
+        return LocalDateTime.parse(sortKey);
+    }
+
+    // Throws NumberFormatException when the cursor was not made from a decimal sort key
+    public BigDecimal sortKeyAsDecimal() {
+        return new BigDecimal(sortKey);
+    }
+
+    public String encode() {
+        String raw = sortKey + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode()}.
+     * @return the cursor, or null if the token is blank or malformed
+     */
+    public static KeysetCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int idx = raw.lastIndexOf(SEPARATOR);
+            if (idx <= 0) {
+                return null;
+            }
+            return new KeysetCursor(raw.substring(0, idx), Integer.valueOf(raw.substring(idx + 1)));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package cs489.miu.dentalsurgeryapp.dto;
+
+import java.util.List;
+
+/**
+ * One page of a keyset (seek) paginated list. The cursors are opaque tokens
+ * produced by {@link KeysetCursor#encode()}; a null cursor means there is no
+ * page in that direction.
+ */
+public record KeysetPageDTO<T>(
+    List<T> content,
+    String previousCursor,
+    String nextCursor,
+    int size
+) {
+    public boolean hasPrevious() {
+        return previousCursor != null;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,10 @@
+package cs489.miu.dentalsurgeryapp.dto;
+
+import java.math.BigDecimal;
+
+public record PatientBalanceDTO(
+    Integer patientId,
+    BigDecimal outstandingAmount,
+    int unpaidBills
+) {
+}
@@ -0,0 +1,41 @@
+package cs489.miu.dentalsurgeryapp.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A patient's monthly statement: every bill still owed, and the appointments of the month.
+ */
+public record PatientStatementDTO(
+    String month,
+    Integer patientId,
+    String firstName,
+    String lastName,
+    String email,
+    // Billing address as one line, null when the patient has none
+    String billingAddress,
+    List<OutstandingBill> outstandingBills,
+    BigDecimal totalOutstanding,
+    List<MonthAppointment> appointments
+) {
+
+    public record OutstandingBill(
+        Integer billId,
+        BigDecimal totalCost,
+        String paymentStatus,
+        LocalDateTime appointmentDateTime,
+        String appointmentType
+    ) {
+    }
+
+    public record MonthAppointment(
+        Integer appointmentId,
+        LocalDateTime appointmentDateTime,
+        String appointmentType,
+        String appointmentStatus,
+        String dentistName,
+        String surgeryLocationName
+    ) {
+    }
+}
@@ -0,0 +1,36 @@
+package cs489.miu.dentalsurgeryapp.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public record PaymentReconciliationResultDTO(
+    int received,
+    int paid,
+    int unmatched,
+    int rejected,
+    BigDecimal amountPaid,
+    long elapsedMillis,
+    // Only the first rows that were not paid are listed; true when some were left out
+    boolean truncated,
+    List<RowResult> rows
+) {
+
+    public enum Outcome {
+        // No unpaid bill matches the payment
+        UNMATCHED,
+        // The row could not be read
+        REJECTED
+    }
+
+    // A payment row that did not settle a bill; line numbers count the header as line 1
+    public record RowResult(
+        int line,
+        Outcome outcome,
+        Integer billId,
+        Integer patientId,
+        BigDecimal amount,
+        String reference,
+        String message
+    ) {
+    }
+}
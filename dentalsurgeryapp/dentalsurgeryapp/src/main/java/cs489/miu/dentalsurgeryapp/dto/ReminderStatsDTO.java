@@ -0,0 +1,24 @@
+package cs489.miu.dentalsurgeryapp.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Reminder scheduler figures. Lag is how long after its due time a reminder reached the
+ * notifier; skipped counts reminders dropped at delivery because the appointment was
+ * cancelled, moved or deleted in the meantime.
+ */
+public record ReminderStatsDTO(
+    boolean running,
+    int pending,
+    LocalDateTime loadedUntil,
+    long scheduled,
+    long delivered,
+    long skipped,
+    long failed,
+    long deliveredLastMinute,
+    long lastLagMillis,
+    double averageLagMillis,
+    long maxLagMillis,
+    LocalDateTime lastDeliveredAt
+) {
+}
@@ -0,0 +1,17 @@
+package cs489.miu.dentalsurgeryapp.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Revenue of one dentist or surgery location in one month (yyyy-MM) of appointment dates.
+ * billed covers every bill that is not CANCELLED; paid the ones marked PAID.
+ */
+public record RevenueRowDTO(
+    String month,
+    Integer id,
+    String name,
+    int bills,
+    BigDecimal billed,
+    BigDecimal paid
+) {
+}
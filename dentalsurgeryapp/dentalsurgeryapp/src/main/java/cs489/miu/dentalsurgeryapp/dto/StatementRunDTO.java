@@ -0,0 +1,33 @@
+package cs489.miu.dentalsurgeryapp.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a statement run. Counts cover the partitions written by this run; partitions
+ * already checkpointed by an earlier run are only counted in partitionsResumed.
+ */
+public record StatementRunDTO(
+    String month,
+    Status status,
+    String directory,
+    int partitions,
+    int partitionsDone,
+    int partitionsResumed,
+    long statements,
+    long bills,
+    long appointments,
+    long bytesWritten,
+    double statementsPerSecond,
+    LocalDateTime startedAt,
+    LocalDateTime finishedAt,
+    long elapsedMillis,
+    String error
+) {
+
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        // Some partitions failed; running the month again resumes from the checkpoints
+        FAILED
+    }
+}
@@ -0,0 +1,17 @@
+package cs489.miu.dentalsurgeryapp.dto;
+
+import java.time.LocalDateTime;
+
+public record WaitlistEntryResponseDTO(
+    Integer waitlistEntryId,
+    Integer patientId,
+    Integer dentistId,
+    Integer surgeryLocationId,
+    LocalDateTime earliest,
+    LocalDateTime latest,
+    String appointmentType,
+    String status,
+    LocalDateTime createdAt,
+    Integer offeredAppointmentId
+) {
+}
@@ -0,0 +1,27 @@
+package cs489.miu.dentalsurgeryapp.dto;
+
+import java.time.LocalDateTime;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+public record WaitlistRequestDTO(
+    @NotNull(message = "Patient ID is required")
+    Integer patientId,
+
+    @NotNull(message = "Dentist ID is required")
+    Integer dentistId,
+
+    // Optional: any of the dentist's locations when absent
+    Integer surgeryLocationId,
+
+    @NotNull(message = "Earliest date and time is required")
+    LocalDateTime earliest,
+
+    @NotNull(message = "Latest date and time is required")
+    LocalDateTime latest,
+
+    @NotBlank(message = "Appointment type is required")
+    String appointmentType
+) {
+}
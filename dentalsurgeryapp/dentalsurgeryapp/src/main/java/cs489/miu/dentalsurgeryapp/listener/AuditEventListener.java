@@ -0,0 +1,152 @@
+package cs489.miu.dentalsurgeryapp.listener;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.proxy.HibernateProxy;
+import org.springframework.stereotype.Component;
+
+import cs489.miu.dentalsurgeryapp.dto.AuditEventDTO;
+import cs489.miu.dentalsurgeryapp.model.Appointment;
+import cs489.miu.dentalsurgeryapp.model.Bill;
+import cs489.miu.dentalsurgeryapp.service.AuditJournalService;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Turns flushed inserts, updates and deletes of appointments and bills into audit events.
+ * Only the tracked fields are journaled, and an update that changes none of them is not.
+ *
+ * Events are collected per session and handed over when its transaction completes: with
+ * flush-on-commit they are inserted on the session's connection just before the commit,
+ * so they commit or roll back with the change; with best-effort they are queued for the
+ * writer after a successful commit. Either way a rolled back change leaves no trace.
+ */
+@Component
+public class AuditEventListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private record Tracked(String entityType, List<String> properties) {
+    }
+
+    private static final Map<Class<?>, Tracked> TRACKED = Map.of(
+        Appointment.class, new Tracked(AuditJournalService.APPOINTMENT,
+            List.of("appointmentStatus", "appointmentDateTime", "appointmentType", "dentist", "surgeryLocation", "patient")),
+        Bill.class, new Tracked(AuditJournalService.BILL,
+            List.of("totalCost", "paymentStatus", "patient", "appointment"))
+    );
+
+    // Events of each session's current transaction, until it completes
+    private final TransactionAccumulator<List<AuditEventDTO>> pending;
+
+    public AuditEventListener(EntityManagerFactory entityManagerFactory, AuditJournalService auditJournalService) {
+        this.pending = new TransactionAccumulator<>(ArrayList::new,
+            (connection, events) -> {
+                // A failed insert fails the commit, so the change is not kept without its events
+                if (auditJournalService.durability() == AuditJournalService.Durability.FLUSH_ON_COMMIT) {
+                    auditJournalService.write(connection, events);
+                }
+            },
+            (success, events) -> {
+                if (success && auditJournalService.durability() == AuditJournalService.Durability.BEST_EFFORT) {
+                    auditJournalService.append(events);
+                }
+            });
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+            .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        Tracked tracked = TRACKED.get(event.getEntity().getClass());
+        if (tracked != null) {
+            collect(event.getSession(), tracked, event.getId(), "CREATE", event.getPersister(), null, event.getState());
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        Tracked tracked = TRACKED.get(event.getEntity().getClass());
+        if (tracked != null) {
+            collect(event.getSession(), tracked, event.getId(), "UPDATE", event.getPersister(), event.getOldState(), event.getState());
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        Tracked tracked = TRACKED.get(event.getEntity().getClass());
+        if (tracked != null) {
+            add(event.getSession(), List.of(new AuditEventDTO(tracked.entityType(), (Integer) event.getId(), "DELETE",
+                null, null, null, AuditJournalService.currentActor(), LocalDateTime.now())));
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private void collect(EventSource session, Tracked tracked, Object id, String action, EntityPersister persister,
+                         Object[] oldState, Object[] state) {
+        String[] names = persister.getPropertyNames();
+        String actor = AuditJournalService.currentActor();
+        LocalDateTime now = LocalDateTime.now();
+        List<AuditEventDTO> events = new ArrayList<>();
+        for (int i = 0; i < names.length; i++) {
+            if (!tracked.properties().contains(names[i])) {
+                continue;
+            }
+            String newValue = format(session, state[i]);
+            String oldValue = oldState != null ? format(session, oldState[i]) : null;
+            // A create, or an update without the old state, lists every value that is set
+            if (oldState == null ? newValue != null : !Objects.equals(oldValue, newValue)) {
+                events.add(new AuditEventDTO(tracked.entityType(), (Integer) id, action, names[i], oldValue, newValue, actor, now));
+            }
+        }
+        if (!events.isEmpty()) {
+            add(session, events);
+        }
+    }
+
+    private void add(EventSource session, List<AuditEventDTO> events) {
+        pending.of(session).addAll(events);
+    }
+
+    private static String format(SharedSessionContractImplementor session, Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof HibernateProxy proxy) {
+            return String.valueOf(proxy.getHibernateLazyInitializer().getInternalIdentifier());
+        }
+        if (value instanceof Enum<?> constant) {
+            return constant.name();
+        }
+        if (value instanceof BigDecimal amount) {
+            return amount.toPlainString();
+        }
+        if (value.getClass().isAnnotationPresent(Entity.class)) {
+            return String.valueOf(session.getFactory().getMappingMetamodel().getEntityDescriptor(value.getClass())
+                .getIdentifier(value, session));
+        }
+        return value.toString();
+    }
+}
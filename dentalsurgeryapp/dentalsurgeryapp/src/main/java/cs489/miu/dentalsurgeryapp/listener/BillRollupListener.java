@@ -0,0 +1,97 @@
+package cs489.miu.dentalsurgeryapp.listener;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+import cs489.miu.dentalsurgeryapp.model.Appointment;
+import cs489.miu.dentalsurgeryapp.model.Bill;
+import cs489.miu.dentalsurgeryapp.service.BillRollupService;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Keeps the billing rollups in step with every flushed change to a bill, and with
+ * appointments moved to another day, dentist or location (their bill moves with them),
+ * whatever code path made it. The touched ids are collected per session and synced on the
+ * session's connection just before the commit, so the rollups commit or roll back with them.
+ */
+@Component
+public class BillRollupListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    // Appointment properties a bill's rollup row is derived from
+    private static final String[] ROLLUP_PROPERTIES = {"appointmentDateTime", "dentist", "surgeryLocation"};
+
+    // Bills and appointments changed by each session's current transaction, until it completes
+    private static final class Pending {
+        private final Set<Integer> billIds = new HashSet<>();
+        private final Set<Integer> appointmentIds = new HashSet<>();
+    }
+
+    private final TransactionAccumulator<Pending> pending;
+
+    public BillRollupListener(EntityManagerFactory entityManagerFactory, BillRollupService billRollupService) {
+        this.pending = new TransactionAccumulator<>(Pending::new,
+            (connection, changes) -> billRollupService.sync(connection, changes.billIds, changes.appointmentIds),
+            (success, changes) -> billRollupService.syncCompleted());
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+            .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Bill) {
+            pending.of(event.getSession()).billIds.add((Integer) event.getId());
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof Bill) {
+            pending.of(event.getSession()).billIds.add((Integer) event.getId());
+        } else if (event.getEntity() instanceof Appointment && movesBill(event)) {
+            pending.of(event.getSession()).appointmentIds.add((Integer) event.getId());
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Bill) {
+            pending.of(event.getSession()).billIds.add((Integer) event.getId());
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private static boolean movesBill(PostUpdateEvent event) {
+        int[] dirty = event.getDirtyProperties();
+        if (dirty == null) {
+            return true; // A detached merge without the old state: assume it moved
+        }
+        for (String property : ROLLUP_PROPERTIES) {
+            int index = event.getPersister().getPropertyIndex(property);
+            for (int dirtyIndex : dirty) {
+                if (dirtyIndex == index) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
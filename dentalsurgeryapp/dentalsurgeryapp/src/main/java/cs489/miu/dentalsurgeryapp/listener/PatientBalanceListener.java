@@ -0,0 +1,127 @@
+package cs489.miu.dentalsurgeryapp.listener;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.proxy.HibernateProxy;
+import org.springframework.stereotype.Component;
+
+import cs489.miu.dentalsurgeryapp.model.Bill;
+import cs489.miu.dentalsurgeryapp.model.PaymentStatus;
+import cs489.miu.dentalsurgeryapp.service.PatientBalanceService;
+import cs489.miu.dentalsurgeryapp.service.PatientBalanceService.Change;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Moves patient balances with every flushed insert, update and delete of a bill, whatever
+ * code path made it. The differences are summed per patient over the transaction and
+ * written on the session's connection just before the commit, so the ledger commits or
+ * rolls back with the bills; the cached balances are reloaded after a successful commit.
+ */
+@Component
+public class PatientBalanceListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    // Balance changes of each session's current transaction, until it completes
+    private static final class Pending {
+        private final Map<Integer, Change> changes = new HashMap<>();
+        // Patients whose change could not be worked out from the event; recomputed from their bills
+        private final Set<Integer> resync = new HashSet<>();
+    }
+
+    private final TransactionAccumulator<Pending> pending;
+
+    public PatientBalanceListener(EntityManagerFactory entityManagerFactory, PatientBalanceService patientBalanceService) {
+        this.pending = new TransactionAccumulator<>(Pending::new,
+            (connection, changes) -> {
+                patientBalanceService.apply(connection, changes.changes);
+                patientBalanceService.resync(connection, changes.resync);
+            },
+            (success, changes) -> {
+                if (success) {
+                    Set<Integer> touched = new HashSet<>(changes.changes.keySet());
+                    touched.addAll(changes.resync);
+                    patientBalanceService.refresh(touched);
+                }
+            });
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+            .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Bill) {
+            add(event.getSession(), event.getPersister(), event.getState(), 1);
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof Bill)) {
+            return;
+        }
+        if (event.getOldState() == null) {
+            Integer patientId = patientIdOf(event.getSession(), event.getPersister(), event.getState());
+            if (patientId != null) {
+                pending.of(event.getSession()).resync.add(patientId);
+            }
+            return;
+        }
+        add(event.getSession(), event.getPersister(), event.getOldState(), -1);
+        add(event.getSession(), event.getPersister(), event.getState(), 1);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Bill) {
+            add(event.getSession(), event.getPersister(), event.getDeletedState(), -1);
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private void add(EventSource session, EntityPersister persister, Object[] state, int sign) {
+        Integer patientId = patientIdOf(session, persister, state);
+        if (patientId == null) {
+            return;
+        }
+        PaymentStatus status = (PaymentStatus) state[persister.getPropertyIndex("paymentStatus")];
+        if (status == PaymentStatus.PAID) {
+            return;
+        }
+        long cents = PatientBalanceService.toCents((BigDecimal) state[persister.getPropertyIndex("totalCost")]);
+        pending.of(session).changes.merge(patientId, new Change(sign * cents, sign), Change::plus);
+    }
+
+    private static Integer patientIdOf(SharedSessionContractImplementor session, EntityPersister persister, Object[] state) {
+        Object patient = state[persister.getPropertyIndex("patient")];
+        if (patient == null) {
+            return null;
+        }
+        if (patient instanceof HibernateProxy proxy) {
+            return (Integer) proxy.getHibernateLazyInitializer().getInternalIdentifier();
+        }
+        return (Integer) session.getFactory().getMappingMetamodel().getEntityDescriptor(patient.getClass())
+            .getIdentifier(patient, session);
+    }
+}
@@ -0,0 +1,56 @@
+package cs489.miu.dentalsurgeryapp.listener;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.spi.EventSource;
+
+/**
+ * What a listener collects over each session's current transaction. It is created on the
+ * session's first event, written on the session's connection just before the commit (so
+ * the writes commit or roll back with the change), and dropped once the transaction
+ * completes, after the completion callback has seen it.
+ */
+final class TransactionAccumulator<T> {
+
+    @FunctionalInterface
+    interface BeforeCompletion<T> {
+        void write(Connection connection, T collected) throws SQLException;
+    }
+
+    @FunctionalInterface
+    interface AfterCompletion<T> {
+        void completed(boolean success, T collected);
+    }
+
+    private final Map<SharedSessionContractImplementor, T> pending = new ConcurrentHashMap<>();
+    private final Supplier<T> factory;
+    private final BeforeCompletion<T> beforeCompletion;
+    private final AfterCompletion<T> afterCompletion;
+
+    TransactionAccumulator(Supplier<T> factory, BeforeCompletion<T> beforeCompletion, AfterCompletion<T> afterCompletion) {
+        this.factory = factory;
+        this.beforeCompletion = beforeCompletion;
+        this.afterCompletion = afterCompletion;
+    }
+
+    T of(EventSource session) {
+        T collected = pending.get(session);
+        if (collected == null) {
+            T created = factory.get();
+            pending.put(session, created);
+            collected = created;
+            session.getActionQueue().registerProcess(completing ->
+                completing.doWork(connection -> beforeCompletion.write(connection, created)));
+            session.getActionQueue().registerProcess((success, completed) -> {
+                pending.remove(session);
+                afterCompletion.completed(success, created);
+            });
+        }
+        return collected;
+    }
+}
@@ -11,10 +11,16 @@ import lombok.*;
 @Setter
 @ToString
 @Entity
-@Table(name = "addresses")
+@Table(name = "addresses", uniqueConstraints = {
+    // Natural key of findOrCreateAddress
+    @UniqueConstraint(name = "uk_addresses_full", columnNames = {"street", "city", "state", "zipcode"})
+})
 public class Address {
-@Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled table ids: the natural-key upsert needs the id before it inserts (see NaturalKeyUpsertImpl)
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "address_id_gen")
+    @TableGenerator(name = "address_id_gen", table = "id_generators", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "addresses", allocationSize = 50)
     @Column(name = "address_id")
     private Integer addressId;
     
@@ -14,11 +14,52 @@ import lombok.*;
 @Setter
 @ToString
 @Entity
-@Table(name = "appointments")
+// Fetch plans per screen; the associations themselves are lazy
+@NamedEntityGraph(name = Appointment.GRAPH_DETAIL, attributeNodes = {
+    @NamedAttributeNode(value = "patient", subgraph = "patient"),
+    @NamedAttributeNode("dentist"),
+    @NamedAttributeNode(value = "surgeryLocation", subgraph = "surgeryLocation")
+}, subgraphs = {
+    @NamedSubgraph(name = "patient", attributeNodes = @NamedAttributeNode("address")),
+    @NamedSubgraph(name = "surgeryLocation", attributeNodes = @NamedAttributeNode("location"))
+})
+@NamedEntityGraph(name = Appointment.GRAPH_PATIENT_PORTAL, attributeNodes = {
+    @NamedAttributeNode("dentist"),
+    @NamedAttributeNode("surgeryLocation")
+})
+@NamedEntityGraph(name = Appointment.GRAPH_DENTIST_PORTAL, attributeNodes = {
+    @NamedAttributeNode("patient"),
+    @NamedAttributeNode(value = "surgeryLocation", subgraph = "surgeryLocation")
+}, subgraphs = {
+    @NamedSubgraph(name = "surgeryLocation", attributeNodes = @NamedAttributeNode("location"))
+})
+@Table(name = "appointments", uniqueConstraints = {
+    // Natural key of findOrCreateAppointment, led by (dentist_id, appointmentDateTime) for calendar
+    // and weekly capacity range scans
+    @UniqueConstraint(name = "uk_appointments_booking",
+        columnNames = {"dentist_id", "appointmentDateTime", "patient_id", "surgerylocation"})
+}, indexes = {
+    // Backs keyset pagination of the admin list on (appointmentDateTime, appointment_id)
+    @Index(name = "idx_appointments_datetime_id", columnList = "appointmentDateTime, appointment_id"),
+    // Patient calendars and "upcoming" counts; dentist ones use the uk_appointments_booking prefix
+    @Index(name = "idx_appointments_patient_datetime", columnList = "patient_id, appointmentDateTime"),
+    // Status-filtered portal lists and counts
+    @Index(name = "idx_appointments_dentist_status", columnList = "dentist_id, appointmentStatus"),
+    @Index(name = "idx_appointments_patient_status", columnList = "patient_id, appointmentStatus")
+})
 public class Appointment {
 
+    // Single appointment screens and the REST API: everything the DTO shows, addresses included
+    public static final String GRAPH_DETAIL = "Appointment.detail";
+    // Patient portal lists: dentist and surgery location (the patient is the signed-in one)
+    public static final String GRAPH_PATIENT_PORTAL = "Appointment.patientPortal";
+    // Dentist portal lists: patient and surgery location with its address
+    public static final String GRAPH_DENTIST_PORTAL = "Appointment.dentistPortal";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "appointment_id_gen")
+    @TableGenerator(name = "appointment_id_gen", table = "id_generators", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "appointments", allocationSize = 50)
     @Column(name = "appointment_id")
     private Integer appointmentId;
 
@@ -26,9 +67,10 @@ public class Appointment {
     @NotBlank(message = "Appointment type is required and cannot be blank.")
     private String appointmentType;
 
-    @Column(name = "appointmentStatus", nullable = false, length = 20)
-    @NotBlank(message = "Appointment status is required and cannot be blank.")
-    private String appointmentStatus;
+    @Column(name = "appointmentStatus", nullable = false)
+    @Convert(converter = AppointmentStatusConverter.class)
+    @NotNull(message = "Appointment status is required and cannot be blank.")
+    private AppointmentStatus appointmentStatus;
 
     @Column(name = "appointmentDateTime", nullable = false)
     @NotNull(message = "Appointment date and time is required.")
@@ -36,20 +78,40 @@ public class Appointment {
     private LocalDateTime appointmentDateTime;
 
     // Many appointments can be for one patient
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "patient_id", nullable = false) 
+    @ToString.Exclude
     private Patient patient;
 
     // For now, we'll use a simple string for dentist name
     // You can create a Dentist entity later if needed
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "dentist_id", nullable = false) 
+    @ToString.Exclude
     private Dentist dentist;
 
     // For now, we'll use a simple string for surgery location
     // You can create a SurgeryLocation entity later if needed
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "surgerylocation", nullable = false)
+    @ToString.Exclude
     private SurgeryLocation surgeryLocation;
 
+    // Forms, templates and DTOs work with the status name; the column holds the enum code
+    public String getAppointmentStatus() {
+        return appointmentStatus != null ? appointmentStatus.name() : null;
+    }
+
+    // Accepts any spelling AppointmentStatus.fromName does; unknown names are rejected
+    public void setAppointmentStatus(String appointmentStatus) {
+        this.appointmentStatus = AppointmentStatus.fromName(appointmentStatus);
+    }
+
+    public AppointmentStatus getStatus() {
+        return appointmentStatus;
+    }
+
+    public void setStatus(AppointmentStatus status) {
+        this.appointmentStatus = status;
+    }
 }
@@ -0,0 +1,89 @@
+package cs489.miu.dentalsurgeryapp.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * A recurring booking: occurrenceCount appointments for the same patient, dentist, location
+ * and type, every intervalWeeks weeks from firstStart. Occurrences become rows in
+ * appointments only once they come within the expansion horizon; the first
+ * materializedCount have been expanded (or skipped), the rest are virtual and are derived
+ * from the rule wherever they are shown or counted.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@ToString
+@Entity
+@Table(name = "appointment_series", indexes = {
+    // Series with occurrences left to expand, by when the next one starts (expansion job)
+    @Index(name = "idx_series_next_start", columnList = "nextStart"),
+    // Open series of one dentist or location (weekly limit, calendars)
+    @Index(name = "idx_series_dentist_next", columnList = "dentist_id, nextStart"),
+    @Index(name = "idx_series_location_next", columnList = "surgerylocation_id, nextStart"),
+    @Index(name = "idx_series_patient_next", columnList = "patient_id, nextStart")
+})
+public class AppointmentSeries {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "series_id")
+    private Integer seriesId;
+
+    @Column(name = "appointmentType", nullable = false, length = 50)
+    private String appointmentType;
+
+    @Column(name = "firstStart", nullable = false)
+    private LocalDateTime firstStart;
+
+    @Column(name = "intervalWeeks", nullable = false)
+    private Integer intervalWeeks;
+
+    @Column(name = "occurrenceCount", nullable = false)
+    private Integer occurrenceCount;
+
+    @Column(name = "materializedCount", nullable = false)
+    private Integer materializedCount;
+
+    // Expanded occurrences that could not be booked (week full by then, or already past)
+    @Column(name = "skippedCount", nullable = false)
+    private Integer skippedCount;
+
+    // Start of the first occurrence not expanded yet; null once all are, or the series was cancelled
+    @Column(name = "nextStart")
+    private LocalDateTime nextStart;
+
+    @Column(name = "createdAt", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "cancelledAt")
+    private LocalDateTime cancelledAt;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "patient_id", nullable = false)
+    @ToString.Exclude
+    private Patient patient;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "dentist_id", nullable = false)
+    @ToString.Exclude
+    private Dentist dentist;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "surgerylocation_id", nullable = false)
+    @ToString.Exclude
+    private SurgeryLocation surgeryLocation;
+
+    // Start of the occurrence at a zero-based index; every occurrence keeps the weekday and time of the first
+    public LocalDateTime occurrenceStart(int index) {
+        return firstStart.plusWeeks((long) index * intervalWeeks);
+    }
+
+    // Occurrences still virtual
+    public int remaining() {
+        return nextStart != null ? occurrenceCount - materializedCount : 0;
+    }
+}
@@ -1,25 +1,67 @@
 package cs489.miu.dentalsurgeryapp.model;
 
+import java.util.Locale;
+
+/**
+ * Appointment lifecycle. Stored as the one-byte {@code code} (see AppointmentStatusConverter),
+ * so codes must never be reused or renumbered; new statuses take the next free code.
+ */
 public enum AppointmentStatus {
-    PENDING("Pending"),
-    CONFIRMED("Confirmed"),
-    IN_PROGRESS("In Progress"),
-    COMPLETED("Completed"),
-    CANCELLED("Cancelled"),
-    NO_SHOW("No Show");
+    PENDING(1, "Pending"),
+    SCHEDULED(2, "Scheduled"),
+    CONFIRMED(3, "Confirmed"),
+    CHECKIN(4, "Checked In"),
+    IN_PROGRESS(5, "In Progress"),
+    CHECKOUT(6, "Checked Out"),
+    COMPLETED(7, "Completed"),
+    CANCELLED(8, "Cancelled"),
+    NO_SHOW(9, "No Show");
 
+    private final byte code;
     private final String displayName;
 
-    AppointmentStatus(String displayName) {
+    AppointmentStatus(int code, String displayName) {
+        this.code = (byte) code;
         this.displayName = displayName;
     }
 
+    public byte getCode() {
+        return code;
+    }
+
     public String getDisplayName() {
         return displayName;
     }
 
+    public static AppointmentStatus fromCode(byte code) {
+        for (AppointmentStatus status : values()) {
+            if (status.code == code) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unknown appointment status code: " + code);
+    }
+
+    /**
+     * Parses a status name or display name leniently ("Confirmed", "in progress", "Checked Out").
+     * @return null for a null or blank value
+     * @throws IllegalArgumentException for anything else that is not a status
+     */
+    public static AppointmentStatus fromName(String name) {
+        if (name == null || name.isBlank()) {
+            return null;
+        }
+        String normalized = name.trim().toUpperCase(Locale.ROOT).replace(' ', '_').replace('-', '_');
+        for (AppointmentStatus status : values()) {
+            if (status.name().equals(normalized) || status.displayName.equalsIgnoreCase(name.trim())) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unknown appointment status: " + name);
+    }
+
     @Override
     public String toString() {
         return displayName;
     }
-}
\ No newline at end of file
+}
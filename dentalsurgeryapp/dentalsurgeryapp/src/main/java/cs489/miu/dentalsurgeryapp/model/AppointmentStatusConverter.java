@@ -0,0 +1,19 @@
+package cs489.miu.dentalsurgeryapp.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+// Stores AppointmentStatus as its one-byte code (TINYINT column)
+@Converter
+public class AppointmentStatusConverter implements AttributeConverter<AppointmentStatus, Byte> {
+
+    @Override
+    public Byte convertToDatabaseColumn(AppointmentStatus status) {
+        return status != null ? status.getCode() : null;
+    }
+
+    @Override
+    public AppointmentStatus convertToEntityAttribute(Byte code) {
+        return code != null ? AppointmentStatus.fromCode(code) : null;
+    }
+}
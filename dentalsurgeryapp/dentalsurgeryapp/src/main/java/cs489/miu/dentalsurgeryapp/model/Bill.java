@@ -13,11 +13,26 @@ import lombok.*;
 @Setter
 @ToString
 @Entity
-@Table(name = "bills")
+@NamedEntityGraph(name = Bill.GRAPH_LIST, attributeNodes = {
+    @NamedAttributeNode("patient"),
+    @NamedAttributeNode("appointment")
+})
+@Table(name = "bills", indexes = {
+    // Outstanding-bill checks on (patient, status)
+    @Index(name = "idx_bills_patient_status", columnList = "patient_id, payment_status"),
+    // Admin bill list sorted by total cost, with and without a status filter
+    @Index(name = "idx_bills_total_cost_id", columnList = "total_cost, bill_id"),
+    @Index(name = "idx_bills_status_total_cost", columnList = "payment_status, total_cost, bill_id")
+})
 public class Bill {
+
+    // Bill list and bill DTOs: patient and appointment, without the appointment's own links
+    public static final String GRAPH_LIST = "Bill.list";
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "bill_id_gen")
+    @TableGenerator(name = "bill_id_gen", table = "id_generators", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "bills", allocationSize = 50)
     @Column(name = "bill_id")
     private Integer billId;
     
@@ -26,17 +41,38 @@ public class Bill {
     @DecimalMin(value = "0.00", message = "Total cost must be non-negative.")
     private BigDecimal totalCost;
     
-    @Column(name = "payment_status", nullable = false, length = 20)
+    @Column(name = "payment_status", nullable = false)
+    @Convert(converter = PaymentStatusConverter.class)
     @NotNull(message = "Payment status is required.")
-    private String paymentStatus; // e.g., "PENDING", "PAID", "OVERDUE", "CANCELLED"
+    private PaymentStatus paymentStatus;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "patient_id", nullable = false)
     @NotNull(message = "Patient is required.")
+    @ToString.Exclude
     private Patient patient;
     
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "appointment_id", nullable = false)
     @NotNull(message = "Appointment is required.")
+    @ToString.Exclude
     private Appointment appointment;
+
+    // Forms, templates and DTOs work with the status name; the column holds the enum code
+    public String getPaymentStatus() {
+        return paymentStatus != null ? paymentStatus.name() : null;
+    }
+
+    // Accepts any spelling PaymentStatus.fromName does; unknown names are rejected
+    public void setPaymentStatus(String paymentStatus) {
+        this.paymentStatus = PaymentStatus.fromName(paymentStatus);
+    }
+
+    public PaymentStatus getStatus() {
+        return paymentStatus;
+    }
+
+    public void setStatus(PaymentStatus status) {
+        this.paymentStatus = status;
+    }
 }
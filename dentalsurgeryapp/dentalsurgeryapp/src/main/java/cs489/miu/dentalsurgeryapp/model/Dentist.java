@@ -10,11 +10,17 @@ import lombok.*;
 @Setter
 @ToString
 @Entity
-@Table(name = "dentists")
+@Table(name = "dentists", uniqueConstraints = {
+    // Natural key of findOrCreateDentist; dentists without an email are not deduplicated
+    @UniqueConstraint(name = "uk_dentists_email", columnNames = {"email"})
+})
 public class Dentist {
     
+    // Pooled table ids: the natural-key upsert needs the id before it inserts (see NaturalKeyUpsertImpl)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "dentist_id_gen")
+    @TableGenerator(name = "dentist_id_gen", table = "id_generators", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "dentists", allocationSize = 50)
     @Column(name = "dentist_id")
     private Integer dentistId;
     
@@ -0,0 +1,49 @@
+package cs489.miu.dentalsurgeryapp.model;
+
+import java.time.LocalDate;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * One booked slot of a dentist's weekly capacity. A booking holds exactly one slot row
+ * for its (dentist, week); the unique keys make two concurrent bookings unable to take
+ * the same slot or the same appointment twice.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@ToString
+@Entity
+@Table(name = "dentist_week_slots", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_dentist_week_slot", columnNames = {"dentist_id", "weekStart", "slotNumber"}),
+    @UniqueConstraint(name = "uk_dentist_week_slot_appointment", columnNames = {"appointment_id"})
+})
+public class DentistWeekSlot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "slot_id")
+    private Integer slotId;
+
+    @Column(name = "dentist_id", nullable = false)
+    private Integer dentistId;
+
+    // Sunday the booking week starts on
+    @Column(name = "weekStart", nullable = false)
+    private LocalDate weekStart;
+
+    @Column(name = "slotNumber", nullable = false)
+    private Integer slotNumber;
+
+    @Column(name = "appointment_id", nullable = false)
+    private Integer appointmentId;
+
+    public DentistWeekSlot(Integer dentistId, LocalDate weekStart, Integer slotNumber, Integer appointmentId) {
+        this.dentistId = dentistId;
+        this.weekStart = weekStart;
+        this.slotNumber = slotNumber;
+        this.appointmentId = appointmentId;
+    }
+}
@@ -17,10 +17,20 @@ import lombok.*;
 @Setter
 @ToString
 @Entity
-@Table(name = "patients")
+@NamedEntityGraph(name = Patient.GRAPH_ADDRESS, attributeNodes = @NamedAttributeNode("address"))
+@Table(name = "patients", uniqueConstraints = {
+    // Natural key of findOrCreatePatient; patients without an email are not deduplicated
+    @UniqueConstraint(name = "uk_patients_email", columnNames = {"email"})
+})
 public class Patient {
+
+    // Patient screens show the address next to the patient
+    public static final String GRAPH_ADDRESS = "Patient.address";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "patient_id_gen")
+    @TableGenerator(name = "patient_id_gen", table = "id_generators", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "patients", allocationSize = 50)
     @Column(name = "patient_id")
     private Integer patientId;
     
@@ -44,9 +54,10 @@ public class Patient {
     @Past(message = "Date of Birth must be in the past.")
     private LocalDate dob;
     
-    @ManyToOne(cascade = CascadeType.PERSIST)
+    @ManyToOne(fetch = FetchType.LAZY, cascade = CascadeType.PERSIST)
     @JoinColumn(name = "billing_address_id", nullable= true )// @JoinColumn(name = "address_id", nullable= true,unique=true )
     @Valid
+    @ToString.Exclude
     private Address address;
 
 }
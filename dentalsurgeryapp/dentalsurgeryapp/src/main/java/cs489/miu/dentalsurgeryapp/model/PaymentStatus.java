@@ -0,0 +1,62 @@
+package cs489.miu.dentalsurgeryapp.model;
+
+import java.util.Locale;
+
+/**
+ * Bill payment state. Stored as the one-byte {@code code} (see PaymentStatusConverter),
+ * so codes must never be reused or renumbered; new statuses take the next free code.
+ */
+public enum PaymentStatus {
+    PENDING(1, "Pending"),
+    PAID(2, "Paid"),
+    OVERDUE(3, "Overdue"),
+    CANCELLED(4, "Cancelled");
+
+    private final byte code;
+    private final String displayName;
+
+    PaymentStatus(int code, String displayName) {
+        this.code = (byte) code;
+        this.displayName = displayName;
+    }
+
+    public byte getCode() {
+        return code;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public static PaymentStatus fromCode(byte code) {
+        for (PaymentStatus status : values()) {
+            if (status.code == code) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unknown payment status code: " + code);
+    }
+
+    /**
+     * Parses a status name leniently ("Paid", " overdue ").
+     * @return null for a null or blank value
+     * @throws IllegalArgumentException for anything else that is not a status
+     */
+    public static PaymentStatus fromName(String name) {
+        if (name == null || name.isBlank()) {
+            return null;
+        }
+        String normalized = name.trim().toUpperCase(Locale.ROOT).replace(' ', '_').replace('-', '_');
+        for (PaymentStatus status : values()) {
+            if (status.name().equals(normalized) || status.displayName.equalsIgnoreCase(name.trim())) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unknown payment status: " + name);
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
@@ -0,0 +1,19 @@
+package cs489.miu.dentalsurgeryapp.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+// Stores PaymentStatus as its one-byte code (TINYINT column)
+@Converter
+public class PaymentStatusConverter implements AttributeConverter<PaymentStatus, Byte> {
+
+    @Override
+    public Byte convertToDatabaseColumn(PaymentStatus status) {
+        return status != null ? status.getCode() : null;
+    }
+
+    @Override
+    public PaymentStatus convertToEntityAttribute(Byte code) {
+        return code != null ? PaymentStatus.fromCode(code) : null;
+    }
+}
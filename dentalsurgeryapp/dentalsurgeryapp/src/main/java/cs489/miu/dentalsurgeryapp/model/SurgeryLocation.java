@@ -10,8 +10,12 @@ import lombok.*;
 @Setter
 @ToString
 @Entity
+@NamedEntityGraph(name = SurgeryLocation.GRAPH_ADDRESS, attributeNodes = @NamedAttributeNode("location"))
 @Table(name = "surgerylocations")
 public class SurgeryLocation {
+
+    // Surgery location screens show the address next to the location
+    public static final String GRAPH_ADDRESS = "SurgeryLocation.address";
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -25,7 +29,8 @@ public class SurgeryLocation {
     @Column(name = "contactNumber")
     private String contactNumber;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "address_id")
+    @ToString.Exclude
     private Address location;
 }
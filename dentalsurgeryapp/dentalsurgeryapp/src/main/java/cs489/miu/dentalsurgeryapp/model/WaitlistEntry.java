@@ -0,0 +1,68 @@
+package cs489.miu.dentalsurgeryapp.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * A patient waiting for a slot with a dentist inside a date window, optionally at one
+ * surgery location. Entries are served first come, first served: when an appointment of
+ * the dentist is cancelled, the oldest waiting entry whose window and location fit the
+ * freed slot is booked into it.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@ToString
+@Entity
+@Table(name = "waitlist_entries", indexes = {
+    // Waiting entries of one dentist, for the in-memory queue load
+    @Index(name = "idx_waitlist_dentist_status", columnList = "dentist_id, status, latest"),
+    // A patient's own entries
+    @Index(name = "idx_waitlist_patient_status", columnList = "patient_id, status")
+})
+public class WaitlistEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "waitlist_entry_id")
+    private Integer waitlistEntryId;
+
+    @Column(name = "patient_id", nullable = false)
+    private Integer patientId;
+
+    @Column(name = "dentist_id", nullable = false)
+    private Integer dentistId;
+
+    // Null when any of the dentist's locations will do
+    @Column(name = "surgerylocation_id")
+    private Integer surgeryLocationId;
+
+    // Window the appointment has to start in, both ends inclusive
+    @Column(name = "earliest", nullable = false)
+    private LocalDateTime earliest;
+
+    @Column(name = "latest", nullable = false)
+    private LocalDateTime latest;
+
+    @Column(name = "appointmentType", nullable = false, length = 50)
+    private String appointmentType;
+
+    @Column(name = "status", nullable = false)
+    @Convert(converter = WaitlistStatusConverter.class)
+    private WaitlistStatus status;
+
+    @Column(name = "createdAt", nullable = false)
+    private LocalDateTime createdAt;
+
+    // Appointment booked for this entry once it was offered a slot
+    @Column(name = "offered_appointment_id")
+    private Integer offeredAppointmentId;
+
+    public boolean fits(Integer slotLocationId, LocalDateTime start) {
+        return !start.isBefore(earliest) && !start.isAfter(latest)
+                && (surgeryLocationId == null || surgeryLocationId.equals(slotLocationId));
+    }
+}
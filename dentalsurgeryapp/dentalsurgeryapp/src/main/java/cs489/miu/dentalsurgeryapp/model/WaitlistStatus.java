@@ -0,0 +1,46 @@
+package cs489.miu.dentalsurgeryapp.model;
+
+/**
+ * Waitlist entry lifecycle. Stored as the one-byte {@code code} (see WaitlistStatusConverter),
+ * so codes must never be reused or renumbered; new statuses take the next free code.
+ */
+public enum WaitlistStatus {
+    // Queued for a freed slot of its dentist
+    WAITING(1, "Waiting"),
+    // Booked into a freed slot (as a pending appointment the patient confirms or cancels)
+    OFFERED(2, "Offered"),
+    // The date window passed without a slot
+    EXPIRED(3, "Expired"),
+    // Taken off the waitlist by the patient
+    WITHDRAWN(4, "Withdrawn");
+
+    private final byte code;
+    private final String displayName;
+
+    WaitlistStatus(int code, String displayName) {
+        this.code = (byte) code;
+        this.displayName = displayName;
+    }
+
+    public byte getCode() {
+        return code;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public static WaitlistStatus fromCode(byte code) {
+        for (WaitlistStatus status : values()) {
+            if (status.code == code) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unknown waitlist status code: " + code);
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
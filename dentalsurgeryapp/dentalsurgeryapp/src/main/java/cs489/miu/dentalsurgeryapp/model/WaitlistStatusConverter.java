@@ -0,0 +1,19 @@
+package cs489.miu.dentalsurgeryapp.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+// Stores WaitlistStatus as its one-byte code (TINYINT column)
+@Converter
+public class WaitlistStatusConverter implements AttributeConverter<WaitlistStatus, Byte> {
+
+    @Override
+    public Byte convertToDatabaseColumn(WaitlistStatus status) {
+        return status != null ? status.getCode() : null;
+    }
+
+    @Override
+    public WaitlistStatus convertToEntityAttribute(Byte code) {
+        return code != null ? WaitlistStatus.fromCode(code) : null;
+    }
+}
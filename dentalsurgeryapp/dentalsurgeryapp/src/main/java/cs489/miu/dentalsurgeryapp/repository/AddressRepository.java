@@ -2,13 +2,14 @@ package cs489.miu.dentalsurgeryapp.repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
 import cs489.miu.dentalsurgeryapp.model.Address;
 
-public interface AddressRepository extends JpaRepository<Address, Integer> {
+public interface AddressRepository extends JpaRepository<Address, Integer>, NaturalKeyUpsert<Address>, ExportQuery {
     
     // Method to find all addresses sorted by city in ascending order
     List<Address> findAllByOrderByCityAsc();
@@ -20,4 +21,8 @@ public interface AddressRepository extends JpaRepository<Address, Integer> {
     @Query("SELECT DISTINCT a FROM Address a LEFT JOIN FETCH Patient p WHERE p.address = a ORDER BY a.city ASC")
     List<Address> findAllAddressesWithPatientsSortedByCity();
 
+    // Every address for streaming export, with the associations the export reads fetched in the same query
+    default Stream<Address> streamAllForExport() {
+        return streamForExport("SELECT a FROM Address a ORDER BY a.addressId", Address.class);
+    }
 }
@@ -1,23 +1,44 @@
 package cs489.miu.dentalsurgeryapp.repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import cs489.miu.dentalsurgeryapp.dto.AppointmentKeyDTO;
+import cs489.miu.dentalsurgeryapp.dto.AppointmentPlacementDTO;
+import cs489.miu.dentalsurgeryapp.dto.AppointmentStatusCountDTO;
 import cs489.miu.dentalsurgeryapp.model.Appointment;
+import cs489.miu.dentalsurgeryapp.model.AppointmentStatus;
 import cs489.miu.dentalsurgeryapp.model.Patient;
 import cs489.miu.dentalsurgeryapp.model.Dentist;
 import cs489.miu.dentalsurgeryapp.model.SurgeryLocation;
 
 @Repository
-public interface AppointmentRepository extends JpaRepository<Appointment, Integer> {
+public interface AppointmentRepository extends JpaRepository<Appointment, Integer>, NaturalKeyUpsert<Appointment>, ExportQuery {
+
+    // Single appointment (view/edit screens, REST API) with everything its DTO shows
+    @Override
+    @EntityGraph(Appointment.GRAPH_DETAIL)
+    Optional<Appointment> findById(Integer id);
+
+    // All appointments (REST list, admin search) with everything their DTOs show
+    @Override
+    @EntityGraph(Appointment.GRAPH_DETAIL)
+    List<Appointment> findAll();
     
     // Find appointment by patient, dentist, datetime, and surgery location (to avoid duplicates)
+    @EntityGraph(Appointment.GRAPH_DETAIL)
     Appointment findByPatientAndDentistAndAppointmentDateTimeAndSurgeryLocation(
         Patient patient,
         Dentist dentist,
@@ -34,25 +55,192 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Intege
     );
     
     // New methods for patient portal
+    @EntityGraph(Appointment.GRAPH_PATIENT_PORTAL)
     Page<Appointment> findByPatient(Patient patient, Pageable pageable);
     
-    Page<Appointment> findByPatientAndAppointmentStatus(Patient patient, String status, Pageable pageable);
+    @EntityGraph(Appointment.GRAPH_PATIENT_PORTAL)
+    Page<Appointment> findByPatientAndAppointmentStatus(Patient patient, AppointmentStatus status, Pageable pageable);
     
     long countByPatient(Patient patient);
     
     long countByPatientAndAppointmentDateTimeAfter(Patient patient, LocalDateTime dateTime);
     
-    long countByPatientAndAppointmentStatus(Patient patient, String status);
+    long countByPatientAndAppointmentStatus(Patient patient, AppointmentStatus status);
     
     // Methods for dentist portal
+    @EntityGraph(Appointment.GRAPH_DENTIST_PORTAL)
     Page<Appointment> findByDentist(Dentist dentist, Pageable pageable);
     
-    Page<Appointment> findByDentistAndAppointmentStatus(Dentist dentist, String status, Pageable pageable);
+    @EntityGraph(Appointment.GRAPH_DENTIST_PORTAL)
+    Page<Appointment> findByDentistAndAppointmentStatus(Dentist dentist, AppointmentStatus status, Pageable pageable);
     
     long countByDentist(Dentist dentist);
     
     long countByDentistAndAppointmentDateTimeAfter(Dentist dentist, LocalDateTime dateTime);
     
-    long countByDentistAndAppointmentStatus(Dentist dentist, String status);
-    
+    long countByDentistAndAppointmentStatus(Dentist dentist, AppointmentStatus status);
+
+    // Keyset pagination for the admin list, newest first. Rows strictly after the cursor
+    // (appointmentDateTime, appointment_id) in descending order; a null cursor starts at the top.
+    @Query("SELECT a FROM Appointment a JOIN FETCH a.patient p JOIN FETCH a.dentist d JOIN FETCH a.surgeryLocation " +
+           "WHERE (:patientId IS NULL OR p.patientId = :patientId) " +
+           "AND (:patientName IS NULL OR p.firstName LIKE CONCAT(:patientName, '%') OR p.lastName LIKE CONCAT(:patientName, '%')) " +
+           "AND (:dentistId IS NULL OR d.dentistId = :dentistId) " +
+           "AND (:type IS NULL OR a.appointmentType = :type) " +
+           "AND (:status IS NULL OR a.appointmentStatus = :status) " +
+           "AND (:from IS NULL OR a.appointmentDateTime >= :from) " +
+           "AND (:to IS NULL OR a.appointmentDateTime < :to) " +
+           "AND (:cursorDateTime IS NULL OR a.appointmentDateTime < :cursorDateTime " +
+           "     OR (a.appointmentDateTime = :cursorDateTime AND a.appointmentId < :cursorId)) " +
+           "ORDER BY a.appointmentDateTime DESC, a.appointmentId DESC")
+    List<Appointment> findPageAfterCursor(
+        @Param("patientId") Integer patientId,
+        @Param("patientName") String patientName,
+        @Param("dentistId") Integer dentistId,
+        @Param("type") String type,
+        @Param("status") AppointmentStatus status,
+        @Param("from") LocalDateTime from,
+        @Param("to") LocalDateTime to,
+        @Param("cursorDateTime") LocalDateTime cursorDateTime,
+        @Param("cursorId") Integer cursorId,
+        Limit limit
+    );
+
+    // Mirror of findPageAfterCursor used for "previous page": rows strictly before the cursor,
+    // returned in ascending order (closest to the cursor first). Callers reverse the result.
+    @Query("SELECT a FROM Appointment a JOIN FETCH a.patient p JOIN FETCH a.dentist d JOIN FETCH a.surgeryLocation " +
+           "WHERE (:patientId IS NULL OR p.patientId = :patientId) " +
+           "AND (:patientName IS NULL OR p.firstName LIKE CONCAT(:patientName, '%') OR p.lastName LIKE CONCAT(:patientName, '%')) " +
+           "AND (:dentistId IS NULL OR d.dentistId = :dentistId) " +
+           "AND (:type IS NULL OR a.appointmentType = :type) " +
+           "AND (:status IS NULL OR a.appointmentStatus = :status) " +
+           "AND (:from IS NULL OR a.appointmentDateTime >= :from) " +
+           "AND (:to IS NULL OR a.appointmentDateTime < :to) " +
+           "AND (a.appointmentDateTime > :cursorDateTime " +
+           "     OR (a.appointmentDateTime = :cursorDateTime AND a.appointmentId > :cursorId)) " +
+           "ORDER BY a.appointmentDateTime ASC, a.appointmentId ASC")
+    List<Appointment> findPageBeforeCursor(
+        @Param("patientId") Integer patientId,
+        @Param("patientName") String patientName,
+        @Param("dentistId") Integer dentistId,
+        @Param("type") String type,
+        @Param("status") AppointmentStatus status,
+        @Param("from") LocalDateTime from,
+        @Param("to") LocalDateTime to,
+        @Param("cursorDateTime") LocalDateTime cursorDateTime,
+        @Param("cursorId") Integer cursorId,
+        Limit limit
+    );
+
+    // Active (non-cancelled) appointments from a point in time, as id/dentist/time triples (load index rebuild)
+    @Query("SELECT new cs489.miu.dentalsurgeryapp.dto.AppointmentPlacementDTO(a.appointmentId, a.dentist.dentistId, a.appointmentDateTime) " +
+           "FROM Appointment a WHERE a.appointmentStatus <> cs489.miu.dentalsurgeryapp.model.AppointmentStatus.CANCELLED AND a.appointmentDateTime >= :from")
+    List<AppointmentPlacementDTO> findActivePlacementsFrom(@Param("from") LocalDateTime from);
+
+    // Every appointment from a point in time, cancelled included, as id/dentist/time triples (dashboard counters)
+    @Query("SELECT new cs489.miu.dentalsurgeryapp.dto.AppointmentPlacementDTO(a.appointmentId, a.dentist.dentistId, a.appointmentDateTime) " +
+           "FROM Appointment a WHERE a.appointmentDateTime >= :from")
+    List<AppointmentPlacementDTO> findPlacementsFrom(@Param("from") LocalDateTime from);
+
+    // Active appointments in [from, to) as id/dentist/time triples (reminder window load)
+    @Query("SELECT new cs489.miu.dentalsurgeryapp.dto.AppointmentPlacementDTO(a.appointmentId, a.dentist.dentistId, a.appointmentDateTime) " +
+           "FROM Appointment a WHERE a.appointmentStatus <> cs489.miu.dentalsurgeryapp.model.AppointmentStatus.CANCELLED AND a.appointmentDateTime >= :from AND a.appointmentDateTime < :to")
+    List<AppointmentPlacementDTO> findActivePlacementsBetween(
+        @Param("from") LocalDateTime from,
+        @Param("to") LocalDateTime to
+    );
+
+    // Count active appointments for a dentist in [start, end) (load index fallback for weeks it does not cover)
+    @Query("SELECT COUNT(a) FROM Appointment a WHERE a.dentist.dentistId = :dentistId AND a.appointmentStatus <> cs489.miu.dentalsurgeryapp.model.AppointmentStatus.CANCELLED " +
+           "AND a.appointmentDateTime >= :start AND a.appointmentDateTime < :end")
+    long countActiveByDentistIdBetween(
+        @Param("dentistId") Integer dentistId,
+        @Param("start") LocalDateTime start,
+        @Param("end") LocalDateTime end
+    );
+
+    // Whether a dentist has an active appointment starting at a given time (waitlist backfill; uk_appointments_booking prefix)
+    @Query("SELECT COUNT(a) > 0 FROM Appointment a WHERE a.dentist.dentistId = :dentistId AND a.appointmentDateTime = :dateTime " +
+           "AND a.appointmentStatus <> cs489.miu.dentalsurgeryapp.model.AppointmentStatus.CANCELLED")
+    boolean existsActiveAt(
+        @Param("dentistId") Integer dentistId,
+        @Param("dateTime") LocalDateTime dateTime
+    );
+
+    // Appointments of a dentist and/or a patient in [from, to) with what an occurrence shows (series occurrence lists)
+    @Query("SELECT a FROM Appointment a JOIN FETCH a.patient p JOIN FETCH a.dentist d JOIN FETCH a.surgeryLocation " +
+           "WHERE (:dentistId IS NULL OR d.dentistId = :dentistId) AND (:patientId IS NULL OR p.patientId = :patientId) " +
+           "AND a.appointmentDateTime >= :from AND a.appointmentDateTime < :to ORDER BY a.appointmentDateTime, a.appointmentId")
+    List<Appointment> findWithPartiesBetween(
+        @Param("dentistId") Integer dentistId,
+        @Param("patientId") Integer patientId,
+        @Param("from") LocalDateTime from,
+        @Param("to") LocalDateTime to
+    );
+
+    // Identity of existing appointments for a set of dentists in a time window (bulk import duplicate check)
+    @Query("SELECT new cs489.miu.dentalsurgeryapp.dto.AppointmentKeyDTO(a.appointmentId, a.patient.patientId, a.dentist.dentistId, " +
+           "a.surgeryLocation.surgeryLocationId, a.appointmentDateTime) FROM Appointment a " +
+           "WHERE a.dentist.dentistId IN :dentistIds AND a.appointmentDateTime BETWEEN :from AND :to")
+    List<AppointmentKeyDTO> findKeysByDentistsBetween(
+        @Param("dentistIds") Collection<Integer> dentistIds,
+        @Param("from") LocalDateTime from,
+        @Param("to") LocalDateTime to
+    );
+
+    // Identity of one appointment without loading it (owners to refresh when it changes)
+    @Query("SELECT new cs489.miu.dentalsurgeryapp.dto.AppointmentKeyDTO(a.appointmentId, a.patient.patientId, a.dentist.dentistId, " +
+           "a.surgeryLocation.surgeryLocationId, a.appointmentDateTime) FROM Appointment a WHERE a.appointmentId = :id")
+    Optional<AppointmentKeyDTO> findKeyById(@Param("id") Integer id);
+
+    // Patient dashboard figures in one pass: per status, the count, how many are after :now and the earliest of those
+    @Query("SELECT new cs489.miu.dentalsurgeryapp.dto.AppointmentStatusCountDTO(a.appointmentStatus, COUNT(a), " +
+           "SUM(CASE WHEN a.appointmentDateTime > :now THEN 1 ELSE 0 END), " +
+           "MIN(CASE WHEN a.appointmentDateTime > :now THEN a.appointmentDateTime END)) " +
+           "FROM Appointment a WHERE a.patient.patientId = :patientId GROUP BY a.appointmentStatus")
+    List<AppointmentStatusCountDTO> countByStatusForPatient(
+        @Param("patientId") Integer patientId,
+        @Param("now") LocalDateTime now
+    );
+
+    // Dentist dashboard figures, same shape as countByStatusForPatient
+    @Query("SELECT new cs489.miu.dentalsurgeryapp.dto.AppointmentStatusCountDTO(a.appointmentStatus, COUNT(a), " +
+           "SUM(CASE WHEN a.appointmentDateTime > :now THEN 1 ELSE 0 END), " +
+           "MIN(CASE WHEN a.appointmentDateTime > :now THEN a.appointmentDateTime END)) " +
+           "FROM Appointment a WHERE a.dentist.dentistId = :dentistId GROUP BY a.appointmentStatus")
+    List<AppointmentStatusCountDTO> countByStatusForDentist(
+        @Param("dentistId") Integer dentistId,
+        @Param("now") LocalDateTime now
+    );
+
+    // Latest appointments of a patient for the dashboard; a List result skips the page count query
+    @EntityGraph(Appointment.GRAPH_PATIENT_PORTAL)
+    List<Appointment> findByPatientPatientIdOrderByAppointmentDateTimeDesc(Integer patientId, Limit limit);
+
+    // A dentist's appointments from a point in time with what a calendar event shows (iCalendar feed load)
+    @Query("SELECT a FROM Appointment a JOIN FETCH a.patient JOIN FETCH a.dentist JOIN FETCH a.surgeryLocation sl " +
+           "LEFT JOIN FETCH sl.location WHERE a.dentist.dentistId = :dentistId AND a.appointmentDateTime >= :from")
+    List<Appointment> findForDentistCalendar(
+        @Param("dentistId") Integer dentistId,
+        @Param("from") LocalDateTime from
+    );
+
+    // A surgery location's appointments from a point in time, same fetch plan as findForDentistCalendar
+    @Query("SELECT a FROM Appointment a JOIN FETCH a.patient JOIN FETCH a.dentist JOIN FETCH a.surgeryLocation sl " +
+           "LEFT JOIN FETCH sl.location WHERE sl.surgeryLocationId = :locationId AND a.appointmentDateTime >= :from")
+    List<Appointment> findForLocationCalendar(
+        @Param("locationId") Integer locationId,
+        @Param("from") LocalDateTime from
+    );
+
+    // Changed appointments re-read for an already loaded iCalendar feed
+    @Query("SELECT a FROM Appointment a JOIN FETCH a.patient JOIN FETCH a.dentist JOIN FETCH a.surgeryLocation sl " +
+           "LEFT JOIN FETCH sl.location WHERE a.appointmentId IN :ids")
+    List<Appointment> findForCalendarByIds(@Param("ids") Collection<Integer> ids);
+
+    // Every appointment for streaming export, with the associations the export reads fetched in the same query
+    default Stream<Appointment> streamAllForExport() {
+        return streamForExport("SELECT a FROM Appointment a JOIN FETCH a.patient p LEFT JOIN FETCH p.address JOIN FETCH a.dentist " +
+            "JOIN FETCH a.surgeryLocation sl LEFT JOIN FETCH sl.location ORDER BY a.appointmentId", Appointment.class);
+    }
 }
@@ -0,0 +1,72 @@
+package cs489.miu.dentalsurgeryapp.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import cs489.miu.dentalsurgeryapp.model.AppointmentSeries;
+
+@Repository
+public interface AppointmentSeriesRepository extends JpaRepository<AppointmentSeries, Integer> {
+
+    // One series with the patient, dentist and location its occurrences are booked with
+    @Query("SELECT s FROM AppointmentSeries s JOIN FETCH s.patient JOIN FETCH s.dentist JOIN FETCH s.surgeryLocation " +
+           "WHERE s.seriesId = :id")
+    Optional<AppointmentSeries> findWithPartiesById(@Param("id") Integer id);
+
+    // Series whose next occurrence starts before a point in time (expansion job)
+    @Query("SELECT s.seriesId FROM AppointmentSeries s WHERE s.nextStart < :before ORDER BY s.nextStart")
+    List<Integer> findIdsDueBefore(@Param("before") LocalDateTime before);
+
+    // Open series of a dentist, without associations (virtual weekly load)
+    @Query("SELECT s FROM AppointmentSeries s WHERE s.dentist.dentistId = :dentistId AND s.nextStart IS NOT NULL")
+    List<AppointmentSeries> findOpenByDentistId(@Param("dentistId") Integer dentistId);
+
+    // Open series of a dentist and/or a patient with what an occurrence shows (occurrence lists)
+    @Query("SELECT s FROM AppointmentSeries s JOIN FETCH s.patient p JOIN FETCH s.dentist d JOIN FETCH s.surgeryLocation " +
+           "WHERE s.nextStart IS NOT NULL AND (:dentistId IS NULL OR d.dentistId = :dentistId) " +
+           "AND (:patientId IS NULL OR p.patientId = :patientId)")
+    List<AppointmentSeries> findOpenWithParties(
+        @Param("dentistId") Integer dentistId,
+        @Param("patientId") Integer patientId
+    );
+
+    // Open series of a dentist with what a calendar event shows (iCalendar feed)
+    @Query("SELECT s FROM AppointmentSeries s JOIN FETCH s.patient JOIN FETCH s.dentist JOIN FETCH s.surgeryLocation sl " +
+           "LEFT JOIN FETCH sl.location WHERE s.dentist.dentistId = :dentistId AND s.nextStart IS NOT NULL")
+    List<AppointmentSeries> findOpenForDentistCalendar(@Param("dentistId") Integer dentistId);
+
+    // Open series of a surgery location, same fetch plan as findOpenForDentistCalendar
+    @Query("SELECT s FROM AppointmentSeries s JOIN FETCH s.patient JOIN FETCH s.dentist JOIN FETCH s.surgeryLocation sl " +
+           "LEFT JOIN FETCH sl.location WHERE sl.surgeryLocationId = :locationId AND s.nextStart IS NOT NULL")
+    List<AppointmentSeries> findOpenForLocationCalendar(@Param("locationId") Integer locationId);
+
+    // Takes the next occurrence for expansion if nobody took it first; nextStart is that of the one after (null if none)
+    @Modifying
+    @Query("UPDATE AppointmentSeries s SET s.materializedCount = s.materializedCount + 1, s.nextStart = :nextStart " +
+           "WHERE s.seriesId = :id AND s.materializedCount = :materialized AND s.nextStart IS NOT NULL")
+    int claimOccurrence(
+        @Param("id") Integer id,
+        @Param("materialized") int materialized,
+        @Param("nextStart") LocalDateTime nextStart
+    );
+
+    // Counts an expanded occurrence that could not be booked
+    @Modifying
+    @Query("UPDATE AppointmentSeries s SET s.skippedCount = s.skippedCount + 1 WHERE s.seriesId = :id")
+    int incrementSkipped(@Param("id") Integer id);
+
+    // Stops a series; its virtual occurrences disappear
+    @Modifying
+    @Query("UPDATE AppointmentSeries s SET s.cancelledAt = :now, s.nextStart = NULL WHERE s.seriesId = :id AND s.cancelledAt IS NULL")
+    int cancel(
+        @Param("id") Integer id,
+        @Param("now") LocalDateTime now
+    );
+}
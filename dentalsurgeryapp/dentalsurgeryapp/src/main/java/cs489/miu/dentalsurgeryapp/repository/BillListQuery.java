@@ -0,0 +1,23 @@
+package cs489.miu.dentalsurgeryapp.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import cs489.miu.dentalsurgeryapp.dto.BillListItemDTO;
+import cs489.miu.dentalsurgeryapp.dto.BillSort;
+import cs489.miu.dentalsurgeryapp.model.Bill;
+
+/**
+ * Repository fragment for the admin bill list: list rows projected straight from the
+ * query instead of loading bill, patient and appointment entities.
+ */
+public interface BillListQuery {
+
+    /**
+     * @param spec  filters and keyset position, usually built with BillSpecifications
+     * @param sort  the sort key, followed by the bill id in the same direction
+     * @param limit the maximum number of rows
+     */
+    List<BillListItemDTO> findListItems(Specification<Bill> spec, BillSort sort, boolean ascending, int limit);
+}
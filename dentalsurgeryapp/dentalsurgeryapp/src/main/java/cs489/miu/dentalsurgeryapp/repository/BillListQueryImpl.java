@@ -0,0 +1,54 @@
+package cs489.miu.dentalsurgeryapp.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import cs489.miu.dentalsurgeryapp.dto.BillListItemDTO;
+import cs489.miu.dentalsurgeryapp.dto.BillSort;
+import cs489.miu.dentalsurgeryapp.model.Appointment;
+import cs489.miu.dentalsurgeryapp.model.Bill;
+import cs489.miu.dentalsurgeryapp.model.Patient;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+/**
+ * Bills are inner-joined to their patient and appointment (both are mandatory), and the
+ * specification's predicates reuse those joins. Ordered by (sort key, bill_id): the
+ * total-cost orders walk idx_bills_total_cost_id or, with a status filter,
+ * idx_bills_status_total_cost; the date orders walk idx_appointments_datetime_id.
+ */
+public class BillListQueryImpl implements BillListQuery {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<BillListItemDTO> findListItems(Specification<Bill> spec, BillSort sort, boolean ascending, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BillListItemDTO> query = cb.createQuery(BillListItemDTO.class);
+        Root<Bill> bill = query.from(Bill.class);
+        Join<Bill, Patient> patient = bill.join("patient");
+        Join<Bill, Appointment> appointment = bill.join("appointment");
+        query.select(cb.construct(BillListItemDTO.class,
+            bill.get("billId"), bill.get("totalCost"), bill.get("paymentStatus"),
+            patient.get("patientId"), patient.get("firstName"), patient.get("lastName"),
+            appointment.get("appointmentId"), appointment.get("appointmentType"), appointment.get("appointmentDateTime")));
+
+        Predicate where = spec != null ? spec.toPredicate(bill, query, cb) : null;
+        if (where != null) {
+            query.where(where);
+        }
+        Expression<?> key = BillSpecifications.sortKey(bill, sort);
+        query.orderBy(
+            ascending ? cb.asc(key) : cb.desc(key),
+            ascending ? cb.asc(bill.get("billId")) : cb.desc(bill.get("billId")));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+}
@@ -1,7 +1,10 @@
 package cs489.miu.dentalsurgeryapp.repository;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -9,35 +12,57 @@ import org.springframework.stereotype.Repository;
 
 import cs489.miu.dentalsurgeryapp.model.Bill;
 import cs489.miu.dentalsurgeryapp.model.Patient;
+import cs489.miu.dentalsurgeryapp.model.PaymentStatus;
 import cs489.miu.dentalsurgeryapp.model.Appointment;
 
 @Repository
-public interface BillRepository extends JpaRepository<Bill, Integer> {
+public interface BillRepository extends JpaRepository<Bill, Integer>, BillListQuery, ExportQuery {
+
+    // Bill list (admin page, REST): patient and appointment in the same select
+    @Override
+    @EntityGraph(Bill.GRAPH_LIST)
+    List<Bill> findAll();
+
+    @Override
+    @EntityGraph(Bill.GRAPH_LIST)
+    Optional<Bill> findById(Integer id);
     
     // Find bills by patient
     List<Bill> findByPatient(Patient patient);
     
     // Find bills by payment status
-    List<Bill> findByPaymentStatus(String paymentStatus);
+    List<Bill> findByPaymentStatus(PaymentStatus paymentStatus);
     
     // Find bill by appointment (since it's one-to-one)
+    @EntityGraph(Bill.GRAPH_LIST)
     Bill findByAppointment(Appointment appointment);
     
     // Find bills by patient ID
+    @EntityGraph(Bill.GRAPH_LIST)
     List<Bill> findByPatientPatientId(Integer patientId);
     
     // Find bills by payment status ordered by total cost descending
+    @EntityGraph(Bill.GRAPH_LIST)
     @Query("SELECT b FROM Bill b WHERE b.paymentStatus = :paymentStatus ORDER BY b.totalCost DESC")
-    List<Bill> findByPaymentStatusOrderByTotalCostDesc(@Param("paymentStatus") String paymentStatus);
+    List<Bill> findByPaymentStatusOrderByTotalCostDesc(@Param("paymentStatus") PaymentStatus paymentStatus);
     
     // Find all bills ordered by total cost descending
+    @EntityGraph(Bill.GRAPH_LIST)
     List<Bill> findAllByOrderByTotalCostDesc();
     
-    // Check if patient has any unpaid bills
-    @Query("SELECT COUNT(b) FROM Bill b WHERE b.patient = :patient AND b.paymentStatus != 'PAID'")
-    long countUnpaidBillsByPatient(@Param("patient") Patient patient);
-    
-    // Find unpaid bills by patient
-    @Query("SELECT b FROM Bill b WHERE b.patient = :patient AND b.paymentStatus != 'PAID'")
-    List<Bill> findUnpaidBillsByPatient(@Param("patient") Patient patient);
+    // Unpaid bills of a patient; a range scan of idx_bills_patient_status either side of PAID
+    @EntityGraph(Bill.GRAPH_LIST)
+    @Query("SELECT b FROM Bill b WHERE b.patient.patientId = :patientId AND b.paymentStatus <> cs489.miu.dentalsurgeryapp.model.PaymentStatus.PAID")
+    List<Bill> findUnpaidBillsByPatientId(@Param("patientId") Integer patientId);
+
+    // Ids of every bill not marked PAID (dashboard counters)
+    @Query("SELECT b.billId FROM Bill b WHERE b.paymentStatus <> cs489.miu.dentalsurgeryapp.model.PaymentStatus.PAID")
+    List<Integer> findUnpaidBillIds();
+
+    // Every bill for streaming export, with the associations the export reads fetched in the same query
+    default Stream<Bill> streamAllForExport() {
+        return streamForExport("SELECT b FROM Bill b JOIN FETCH b.patient p LEFT JOIN FETCH p.address JOIN FETCH b.appointment a " +
+            "JOIN FETCH a.patient ap LEFT JOIN FETCH ap.address JOIN FETCH a.dentist " +
+            "JOIN FETCH a.surgeryLocation sl LEFT JOIN FETCH sl.location ORDER BY b.billId", Bill.class);
+    }
 }
@@ -0,0 +1,95 @@
+package cs489.miu.dentalsurgeryapp.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import cs489.miu.dentalsurgeryapp.dto.BillSort;
+import cs489.miu.dentalsurgeryapp.model.Bill;
+import cs489.miu.dentalsurgeryapp.model.PaymentStatus;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+/**
+ * Predicates of the admin bill list. Only the filters that are set become part of the
+ * query, so an unfiltered page is a plain index-ordered scan. The patient and appointment
+ * joins are shared with the query's own select (see BillListQueryImpl).
+ */
+public final class BillSpecifications {
+
+    private BillSpecifications() {
+    }
+
+    // Every non-null argument restricts the result; no argument at all matches every bill
+    public static Specification<Bill> matching(String patientName, PaymentStatus status, BigDecimal minAmount,
+                                               BigDecimal maxAmount, LocalDateTime from, LocalDateTime to) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (patientName != null) {
+                // Prefix match, so an index on the name columns can still be used
+                From<?, ?> patient = join(root, "patient");
+                predicates.add(cb.or(
+                    cb.like(patient.get("firstName"), patientName + "%"),
+                    cb.like(patient.get("lastName"), patientName + "%")));
+            }
+            if (status != null) {
+                predicates.add(cb.equal(root.get("paymentStatus"), status));
+            }
+            if (minAmount != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("totalCost"), minAmount));
+            }
+            if (maxAmount != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("totalCost"), maxAmount));
+            }
+            if (from != null) {
+                predicates.add(cb.greaterThanOrEqualTo(join(root, "appointment").get("appointmentDateTime"), from));
+            }
+            if (to != null) {
+                predicates.add(cb.lessThan(join(root, "appointment").get("appointmentDateTime"), to));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    // Bills strictly after (totalCost, billId) in the given scan direction
+    public static Specification<Bill> afterTotalCost(BigDecimal totalCost, Integer billId, boolean ascending) {
+        return (root, query, cb) -> after(cb, root.get("totalCost"), totalCost, root.get("billId"), billId, ascending);
+    }
+
+    // Bills strictly after (appointment date, billId) in the given scan direction
+    public static Specification<Bill> afterAppointmentDate(LocalDateTime dateTime, Integer billId, boolean ascending) {
+        return (root, query, cb) -> after(cb, join(root, "appointment").get("appointmentDateTime"), dateTime,
+            root.get("billId"), billId, ascending);
+    }
+
+    // The column a sort key orders by
+    static Expression<?> sortKey(Root<Bill> root, BillSort sort) {
+        return sort == BillSort.TOTAL_COST ? root.get("totalCost") : join(root, "appointment").get("appointmentDateTime");
+    }
+
+    // The join to an association, reusing one the query already has
+    static From<?, ?> join(Root<Bill> root, String attribute) {
+        for (Join<Bill, ?> join : root.getJoins()) {
+            if (join.getAttribute().getName().equals(attribute)) {
+                return join;
+            }
+        }
+        return root.join(attribute);
+    }
+
+    private static <Y extends Comparable<? super Y>> Predicate after(CriteriaBuilder cb, Path<Y> key, Y value,
+                                                                  Path<Integer> id, Integer cursorId, boolean ascending) {
+        if (ascending) {
+            return cb.or(cb.greaterThan(key, value), cb.and(cb.equal(key, value), cb.greaterThan(id, cursorId)));
+        }
+        return cb.or(cb.lessThan(key, value), cb.and(cb.equal(key, value), cb.lessThan(id, cursorId)));
+    }
+}
@@ -6,11 +6,13 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface DentistRepository extends JpaRepository<Dentist, Integer> {
+public interface DentistRepository extends JpaRepository<Dentist, Integer>, NaturalKeyUpsert<Dentist>, ExportQuery {
     
     // Find dentist by email
     Optional<Dentist> findByEmail(String email);
@@ -37,4 +39,13 @@ public interface DentistRepository extends JpaRepository<Dentist, Integer> {
     
     // Find dentist by email (returns null if not found, for findOrCreate)
     Dentist findByEmailIgnoreCase(String email);
+
+    // Which of the given ids exist (set-based reference check for bulk import)
+    @Query("SELECT d.dentistId FROM Dentist d WHERE d.dentistId IN :ids")
+    List<Integer> findExistingIds(@Param("ids") Collection<Integer> ids);
+
+    // Every dentist for streaming export, with the associations the export reads fetched in the same query
+    default Stream<Dentist> streamAllForExport() {
+        return streamForExport("SELECT d FROM Dentist d ORDER BY d.dentistId", Dentist.class);
+    }
 }
@@ -0,0 +1,42 @@
+package cs489.miu.dentalsurgeryapp.repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import cs489.miu.dentalsurgeryapp.model.DentistWeekSlot;
+
+@Repository
+public interface DentistWeekSlotRepository extends JpaRepository<DentistWeekSlot, Integer> {
+
+    // Slot currently held by an appointment, if any
+    Optional<DentistWeekSlot> findByAppointmentId(Integer appointmentId);
+
+    // Slot numbers already taken in a dentist's week
+    @Query("SELECT s.slotNumber FROM DentistWeekSlot s WHERE s.dentistId = :dentistId AND s.weekStart = :weekStart")
+    List<Integer> findTakenSlotNumbers(@Param("dentistId") Integer dentistId, @Param("weekStart") LocalDate weekStart);
+
+    // Active appointments in a dentist's week that hold no slot yet (booked before slots existed)
+    @Query("SELECT a.appointmentId FROM Appointment a WHERE a.dentist.dentistId = :dentistId " +
+           "AND a.appointmentStatus <> cs489.miu.dentalsurgeryapp.model.AppointmentStatus.CANCELLED AND a.appointmentDateTime >= :start AND a.appointmentDateTime < :end " +
+           "AND a.appointmentId <> :excludeId " +
+           "AND NOT EXISTS (SELECT s FROM DentistWeekSlot s WHERE s.appointmentId = a.appointmentId)")
+    List<Integer> findUnslottedAppointmentIds(
+        @Param("dentistId") Integer dentistId,
+        @Param("start") LocalDateTime start,
+        @Param("end") LocalDateTime end,
+        @Param("excludeId") Integer excludeId
+    );
+
+    // Release the slot held by an appointment
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM DentistWeekSlot s WHERE s.appointmentId = :appointmentId")
+    int deleteByAppointmentId(@Param("appointmentId") Integer appointmentId);
+}
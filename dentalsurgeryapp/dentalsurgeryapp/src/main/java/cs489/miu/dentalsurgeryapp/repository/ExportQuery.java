@@ -0,0 +1,13 @@
+package cs489.miu.dentalsurgeryapp.repository;
+
+import java.util.stream.Stream;
+
+/**
+ * Repository fragment for the streaming exports: runs a read-only query whose rows are
+ * fetched from the database in chunks as the stream is consumed, not all at once.
+ * Consume inside a transaction and close the stream.
+ */
+public interface ExportQuery {
+
+    <T> Stream<T> streamForExport(String jpql, Class<T> type);
+}
@@ -0,0 +1,47 @@
+package cs489.miu.dentalsurgeryapp.repository;
+
+import java.util.Locale;
+import java.util.stream.Stream;
+
+import org.hibernate.Session;
+import org.hibernate.jpa.HibernateHints;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * The fetch size is set on the export query alone. MySQL Connector/J ignores a positive one
+ * unless cursor fetch is switched on for the whole connection, so on MySQL the query asks for
+ * a row-by-row streaming result instead; nothing else may run on the connection until the
+ * stream is closed, which the export queries' join fetches make sure of. H2 (local profile
+ * and tests) reads in chunks of the given size.
+ */
+public class ExportQueryImpl implements ExportQuery {
+
+    private static final int FETCH_SIZE = 500;
+    // Connector/J's marker for a streaming result set
+    private static final int MYSQL_STREAMING = Integer.MIN_VALUE;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile Boolean mySql;
+
+    @Override
+    public <T> Stream<T> streamForExport(String jpql, Class<T> type) {
+        return entityManager.createQuery(jpql, type)
+            .setHint(HibernateHints.HINT_FETCH_SIZE, isMySql() ? MYSQL_STREAMING : FETCH_SIZE)
+            .setHint(HibernateHints.HINT_READ_ONLY, true)
+            .getResultStream();
+    }
+
+    private boolean isMySql() {
+        Boolean cached = mySql;
+        if (cached == null) {
+            cached = entityManager.unwrap(Session.class).doReturningWork(connection ->
+                connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT).contains("mysql"));
+            mySql = cached;
+        }
+        return cached;
+    }
+}
@@ -0,0 +1,21 @@
+package cs489.miu.dentalsurgeryapp.repository;
+
+/**
+ * Repository fragment for the findOrCreate paths: inserts an entity unless a row with the
+ * same natural key (its unique constraint) already exists, in a single native upsert, so two
+ * concurrent calls with the same key end up with one row instead of racing a lookup.
+ * Implemented for Address, Dentist, Patient and Appointment (see NaturalKeyUpsertImpl).
+ */
+public interface NaturalKeyUpsert<T> {
+
+    /**
+     * @param entity a new entity (no id) whose natural key columns are all set
+     * @return the entity itself, now carrying its id, if it was inserted; otherwise the
+     *         existing row with that natural key
+     * @throws IllegalArgumentException if the entity already has an id
+     */
+    Upserted<T> insertIfAbsent(T entity);
+
+    record Upserted<T>(T entity, boolean inserted) {
+    }
+}
@@ -0,0 +1,208 @@
+package cs489.miu.dentalsurgeryapp.repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.transaction.annotation.Transactional;
+
+import cs489.miu.dentalsurgeryapp.model.Address;
+import cs489.miu.dentalsurgeryapp.model.Appointment;
+import cs489.miu.dentalsurgeryapp.model.Dentist;
+import cs489.miu.dentalsurgeryapp.model.Patient;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+
+/**
+ * MySQL: {@code INSERT ... ON DUPLICATE KEY UPDATE id = LAST_INSERT_ID(id)}. The row's id is
+ * allocated up front from the entity's own pooled generator, so the key the driver reports
+ * back tells the two outcomes apart: the id we sent means inserted, any other means the
+ * existing row with that id. H2 (local profile and tests): {@code MERGE ... WHEN NOT MATCHED
+ * THEN INSERT}, whose update count is 0 when the key already exists.
+ * <p>
+ * The statement bypasses Hibernate, so the entity is bean-validated here as persist would, and
+ * post-insert listeners (the audit journal) are notified of an inserted row.
+ */
+public class NaturalKeyUpsertImpl<T> implements NaturalKeyUpsert<T> {
+
+    // Natural key columns come first in both lists, in the order the unique constraint declares them
+    private record NaturalKey<E>(String table, String idColumn, List<String> keyColumns,
+                                 List<String> otherColumns, Function<E, Object[]> values) {
+    }
+
+    private static final Map<Class<?>, NaturalKey<?>> KEYS = Map.of(
+        Address.class, new NaturalKey<Address>("addresses", "address_id",
+            List.of("street", "city", "state", "zipcode"), List.of(),
+            a -> new Object[] {a.getStreet(), a.getCity(), a.getState(), a.getZipcode()}),
+        Dentist.class, new NaturalKey<Dentist>("dentists", "dentist_id",
+            List.of("email"), List.of("firstName", "lastName", "contactNumber", "specialization"),
+            d -> new Object[] {d.getEmail(), d.getFirstName(), d.getLastName(), d.getContactNumber(), d.getSpecialization()}),
+        Patient.class, new NaturalKey<Patient>("patients", "patient_id",
+            List.of("email"), List.of("firstName", "lastName", "contactNumber", "dob", "billing_address_id"),
+            p -> new Object[] {p.getEmail(), p.getFirstName(), p.getLastName(), p.getContactNumber(), p.getDob(),
+                p.getAddress() != null ? p.getAddress().getAddressId() : null}),
+        Appointment.class, new NaturalKey<Appointment>("appointments", "appointment_id",
+            List.of("dentist_id", "appointmentDateTime", "patient_id", "surgerylocation"),
+            List.of("appointmentStatus", "appointmentType"),
+            a -> new Object[] {a.getDentist() != null ? a.getDentist().getDentistId() : null, a.getAppointmentDateTime(),
+                a.getPatient() != null ? a.getPatient().getPatientId() : null,
+                a.getSurgeryLocation() != null ? a.getSurgeryLocation().getSurgeryLocationId() : null,
+                a.getStatus() != null ? a.getStatus().getCode() : null, a.getAppointmentType()})
+    );
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final Validator validator;
+
+    private volatile Boolean mySql;
+
+    public NaturalKeyUpsertImpl(Validator validator) {
+        this.validator = validator;
+    }
+
+    @Override
+    @Transactional
+    @SuppressWarnings("unchecked")
+    public Upserted<T> insertIfAbsent(T entity) {
+        NaturalKey<T> key = (NaturalKey<T>) KEYS.get(entity.getClass());
+        if (key == null) {
+            throw new IllegalArgumentException("No natural key upsert for " + entity.getClass().getSimpleName());
+        }
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        EntityPersister persister = session.getFactory().getMappingMetamodel().getEntityDescriptor(entity.getClass());
+        if (persister.getIdentifier(entity, session) != null) {
+            // A stored row: upserting it would lock it, re-validate it and insert a copy if its key was edited
+            throw new IllegalArgumentException(entity.getClass().getSimpleName() + " already has an id; only new entities are upserted");
+        }
+        Set<ConstraintViolation<T>> violations = validator.validate(entity);
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+        Object[] values = key.values().apply(entity);
+        for (int i = 0; i < key.keyColumns().size(); i++) {
+            if (values[i] == null || (values[i] instanceof String s && s.isBlank())) {
+                throw new IllegalArgumentException(key.table() + "." + key.keyColumns().get(i) + " is part of the natural key and must be set");
+            }
+        }
+
+        // Pending changes in this transaction (e.g. the address a new patient points at) go first
+        entityManager.flush();
+        Object id = ((BeforeExecutionGenerator) persister.getGenerator()).generate(session, entity, null, EventType.INSERT);
+
+        Object existingId = session.doReturningWork(connection -> isMySql(connection)
+            ? upsertMySql(connection, key, id, values)
+            : mergeH2(connection, key, id, values));
+        if (existingId == null) {
+            persister.setIdentifier(entity, id, session);
+            session.getFactory().getServiceRegistry().getService(EventListenerRegistry.class)
+                .getEventListenerGroup(org.hibernate.event.spi.EventType.POST_INSERT)
+                .fireLazyEventOnEachListener(() -> new PostInsertEvent(entity, id, persister.getValues(entity), persister,
+                    entityManager.unwrap(EventSource.class)), PostInsertEventListener::onPostInsert);
+            return new Upserted<>(entity, true);
+        }
+        return new Upserted<>((T) entityManager.find(entity.getClass(), existingId), false);
+    }
+
+    // Returns the id of the existing row, or null if this row was inserted
+    private static Object upsertMySql(Connection connection, NaturalKey<?> key, Object id, Object[] values) throws SQLException {
+        List<String> columns = columns(key);
+        String sql = "INSERT INTO " + key.table() + " (" + key.idColumn() + ", " + String.join(", ", columns) + ")"
+            + " VALUES (?" + ", ?".repeat(columns.size()) + ")"
+            + " ON DUPLICATE KEY UPDATE " + key.idColumn() + " = LAST_INSERT_ID(" + key.idColumn() + ")";
+        try (PreparedStatement statement = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            statement.setObject(1, id);
+            bind(statement, 2, values);
+            statement.executeUpdate();
+            try (ResultSet keys = statement.getGeneratedKeys()) {
+                // Inserted rows report the id we sent (or nothing when the column is not AUTO_INCREMENT)
+                if (keys.next()) {
+                    int reported = keys.getInt(1);
+                    if (reported != 0 && !id.equals(reported)) {
+                        return reported;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private static Object mergeH2(Connection connection, NaturalKey<?> key, Object id, Object[] values) throws SQLException {
+        List<String> columns = columns(key);
+        String match = key.keyColumns().stream().map(c -> "t." + c + " = ?").collect(Collectors.joining(" AND "));
+        String sql = "MERGE INTO " + key.table() + " t USING DUAL ON (" + match + ")"
+            + " WHEN NOT MATCHED THEN INSERT (" + key.idColumn() + ", " + String.join(", ", columns) + ")"
+            + " VALUES (?" + ", ?".repeat(columns.size()) + ")";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            int next = bind(statement, 1, keyValues(key, values));
+            statement.setObject(next, id);
+            bind(statement, next + 1, values);
+            if (statement.executeUpdate() == 1) {
+                return null;
+            }
+        } catch (SQLException e) {
+            // A concurrent MERGE inserted the same key first; H2 does not lock the gap
+            if (!"23505".equals(e.getSQLState())) {
+                throw e;
+            }
+        }
+        String find = "SELECT " + key.idColumn() + " FROM " + key.table() + " WHERE "
+            + key.keyColumns().stream().map(c -> c + " = ?").collect(Collectors.joining(" AND "));
+        try (PreparedStatement statement = connection.prepareStatement(find)) {
+            bind(statement, 1, keyValues(key, values));
+            try (ResultSet rows = statement.executeQuery()) {
+                if (!rows.next()) {
+                    throw new SQLException("Row with the natural key of " + key.table() + " disappeared during upsert");
+                }
+                return rows.getInt(1);
+            }
+        }
+    }
+
+    private static List<String> columns(NaturalKey<?> key) {
+        return Stream.concat(key.keyColumns().stream(), key.otherColumns().stream()).toList();
+    }
+
+    private static Object[] keyValues(NaturalKey<?> key, Object[] values) {
+        Object[] keyValues = new Object[key.keyColumns().size()];
+        System.arraycopy(values, 0, keyValues, 0, keyValues.length);
+        return keyValues;
+    }
+
+    // Binds values from the given parameter index on and returns the next free index
+    private static int bind(PreparedStatement statement, int from, Object[] values) throws SQLException {
+        for (Object value : values) {
+            statement.setObject(from++, value);
+        }
+        return from;
+    }
+
+    private boolean isMySql(Connection connection) throws SQLException {
+        Boolean cached = mySql;
+        if (cached == null) {
+            cached = connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT).contains("mysql");
+            mySql = cached;
+        }
+        return cached;
+    }
+}
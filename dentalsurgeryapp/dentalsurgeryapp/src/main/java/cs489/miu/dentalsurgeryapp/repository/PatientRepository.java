@@ -1,18 +1,35 @@
 package cs489.miu.dentalsurgeryapp.repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import cs489.miu.dentalsurgeryapp.model.Patient;
 import cs489.miu.dentalsurgeryapp.model.Address;
 
-public interface PatientRepository extends JpaRepository<Patient, Integer> {
+public interface PatientRepository extends JpaRepository<Patient, Integer>, NaturalKeyUpsert<Patient>, ExportQuery {
+
+    // Patient screens and DTOs always show the address, so load it with the patient
+    @Override
+    @EntityGraph(Patient.GRAPH_ADDRESS)
+    Optional<Patient> findById(Integer id);
+
+    @Override
+    @EntityGraph(Patient.GRAPH_ADDRESS)
+    List<Patient> findAll();
     
     // Method to find all patients sorted by last name in ascending order
+    @EntityGraph(Patient.GRAPH_ADDRESS)
     List<Patient> findAllByOrderByLastNameAsc();
     
     // Method to search patients by first name, last name, or email (case insensitive)
+    @EntityGraph(Patient.GRAPH_ADDRESS)
     List<Patient> findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCaseOrEmailContainingIgnoreCase(
             String firstName, String lastName, String email);
     
@@ -20,6 +37,15 @@ public interface PatientRepository extends JpaRepository<Patient, Integer> {
     List<Patient> findByAddress(Address address);
     
     // Method to check if patient exists by email (assuming email is unique identifier)
+    @EntityGraph(Patient.GRAPH_ADDRESS)
     Patient findByEmail(String email);
-    
+
+    // Which of the given ids exist (set-based reference check for bulk import)
+    @Query("SELECT p.patientId FROM Patient p WHERE p.patientId IN :ids")
+    List<Integer> findExistingIds(@Param("ids") Collection<Integer> ids);
+
+    // Every patient for streaming export, with the associations the export reads fetched in the same query
+    default Stream<Patient> streamAllForExport() {
+        return streamForExport("SELECT p FROM Patient p LEFT JOIN FETCH p.address ORDER BY p.patientId", Patient.class);
+    }
 }
@@ -1,45 +1,67 @@
 package cs489.miu.dentalsurgeryapp.repository;
 
-
 import cs489.miu.dentalsurgeryapp.model.SurgeryLocation;
 import cs489.miu.dentalsurgeryapp.model.Address;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface SurgeryLocationRepository extends JpaRepository<SurgeryLocation, Integer> {
+public interface SurgeryLocationRepository extends JpaRepository<SurgeryLocation, Integer>, ExportQuery {
+
+    // Surgery location screens and DTOs always show the address, so load it with the location
+    @Override
+    @EntityGraph(SurgeryLocation.GRAPH_ADDRESS)
+    Optional<SurgeryLocation> findById(Integer id);
+
+    @Override
+    @EntityGraph(SurgeryLocation.GRAPH_ADDRESS)
+    List<SurgeryLocation> findAll();
     
     // Find surgery location by name
+    @EntityGraph(SurgeryLocation.GRAPH_ADDRESS)
     Optional<SurgeryLocation> findByName(String name);
     
     // Find surgery locations by contact number
+    @EntityGraph(SurgeryLocation.GRAPH_ADDRESS)
     List<SurgeryLocation> findByContactNumber(String contactNumber);
     
     // Find surgery locations by city (through location relationship)
-    @Query("SELECT sl FROM SurgeryLocation sl JOIN sl.location a WHERE a.city = :city")
+    @Query("SELECT sl FROM SurgeryLocation sl JOIN FETCH sl.location a WHERE a.city = :city")
     List<SurgeryLocation> findByCity(@Param("city") String city);
     
     // Find surgery locations by state (through location relationship)
-    @Query("SELECT sl FROM SurgeryLocation sl JOIN sl.location a WHERE a.state = :state")
+    @Query("SELECT sl FROM SurgeryLocation sl JOIN FETCH sl.location a WHERE a.state = :state")
     List<SurgeryLocation> findByState(@Param("state") String state);
     
     // Find surgery locations by zipcode (through location relationship)
-    @Query("SELECT sl FROM SurgeryLocation sl JOIN sl.location a WHERE a.zipcode = :zipcode")
+    @Query("SELECT sl FROM SurgeryLocation sl JOIN FETCH sl.location a WHERE a.zipcode = :zipcode")
     List<SurgeryLocation> findByZipcode(@Param("zipcode") String zipcode);
     
     // Find all surgery locations ordered by name
-    @Query("SELECT sl FROM SurgeryLocation sl ORDER BY sl.name")
+    @Query("SELECT sl FROM SurgeryLocation sl LEFT JOIN FETCH sl.location ORDER BY sl.name")
     List<SurgeryLocation> findAllOrderedByName();
     
     // Check if name exists
     boolean existsByName(String name);
     
     // Find surgery location by name and address (for findOrCreate - to avoid duplicates)
-    @Query("SELECT sl FROM SurgeryLocation sl WHERE sl.name = :name AND sl.location = :location")
+    @Query("SELECT sl FROM SurgeryLocation sl JOIN FETCH sl.location l WHERE sl.name = :name AND l = :location")
     SurgeryLocation findByNameAndLocation(@Param("name") String name, @Param("location") Address location);
+
+    // Which of the given ids exist (set-based reference check for bulk import)
+    @Query("SELECT sl.surgeryLocationId FROM SurgeryLocation sl WHERE sl.surgeryLocationId IN :ids")
+    List<Integer> findExistingIds(@Param("ids") Collection<Integer> ids);
+
+    // Every surgery location for streaming export, with the associations the export reads fetched in the same query
+    default Stream<SurgeryLocation> streamAllForExport() {
+        return streamForExport("SELECT sl FROM SurgeryLocation sl LEFT JOIN FETCH sl.location ORDER BY sl.surgeryLocationId", SurgeryLocation.class);
+    }
 }
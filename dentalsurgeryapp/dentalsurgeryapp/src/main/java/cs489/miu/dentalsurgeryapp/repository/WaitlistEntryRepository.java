@@ -0,0 +1,58 @@
+package cs489.miu.dentalsurgeryapp.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import cs489.miu.dentalsurgeryapp.model.WaitlistEntry;
+import cs489.miu.dentalsurgeryapp.model.WaitlistStatus;
+
+@Repository
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntry, Integer> {
+
+    // A dentist's entries in one status whose window has not closed, oldest first (waitlist queue load)
+    @Query("SELECT w FROM WaitlistEntry w WHERE w.dentistId = :dentistId AND w.status = :status AND w.latest > :now " +
+           "ORDER BY w.createdAt, w.waitlistEntryId")
+    List<WaitlistEntry> findOpenByDentist(
+        @Param("dentistId") Integer dentistId,
+        @Param("status") WaitlistStatus status,
+        @Param("now") LocalDateTime now
+    );
+
+    // A patient's entries, newest first
+    List<WaitlistEntry> findByPatientIdOrderByCreatedAtDesc(Integer patientId);
+
+    // Whether the patient already waits for the dentist (one waiting entry per patient and dentist)
+    boolean existsByPatientIdAndDentistIdAndStatus(Integer patientId, Integer dentistId, WaitlistStatus status);
+
+    // Moves an entry between statuses only if it is still in the expected one; 0 means someone else moved it first
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE WaitlistEntry w SET w.status = :to WHERE w.waitlistEntryId = :id AND w.status = :from")
+    int transition(
+        @Param("id") Integer id,
+        @Param("from") WaitlistStatus from,
+        @Param("to") WaitlistStatus to
+    );
+
+    // Records the appointment an offered entry was booked into
+    @Modifying
+    @Query("UPDATE WaitlistEntry w SET w.offeredAppointmentId = :appointmentId WHERE w.waitlistEntryId = :id")
+    int setOfferedAppointment(
+        @Param("id") Integer id,
+        @Param("appointmentId") Integer appointmentId
+    );
+
+    // Expires the entries in one status whose window closed before :now
+    @Modifying
+    @Query("UPDATE WaitlistEntry w SET w.status = :expired WHERE w.status = :status AND w.latest <= :now")
+    int expireClosed(
+        @Param("status") WaitlistStatus status,
+        @Param("expired") WaitlistStatus expired,
+        @Param("now") LocalDateTime now
+    );
+}
@@ -2,6 +2,7 @@ package cs489.miu.dentalsurgeryapp.service;
 
  
 import java.util.List;
+import java.util.stream.Stream;
 import cs489.miu.dentalsurgeryapp.dto.AddressResponseDTO;
 import cs489.miu.dentalsurgeryapp.dto.AddressWithPatientsResponseDTO;
 import cs489.miu.dentalsurgeryapp.model.Address;
@@ -15,4 +16,7 @@ public interface AddressService {
     List<AddressResponseDTO> getAllAddressesSortedByCity();
     Address findOrCreateAddress(Address address);
     List<AddressWithPatientsResponseDTO> getAllAddressesWithPatientsSortedByCity();
+
+    // Every address in id order for export; consume inside a transaction and close the stream
+    Stream<Address> streamAllAddresses();
 }
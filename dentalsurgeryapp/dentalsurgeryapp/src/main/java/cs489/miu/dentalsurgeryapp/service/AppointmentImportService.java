@@ -0,0 +1,20 @@
+package cs489.miu.dentalsurgeryapp.service;
+
+import java.util.List;
+
+import cs489.miu.dentalsurgeryapp.dto.AppointmentImportResultDTO;
+import cs489.miu.dentalsurgeryapp.dto.AppointmentImportRowDTO;
+
+/**
+ * Bulk loading of appointments, e.g. when migrating a clinic's history.
+ */
+public interface AppointmentImportService {
+
+    /**
+     * Validates the whole batch in memory against set-based reference lookups, then inserts the
+     * accepted rows in JDBC batches. Rows matching an existing appointment (same patient, dentist,
+     * location and time) are reported as duplicates and left untouched.
+     * @throws IllegalArgumentException if the batch is larger than the configured maximum
+     */
+    AppointmentImportResultDTO importAppointments(List<AppointmentImportRowDTO> rows);
+}
@@ -0,0 +1,19 @@
+package cs489.miu.dentalsurgeryapp.service;
+
+import cs489.miu.dentalsurgeryapp.dto.ReminderStatsDTO;
+import cs489.miu.dentalsurgeryapp.model.Appointment;
+
+/**
+ * Schedules reminders ahead of each upcoming appointment (by default 24 hours and 2 hours
+ * before) and hands them to the ReminderNotifier when they come due.
+ */
+public interface AppointmentReminderService {
+
+    // Re-arm the reminders of an appointment from its committed state (created, moved or cancelled)
+    void recordSaved(Appointment appointment);
+
+    // Drop the reminders of an appointment that was deleted
+    void recordDeleted(Integer appointmentId);
+
+    ReminderStatsDTO getStats();
+}
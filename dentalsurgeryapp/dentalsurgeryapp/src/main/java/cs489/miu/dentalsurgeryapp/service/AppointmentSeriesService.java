@@ -0,0 +1,53 @@
+package cs489.miu.dentalsurgeryapp.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import cs489.miu.dentalsurgeryapp.dto.AppointmentOccurrenceDTO;
+import cs489.miu.dentalsurgeryapp.exception.AppointmentLimitExceededException;
+import cs489.miu.dentalsurgeryapp.exception.OutstandingBillException;
+import cs489.miu.dentalsurgeryapp.model.Appointment;
+import cs489.miu.dentalsurgeryapp.model.AppointmentSeries;
+
+/**
+ * Recurring appointments. A series is validated as a whole when it is created; its
+ * occurrences are then expanded into appointments only as they come within a rolling
+ * horizon, and the ones beyond it stay virtual: they still count towards the dentist's
+ * weekly limit and show up in occurrence lists and calendar feeds.
+ */
+public interface AppointmentSeriesService {
+
+    int MAX_OCCURRENCES = 260;
+    int MAX_INTERVAL_WEEKS = 52;
+
+    /**
+     * Validates every occurrence in one pass (business hours, the weekly limit counting both
+     * booked and virtual appointments, the patient's outstanding bills), saves the series and
+     * expands the occurrences within the horizon.
+     * @throws IllegalArgumentException if the rule is invalid or the time is outside business hours
+     * @throws AppointmentLimitExceededException if any occurrence falls in a full week; all such weeks are listed
+     */
+    AppointmentSeries createSeries(AppointmentSeries series) throws AppointmentLimitExceededException, OutstandingBillException;
+
+    Optional<AppointmentSeries> findSeriesById(Integer seriesId);
+
+    // Stops the series and cancels its upcoming expanded appointments; false if it was not open
+    boolean cancelSeries(Integer seriesId);
+
+    // Expands the occurrences of every series that came within the horizon; returns how many were booked
+    int expandDue();
+
+    // Stored appointments and virtual occurrences of a dentist and/or a patient in [from, to), by start time
+    List<AppointmentOccurrenceDTO> findOccurrences(Integer dentistId, Integer patientId, LocalDateTime from, LocalDateTime to);
+
+    // Virtual occurrences of a dentist in the week starting on the given Sunday
+    int countVirtualInWeek(Integer dentistId, LocalDate weekStart);
+
+    // What the weekly limit is checked against: booked appointments from the load index plus virtual occurrences
+    long effectiveWeeklyLoad(Integer dentistId, LocalDate weekStart);
+
+    // The same for the appointment's dentist and week, not counting the appointment itself if it is already booked there
+    long effectiveWeeklyLoadExcluding(Appointment appointment);
+}
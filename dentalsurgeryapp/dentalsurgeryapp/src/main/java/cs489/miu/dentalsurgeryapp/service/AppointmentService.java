@@ -1,16 +1,21 @@
 package cs489.miu.dentalsurgeryapp.service;
 
+import cs489.miu.dentalsurgeryapp.dto.AppointmentFilterDTO;
 import cs489.miu.dentalsurgeryapp.dto.AppointmentRequestDTO;
+import cs489.miu.dentalsurgeryapp.dto.KeysetPageDTO;
 import cs489.miu.dentalsurgeryapp.model.Appointment;
 import cs489.miu.dentalsurgeryapp.model.AppointmentStatus;
+import cs489.miu.dentalsurgeryapp.model.Bill;
 import cs489.miu.dentalsurgeryapp.model.Dentist;
 import cs489.miu.dentalsurgeryapp.model.Patient;
 import cs489.miu.dentalsurgeryapp.exception.AppointmentLimitExceededException;
 import cs489.miu.dentalsurgeryapp.exception.OutstandingBillException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface AppointmentService {
     
@@ -20,10 +25,16 @@ public interface AppointmentService {
     Appointment updateAppointment(Appointment appointment) throws AppointmentLimitExceededException, OutstandingBillException;
     boolean deleteAppointmentById(Integer id);
     Appointment findOrCreateAppointment(Appointment appointment) throws AppointmentLimitExceededException, OutstandingBillException;
+
+    // Keyset-paginated admin list, newest first. cursor is an opaque token from a previous page;
+    // backward=true returns the page that precedes the cursor.
+    KeysetPageDTO<Appointment> findAppointmentsPage(AppointmentFilterDTO filter, String cursor, boolean backward, int size);
     
     // New methods for patient portal
     Optional<Appointment> findAppointmentById(Long id);
     Page<Appointment> findAppointmentsByPatient(Patient patient, Pageable pageable);
+    // Latest appointments of a patient, newest first, without a page count (dashboard)
+    List<Appointment> findRecentAppointmentsByPatient(Integer patientId, int limit);
     Page<Appointment> findAppointmentsByPatientAndStatus(Patient patient, AppointmentStatus status, Pageable pageable);
     long countAppointmentsByPatient(Patient patient);
     long countUpcomingAppointmentsByPatient(Patient patient);
@@ -31,6 +42,10 @@ public interface AppointmentService {
     Appointment createAppointment(AppointmentRequestDTO appointmentDto) throws AppointmentLimitExceededException, OutstandingBillException;
     Appointment updateAppointment(AppointmentRequestDTO appointmentDto) throws AppointmentLimitExceededException, OutstandingBillException;
     Appointment saveAppointment(Appointment appointment);
+
+    // Marks the appointment CHECKOUT and creates or updates its bill in one transaction; the
+    // amount is required when there is no bill yet. Returns null if there is no such appointment.
+    Bill checkoutAppointment(Integer appointmentId, BigDecimal totalCost, String paymentStatus) throws AppointmentLimitExceededException;
     
     // Methods for dentist portal
     Page<Appointment> findAppointmentsByDentist(Dentist dentist, Pageable pageable);
@@ -38,5 +53,7 @@ public interface AppointmentService {
     long countAppointmentsByDentist(Dentist dentist);
     long countUpcomingAppointmentsByDentist(Dentist dentist);
     long countCompletedAppointmentsByDentist(Dentist dentist);
-    
+
+    // Every appointment in id order for export; consume inside a transaction and close the stream
+    Stream<Appointment> streamAllAppointments();
 }
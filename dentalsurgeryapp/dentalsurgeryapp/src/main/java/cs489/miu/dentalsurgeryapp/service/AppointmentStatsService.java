@@ -0,0 +1,18 @@
+package cs489.miu.dentalsurgeryapp.service;
+
+import cs489.miu.dentalsurgeryapp.dto.AppointmentStatsDTO;
+
+/**
+ * Dashboard figures of a patient or dentist, each computed by one aggregation query and
+ * cached for a short time. Entries are dropped when an appointment of their owner changes
+ * and when their next appointment starts, since that moves it from upcoming to past.
+ */
+public interface AppointmentStatsService {
+
+    AppointmentStatsDTO getPatientStats(Integer patientId);
+
+    AppointmentStatsDTO getDentistStats(Integer dentistId);
+
+    // Drop the cached figures of a patient and a dentist (either may be null) once the current transaction commits
+    void evict(Integer patientId, Integer dentistId);
+}
@@ -0,0 +1,54 @@
+package cs489.miu.dentalsurgeryapp.service;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import cs489.miu.dentalsurgeryapp.dto.AuditEventDTO;
+
+/**
+ * Append-only journal of changes to appointments and bills, fed by a Hibernate event
+ * listener with the committed changes only.
+ */
+public interface AuditJournalService {
+
+    String APPOINTMENT = "APPOINTMENT";
+    String BILL = "BILL";
+    // Actor of changes made without a signed-in user: scheduled jobs, imports, anonymous requests
+    String SYSTEM_ACTOR = "system";
+
+    enum Durability {
+        // Events are written in the changing transaction and commit (or roll back) with it
+        FLUSH_ON_COMMIT,
+        // Events are queued after the commit and written in batches by a background writer;
+        // what is still queued is lost if the instance dies
+        BEST_EFFORT
+    }
+
+    Durability durability();
+
+    // Queues committed events for the background writer
+    void append(List<AuditEventDTO> events);
+
+    // Inserts events on the given connection, in one batch
+    void write(Connection connection, List<AuditEventDTO> events) throws SQLException;
+
+    // Writes everything queued so far
+    void flush();
+
+    // Change history of one appointment or bill, oldest first, including events still queued
+    List<AuditEventDTO> findHistory(String entityType, Integer entityId);
+
+    // Who is making the current change, for the events it journals
+    static String currentActor() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated() || authentication instanceof AnonymousAuthenticationToken) {
+            return SYSTEM_ACTOR;
+        }
+        return authentication.getName();
+    }
+}
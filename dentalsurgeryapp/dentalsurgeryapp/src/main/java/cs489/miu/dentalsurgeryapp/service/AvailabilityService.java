@@ -0,0 +1,38 @@
+package cs489.miu.dentalsurgeryapp.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import cs489.miu.dentalsurgeryapp.dto.AvailableSlotDTO;
+import cs489.miu.dentalsurgeryapp.model.Appointment;
+
+/**
+ * Free-slot search over an in-memory occupancy bitmap per dentist and day. Each bit is one
+ * fixed-length slot inside business hours; searches never touch the appointments table.
+ */
+public interface AvailabilityService {
+
+    int MAX_RESULTS = 100;
+
+    /**
+     * Earliest free slots for a dentist between two dates (inclusive), skipping past times,
+     * closed days and weeks in which the dentist has reached the weekly limit.
+     * @param surgeryLocationId location the slots are offered at; echoed on each result
+     */
+    List<AvailableSlotDTO> findFreeSlots(Integer dentistId, Integer surgeryLocationId, LocalDate from, LocalDate to, int limit);
+
+    // Whether the dentist has no active appointment in the slot the given time falls in
+    boolean isSlotFree(Integer dentistId, LocalDateTime dateTime);
+
+    // Apply the committed state of an appointment (created, moved, cancelled or re-activated)
+    void recordSaved(Appointment appointment);
+
+    // Forget an appointment that was deleted
+    void recordDeleted(Integer appointmentId);
+
+    // Reload the bitmaps from the appointments table
+    void rebuild();
+
+    int getSlotMinutes();
+}
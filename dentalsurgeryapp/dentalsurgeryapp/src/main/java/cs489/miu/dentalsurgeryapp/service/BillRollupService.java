@@ -0,0 +1,45 @@
+package cs489.miu.dentalsurgeryapp.service;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.List;
+
+import cs489.miu.dentalsurgeryapp.dto.ArAgingDTO;
+import cs489.miu.dentalsurgeryapp.dto.BillRollupRebuildDTO;
+import cs489.miu.dentalsurgeryapp.dto.RevenueRowDTO;
+
+/**
+ * Billing rollups (bill_daily_rollups): bill count and total per appointment day, dentist,
+ * surgery location and payment status, kept in step with the bills in the same transaction
+ * (see BillRollupListener), so the finance reports read a few rollup rows instead of the
+ * bill history.
+ */
+public interface BillRollupService {
+
+    enum Grouping {
+        DENTIST,
+        LOCATION
+    }
+
+    // Bills PENDING or OVERDUE in 0-30, 31-60, 61-90 and 90+ day buckets; null ids mean all
+    ArAgingDTO getAging(LocalDate asOf, Integer dentistId, Integer locationId);
+
+    // One row per month (from and to inclusive) and dentist or location that has bills
+    List<RevenueRowDTO> getMonthlyRevenue(YearMonth from, YearMonth to, Grouping grouping);
+
+    /**
+     * Moves the rollups of the given bills, and of the bills of the given appointments, from
+     * what each was last counted as to its current row, on the caller's connection so the
+     * change commits or rolls back with the transaction. Deleted bills are taken out.
+     * Call {@link #syncCompleted()} once that transaction has completed, either way.
+     */
+    void sync(Connection connection, Collection<Integer> billIds, Collection<Integer> appointmentIds) throws SQLException;
+
+    void syncCompleted();
+
+    // Recompute every rollup from the bills and appointments tables
+    BillRollupRebuildDTO rebuild();
+}
@@ -1,15 +1,28 @@
 package cs489.miu.dentalsurgeryapp.service;
 
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.stream.Stream;
 
+import cs489.miu.dentalsurgeryapp.model.Appointment;
 import cs489.miu.dentalsurgeryapp.model.Bill;
+import cs489.miu.dentalsurgeryapp.dto.BillFilterDTO;
+import cs489.miu.dentalsurgeryapp.dto.BillListItemDTO;
 import cs489.miu.dentalsurgeryapp.dto.BillResponseDTO;
+import cs489.miu.dentalsurgeryapp.dto.BillSort;
+import cs489.miu.dentalsurgeryapp.dto.KeysetPageDTO;
+import cs489.miu.dentalsurgeryapp.dto.PatientBalanceDTO;
 
 public interface BillService {
     
     Bill addNewBill(Bill bill);
     List<BillResponseDTO> getAllBills();
     List<BillResponseDTO> getAllBillsSortedByTotalCost();
+
+    // Keyset-paginated admin list ordered by sort (then bill id). cursor is an opaque token from
+    // a previous page of the same sort; backward=true returns the page that precedes the cursor.
+    KeysetPageDTO<BillListItemDTO> findBillsPage(BillFilterDTO filter, BillSort sort, boolean ascending,
+                                                 String cursor, boolean backward, int size);
     Bill getBillById(Integer id);
     Bill updateBill(Bill bill);
     boolean deleteBillById(Integer id);
@@ -17,5 +30,16 @@ public interface BillService {
     List<BillResponseDTO> getBillsByPaymentStatus(String paymentStatus);
     Bill findOrCreateBill(Bill bill);
     boolean hasOutstandingBills(Integer patientId);
+    PatientBalanceDTO getOutstandingBalance(Integer patientId);
     List<BillResponseDTO> getOutstandingBillsByPatientId(Integer patientId);
+
+    // The bill of an appointment, through the unique bills.appointment_id
+    Bill getBillByAppointment(Appointment appointment);
+
+    // Creates or updates the bill of an appointment; a null amount or status keeps the current
+    // one. Returns null when the appointment has no bill and no amount is given to create it.
+    Bill saveBillForAppointment(Appointment appointment, BigDecimal totalCost, String paymentStatus);
+
+    // Every bill in id order for export; consume inside a transaction and close the stream
+    Stream<Bill> streamAllBills();
 }
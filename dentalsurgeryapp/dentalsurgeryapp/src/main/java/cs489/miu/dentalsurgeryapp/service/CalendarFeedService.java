@@ -0,0 +1,32 @@
+package cs489.miu.dentalsurgeryapp.service;
+
+import java.util.Optional;
+
+import cs489.miu.dentalsurgeryapp.dto.CalendarFeedDTO;
+import cs489.miu.dentalsurgeryapp.model.Appointment;
+
+/**
+ * iCalendar (RFC 5545) feeds of the appointments of one dentist or one surgery location.
+ * Each feed keeps its serialized VEVENTs in memory and only re-reads the appointments that
+ * changed since it was last served, so an unchanged feed costs no database work at all.
+ * Occurrences of recurring series that are not expanded yet appear as one RRULE event per series.
+ */
+public interface CalendarFeedService {
+
+    enum Owner { DENTIST, SURGERY_LOCATION }
+
+    // Validators of a feed that is already cached, without touching the database; null when it is not
+    CalendarFeedDTO getValidators(Owner owner, Integer id);
+
+    // Current feed, brought up to date first; empty when the dentist or location does not exist
+    Optional<CalendarFeedDTO> getFeed(Owner owner, Integer id);
+
+    // Apply the committed state of an appointment (created, moved, rescheduled or cancelled)
+    void recordSaved(Appointment appointment);
+
+    // Forget an appointment that was deleted
+    void recordDeleted(Integer appointmentId);
+
+    // A recurring series of the dentist and location was created, expanded or cancelled
+    void recordSeriesChanged(Integer dentistId, Integer surgeryLocationId);
+}
@@ -0,0 +1,41 @@
+package cs489.miu.dentalsurgeryapp.service;
+
+import java.util.Collection;
+
+import cs489.miu.dentalsurgeryapp.dto.DashboardStatsDTO;
+import cs489.miu.dentalsurgeryapp.model.Appointment;
+import cs489.miu.dentalsurgeryapp.model.Bill;
+
+/**
+ * Counters behind the sysadmin dashboard, kept in memory and moved by the services on every
+ * create, update and delete, so reading them never touches the tables. All record methods
+ * apply after the current transaction commits; a periodic rebuild corrects any drift.
+ */
+public interface DashboardStatsService {
+
+    DashboardStatsDTO getStats();
+
+    void recordPatientCreated();
+
+    void recordPatientDeleted();
+
+    void recordDentistCreated();
+
+    void recordDentistDeleted();
+
+    // Apply the committed state of an appointment (created, moved or deleted when null)
+    void recordAppointmentSaved(Appointment appointment);
+
+    void recordAppointmentDeleted(Integer appointmentId);
+
+    // Apply the committed payment status of a bill
+    void recordBillSaved(Bill bill);
+
+    void recordBillDeleted(Integer billId);
+
+    // Apply bills set to PAID with plain SQL, outside the entity
+    void recordBillsPaid(Collection<Integer> billIds);
+
+    // Reload every counter from the tables
+    DashboardStatsDTO rebuild();
+}
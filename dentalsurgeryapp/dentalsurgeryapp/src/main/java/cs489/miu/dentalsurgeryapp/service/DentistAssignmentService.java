@@ -0,0 +1,36 @@
+package cs489.miu.dentalsurgeryapp.service;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+import cs489.miu.dentalsurgeryapp.dto.AppointmentRequestDTO;
+import cs489.miu.dentalsurgeryapp.exception.AppointmentLimitExceededException;
+import cs489.miu.dentalsurgeryapp.exception.OutstandingBillException;
+import cs489.miu.dentalsurgeryapp.model.Appointment;
+
+/**
+ * "Any dentist" bookings: the slot goes to the dentist with the lowest load in its week
+ * (appointments plus recurring occurrences not expanded yet) who is still under the weekly
+ * limit and free at that time, optionally among the dentists of one specialization.
+ */
+public interface DentistAssignmentService {
+
+    /**
+     * Least-loaded eligible dentist for the slot, or null if every one is full or busy.
+     * @param specialization matched ignoring case; null or blank means any
+     */
+    Integer findLeastLoadedDentist(LocalDateTime dateTime, String specialization, Set<Integer> excludedDentistIds);
+
+    /**
+     * Books the request with the least-loaded eligible dentist. A dentist whose week filled up
+     * between the pick and the booking is passed over for the next one.
+     * @throws AppointmentLimitExceededException if no eligible dentist has room
+     */
+    Appointment bookWithLeastLoadedDentist(AppointmentRequestDTO appointmentDto) throws AppointmentLimitExceededException, OutstandingBillException;
+
+    // Re-rank a dentist once the current transaction commits (an appointment or series of theirs changed)
+    void recordLoadChanged(Integer dentistId);
+
+    // Reload the dentists once the current transaction commits (one was added, changed or removed)
+    void recordDentistsChanged();
+}
@@ -5,6 +5,7 @@ import cs489.miu.dentalsurgeryapp.model.Dentist;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface DentistService {
     
@@ -57,4 +58,7 @@ public interface DentistService {
     default List<Dentist> findAllDentists() {
         return getAllDentists();
     }
+
+    // Every dentist in id order for export; consume inside a transaction and close the stream
+    Stream<Dentist> streamAllDentists();
 }
@@ -0,0 +1,44 @@
+package cs489.miu.dentalsurgeryapp.service;
+
+import java.util.Locale;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import cs489.miu.dentalsurgeryapp.model.Appointment;
+
+/**
+ * Database-backed guard for the weekly booking limit. Each active appointment holds one
+ * numbered slot of its dentist's week; the unique key on (dentist, week, slot) is what
+ * stops two concurrent bookings from both taking the last place. Both methods must be
+ * called inside the transaction that saves or deletes the appointment.
+ */
+public interface DentistSlotReservationService {
+
+    /**
+     * Bring the slot held by a saved appointment in line with its dentist, week and status:
+     * keep it, move it to the new week, or release it when the appointment is cancelled.
+     * @return false if the target week has no free slot
+     */
+    boolean reserve(Appointment appointment);
+
+    // Release the slot held by an appointment, if any
+    void release(Integer appointmentId);
+
+    /**
+     * Whether a violation is a lost race for a slot, on one of the dentist_week_slots unique
+     * keys (uk_dentist_week_slot, uk_dentist_week_slot_appointment): the only violation that a
+     * retry against the fresh state of the week can get past.
+     */
+    static boolean isSlotConflict(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            String name = cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null
+                ? violation.getConstraintName()
+                : cause.getMessage();
+            if (name != null && name.toLowerCase(Locale.ROOT).contains("uk_dentist_week_slot")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
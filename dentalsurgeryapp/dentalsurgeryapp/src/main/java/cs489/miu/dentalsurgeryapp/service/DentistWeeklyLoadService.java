@@ -0,0 +1,51 @@
+package cs489.miu.dentalsurgeryapp.service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+
+import cs489.miu.dentalsurgeryapp.dto.DentistLoadIndexStatsDTO;
+import cs489.miu.dentalsurgeryapp.model.Appointment;
+
+/**
+ * In-memory index of how many active (non-cancelled) appointments each dentist has
+ * per week, used by the 5-per-week booking rule. Weeks run Sunday to Saturday.
+ */
+public interface DentistWeeklyLoadService {
+
+    int WEEKLY_LIMIT = 5;
+
+    /**
+     * Number of active appointments the dentist of the given appointment already has in
+     * that appointment's week, not counting the appointment itself if it is already booked there.
+     */
+    long getWeeklyLoadExcluding(Appointment appointment);
+
+    // Load of a dentist for the week starting on the given Sunday
+    long getWeeklyLoad(Integer dentistId, LocalDate weekStart);
+
+    // Apply the committed state of an appointment (created, moved, cancelled or re-activated)
+    void recordSaved(Appointment appointment);
+
+    // Forget an appointment that was deleted
+    void recordDeleted(Integer appointmentId);
+
+    // Reload the index from the appointments table
+    void rebuild();
+
+    // Compare the index against the appointments table, correct it and report drift
+    DentistLoadIndexStatsDTO reconcile();
+
+    DentistLoadIndexStatsDTO getStats();
+
+    static LocalDate weekStartOf(LocalDateTime dateTime) {
+        return dateTime.toLocalDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.SUNDAY));
+    }
+
+    record DentistWeek(Integer dentistId, LocalDate weekStart) {
+        public static DentistWeek of(Integer dentistId, LocalDateTime dateTime) {
+            return new DentistWeek(dentistId, weekStartOf(dateTime));
+        }
+    }
+}
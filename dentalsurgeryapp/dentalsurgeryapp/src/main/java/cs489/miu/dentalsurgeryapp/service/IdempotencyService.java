@@ -0,0 +1,35 @@
+package cs489.miu.dentalsurgeryapp.service;
+
+import cs489.miu.dentalsurgeryapp.dto.IdempotentResponseDTO;
+
+/**
+ * Responses of mutating API requests sent with an Idempotency-Key, kept for a while so a
+ * retried request gets the first response back instead of running again. A key is claimed
+ * by the first request that carries it; duplicates arriving while it runs wait for its
+ * response rather than running alongside it.
+ */
+public interface IdempotencyService {
+
+    enum Outcome {
+        // This request owns the key: run it, then complete or release the key
+        PROCEED,
+        // Answered before: send the stored response
+        REPLAY,
+        // The key was used for a different request
+        MISMATCH,
+        // The first request with this key is still running after the wait
+        IN_PROGRESS
+    }
+
+    record Claim(Outcome outcome, IdempotentResponseDTO response) {
+    }
+
+    // Claims the key for a request with the given fingerprint, waiting for an in-flight duplicate if there is one
+    Claim claim(String key, String requestHash);
+
+    // Records the owner's response and hands it to any duplicates waiting on it
+    void complete(String key, IdempotentResponseDTO response);
+
+    // Gives the key up without a response (e.g. a server error), so the next retry runs again
+    void release(String key);
+}
@@ -0,0 +1,56 @@
+package cs489.miu.dentalsurgeryapp.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Map;
+
+import cs489.miu.dentalsurgeryapp.dto.PatientBalanceDTO;
+
+/**
+ * Per-patient ledger of what is still owed (every bill not PAID), kept in patient_balances
+ * and moved in the same transaction as the bill change, with a read-through copy in memory
+ * so the booking gate does not touch the bills table.
+ */
+public interface PatientBalanceService {
+
+    // What a bill adds to its patient's balance, or a difference of two such contributions
+    record Change(long outstandingCents, int unpaidBills) {
+
+        public static final Change NONE = new Change(0, 0);
+
+        public Change plus(Change other) {
+            return new Change(outstandingCents + other.outstandingCents, unpaidBills + other.unpaidBills);
+        }
+
+        public Change minus(Change other) {
+            return new Change(outstandingCents - other.outstandingCents, unpaidBills - other.unpaidBills);
+        }
+
+        public boolean isNone() {
+            return outstandingCents == 0 && unpaidBills == 0;
+        }
+    }
+
+    static long toCents(BigDecimal amount) {
+        return amount == null ? 0 : amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    PatientBalanceDTO getBalance(Integer patientId);
+
+    boolean hasOutstanding(Integer patientId);
+
+    // Adds the changes to the patients' rows on the given connection, in patient id order
+    void apply(Connection connection, Map<Integer, Change> changes) throws SQLException;
+
+    // Recomputes the patients' rows from their bills on the given connection
+    void resync(Connection connection, Collection<Integer> patientIds) throws SQLException;
+
+    // Reloads the patients' cached balances; call once the changes are committed
+    void refresh(Collection<Integer> patientIds);
+
+    // Rereads every cached balance, picking up changes committed elsewhere; returns how many moved
+    int reload();
+}
@@ -7,6 +7,7 @@ import cs489.miu.dentalsurgeryapp.model.User;
 import cs489.miu.dentalsurgeryapp.dto.PatientResponseDTO;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface PatientService {
 
@@ -19,5 +20,6 @@ public interface PatientService {
     List<Patient> searchPatients(String searchString);
     Patient findOrCreatePatient(Patient patient);
 
+    // Every patient in id order for export; consume inside a transaction and close the stream
+    Stream<Patient> streamAllPatients();
 }
-
@@ -0,0 +1,23 @@
+package cs489.miu.dentalsurgeryapp.service;
+
+import java.time.YearMonth;
+
+import cs489.miu.dentalsurgeryapp.dto.StatementRunDTO;
+
+/**
+ * Monthly statements for every patient with activity: a bill still owed, or an appointment
+ * in the month. They are written as gzipped NDJSON files, one per patient id partition,
+ * under dentalsurgery.statements.dir/yyyy-MM.
+ */
+public interface PatientStatementService {
+
+    /**
+     * Starts generating a month's statements in the background and returns at once.
+     * Partitions checkpointed by an earlier run of the same month are kept, unless fresh.
+     * @throws IllegalStateException if a run is already under way
+     */
+    StatementRunDTO start(YearMonth month, boolean fresh);
+
+    // The run under way or the last one, null before the first
+    StatementRunDTO getProgress();
+}
@@ -0,0 +1,22 @@
+package cs489.miu.dentalsurgeryapp.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import cs489.miu.dentalsurgeryapp.dto.PaymentReconciliationResultDTO;
+
+/**
+ * Settles bills from the payment files the clinics receive from their bank.
+ */
+public interface PaymentReconciliationService {
+
+    /**
+     * Reads a CSV payment file as it arrives and marks the bills it pays PAID. The header names
+     * the columns: amount is required, with billId and/or patientId to find the bill; reference
+     * is optional and only echoed in the report. A row with a bill id pays that bill if it is
+     * unpaid and the amount matches; a row with only a patient id pays that patient's oldest
+     * unpaid bill of exactly that amount.
+     * @throws IllegalArgumentException if the header lacks the amount column or both id columns
+     */
+    PaymentReconciliationResultDTO reconcile(InputStream csv) throws IOException;
+}
@@ -0,0 +1,13 @@
+package cs489.miu.dentalsurgeryapp.service;
+
+import cs489.miu.dentalsurgeryapp.dto.AppointmentReminderDTO;
+
+/**
+ * Delivery channel for appointment reminders (e-mail, SMS, ...). Called on a virtual
+ * thread, one call per reminder; throwing counts the reminder as failed.
+ * Replace the logging implementation by declaring a @Primary bean.
+ */
+public interface ReminderNotifier {
+
+    void send(AppointmentReminderDTO reminder) throws Exception;
+}
@@ -5,6 +5,7 @@ import cs489.miu.dentalsurgeryapp.model.SurgeryLocation;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface SurgeryLocationService {
     
@@ -52,4 +53,7 @@ public interface SurgeryLocationService {
     
     // Find or create surgery location (to avoid duplicates)
     SurgeryLocation findOrCreateSurgeryLocation(SurgeryLocation surgeryLocation);
+
+    // Every surgery location in id order for export; consume inside a transaction and close the stream
+    Stream<SurgeryLocation> streamAllSurgeryLocations();
 }
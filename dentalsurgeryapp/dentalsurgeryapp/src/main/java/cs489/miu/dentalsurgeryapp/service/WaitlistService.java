@@ -0,0 +1,45 @@
+package cs489.miu.dentalsurgeryapp.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import cs489.miu.dentalsurgeryapp.model.Appointment;
+import cs489.miu.dentalsurgeryapp.model.WaitlistEntry;
+
+/**
+ * Patients waiting for a dentist's slot within a date window. When an upcoming appointment
+ * is cancelled, its slot is offered to the longest-waiting patient whose window (and
+ * location, if they chose one) fits, by booking a pending appointment for them.
+ */
+public interface WaitlistService {
+
+    /**
+     * Puts a patient on a dentist's waitlist.
+     * @throws IllegalArgumentException if the window is empty or already over, or the patient
+     *         already waits for this dentist
+     */
+    WaitlistEntry join(WaitlistEntry entry);
+
+    // Takes a waiting entry off the waitlist; false if it is not waiting (any more)
+    boolean withdraw(Integer waitlistEntryId);
+
+    Optional<WaitlistEntry> findById(Integer waitlistEntryId);
+
+    // A patient's entries, newest first
+    List<WaitlistEntry> findForPatient(Integer patientId);
+
+    // Apply the committed state of an appointment; a cancelled upcoming one frees its slot for the waitlist
+    void recordSaved(Appointment appointment);
+
+    /**
+     * Offers a freed slot to the first waiting patient that fits it, unless the slot was taken
+     * again in the meantime.
+     * @param excludePatientId patient who gave the slot up, never offered it back
+     * @return the appointment booked for the waiting patient, or null if nobody took the slot
+     */
+    Appointment backfill(Integer dentistId, Integer surgeryLocationId, LocalDateTime start, Integer excludePatientId);
+
+    // Expire entries whose window has closed
+    int expireClosed();
+}
@@ -2,6 +2,7 @@ package cs489.miu.dentalsurgeryapp.service.impl;
  
 
 import java.util.List;
+import java.util.stream.Stream;
 import org.springframework.stereotype.Service;
 import cs489.miu.dentalsurgeryapp.dto.AddressResponseDTO;
 import cs489.miu.dentalsurgeryapp.dto.AddressWithPatientsResponseDTO;
@@ -28,13 +29,12 @@ public class AddressServiceImpl implements AddressService {
 
     @Override
     public Address findOrCreateAddress(Address address) {
-        // Check if address with same street, city, state, and zipcode already exists
-        return addressRepository.findByStreetAndCityAndStateAndZipcode(
-                address.getStreet(),
-                address.getCity(),
-                address.getState(),
-                address.getZipcode()
-        ).orElseGet(() -> addressRepository.save(address));
+        if (address.getAddressId() != null) {
+            return address;
+        }
+        // Insert unless an address with the same street, city, state, and zipcode already exists,
+        // in one statement so concurrent registrations of the same address share a row
+        return addressRepository.insertIfAbsent(address).entity();
     }
 
     @Override
@@ -104,5 +104,9 @@ public class AddressServiceImpl implements AddressService {
                 })
                 .toList();
     }
-}
 
+    @Override
+    public Stream<Address> streamAllAddresses() {
+        return addressRepository.streamAllForExport();
+    }
+}
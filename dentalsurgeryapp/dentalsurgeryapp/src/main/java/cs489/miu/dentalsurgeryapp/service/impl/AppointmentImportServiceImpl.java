@@ -0,0 +1,344 @@
+package cs489.miu.dentalsurgeryapp.service.impl;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import cs489.miu.dentalsurgeryapp.dto.AppointmentImportResultDTO;
+import cs489.miu.dentalsurgeryapp.dto.AppointmentImportResultDTO.Outcome;
+import cs489.miu.dentalsurgeryapp.dto.AppointmentImportResultDTO.RowResult;
+import cs489.miu.dentalsurgeryapp.dto.AppointmentImportRowDTO;
+import cs489.miu.dentalsurgeryapp.dto.AppointmentKeyDTO;
+import cs489.miu.dentalsurgeryapp.model.Appointment;
+import cs489.miu.dentalsurgeryapp.model.AppointmentStatus;
+import cs489.miu.dentalsurgeryapp.repository.AppointmentRepository;
+import cs489.miu.dentalsurgeryapp.repository.DentistRepository;
+import cs489.miu.dentalsurgeryapp.repository.PatientRepository;
+import cs489.miu.dentalsurgeryapp.repository.SurgeryLocationRepository;
+import cs489.miu.dentalsurgeryapp.service.AppointmentImportService;
+import cs489.miu.dentalsurgeryapp.service.AppointmentReminderService;
+import cs489.miu.dentalsurgeryapp.service.AppointmentSeriesService;
+import cs489.miu.dentalsurgeryapp.service.AppointmentStatsService;
+import cs489.miu.dentalsurgeryapp.service.AvailabilityService;
+import cs489.miu.dentalsurgeryapp.service.CalendarFeedService;
+import cs489.miu.dentalsurgeryapp.service.DashboardStatsService;
+import cs489.miu.dentalsurgeryapp.service.DentistAssignmentService;
+import cs489.miu.dentalsurgeryapp.service.DentistSlotReservationService;
+import cs489.miu.dentalsurgeryapp.service.DentistWeeklyLoadService;
+import cs489.miu.dentalsurgeryapp.service.DentistWeeklyLoadService.DentistWeek;
+import cs489.miu.dentalsurgeryapp.util.BusinessHours;
+import jakarta.persistence.EntityManager;
+
+/**
+ * Past appointments are taken as history and only checked for references and duplicates.
+ * Future ones must also fall in business hours and respect the weekly limit, counting what
+ * is already booked, series occurrences and earlier rows of the same batch. That check only
+ * screens the batch: each future row then claims its dentist-week slot in the chunk's
+ * transaction, as a booking does, so concurrent bookings or imports cannot overfill a week.
+ */
+@Service
+public class AppointmentImportServiceImpl implements AppointmentImportService {
+
+    // Rows per transaction; past rows are flushed in JDBC batches, future ones with their slot
+    // claims, and the chunk is then cleared
+    private static final int CHUNK_SIZE = 500;
+    // Keeps IN lists within what every database accepts
+    private static final int LOOKUP_CHUNK_SIZE = 1000;
+
+    private final AppointmentRepository appointmentRepository;
+    private final PatientRepository patientRepository;
+    private final DentistRepository dentistRepository;
+    private final SurgeryLocationRepository surgeryLocationRepository;
+    private final DentistWeeklyLoadService dentistWeeklyLoadService;
+    private final AvailabilityService availabilityService;
+    private final AppointmentStatsService appointmentStatsService;
+    private final DashboardStatsService dashboardStatsService;
+    private final CalendarFeedService calendarFeedService;
+    private final AppointmentReminderService appointmentReminderService;
+    private final AppointmentSeriesService appointmentSeriesService;
+    private final DentistSlotReservationService slotReservationService;
+    private final DentistAssignmentService dentistAssignmentService;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final int maxRows;
+
+    public AppointmentImportServiceImpl(AppointmentRepository appointmentRepository,
+                                        PatientRepository patientRepository,
+                                        DentistRepository dentistRepository,
+                                        SurgeryLocationRepository surgeryLocationRepository,
+                                        DentistWeeklyLoadService dentistWeeklyLoadService,
+                                        AvailabilityService availabilityService,
+                                        AppointmentStatsService appointmentStatsService,
+                                        DashboardStatsService dashboardStatsService,
+                                        CalendarFeedService calendarFeedService,
+                                        AppointmentReminderService appointmentReminderService,
+                                        AppointmentSeriesService appointmentSeriesService,
+                                        DentistSlotReservationService slotReservationService,
+                                        DentistAssignmentService dentistAssignmentService,
+                                        TransactionTemplate transactionTemplate,
+                                        EntityManager entityManager,
+                                        @Value("${dentalsurgery.import.max-rows:50000}") int maxRows) {
+        this.appointmentRepository = appointmentRepository;
+        this.patientRepository = patientRepository;
+        this.dentistRepository = dentistRepository;
+        this.surgeryLocationRepository = surgeryLocationRepository;
+        this.dentistWeeklyLoadService = dentistWeeklyLoadService;
+        this.availabilityService = availabilityService;
+        this.appointmentStatsService = appointmentStatsService;
+        this.dashboardStatsService = dashboardStatsService;
+        this.calendarFeedService = calendarFeedService;
+        this.appointmentReminderService = appointmentReminderService;
+        this.appointmentSeriesService = appointmentSeriesService;
+        this.slotReservationService = slotReservationService;
+        this.dentistAssignmentService = dentistAssignmentService;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManager = entityManager;
+        this.maxRows = maxRows;
+    }
+
+    @Override
+    public AppointmentImportResultDTO importAppointments(List<AppointmentImportRowDTO> rows) {
+        if (rows.size() > maxRows) {
+            throw new IllegalArgumentException("A bulk import accepts at most " + maxRows + " rows, got " + rows.size());
+        }
+
+        // Set-based reference lookups: one query per referenced table (per 1000 ids)
+        Set<Integer> patientIds = existing(collect(rows, AppointmentImportRowDTO::patientId), patientRepository::findExistingIds);
+        Set<Integer> dentistIds = existing(collect(rows, AppointmentImportRowDTO::dentistId), dentistRepository::findExistingIds);
+        Set<Integer> locationIds = existing(collect(rows, AppointmentImportRowDTO::surgeryLocationId), surgeryLocationRepository::findExistingIds);
+        Map<AppointmentKeyDTO, Integer> existingKeys = existingKeys(rows, dentistIds);
+
+        LocalDateTime now = LocalDateTime.now();
+        RowResult[] results = new RowResult[rows.size()];
+        Map<AppointmentKeyDTO, Integer> batchKeys = new HashMap<>();
+        Map<DentistWeek, Integer> weekLoad = new HashMap<>();
+        List<Integer> accepted = new ArrayList<>();
+
+        for (int i = 0; i < rows.size(); i++) {
+            AppointmentImportRowDTO row = rows.get(i);
+            int rowNumber = i + 1;
+            String error = validate(row, patientIds, dentistIds, locationIds, now);
+            if (error != null) {
+                results[i] = new RowResult(rowNumber, Outcome.REJECTED, null, error);
+                continue;
+            }
+
+            AppointmentKeyDTO key = new AppointmentKeyDTO(null, row.patientId(), row.dentistId(),
+                    row.surgeryLocationId(), row.appointmentDateTime());
+            Integer existingId = existingKeys.get(key);
+            if (existingId != null) {
+                results[i] = new RowResult(rowNumber, Outcome.DUPLICATE, existingId, "Appointment already exists");
+                continue;
+            }
+            Integer earlierRow = batchKeys.putIfAbsent(key, rowNumber);
+            if (earlierRow != null) {
+                results[i] = new RowResult(rowNumber, Outcome.DUPLICATE, null, "Same appointment as row " + earlierRow);
+                continue;
+            }
+
+            if (takesSlot(row, now)) {
+                DentistWeek week = DentistWeek.of(row.dentistId(), row.appointmentDateTime());
+                // Booked and series occurrences are looked up once per week, then batch rows add to them
+                int load = weekLoad.computeIfAbsent(week, w -> (int) appointmentSeriesService.effectiveWeeklyLoad(w.dentistId(), w.weekStart()));
+                if (load >= DentistWeeklyLoadService.WEEKLY_LIMIT) {
+                    batchKeys.remove(key);
+                    results[i] = new RowResult(rowNumber, Outcome.REJECTED, null, weekFull(row));
+                    continue;
+                }
+                weekLoad.put(week, load + 1);
+            }
+            accepted.add(i);
+        }
+
+        for (int from = 0; from < accepted.size(); from += CHUNK_SIZE) {
+            insertChunk(rows, accepted.subList(from, Math.min(from + CHUNK_SIZE, accepted.size())), results, now);
+        }
+
+        int created = 0;
+        int duplicates = 0;
+        int rejected = 0;
+        for (RowResult result : results) {
+            switch (result.outcome()) {
+                case CREATED -> created++;
+                case DUPLICATE -> duplicates++;
+                case REJECTED -> rejected++;
+            }
+        }
+        return new AppointmentImportResultDTO(rows.size(), created, duplicates, rejected, List.of(results));
+    }
+
+    private void insertChunk(List<AppointmentImportRowDTO> rows, List<Integer> chunk, RowResult[] results, LocalDateTime now) {
+        try {
+            // Null where the row's week turned out to be full
+            List<Appointment> saved = transactionTemplate.execute(status -> {
+                List<Appointment> appointments = new ArrayList<>(chunk.size());
+                Set<Integer> dentists = new HashSet<>();
+                for (Integer index : chunk) {
+                    AppointmentImportRowDTO row = rows.get(index);
+                    Appointment appointment = new Appointment();
+                    appointment.setPatient(patientRepository.getReferenceById(row.patientId()));
+                    appointment.setDentist(dentistRepository.getReferenceById(row.dentistId()));
+                    appointment.setSurgeryLocation(surgeryLocationRepository.getReferenceById(row.surgeryLocationId()));
+                    appointment.setAppointmentDateTime(row.appointmentDateTime());
+                    appointment.setAppointmentType(row.appointmentType().trim());
+                    appointment.setAppointmentStatus(statusOf(row));
+                    entityManager.persist(appointment);
+                    // Claimed row by row: inserted but unclaimed rows of this chunk would look to
+                    // reserve like appointments booked before slots existed, and be slotted past the limit
+                    if (takesSlot(row, now) && !slotReservationService.reserve(appointment)) {
+                        entityManager.remove(appointment);
+                        appointments.add(null);
+                        continue;
+                    }
+                    appointments.add(appointment);
+                    dentists.add(row.dentistId());
+                }
+                entityManager.flush();
+                for (Appointment appointment : appointments) {
+                    if (appointment == null) {
+                        continue;
+                    }
+                    dentistWeeklyLoadService.recordSaved(appointment);
+                    availabilityService.recordSaved(appointment);
+                    dashboardStatsService.recordAppointmentSaved(appointment);
+                    calendarFeedService.recordSaved(appointment);
+                    appointmentReminderService.recordSaved(appointment);
+                    appointmentStatsService.evict(appointment.getPatient().getPatientId(), appointment.getDentist().getDentistId());
+                }
+                dentists.forEach(dentistAssignmentService::recordLoadChanged);
+                entityManager.clear();
+                return appointments;
+            });
+            for (int i = 0; i < chunk.size(); i++) {
+                int index = chunk.get(i);
+                results[index] = saved.get(i) != null
+                        ? new RowResult(index + 1, Outcome.CREATED, saved.get(i).getAppointmentId(), null)
+                        : new RowResult(index + 1, Outcome.REJECTED, null, weekFull(rows.get(index)));
+            }
+        } catch (DataAccessException e) {
+            String message = "Insert failed with its batch: " + e.getMostSpecificCause().getMessage();
+            for (Integer index : chunk) {
+                results[index] = new RowResult(index + 1, Outcome.REJECTED, null, message);
+            }
+        }
+    }
+
+    // Future active appointments count towards the weekly limit; past ones are history
+    private static boolean takesSlot(AppointmentImportRowDTO row, LocalDateTime now) {
+        return row.appointmentDateTime().isAfter(now) && !AppointmentStatus.CANCELLED.name().equals(statusOf(row));
+    }
+
+    private static String validate(AppointmentImportRowDTO row, Set<Integer> patientIds, Set<Integer> dentistIds,
+                                   Set<Integer> locationIds, LocalDateTime now) {
+        if (row == null) {
+            return "Empty row";
+        }
+        if (row.patientId() == null || row.dentistId() == null || row.surgeryLocationId() == null) {
+            return "patientId, dentistId and surgeryLocationId are required";
+        }
+        if (row.appointmentDateTime() == null) {
+            return "appointmentDateTime is required";
+        }
+        if (row.appointmentType() == null || row.appointmentType().trim().isEmpty()) {
+            return "appointmentType is required";
+        }
+        if (row.appointmentType().trim().length() > 50) {
+            return "appointmentType must be at most 50 characters";
+        }
+        if (!patientIds.contains(row.patientId())) {
+            return "Patient not found with ID: " + row.patientId();
+        }
+        if (!dentistIds.contains(row.dentistId())) {
+            return "Dentist not found with ID: " + row.dentistId();
+        }
+        if (!locationIds.contains(row.surgeryLocationId())) {
+            return "Surgery location not found with ID: " + row.surgeryLocationId();
+        }
+        try {
+            AppointmentStatus.fromName(statusOf(row));
+        } catch (IllegalArgumentException e) {
+            return "Unknown appointmentStatus: " + row.appointmentStatus();
+        }
+        if (row.appointmentDateTime().isAfter(now) && !BusinessHours.isOpen(row.appointmentDateTime())) {
+            return "Future appointments must fall within business hours";
+        }
+        return null;
+    }
+
+    private static String weekFull(AppointmentImportRowDTO row) {
+        return String.format("Dentist %d already has %d appointments scheduled for the week of %s",
+                row.dentistId(), DentistWeeklyLoadService.WEEKLY_LIMIT,
+                DentistWeeklyLoadService.weekStartOf(row.appointmentDateTime()));
+    }
+
+    private static String statusOf(AppointmentImportRowDTO row) {
+        return row.appointmentStatus() == null || row.appointmentStatus().trim().isEmpty()
+                ? AppointmentStatus.PENDING.name()
+                : row.appointmentStatus().trim().toUpperCase();
+    }
+
+    // Existing appointments of the referenced dentists within the batch's time span, by natural key
+    private Map<AppointmentKeyDTO, Integer> existingKeys(List<AppointmentImportRowDTO> rows, Set<Integer> dentistIds) {
+        LocalDateTime min = null;
+        LocalDateTime max = null;
+        for (AppointmentImportRowDTO row : rows) {
+            if (row == null || row.appointmentDateTime() == null) {
+                continue;
+            }
+            if (min == null || row.appointmentDateTime().isBefore(min)) {
+                min = row.appointmentDateTime();
+            }
+            if (max == null || row.appointmentDateTime().isAfter(max)) {
+                max = row.appointmentDateTime();
+            }
+        }
+        Map<AppointmentKeyDTO, Integer> keys = new HashMap<>();
+        if (min == null || dentistIds.isEmpty()) {
+            return keys;
+        }
+        for (List<Integer> ids : partition(dentistIds)) {
+            for (AppointmentKeyDTO key : appointmentRepository.findKeysByDentistsBetween(ids, min, max)) {
+                keys.putIfAbsent(key.withoutId(), key.appointmentId());
+            }
+        }
+        return keys;
+    }
+
+    private static Set<Integer> collect(List<AppointmentImportRowDTO> rows, Function<AppointmentImportRowDTO, Integer> id) {
+        Set<Integer> ids = new HashSet<>();
+        for (AppointmentImportRowDTO row : rows) {
+            if (row != null && id.apply(row) != null) {
+                ids.add(id.apply(row));
+            }
+        }
+        return ids;
+    }
+
+    private static Set<Integer> existing(Set<Integer> ids, Function<Collection<Integer>, List<Integer>> lookup) {
+        Set<Integer> found = new HashSet<>();
+        for (List<Integer> part : partition(ids)) {
+            found.addAll(lookup.apply(part));
+        }
+        return found;
+    }
+
+    private static List<List<Integer>> partition(Collection<Integer> ids) {
+        List<Integer> all = new ArrayList<>(ids);
+        List<List<Integer>> parts = new ArrayList<>();
+        for (int i = 0; i < all.size(); i += LOOKUP_CHUNK_SIZE) {
+            parts.add(all.subList(i, Math.min(i + LOOKUP_CHUNK_SIZE, all.size())));
+        }
+        return parts;
+    }
+}
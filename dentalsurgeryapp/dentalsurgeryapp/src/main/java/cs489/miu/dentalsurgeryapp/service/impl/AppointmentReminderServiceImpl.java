@@ -0,0 +1,345 @@
+package cs489.miu.dentalsurgeryapp.service.impl;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import cs489.miu.dentalsurgeryapp.dto.AppointmentPlacementDTO;
+import cs489.miu.dentalsurgeryapp.dto.AppointmentReminderDTO;
+import cs489.miu.dentalsurgeryapp.dto.ReminderStatsDTO;
+import cs489.miu.dentalsurgeryapp.model.Appointment;
+import cs489.miu.dentalsurgeryapp.model.AppointmentStatus;
+import cs489.miu.dentalsurgeryapp.repository.AppointmentRepository;
+import cs489.miu.dentalsurgeryapp.service.AppointmentReminderService;
+import cs489.miu.dentalsurgeryapp.service.ReminderNotifier;
+import cs489.miu.dentalsurgeryapp.util.AfterCommit;
+import cs489.miu.dentalsurgeryapp.util.TimingWheel;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Appointment reminders on a hierarchical timing wheel.
+ *
+ * Only reminders due before {@code loadedUntil} are held in memory. The ticker (a virtual
+ * thread) advances the wheel every tick and, when less than half a window is left, loads
+ * the next window with one range query per lead time over the indexed appointmentDateTime
+ * column, so the table is never scanned as a whole. Committed saves and deletes re-arm the
+ * affected appointment directly; reminders beyond the loaded window are left to the loader.
+ *
+ * Each due reminder is delivered on its own virtual thread, which re-reads the appointment
+ * and drops the reminder if it was cancelled, moved or deleted since it was armed. That check
+ * also covers a window load racing with a concurrent change.
+ */
+@Service
+public class AppointmentReminderServiceImpl implements AppointmentReminderService {
+
+    private static final Logger log = LoggerFactory.getLogger(AppointmentReminderServiceImpl.class);
+    private static final int WHEEL_SIZE = 64;
+    private static final int WHEEL_LEVELS = 4;
+
+    private record ReminderKey(Integer appointmentId, Duration leadTime) {
+    }
+
+    // One armed reminder; the wheel may still hold an instance that was replaced, which is ignored when it fires
+    private record Arm(ReminderKey key, LocalDateTime appointmentDateTime, long dueAtMillis) {
+    }
+
+    private final AppointmentRepository appointmentRepository;
+    private final ReminderNotifier reminderNotifier;
+    private final boolean enabled;
+    private final List<Duration> leadTimes;
+    private final Duration window;
+    private final long tickMillis;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<ReminderKey, Arm> armed = new HashMap<>();
+    private TimingWheel<Arm> wheel;
+    private volatile LocalDateTime loadedUntil;
+    private final ExecutorService deliveries = Executors.newVirtualThreadPerTaskExecutor();
+    private volatile Thread ticker;
+
+    private final LongAdder scheduled = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder totalLagMillis = new LongAdder();
+    private final AtomicLong lastLagMillis = new AtomicLong();
+    private final AtomicLong maxLagMillis = new AtomicLong();
+    private volatile LocalDateTime lastDeliveredAt;
+    // Deliveries per second over the last minute, indexed by epoch second modulo 60
+    private final long[] secondCounts = new long[60];
+    private final long[] secondStamps = new long[60];
+    private final ReentrantLock rateLock = new ReentrantLock();
+
+    public AppointmentReminderServiceImpl(AppointmentRepository appointmentRepository,
+                                          ReminderNotifier reminderNotifier,
+                                          @Value("${dentalsurgery.reminders.enabled:true}") boolean enabled,
+                                          @Value("${dentalsurgery.reminders.lead-times:24h,2h}") List<Duration> leadTimes,
+                                          @Value("${dentalsurgery.reminders.window:6h}") Duration window,
+                                          @Value("${dentalsurgery.reminders.tick:1s}") Duration tick) {
+        this.appointmentRepository = appointmentRepository;
+        this.reminderNotifier = reminderNotifier;
+        this.enabled = enabled;
+        this.leadTimes = List.copyOf(leadTimes);
+        this.window = window;
+        this.tickMillis = Math.max(1, tick.toMillis());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        LocalDateTime from = toLocal(now);
+        lock.lock();
+        try {
+            wheel = new TimingWheel<>(tickMillis, WHEEL_SIZE, WHEEL_LEVELS, now);
+            loadedUntil = from;
+        } finally {
+            lock.unlock();
+        }
+        // the first tick loads the first window
+        ticker = Thread.ofVirtual().name("appointment-reminders").start(this::runTicker);
+        log.info("Appointment reminders started: lead times {}, window {}", leadTimes, window);
+    }
+
+    @PreDestroy
+    public void stop() {
+        Thread current = ticker;
+        if (current != null) {
+            current.interrupt();
+        }
+        deliveries.shutdown();
+    }
+
+    @Override
+    public void recordSaved(Appointment appointment) {
+        if (appointment == null || appointment.getAppointmentId() == null) {
+            return;
+        }
+        Integer appointmentId = appointment.getAppointmentId();
+        LocalDateTime dateTime = AppointmentStatus.CANCELLED.name().equals(appointment.getAppointmentStatus())
+                ? null
+                : appointment.getAppointmentDateTime();
+        AfterCommit.run(() -> rearm(appointmentId, dateTime));
+    }
+
+    @Override
+    public void recordDeleted(Integer appointmentId) {
+        if (appointmentId != null) {
+            AfterCommit.run(() -> rearm(appointmentId, null));
+        }
+    }
+
+    @Override
+    public ReminderStatsDTO getStats() {
+        int pending;
+        lock.lock();
+        try {
+            pending = armed.size();
+        } finally {
+            lock.unlock();
+        }
+        long count = delivered.sum();
+        return new ReminderStatsDTO(ticker != null && ticker.isAlive(), pending, loadedUntil, scheduled.sum(),
+                count, skipped.sum(), failed.sum(), deliveredLastMinute(), lastLagMillis.get(),
+                count == 0 ? 0 : (double) totalLagMillis.sum() / count, maxLagMillis.get(), lastDeliveredAt);
+    }
+
+    private void runTicker() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Thread.sleep(tickMillis);
+                long now = System.currentTimeMillis();
+                tick(now);
+                if (Duration.between(toLocal(now), loadedUntil).compareTo(window.dividedBy(2)) < 0) {
+                    loadNextWindow(now);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                log.warn("Appointment reminder tick failed", e);
+            }
+        }
+    }
+
+    private void tick(long now) {
+        List<Arm> due = new ArrayList<>();
+        lock.lock();
+        try {
+            wheel.advanceTo(now, arm -> {
+                if (armed.remove(arm.key(), arm)) {
+                    due.add(arm);
+                }
+            });
+        } finally {
+            lock.unlock();
+        }
+        due.forEach(arm -> deliveries.execute(() -> deliver(arm)));
+    }
+
+    // Arms every reminder due in [loadedUntil, loadedUntil + window); only the ticker calls this
+    private void loadNextWindow(long now) {
+        LocalDateTime from;
+        LocalDateTime to;
+        lock.lock();
+        try {
+            // moved first, so a change committed while the query runs is armed by rearm itself
+            from = loadedUntil;
+            to = from.plus(window);
+            loadedUntil = to;
+        } finally {
+            lock.unlock();
+        }
+        List<Arm> arms = new ArrayList<>();
+        try {
+            for (Duration leadTime : leadTimes) {
+                for (AppointmentPlacementDTO placement : appointmentRepository.findActivePlacementsBetween(from.plus(leadTime), to.plus(leadTime))) {
+                    arms.add(arm(placement.appointmentId(), leadTime, placement.appointmentDateTime()));
+                }
+            }
+        } catch (RuntimeException e) {
+            // give the window back so the next tick retries it
+            lock.lock();
+            try {
+                loadedUntil = from;
+            } finally {
+                lock.unlock();
+            }
+            throw e;
+        }
+        lock.lock();
+        try {
+            for (Arm arm : arms) {
+                // an entry armed meanwhile is newer than the query result; a stale one is skipped at delivery
+                if (!armed.containsKey(arm.key())) {
+                    schedule(arm, now);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void rearm(Integer appointmentId, LocalDateTime dateTime) {
+        lock.lock();
+        try {
+            if (wheel == null) {
+                return; // not started: the first window load picks it up
+            }
+            long now = System.currentTimeMillis();
+            for (Duration leadTime : leadTimes) {
+                ReminderKey key = new ReminderKey(appointmentId, leadTime);
+                armed.remove(key);
+                if (dateTime != null && dateTime.minus(leadTime).isBefore(loadedUntil)) {
+                    schedule(arm(appointmentId, leadTime, dateTime), now);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Caller holds the lock. Reminders whose time has already passed are not sent late.
+    private void schedule(Arm arm, long now) {
+        if (arm.dueAtMillis() > now && wheel.schedule(arm.dueAtMillis(), arm)) {
+            armed.put(arm.key(), arm);
+            scheduled.increment();
+        }
+    }
+
+    private Arm arm(Integer appointmentId, Duration leadTime, LocalDateTime appointmentDateTime) {
+        long dueAt = appointmentDateTime.minus(leadTime).atZone(zone).toInstant().toEpochMilli();
+        return new Arm(new ReminderKey(appointmentId, leadTime), appointmentDateTime, dueAt);
+    }
+
+    private void deliver(Arm arm) {
+        try {
+            Optional<Appointment> current = appointmentRepository.findById(arm.key().appointmentId());
+            if (current.isEmpty()
+                    || AppointmentStatus.CANCELLED.name().equals(current.get().getAppointmentStatus())
+                    || !arm.appointmentDateTime().equals(current.get().getAppointmentDateTime())) {
+                skipped.increment();
+                return;
+            }
+            reminderNotifier.send(toReminder(current.get(), arm.key().leadTime()));
+            long now = System.currentTimeMillis();
+            long lag = Math.max(0, now - arm.dueAtMillis());
+            delivered.increment();
+            totalLagMillis.add(lag);
+            lastLagMillis.set(lag);
+            maxLagMillis.accumulateAndGet(lag, Math::max);
+            lastDeliveredAt = toLocal(now);
+            countDelivery(now / 1000);
+        } catch (Exception e) {
+            failed.increment();
+            log.warn("Reminder for appointment {} ({} ahead) failed", arm.key().appointmentId(), arm.key().leadTime(), e);
+        }
+    }
+
+    private static AppointmentReminderDTO toReminder(Appointment appointment, Duration leadTime) {
+        return new AppointmentReminderDTO(
+                appointment.getAppointmentId(),
+                leadTime,
+                appointment.getAppointmentDateTime(),
+                appointment.getAppointmentType(),
+                appointment.getPatient().getPatientId(),
+                appointment.getPatient().getFirstName() + " " + appointment.getPatient().getLastName(),
+                appointment.getPatient().getEmail(),
+                appointment.getDentist().getFirstName() + " " + appointment.getDentist().getLastName(),
+                appointment.getSurgeryLocation().getName());
+    }
+
+    private void countDelivery(long epochSecond) {
+        int index = (int) (epochSecond % secondCounts.length);
+        rateLock.lock();
+        try {
+            if (secondStamps[index] != epochSecond) {
+                secondStamps[index] = epochSecond;
+                secondCounts[index] = 0;
+            }
+            secondCounts[index]++;
+        } finally {
+            rateLock.unlock();
+        }
+    }
+
+    private long deliveredLastMinute() {
+        long nowSecond = System.currentTimeMillis() / 1000;
+        long total = 0;
+        rateLock.lock();
+        try {
+            for (int i = 0; i < secondCounts.length; i++) {
+                if (nowSecond - secondStamps[i] < secondCounts.length) {
+                    total += secondCounts[i];
+                }
+            }
+        } finally {
+            rateLock.unlock();
+        }
+        return total;
+    }
+
+    private LocalDateTime toLocal(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), zone);
+    }
+}
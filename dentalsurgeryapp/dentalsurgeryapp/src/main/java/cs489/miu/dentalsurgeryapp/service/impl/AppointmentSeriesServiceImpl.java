@@ -0,0 +1,394 @@
+package cs489.miu.dentalsurgeryapp.service.impl;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import cs489.miu.dentalsurgeryapp.dto.AppointmentOccurrenceDTO;
+import cs489.miu.dentalsurgeryapp.exception.AppointmentLimitExceededException;
+import cs489.miu.dentalsurgeryapp.exception.OutstandingBillException;
+import cs489.miu.dentalsurgeryapp.model.Appointment;
+import cs489.miu.dentalsurgeryapp.model.AppointmentSeries;
+import cs489.miu.dentalsurgeryapp.model.AppointmentStatus;
+import cs489.miu.dentalsurgeryapp.repository.AppointmentRepository;
+import cs489.miu.dentalsurgeryapp.repository.AppointmentSeriesRepository;
+import cs489.miu.dentalsurgeryapp.service.AppointmentSeriesService;
+import cs489.miu.dentalsurgeryapp.service.AppointmentService;
+import cs489.miu.dentalsurgeryapp.service.BillService;
+import cs489.miu.dentalsurgeryapp.service.CalendarFeedService;
+import cs489.miu.dentalsurgeryapp.service.DentistAssignmentService;
+import cs489.miu.dentalsurgeryapp.service.DentistWeeklyLoadService;
+import cs489.miu.dentalsurgeryapp.util.AfterCommit;
+import cs489.miu.dentalsurgeryapp.util.BusinessHours;
+
+/**
+ * Series are expanded one occurrence at a time: the occurrence is first claimed with a
+ * conditional update on materializedCount, then booked through the regular save path, so
+ * two instances expanding the same series never book it twice and every in-memory index
+ * sees the new appointment. An occurrence whose week filled up in the meantime is skipped
+ * and counted, not retried.
+ *
+ * The virtual part of each open series is kept per dentist as (first virtual week,
+ * interval, remaining) tails, loaded on first use and dropped whenever a series of that
+ * dentist changes, so the weekly limit check on every booking stays in memory. Since an
+ * occurrence always falls on the weekday of the first one, a week holds at most one
+ * occurrence of a series.
+ */
+@Service
+public class AppointmentSeriesServiceImpl implements AppointmentSeriesService {
+
+    private static final Logger log = LoggerFactory.getLogger(AppointmentSeriesServiceImpl.class);
+    private static final int MAX_LISTED_WEEKS = 10;
+
+    // Virtual occurrences of one series, by week
+    private record Tail(LocalDate firstWeek, int intervalWeeks, int remaining) {
+
+        boolean covers(LocalDate weekStart) {
+            long weeks = ChronoUnit.WEEKS.between(firstWeek, weekStart);
+            return weeks >= 0 && weeks % intervalWeeks == 0 && weeks / intervalWeeks < remaining;
+        }
+    }
+
+    private final AppointmentSeriesRepository seriesRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final AppointmentService appointmentService;
+    private final BillService billService;
+    private final DentistWeeklyLoadService dentistWeeklyLoadService;
+    private final CalendarFeedService calendarFeedService;
+    private final DentistAssignmentService dentistAssignmentService;
+    private final TransactionTemplate transactionTemplate;
+    private final int horizonWeeks;
+
+    private final Map<Integer, List<Tail>> tails = new ConcurrentHashMap<>();
+    // Bumped on every eviction, so a load that raced with a change is not cached
+    private final AtomicLong tailsGeneration = new AtomicLong();
+
+    public AppointmentSeriesServiceImpl(AppointmentSeriesRepository seriesRepository,
+                                        AppointmentRepository appointmentRepository,
+                                        @Lazy AppointmentService appointmentService,
+                                        BillService billService,
+                                        DentistWeeklyLoadService dentistWeeklyLoadService,
+                                        CalendarFeedService calendarFeedService,
+                                        DentistAssignmentService dentistAssignmentService,
+                                        TransactionTemplate transactionTemplate,
+                                        @Value("${dentalsurgery.series.horizon-weeks:8}") int horizonWeeks) {
+        this.seriesRepository = seriesRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.appointmentService = appointmentService;
+        this.billService = billService;
+        this.dentistWeeklyLoadService = dentistWeeklyLoadService;
+        this.calendarFeedService = calendarFeedService;
+        this.dentistAssignmentService = dentistAssignmentService;
+        this.transactionTemplate = transactionTemplate;
+        this.horizonWeeks = Math.max(1, horizonWeeks);
+    }
+
+    @Override
+    public AppointmentSeries createSeries(AppointmentSeries series) throws AppointmentLimitExceededException, OutstandingBillException {
+        LocalDateTime now = LocalDateTime.now();
+        validateRule(series, now);
+
+        if (billService.hasOutstandingBills(series.getPatient().getPatientId())) {
+            throw new OutstandingBillException(
+                String.format("Patient %s %s has outstanding unpaid bills. Please settle all outstanding bills before scheduling a new appointment.",
+                    series.getPatient().getFirstName(),
+                    series.getPatient().getLastName())
+            );
+        }
+
+        // One pass over the whole series against the load index and the other series' virtual occurrences
+        Integer dentistId = series.getDentist().getDentistId();
+        List<LocalDate> fullWeeks = new ArrayList<>();
+        for (int i = 0; i < series.getOccurrenceCount(); i++) {
+            LocalDate weekStart = DentistWeeklyLoadService.weekStartOf(series.occurrenceStart(i));
+            long load = effectiveWeeklyLoad(dentistId, weekStart);
+            if (load >= DentistWeeklyLoadService.WEEKLY_LIMIT) {
+                fullWeeks.add(weekStart);
+            }
+        }
+        if (!fullWeeks.isEmpty()) {
+            String listed = fullWeeks.stream().limit(MAX_LISTED_WEEKS).map(LocalDate::toString).collect(Collectors.joining(", "));
+            throw new AppointmentLimitExceededException(
+                String.format("Dentist %s %s already has %d appointments scheduled in %d of the series' weeks (%s%s). Maximum 5 appointments per week allowed.",
+                    series.getDentist().getFirstName(),
+                    series.getDentist().getLastName(),
+                    DentistWeeklyLoadService.WEEKLY_LIMIT,
+                    fullWeeks.size(),
+                    listed,
+                    fullWeeks.size() > MAX_LISTED_WEEKS ? ", ..." : "")
+            );
+        }
+
+        series.setSeriesId(null);
+        series.setAppointmentType(series.getAppointmentType().trim());
+        series.setMaterializedCount(0);
+        series.setSkippedCount(0);
+        series.setNextStart(series.getFirstStart());
+        series.setCreatedAt(now);
+        series.setCancelledAt(null);
+        AppointmentSeries saved = transactionTemplate.execute(status -> {
+            AppointmentSeries persisted = seriesRepository.save(series);
+            AfterCommit.run(() -> changed(persisted));
+            return persisted;
+        });
+
+        expand(saved.getSeriesId(), horizon());
+        return seriesRepository.findWithPartiesById(saved.getSeriesId()).orElse(saved);
+    }
+
+    @Override
+    public Optional<AppointmentSeries> findSeriesById(Integer seriesId) {
+        return seriesRepository.findWithPartiesById(seriesId);
+    }
+
+    @Override
+    public boolean cancelSeries(Integer seriesId) {
+        LocalDateTime now = LocalDateTime.now();
+        Integer updated = transactionTemplate.execute(status -> seriesRepository.cancel(seriesId, now));
+        if (updated == null || updated == 0) {
+            return false;
+        }
+        // Read after the cancel: no occurrence can be claimed any more, so materializedCount is final
+        AppointmentSeries series = seriesRepository.findWithPartiesById(seriesId).orElseThrow();
+        changed(series);
+        for (int i = 0; i < series.getMaterializedCount(); i++) {
+            LocalDateTime start = series.occurrenceStart(i);
+            if (!start.isAfter(now)) {
+                continue;
+            }
+            Appointment appointment = appointmentRepository.findByPatientAndDentistAndAppointmentDateTimeAndSurgeryLocation(
+                series.getPatient(), series.getDentist(), start, series.getSurgeryLocation());
+            if (appointment != null && appointment.getStatus() != AppointmentStatus.CANCELLED) {
+                appointment.setStatus(AppointmentStatus.CANCELLED);
+                appointmentService.saveAppointment(appointment);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    @Scheduled(cron = "${dentalsurgery.series.expand-cron:0 20 0 * * *}")
+    public int expandDue() {
+        LocalDateTime horizon = horizon();
+        int booked = 0;
+        for (Integer seriesId : seriesRepository.findIdsDueBefore(horizon)) {
+            try {
+                booked += expand(seriesId, horizon);
+            } catch (DataAccessException e) {
+                log.warn("Could not expand appointment series {}", seriesId, e);
+            }
+        }
+        if (booked > 0) {
+            log.info("Expanded {} appointments from recurring series up to {}", booked, horizon.toLocalDate());
+        }
+        return booked;
+    }
+
+    @Override
+    public List<AppointmentOccurrenceDTO> findOccurrences(Integer dentistId, Integer patientId, LocalDateTime from, LocalDateTime to) {
+        List<AppointmentOccurrenceDTO> occurrences = new ArrayList<>();
+        for (Appointment appointment : appointmentRepository.findWithPartiesBetween(dentistId, patientId, from, to)) {
+            occurrences.add(new AppointmentOccurrenceDTO(
+                appointment.getAppointmentId(),
+                null,
+                null,
+                appointment.getAppointmentDateTime(),
+                appointment.getAppointmentType(),
+                appointment.getAppointmentStatus(),
+                appointment.getPatient().getPatientId(),
+                appointment.getPatient().getFirstName() + " " + appointment.getPatient().getLastName(),
+                appointment.getDentist().getDentistId(),
+                appointment.getDentist().getFirstName() + " " + appointment.getDentist().getLastName(),
+                appointment.getSurgeryLocation().getSurgeryLocationId(),
+                false));
+        }
+        for (AppointmentSeries series : seriesRepository.findOpenWithParties(dentistId, patientId)) {
+            // Jump straight to the first occurrence at or after from
+            long weeksToFrom = Math.max(0, ChronoUnit.WEEKS.between(series.getFirstStart(), from));
+            int first = (int) Math.max(series.getMaterializedCount(), Math.min(series.getOccurrenceCount(), weeksToFrom / series.getIntervalWeeks()));
+            for (int i = first; i < series.getOccurrenceCount(); i++) {
+                LocalDateTime start = series.occurrenceStart(i);
+                if (!start.isBefore(to)) {
+                    break;
+                }
+                if (start.isBefore(from)) {
+                    continue;
+                }
+                occurrences.add(new AppointmentOccurrenceDTO(
+                    null,
+                    series.getSeriesId(),
+                    i + 1,
+                    start,
+                    series.getAppointmentType(),
+                    AppointmentStatus.SCHEDULED.name(),
+                    series.getPatient().getPatientId(),
+                    series.getPatient().getFirstName() + " " + series.getPatient().getLastName(),
+                    series.getDentist().getDentistId(),
+                    series.getDentist().getFirstName() + " " + series.getDentist().getLastName(),
+                    series.getSurgeryLocation().getSurgeryLocationId(),
+                    true));
+            }
+        }
+        occurrences.sort(Comparator.comparing(AppointmentOccurrenceDTO::appointmentDateTime)
+            .thenComparing(AppointmentOccurrenceDTO::appointmentId, Comparator.nullsLast(Comparator.naturalOrder())));
+        return occurrences;
+    }
+
+    @Override
+    public int countVirtualInWeek(Integer dentistId, LocalDate weekStart) {
+        if (dentistId == null) {
+            return 0;
+        }
+        int count = 0;
+        for (Tail tail : tailsOf(dentistId)) {
+            if (tail.covers(weekStart)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public long effectiveWeeklyLoad(Integer dentistId, LocalDate weekStart) {
+        return dentistWeeklyLoadService.getWeeklyLoad(dentistId, weekStart) + countVirtualInWeek(dentistId, weekStart);
+    }
+
+    @Override
+    public long effectiveWeeklyLoadExcluding(Appointment appointment) {
+        return dentistWeeklyLoadService.getWeeklyLoadExcluding(appointment)
+            + countVirtualInWeek(appointment.getDentist().getDentistId(),
+                DentistWeeklyLoadService.weekStartOf(appointment.getAppointmentDateTime()));
+    }
+
+    private List<Tail> tailsOf(Integer dentistId) {
+        List<Tail> cached = tails.get(dentistId);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = tailsGeneration.get();
+        List<Tail> loaded = new ArrayList<>();
+        for (AppointmentSeries series : seriesRepository.findOpenByDentistId(dentistId)) {
+            if (series.remaining() > 0) {
+                loaded.add(new Tail(DentistWeeklyLoadService.weekStartOf(series.getNextStart()),
+                    series.getIntervalWeeks(), series.remaining()));
+            }
+        }
+        List<Tail> result = List.copyOf(loaded);
+        if (tailsGeneration.get() == generation) {
+            tails.putIfAbsent(dentistId, result);
+        }
+        return result;
+    }
+
+    // Expands the occurrences of one series that start before the horizon; returns how many were booked
+    private int expand(Integer seriesId, LocalDateTime horizon) {
+        AppointmentSeries series = seriesRepository.findWithPartiesById(seriesId).orElse(null);
+        int booked = 0;
+        boolean claimedAny = false;
+        while (series != null && series.getNextStart() != null && series.getNextStart().isBefore(horizon)) {
+            int index = series.getMaterializedCount();
+            LocalDateTime start = series.occurrenceStart(index);
+            LocalDateTime next = index + 1 < series.getOccurrenceCount() ? series.occurrenceStart(index + 1) : null;
+            Integer claimed = transactionTemplate.execute(status -> seriesRepository.claimOccurrence(seriesId, index, next));
+            if (claimed == null || claimed == 0) {
+                // Taken by a concurrent expansion, or cancelled: carry on from the stored state
+                series = seriesRepository.findWithPartiesById(seriesId).orElse(null);
+                continue;
+            }
+            series.setMaterializedCount(index + 1);
+            series.setNextStart(next);
+            claimedAny = true;
+            // No longer virtual: drop it from the weekly counts before it is booked, not after
+            evictTails(series.getDentist().getDentistId());
+            if (book(series, start)) {
+                booked++;
+            } else {
+                transactionTemplate.execute(status -> seriesRepository.incrementSkipped(seriesId));
+            }
+        }
+        if (claimedAny) {
+            changed(series);
+        }
+        return booked;
+    }
+
+    private boolean book(AppointmentSeries series, LocalDateTime start) {
+        if (!start.isAfter(LocalDateTime.now())) {
+            log.warn("Skipped occurrence {} of series {}: it is already past", start, series.getSeriesId());
+            return false;
+        }
+        Appointment appointment = new Appointment();
+        appointment.setAppointmentType(series.getAppointmentType());
+        appointment.setStatus(AppointmentStatus.SCHEDULED);
+        appointment.setAppointmentDateTime(start);
+        appointment.setPatient(series.getPatient());
+        appointment.setDentist(series.getDentist());
+        appointment.setSurgeryLocation(series.getSurgeryLocation());
+        try {
+            appointmentService.saveAppointment(appointment);
+            return true;
+        } catch (IllegalStateException | DataAccessException e) {
+            // The week filled up after the series was validated
+            log.warn("Skipped occurrence {} of series {}: {}", start, series.getSeriesId(), e.getMessage());
+            return false;
+        }
+    }
+
+    private void changed(AppointmentSeries series) {
+        if (series == null) {
+            return;
+        }
+        evictTails(series.getDentist().getDentistId());
+        calendarFeedService.recordSeriesChanged(series.getDentist().getDentistId(), series.getSurgeryLocation().getSurgeryLocationId());
+        dentistAssignmentService.recordLoadChanged(series.getDentist().getDentistId());
+    }
+
+    private void evictTails(Integer dentistId) {
+        tailsGeneration.incrementAndGet();
+        tails.remove(dentistId);
+    }
+
+    private LocalDateTime horizon() {
+        return LocalDate.now().plusWeeks(horizonWeeks).atStartOfDay();
+    }
+
+    private static void validateRule(AppointmentSeries series, LocalDateTime now) {
+        if (series.getPatient() == null || series.getDentist() == null || series.getSurgeryLocation() == null) {
+            throw new IllegalArgumentException("Patient, dentist and surgery location are required.");
+        }
+        if (series.getAppointmentType() == null || series.getAppointmentType().isBlank()
+                || series.getAppointmentType().trim().length() > 50) {
+            throw new IllegalArgumentException("Appointment type is required and must be at most 50 characters.");
+        }
+        if (series.getIntervalWeeks() == null || series.getIntervalWeeks() < 1 || series.getIntervalWeeks() > MAX_INTERVAL_WEEKS) {
+            throw new IllegalArgumentException("intervalWeeks must be between 1 and " + MAX_INTERVAL_WEEKS + ".");
+        }
+        if (series.getOccurrenceCount() == null || series.getOccurrenceCount() < 1 || series.getOccurrenceCount() > MAX_OCCURRENCES) {
+            throw new IllegalArgumentException("occurrenceCount must be between 1 and " + MAX_OCCURRENCES + ".");
+        }
+        if (series.getFirstStart() == null || !series.getFirstStart().isAfter(now)) {
+            throw new IllegalArgumentException("The first appointment must be in the future.");
+        }
+        // Every occurrence has the weekday and time of the first, so one check covers the series
+        if (!BusinessHours.isOpen(series.getFirstStart())) {
+            throw new IllegalArgumentException("Recurring appointments must fall within business hours.");
+        }
+    }
+}
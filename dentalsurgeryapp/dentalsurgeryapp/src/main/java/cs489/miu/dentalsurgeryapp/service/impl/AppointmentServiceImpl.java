@@ -1,50 +1,114 @@
 package cs489.miu.dentalsurgeryapp.service.impl;
 
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.time.temporal.TemporalAdjusters;
-import java.time.DayOfWeek;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import cs489.miu.dentalsurgeryapp.dto.AppointmentFilterDTO;
+import cs489.miu.dentalsurgeryapp.dto.AppointmentKeyDTO;
 import cs489.miu.dentalsurgeryapp.dto.AppointmentRequestDTO;
+import cs489.miu.dentalsurgeryapp.dto.KeysetCursor;
+import cs489.miu.dentalsurgeryapp.dto.KeysetPageDTO;
 import cs489.miu.dentalsurgeryapp.model.Appointment;
 import cs489.miu.dentalsurgeryapp.model.AppointmentStatus;
+import cs489.miu.dentalsurgeryapp.model.Bill;
 import cs489.miu.dentalsurgeryapp.model.Patient;
 import cs489.miu.dentalsurgeryapp.model.Dentist;
 import cs489.miu.dentalsurgeryapp.model.SurgeryLocation;
 import cs489.miu.dentalsurgeryapp.exception.AppointmentLimitExceededException;
 import cs489.miu.dentalsurgeryapp.exception.OutstandingBillException;
 import cs489.miu.dentalsurgeryapp.repository.AppointmentRepository;
+import cs489.miu.dentalsurgeryapp.repository.NaturalKeyUpsert;
+import cs489.miu.dentalsurgeryapp.service.AppointmentSeriesService;
 import cs489.miu.dentalsurgeryapp.service.AppointmentService;
+import cs489.miu.dentalsurgeryapp.service.AppointmentReminderService;
+import cs489.miu.dentalsurgeryapp.service.AppointmentStatsService;
+import cs489.miu.dentalsurgeryapp.service.AvailabilityService;
 import cs489.miu.dentalsurgeryapp.service.BillService;
+import cs489.miu.dentalsurgeryapp.service.CalendarFeedService;
+import cs489.miu.dentalsurgeryapp.service.DashboardStatsService;
+import cs489.miu.dentalsurgeryapp.service.DentistAssignmentService;
 import cs489.miu.dentalsurgeryapp.service.DentistService;
+import cs489.miu.dentalsurgeryapp.service.DentistSlotReservationService;
+import cs489.miu.dentalsurgeryapp.service.DentistWeeklyLoadService;
 import cs489.miu.dentalsurgeryapp.service.PatientService;
 import cs489.miu.dentalsurgeryapp.service.SurgeryLocationService;
+import cs489.miu.dentalsurgeryapp.service.WaitlistService;
 
 @Service
 public class AppointmentServiceImpl implements AppointmentService {
+
+    private static final int MAX_PAGE_SIZE = 100;
     
     private final AppointmentRepository appointmentRepository;
     private final PatientService patientService;
     private final DentistService dentistService;
     private final SurgeryLocationService surgeryLocationService;
     private final BillService billService;
+    private final DentistWeeklyLoadService dentistWeeklyLoadService;
+    private final DentistSlotReservationService slotReservationService;
+    private final AvailabilityService availabilityService;
+    private final AppointmentStatsService appointmentStatsService;
+    private final DashboardStatsService dashboardStatsService;
+    private final CalendarFeedService calendarFeedService;
+    private final AppointmentReminderService appointmentReminderService;
+    private final WaitlistService waitlistService;
+    private final AppointmentSeriesService appointmentSeriesService;
+    private final DentistAssignmentService dentistAssignmentService;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxBookingAttempts;
 
     public AppointmentServiceImpl(AppointmentRepository appointmentRepository, 
                                  PatientService patientService,
                                  DentistService dentistService,
                                  SurgeryLocationService surgeryLocationService,
-                                 BillService billService) {
+                                 BillService billService,
+                                 DentistWeeklyLoadService dentistWeeklyLoadService,
+                                 DentistSlotReservationService slotReservationService,
+                                 AvailabilityService availabilityService,
+                                 AppointmentStatsService appointmentStatsService,
+                                 DashboardStatsService dashboardStatsService,
+                                 CalendarFeedService calendarFeedService,
+                                 AppointmentReminderService appointmentReminderService,
+                                 WaitlistService waitlistService,
+                                 AppointmentSeriesService appointmentSeriesService,
+                                 DentistAssignmentService dentistAssignmentService,
+                                 TransactionTemplate transactionTemplate,
+                                 @Value("${dentalsurgery.booking.max-attempts:6}") int maxBookingAttempts) {
         this.appointmentRepository = appointmentRepository;
         this.patientService = patientService;
         this.dentistService = dentistService;
         this.surgeryLocationService = surgeryLocationService;
         this.billService = billService;
+        this.dentistWeeklyLoadService = dentistWeeklyLoadService;
+        this.slotReservationService = slotReservationService;
+        this.availabilityService = availabilityService;
+        this.appointmentStatsService = appointmentStatsService;
+        this.dashboardStatsService = dashboardStatsService;
+        this.calendarFeedService = calendarFeedService;
+        this.appointmentReminderService = appointmentReminderService;
+        this.waitlistService = waitlistService;
+        this.appointmentSeriesService = appointmentSeriesService;
+        this.dentistAssignmentService = dentistAssignmentService;
+        this.transactionTemplate = transactionTemplate;
+        this.maxBookingAttempts = Math.max(1, maxBookingAttempts);
     }
 
     @Override
@@ -58,6 +122,65 @@ public class AppointmentServiceImpl implements AppointmentService {
         return appointmentRepository.findAll();
     }
 
+    @Override
+    public KeysetPageDTO<Appointment> findAppointmentsPage(AppointmentFilterDTO filter, String cursor, boolean backward, int size) {
+        AppointmentFilterDTO f = filter != null ? filter : AppointmentFilterDTO.none();
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        AppointmentStatus status;
+        try {
+            status = AppointmentStatus.fromName(f.appointmentStatus());
+        } catch (IllegalArgumentException e) {
+            return new KeysetPageDTO<>(List.of(), null, null, pageSize); // No appointment has an unknown status
+        }
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        LocalDateTime cursorDateTime = null;
+        Integer cursorId = null;
+        if (position != null) {
+            try {
+                cursorDateTime = position.sortKeyAsDateTime();
+                cursorId = position.id();
+            } catch (DateTimeParseException e) {
+                position = null; // Tampered cursor: start from the first page
+            }
+        }
+
+        // Fetch one extra row to learn whether another page exists in the scan direction
+        Limit limit = Limit.of(pageSize + 1);
+        boolean goingBack = backward && position != null;
+        List<Appointment> rows = goingBack
+            ? appointmentRepository.findPageBeforeCursor(f.patientId(), blankToNull(f.patientName()), f.dentistId(),
+                blankToNull(f.appointmentType()), status, f.from(), f.to(),
+                cursorDateTime, cursorId, limit)
+            : appointmentRepository.findPageAfterCursor(f.patientId(), blankToNull(f.patientName()), f.dentistId(),
+                blankToNull(f.appointmentType()), status, f.from(), f.to(),
+                cursorDateTime, cursorId, limit);
+
+        boolean moreInScanDirection = rows.size() > pageSize;
+        List<Appointment> content = new ArrayList<>(moreInScanDirection ? rows.subList(0, pageSize) : rows);
+        if (goingBack) {
+            Collections.reverse(content);
+        }
+        if (content.isEmpty()) {
+            return new KeysetPageDTO<>(content, null, null, pageSize);
+        }
+
+        // Going forward, a previous page exists whenever we started from a cursor; going back,
+        // the page we came from is always there to return to.
+        boolean hasPrevious = goingBack ? moreInScanDirection : position != null;
+        boolean hasNext = goingBack || moreInScanDirection;
+        String previousCursor = hasPrevious ? cursorOf(content.get(0)) : null;
+        String nextCursor = hasNext ? cursorOf(content.get(content.size() - 1)) : null;
+        return new KeysetPageDTO<>(content, previousCursor, nextCursor, pageSize);
+    }
+
+    private static String cursorOf(Appointment appointment) {
+        return KeysetCursor.of(appointment.getAppointmentDateTime(), appointment.getAppointmentId()).encode();
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.trim().isEmpty() ? null : value.trim();
+    }
+
     @Override
     public Appointment getAppointmentById(Integer id) {
         return appointmentRepository.findById(id).orElse(null);
@@ -68,16 +191,28 @@ public class AppointmentServiceImpl implements AppointmentService {
         // Per requirements, only check outstanding bills on creation, not update
         // Still enforce dentist weekly limit on update
         validateDentistWeeklyLimit(appointment);
-        return appointmentRepository.save(appointment);
+        return saveWithSlot(appointment);
     }
 
     @Override
     public boolean deleteAppointmentById(Integer id) {
-        if (appointmentRepository.existsById(id)) {
+        Boolean deleted = transactionTemplate.execute(status -> {
+            Optional<AppointmentKeyDTO> key = appointmentRepository.findKeyById(id);
+            if (key.isEmpty()) {
+                return false;
+            }
+            slotReservationService.release(id);
             appointmentRepository.deleteById(id);
+            dentistWeeklyLoadService.recordDeleted(id);
+            availabilityService.recordDeleted(id);
+            dashboardStatsService.recordAppointmentDeleted(id);
+            calendarFeedService.recordDeleted(id);
+            appointmentReminderService.recordDeleted(id);
+            appointmentStatsService.evict(key.get().patientId(), key.get().dentistId());
+            dentistAssignmentService.recordLoadChanged(key.get().dentistId());
             return true;
-        }
-        return false;
+        });
+        return Boolean.TRUE.equals(deleted);
     }
 
     @Override
@@ -101,30 +236,127 @@ public class AppointmentServiceImpl implements AppointmentService {
             appointment.setSurgeryLocation(managedLocation);
         }
         
-        // Check if appointment already exists
-        if (appointment.getPatient() != null && appointment.getDentist() != null 
-            && appointment.getAppointmentDateTime() != null && appointment.getSurgeryLocation() != null) {
-            
-            Appointment existingAppointment = appointmentRepository.findByPatientAndDentistAndAppointmentDateTimeAndSurgeryLocation(
-                appointment.getPatient(), 
-                appointment.getDentist(), 
-                appointment.getAppointmentDateTime(), 
-                appointment.getSurgeryLocation()
-            );
+        try {
+            // Validate patient outstanding bills before creating new appointment
+            validatePatientOutstandingBills(appointment);
             
+            // Validate dentist weekly appointment limit before creating new appointment
+            validateDentistWeeklyLimit(appointment);
+        } catch (AppointmentLimitExceededException | OutstandingBillException e) {
+            // The same booking made earlier is not refused by the checks it already passed
+            // (it counts towards its own week); only this rare path pays for the lookup
+            Appointment existingAppointment = findExistingBooking(appointment);
             if (existingAppointment != null) {
                 return existingAppointment;
             }
+            throw e;
         }
         
-        // Validate patient outstanding bills before creating new appointment
-        validatePatientOutstandingBills(appointment);
-        
-        // Validate dentist weekly appointment limit before creating new appointment
-        validateDentistWeeklyLimit(appointment);
-        
-        // Appointment doesn't exist, create new one
-        return appointmentRepository.save(appointment);
+        // Inserts unless the same booking exists already, in which case that one is returned
+        return saveWithSlot(appointment);
+    }
+
+    private Appointment findExistingBooking(Appointment appointment) {
+        if (appointment.getPatient() == null || appointment.getDentist() == null
+            || appointment.getAppointmentDateTime() == null || appointment.getSurgeryLocation() == null) {
+            return null;
+        }
+        return appointmentRepository.findByPatientAndDentistAndAppointmentDateTimeAndSurgeryLocation(
+            appointment.getPatient(),
+            appointment.getDentist(),
+            appointment.getAppointmentDateTime(),
+            appointment.getSurgeryLocation()
+        );
+    }
+
+    /**
+     * Saves the appointment and claims its dentist-week slot in one transaction, so the weekly
+     * limit holds even when bookings race: the in-memory check above can be passed by two
+     * bookings at once, the slot's unique key cannot. Losing a race on a slot rolls the whole
+     * save back and retries against the fresh state of the week, up to maxBookingAttempts times.
+     * A new appointment is inserted with a natural-key upsert (uk_appointments_booking): if the
+     * same patient, dentist, time and location are already booked, that appointment is returned
+     * as it is, without claiming a slot or notifying anything.
+     * <p>
+     * Called inside a transaction of the caller's (checkout), the save joins it and is not
+     * retried: a lost race has marked that transaction rollback-only, so the failure goes to
+     * the caller, which rolls back as a whole.
+     * @throws AppointmentLimitExceededException if the week has no free slot
+     */
+    private Appointment saveWithSlot(Appointment appointment) throws AppointmentLimitExceededException {
+        boolean isNew = appointment.getAppointmentId() == null;
+        boolean retry = !TransactionSynchronizationManager.isActualTransactionActive();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Appointment saved = transactionTemplate.execute(status -> {
+                    if (!isNew) {
+                        // The previous patient and dentist lose this appointment if it was reassigned
+                        appointmentRepository.findKeyById(appointment.getAppointmentId())
+                            .ifPresent(previous -> {
+                                appointmentStatsService.evict(previous.patientId(), previous.dentistId());
+                                dentistAssignmentService.recordLoadChanged(previous.dentistId());
+                            });
+                    }
+                    Appointment persisted;
+                    if (isNew) {
+                        NaturalKeyUpsert.Upserted<Appointment> upserted = appointmentRepository.insertIfAbsent(appointment);
+                        if (!upserted.inserted()) {
+                            return upserted.entity();
+                        }
+                        persisted = upserted.entity();
+                    } else {
+                        persisted = appointmentRepository.save(appointment);
+                    }
+                    if (!slotReservationService.reserve(persisted)) {
+                        status.setRollbackOnly();
+                        return null;
+                    }
+                    dentistWeeklyLoadService.recordSaved(persisted);
+                    availabilityService.recordSaved(persisted);
+                    dashboardStatsService.recordAppointmentSaved(persisted);
+                    calendarFeedService.recordSaved(persisted);
+                    appointmentReminderService.recordSaved(persisted);
+                    waitlistService.recordSaved(persisted);
+                    appointmentStatsService.evict(persisted.getPatient().getPatientId(), persisted.getDentist().getDentistId());
+                    dentistAssignmentService.recordLoadChanged(persisted.getDentist().getDentistId());
+                    return persisted;
+                });
+                if (saved == null) {
+                    if (isNew) {
+                        appointment.setAppointmentId(null); // The insert was rolled back
+                    }
+                    throw new AppointmentLimitExceededException(
+                        String.format("Dentist %s %s already has %d appointments scheduled for the week of %s. Maximum 5 appointments per week allowed.",
+                            appointment.getDentist().getFirstName(),
+                            appointment.getDentist().getLastName(),
+                            DentistWeeklyLoadService.WEEKLY_LIMIT,
+                            DentistWeeklyLoadService.weekStartOf(appointment.getAppointmentDateTime()))
+                    );
+                }
+                if (saved != appointment) {
+                    // Booked already: same patient, dentist and location rows as the caller's
+                    // loaded ones, which unlike the stored copy's proxies are readable from here on
+                    saved.setPatient(appointment.getPatient());
+                    saved.setDentist(appointment.getDentist());
+                    saved.setSurgeryLocation(appointment.getSurgeryLocation());
+                    return saved;
+                }
+                // Hand back the caller's instance: its patient, dentist and location are the
+                // loaded entities the caller set, while a merged copy only holds lazy proxies
+                // that cannot be read once the transaction has ended
+                return appointment;
+            } catch (DataIntegrityViolationException | ConcurrencyFailureException e) {
+                if (isNew) {
+                    appointment.setAppointmentId(null);
+                }
+                // Any other violation (references, NOT NULL, another unique key) fails the same way again
+                boolean slotRace = !(e instanceof DataIntegrityViolationException violation)
+                    || DentistSlotReservationService.isSlotConflict(violation);
+                if (!slotRace || !retry || attempt >= maxBookingAttempts) {
+                    throw e;
+                }
+            }
+        }
     }
 
     /**
@@ -136,56 +368,23 @@ public class AppointmentServiceImpl implements AppointmentService {
         if (appointment.getDentist() == null || appointment.getAppointmentDateTime() == null) {
             return; // Cannot validate without dentist and appointment date
         }
-        
-    // Calculate the start and end of the week for the appointment date (Sunday–Saturday)
-    LocalDateTime appointmentDate = appointment.getAppointmentDateTime();
-    LocalDateTime weekStart = appointmentDate.with(TemporalAdjusters.previousOrSame(DayOfWeek.SUNDAY))
-                         .withHour(0).withMinute(0).withSecond(0).withNano(0);
-    LocalDateTime weekEnd = appointmentDate.with(TemporalAdjusters.nextOrSame(DayOfWeek.SATURDAY))
-                           .withHour(23).withMinute(59).withSecond(59).withNano(999999999);
-        
-        // Count existing appointments for this dentist in the target (new) week
-        long appointmentsInWeek = appointmentRepository.countByDentistAndAppointmentDateTimeBetween(
-            appointment.getDentist(), weekStart, weekEnd);
-
-        // If updating an existing appointment, avoid double-count only when the existing
-        // appointment is for the same dentist and already within the same target week window
-        if (appointment.getAppointmentId() != null) {
-            appointmentRepository.findById(appointment.getAppointmentId()).ifPresent(existing -> {
-                boolean sameDentist = existing.getDentist() != null && appointment.getDentist() != null &&
-                        existing.getDentist().getDentistId().equals(appointment.getDentist().getDentistId());
-                LocalDateTime existingDt = existing.getAppointmentDateTime();
-                boolean existingInTargetWeek = existingDt != null &&
-                        !existingDt.isBefore(weekStart) && !existingDt.isAfter(weekEnd);
-                if (sameDentist && existingInTargetWeek) {
-                    // subtract one to neutralize counting the existing appointment in this week
-                    // (so we evaluate the effect of the move/change correctly)
-                    // Use array wrapper to mutate effectively (or recompute as long): we'll recompute below style
-                }
-            });
-            // Recompute count excluding the current appointment if applicable
-            // Fetch count again but exclude the current appointment ID by filtering after fetch isn't feasible in JPQL here.
-            // Instead, compute properly: if sameDentist && existingInTargetWeek above, just decrement here.
-            Appointment existing = appointmentRepository.findById(appointment.getAppointmentId()).orElse(null);
-            if (existing != null && existing.getDentist() != null && appointment.getDentist() != null) {
-                boolean sameDentist = existing.getDentist().getDentistId().equals(appointment.getDentist().getDentistId());
-                LocalDateTime existingDt = existing.getAppointmentDateTime();
-                boolean existingInTargetWeek = existingDt != null &&
-                        !existingDt.isBefore(weekStart) && !existingDt.isAfter(weekEnd);
-                if (sameDentist && existingInTargetWeek) {
-                    appointmentsInWeek--;
-                }
-            }
+        if (AppointmentStatus.CANCELLED.name().equals(appointment.getAppointmentStatus())) {
+            return; // Cancelled appointments do not take up a slot
         }
-        
+
+        // Active appointments this dentist already has in the target (Sunday–Saturday) week,
+        // excluding this appointment if it is already booked in that week, plus the occurrences
+        // of recurring series not expanded into appointments yet
+        long appointmentsInWeek = appointmentSeriesService.effectiveWeeklyLoadExcluding(appointment);
+
         // Check if adding this appointment would exceed the limit
-        if (appointmentsInWeek >= 5) {
+        if (appointmentsInWeek >= DentistWeeklyLoadService.WEEKLY_LIMIT) {
             throw new AppointmentLimitExceededException(
                 String.format("Dentist %s %s already has %d appointments scheduled for the week of %s. Maximum 5 appointments per week allowed.",
                     appointment.getDentist().getFirstName(),
                     appointment.getDentist().getLastName(),
                     appointmentsInWeek,
-                    weekStart.toLocalDate())
+                    DentistWeeklyLoadService.weekStartOf(appointment.getAppointmentDateTime()))
             );
         }
     }
@@ -223,9 +422,14 @@ public class AppointmentServiceImpl implements AppointmentService {
         return appointmentRepository.findByPatient(patient, pageable);
     }
 
+    @Override
+    public List<Appointment> findRecentAppointmentsByPatient(Integer patientId, int limit) {
+        return appointmentRepository.findByPatientPatientIdOrderByAppointmentDateTimeDesc(patientId, Limit.of(limit));
+    }
+
     @Override
     public Page<Appointment> findAppointmentsByPatientAndStatus(Patient patient, AppointmentStatus status, Pageable pageable) {
-        return appointmentRepository.findByPatientAndAppointmentStatus(patient, status.name(), pageable);
+        return appointmentRepository.findByPatientAndAppointmentStatus(patient, status, pageable);
     }
 
     @Override
@@ -241,7 +445,7 @@ public class AppointmentServiceImpl implements AppointmentService {
 
     @Override
     public long countCompletedAppointmentsByPatient(Patient patient) {
-        return appointmentRepository.countByPatientAndAppointmentStatus(patient, AppointmentStatus.COMPLETED.name());
+        return appointmentRepository.countByPatientAndAppointmentStatus(patient, AppointmentStatus.COMPLETED);
     }
 
     @Override
@@ -368,7 +572,35 @@ public class AppointmentServiceImpl implements AppointmentService {
 
     @Override
     public Appointment saveAppointment(Appointment appointment) {
-        return appointmentRepository.save(appointment);
+        try {
+            return saveWithSlot(appointment);
+        } catch (AppointmentLimitExceededException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    @Transactional(rollbackFor = AppointmentLimitExceededException.class)
+    public Bill checkoutAppointment(Integer appointmentId, BigDecimal totalCost, String paymentStatus) throws AppointmentLimitExceededException {
+        if (totalCost != null && totalCost.signum() < 0) {
+            throw new IllegalArgumentException("Total cost must be non-negative");
+        }
+        Appointment appointment = appointmentRepository.findById(appointmentId).orElse(null);
+        if (appointment == null) {
+            return null;
+        }
+        if (AppointmentStatus.CANCELLED.name().equals(appointment.getAppointmentStatus())) {
+            throw new IllegalStateException("Appointment #" + appointmentId + " is cancelled and cannot be checked out");
+        }
+        appointment.setAppointmentStatus(AppointmentStatus.CHECKOUT.name());
+        // Joins this transaction, so a failure below also undoes the status change; a lost slot
+        // race is not retried in here but fails the checkout (409), as a concurrent bill does
+        Appointment checkedOut = saveWithSlot(appointment);
+        Bill bill = billService.saveBillForAppointment(checkedOut, totalCost, paymentStatus);
+        if (bill == null) {
+            throw new IllegalArgumentException("Appointment #" + appointmentId + " has no bill yet; a total cost is required to create one");
+        }
+        return bill;
     }
 
     // Methods for dentist portal
@@ -379,7 +611,7 @@ public class AppointmentServiceImpl implements AppointmentService {
 
     @Override
     public Page<Appointment> findAppointmentsByDentistAndStatus(Dentist dentist, AppointmentStatus status, Pageable pageable) {
-        return appointmentRepository.findByDentistAndAppointmentStatus(dentist, status.name(), pageable);
+        return appointmentRepository.findByDentistAndAppointmentStatus(dentist, status, pageable);
     }
 
     @Override
@@ -395,6 +627,11 @@ public class AppointmentServiceImpl implements AppointmentService {
 
     @Override
     public long countCompletedAppointmentsByDentist(Dentist dentist) {
-        return appointmentRepository.countByDentistAndAppointmentStatus(dentist, AppointmentStatus.COMPLETED.name());
+        return appointmentRepository.countByDentistAndAppointmentStatus(dentist, AppointmentStatus.COMPLETED);
+    }
+
+    @Override
+    public Stream<Appointment> streamAllAppointments() {
+        return appointmentRepository.streamAllForExport();
     }
 }
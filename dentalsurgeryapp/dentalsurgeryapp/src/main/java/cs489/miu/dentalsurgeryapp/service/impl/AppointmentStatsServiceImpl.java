@@ -0,0 +1,120 @@
+package cs489.miu.dentalsurgeryapp.service.impl;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import cs489.miu.dentalsurgeryapp.dto.AppointmentStatsDTO;
+import cs489.miu.dentalsurgeryapp.dto.AppointmentStatusCountDTO;
+import cs489.miu.dentalsurgeryapp.model.AppointmentStatus;
+import cs489.miu.dentalsurgeryapp.repository.AppointmentRepository;
+import cs489.miu.dentalsurgeryapp.service.AppointmentStatsService;
+import cs489.miu.dentalsurgeryapp.util.AfterCommit;
+
+/**
+ * Short-lived cache over the per-owner status aggregation.
+ *
+ * Every key carries a version that eviction bumps. A computed entry remembers the version
+ * it was computed under and is ignored once the version has moved on, so a query that was
+ * already running when an appointment changed can never put its stale result back.
+ * An entry also stops being valid when its owner's earliest upcoming appointment starts.
+ */
+@Service
+public class AppointmentStatsServiceImpl implements AppointmentStatsService {
+
+    private enum Owner { PATIENT, DENTIST }
+
+    private record Key(Owner owner, Integer id) {
+    }
+
+    private record Entry(AppointmentStatsDTO stats, long version, long expiresAtNanos, LocalDateTime changesAt) {
+
+        boolean isValid(long currentVersion) {
+            return version == currentVersion
+                    && System.nanoTime() - expiresAtNanos < 0
+                    && (changesAt == null || LocalDateTime.now().isBefore(changesAt));
+        }
+    }
+
+    private final AppointmentRepository appointmentRepository;
+    private final long ttlNanos;
+
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<Key, Long> versions = new ConcurrentHashMap<>();
+
+    public AppointmentStatsServiceImpl(AppointmentRepository appointmentRepository,
+                                       @Value("${dentalsurgery.dashboard-stats.ttl:30s}") Duration ttl) {
+        this.appointmentRepository = appointmentRepository;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    @Override
+    public AppointmentStatsDTO getPatientStats(Integer patientId) {
+        return get(new Key(Owner.PATIENT, patientId), appointmentRepository::countByStatusForPatient);
+    }
+
+    @Override
+    public AppointmentStatsDTO getDentistStats(Integer dentistId) {
+        return get(new Key(Owner.DENTIST, dentistId), appointmentRepository::countByStatusForDentist);
+    }
+
+    @Override
+    public void evict(Integer patientId, Integer dentistId) {
+        if (patientId == null && dentistId == null) {
+            return;
+        }
+        AfterCommit.run(() -> {
+            if (patientId != null) {
+                evict(new Key(Owner.PATIENT, patientId));
+            }
+            if (dentistId != null) {
+                evict(new Key(Owner.DENTIST, dentistId));
+            }
+        });
+    }
+
+    private void evict(Key key) {
+        versions.merge(key, 1L, Long::sum);
+        entries.remove(key);
+    }
+
+    private AppointmentStatsDTO get(Key key, BiFunction<Integer, LocalDateTime, List<AppointmentStatusCountDTO>> query) {
+        long version = versions.getOrDefault(key, 0L);
+        Entry entry = entries.get(key);
+        if (entry != null && entry.isValid(version)) {
+            return entry.stats();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<AppointmentStatusCountDTO> rows = query.apply(key.id(), now);
+
+        long total = 0;
+        long upcoming = 0;
+        Map<String, Long> byStatus = new HashMap<>();
+        LocalDateTime changesAt = null;
+        LocalDateTime next = null;
+        for (AppointmentStatusCountDTO row : rows) {
+            long rowTotal = row.total() != null ? row.total() : 0;
+            total += rowTotal;
+            upcoming += row.upcoming() != null ? row.upcoming() : 0;
+            byStatus.put(row.appointmentStatus().name(), rowTotal);
+            LocalDateTime rowNext = row.nextAppointmentDateTime();
+            if (rowNext != null) {
+                changesAt = changesAt == null || rowNext.isBefore(changesAt) ? rowNext : changesAt;
+                if (row.appointmentStatus() != AppointmentStatus.CANCELLED) {
+                    next = next == null || rowNext.isBefore(next) ? rowNext : next;
+                }
+            }
+        }
+        AppointmentStatsDTO stats = new AppointmentStatsDTO(total, upcoming, total - upcoming,
+                Map.copyOf(byStatus), next, now);
+        entries.put(key, new Entry(stats, version, System.nanoTime() + ttlNanos, changesAt));
+        return stats;
+    }
+}
@@ -0,0 +1,197 @@
+package cs489.miu.dentalsurgeryapp.service.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import cs489.miu.dentalsurgeryapp.dto.AuditEventDTO;
+import cs489.miu.dentalsurgeryapp.service.AuditJournalService;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Committed events go onto a lock-free queue; the writer (a virtual thread) drains it every
+ * flush interval, or as soon as a batch worth is queued, and inserts them batchSize rows per
+ * statement batch. Writes are serialized by a lock, so rows of one entity are inserted in
+ * the order they were queued. A batch that fails is kept and written first next time.
+ *
+ * The queue is capped at maxQueued events; beyond that new events are dropped and counted,
+ * so a database outage cannot take the heap with it.
+ */
+@Service
+public class AuditJournalServiceImpl implements AuditJournalService {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditJournalServiceImpl.class);
+    private static final String INSERT = "INSERT INTO audit_events"
+            + " (entity_type, entity_id, action, field_name, old_value, new_value, actor, occurred_at)"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Durability durability;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final int maxQueued;
+
+    private final Queue<AuditEventDTO> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder dropped = new LongAdder();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    // Batch whose insert failed, written before anything newer; guarded by writeLock
+    private List<AuditEventDTO> failed = List.of();
+    private volatile Thread writer;
+
+    public AuditJournalServiceImpl(JdbcTemplate jdbcTemplate,
+                                   @Value("${dentalsurgery.audit.durability:best-effort}") Durability durability,
+                                   @Value("${dentalsurgery.audit.batch-size:500}") int batchSize,
+                                   @Value("${dentalsurgery.audit.flush-interval:1s}") Duration flushInterval,
+                                   @Value("${dentalsurgery.audit.max-queued:100000}") int maxQueued) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.durability = durability;
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalNanos = Math.max(1, flushInterval.toNanos());
+        this.maxQueued = Math.max(this.batchSize, maxQueued);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (durability == Durability.BEST_EFFORT) {
+            writer = Thread.ofVirtual().name("audit-writer").start(this::runWriter);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        Thread current = writer;
+        if (current != null) {
+            current.interrupt();
+        }
+        flush();
+    }
+
+    @Override
+    public Durability durability() {
+        return durability;
+    }
+
+    @Override
+    public void append(List<AuditEventDTO> events) {
+        for (AuditEventDTO event : events) {
+            if (queued.incrementAndGet() > maxQueued) {
+                queued.decrementAndGet();
+                dropped.increment();
+                continue;
+            }
+            queue.offer(event);
+        }
+        Thread current = writer;
+        if (current != null && queued.get() >= batchSize) {
+            LockSupport.unpark(current);
+        }
+    }
+
+    @Override
+    public void write(Connection connection, List<AuditEventDTO> events) throws SQLException {
+        if (events.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement statement = connection.prepareStatement(INSERT)) {
+            for (AuditEventDTO event : events) {
+                statement.setString(1, event.entityType());
+                statement.setInt(2, event.entityId());
+                statement.setString(3, event.action());
+                statement.setString(4, event.fieldName());
+                statement.setString(5, truncate(event.oldValue(), 255));
+                statement.setString(6, truncate(event.newValue(), 255));
+                statement.setString(7, truncate(event.actor(), 100));
+                statement.setTimestamp(8, Timestamp.valueOf(event.occurredAt()));
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    @Override
+    public void flush() {
+        writeLock.lock();
+        try {
+            while (true) {
+                List<AuditEventDTO> batch = failed.isEmpty() ? drain() : failed;
+                if (batch.isEmpty()) {
+                    break;
+                }
+                try {
+                    jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                        write(connection, batch);
+                        return null;
+                    });
+                    failed = List.of();
+                } catch (DataAccessException e) {
+                    failed = batch;
+                    log.warn("Could not write {} audit events, they are retried on the next flush", batch.size(), e);
+                    break;
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        long lost = dropped.sumThenReset();
+        if (lost > 0) {
+            log.warn("Dropped {} audit events: more than {} were waiting to be written", lost, maxQueued);
+        }
+    }
+
+    @Override
+    public List<AuditEventDTO> findHistory(String entityType, Integer entityId) {
+        flush();
+        return jdbcTemplate.query("SELECT entity_type, entity_id, action, field_name, old_value, new_value, actor, occurred_at"
+                + " FROM audit_events WHERE entity_type = ? AND entity_id = ? ORDER BY occurred_at, audit_event_id",
+                (rs, rowNum) -> new AuditEventDTO(rs.getString("entity_type"), rs.getInt("entity_id"),
+                        rs.getString("action"), rs.getString("field_name"), rs.getString("old_value"),
+                        rs.getString("new_value"), rs.getString("actor"), rs.getTimestamp("occurred_at").toLocalDateTime()),
+                entityType, entityId);
+    }
+
+    private void runWriter() {
+        while (!Thread.currentThread().isInterrupted()) {
+            LockSupport.parkNanos(flushIntervalNanos);
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                log.warn("Audit writer failed to flush", e);
+            }
+        }
+    }
+
+    private List<AuditEventDTO> drain() {
+        List<AuditEventDTO> batch = new ArrayList<>();
+        AuditEventDTO event;
+        while (batch.size() < batchSize && (event = queue.poll()) != null) {
+            queued.decrementAndGet();
+            batch.add(event);
+        }
+        return batch;
+    }
+
+    private static String truncate(String value, int length) {
+        return value != null && value.length() > length ? value.substring(0, length) : value;
+    }
+}
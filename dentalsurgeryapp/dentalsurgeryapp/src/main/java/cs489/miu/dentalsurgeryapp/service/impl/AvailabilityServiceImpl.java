@@ -0,0 +1,231 @@
+package cs489.miu.dentalsurgeryapp.service.impl;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import cs489.miu.dentalsurgeryapp.dto.AppointmentPlacementDTO;
+import cs489.miu.dentalsurgeryapp.dto.AvailableSlotDTO;
+import cs489.miu.dentalsurgeryapp.model.Appointment;
+import cs489.miu.dentalsurgeryapp.model.AppointmentStatus;
+import cs489.miu.dentalsurgeryapp.repository.AppointmentRepository;
+import cs489.miu.dentalsurgeryapp.service.AppointmentSeriesService;
+import cs489.miu.dentalsurgeryapp.service.AvailabilityService;
+import cs489.miu.dentalsurgeryapp.service.DentistWeeklyLoadService;
+import cs489.miu.dentalsurgeryapp.util.AfterCommit;
+import cs489.miu.dentalsurgeryapp.util.BusinessHours;
+
+/**
+ * Occupancy is kept per (dentist, day) as a 64-bit mask, bit i being the i-th slot after
+ * opening time, with a per-slot counter underneath so double-booked slots only clear once
+ * every appointment in them is gone. A dentist cannot be in two surgeries at once, so the
+ * mask covers the dentist's appointments at every location.
+ *
+ * As with the weekly-load index, each tracked appointment remembers the slot it occupies,
+ * which keeps moves and repeated updates idempotent. Only days from today on are tracked;
+ * a nightly rebuild drops the days that have passed.
+ */
+@Service
+public class AvailabilityServiceImpl implements AvailabilityService {
+
+    private static final int MAX_RANGE_DAYS = 92;
+
+    private final AppointmentRepository appointmentRepository;
+    private final AppointmentSeriesService appointmentSeriesService;
+    private final int slotMinutes;
+
+    private final Map<DentistDay, DayOccupancy> occupancy = new ConcurrentHashMap<>();
+    private final Map<Integer, SlotRef> placements = new ConcurrentHashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile LocalDate trackedFrom;
+
+    public AvailabilityServiceImpl(AppointmentRepository appointmentRepository,
+                                   @Lazy AppointmentSeriesService appointmentSeriesService,
+                                   @Value("${dentalsurgery.availability.slot-minutes:30}") int slotMinutes) {
+        // A day's slots must fit one 64-bit mask and line up with the hour
+        if (slotMinutes < 10 || 60 % slotMinutes != 0) {
+            throw new IllegalArgumentException("dentalsurgery.availability.slot-minutes must be 10, 12, 15, 20, 30 or 60, got " + slotMinutes);
+        }
+        this.appointmentRepository = appointmentRepository;
+        this.appointmentSeriesService = appointmentSeriesService;
+        this.slotMinutes = slotMinutes;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        rebuild();
+    }
+
+    @Override
+    public List<AvailableSlotDTO> findFreeSlots(Integer dentistId, Integer surgeryLocationId, LocalDate from, LocalDate to, int limit) {
+        int max = Math.max(1, Math.min(limit, MAX_RESULTS));
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate start = from.isBefore(now.toLocalDate()) ? now.toLocalDate() : from;
+        LocalDate end = to.isAfter(start.plusDays(MAX_RANGE_DAYS)) ? start.plusDays(MAX_RANGE_DAYS) : to;
+
+        List<AvailableSlotDTO> result = new ArrayList<>(max);
+        LocalDate checkedWeek = null;
+        boolean weekFull = false;
+        for (LocalDate date = start; !date.isAfter(end) && result.size() < max; date = date.plusDays(1)) {
+            LocalTime open = BusinessHours.openingTime(date.getDayOfWeek());
+            if (open == null) {
+                continue;
+            }
+            LocalDate week = DentistWeeklyLoadService.weekStartOf(date.atStartOfDay());
+            if (!week.equals(checkedWeek)) {
+                checkedWeek = week;
+                weekFull = appointmentSeriesService.effectiveWeeklyLoad(dentistId, week) >= DentistWeeklyLoadService.WEEKLY_LIMIT;
+            }
+            if (weekFull) {
+                continue;
+            }
+
+            int slots = slotsPerDay(date);
+            DayOccupancy day = occupancy.get(new DentistDay(dentistId, date));
+            long free = ~(day != null ? day.bits : 0L) & (slots == 64 ? -1L : (1L << slots) - 1);
+            while (free != 0 && result.size() < max) {
+                int slot = Long.numberOfTrailingZeros(free);
+                free &= free - 1;
+                LocalDateTime slotStart = date.atTime(open).plusMinutes((long) slot * slotMinutes);
+                if (slotStart.isAfter(now)) {
+                    result.add(new AvailableSlotDTO(dentistId, surgeryLocationId, slotStart, slotStart.plusMinutes(slotMinutes)));
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean isSlotFree(Integer dentistId, LocalDateTime dateTime) {
+        SlotRef ref = slotOf(dentistId, dateTime);
+        if (ref == null) {
+            return false;
+        }
+        DayOccupancy day = occupancy.get(ref.day());
+        return day == null || ref.slot() >= 64 || (day.bits & (1L << ref.slot())) == 0;
+    }
+
+    @Override
+    public void recordSaved(Appointment appointment) {
+        if (appointment == null || appointment.getAppointmentId() == null) {
+            return;
+        }
+        Integer appointmentId = appointment.getAppointmentId();
+        SlotRef target = appointment.getDentist() != null
+                && !AppointmentStatus.CANCELLED.name().equals(appointment.getAppointmentStatus())
+                ? slotOf(appointment.getDentist().getDentistId(), appointment.getAppointmentDateTime())
+                : null;
+        AfterCommit.run(() -> place(appointmentId, target));
+    }
+
+    @Override
+    public void recordDeleted(Integer appointmentId) {
+        if (appointmentId != null) {
+            AfterCommit.run(() -> place(appointmentId, null));
+        }
+    }
+
+    @Override
+    @Scheduled(cron = "${dentalsurgery.availability.rebuild-cron:0 5 0 * * *}")
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            LocalDate from = LocalDate.now();
+            List<AppointmentPlacementDTO> rows = appointmentRepository.findActivePlacementsFrom(from.atStartOfDay());
+            occupancy.clear();
+            placements.clear();
+            trackedFrom = from;
+            for (AppointmentPlacementDTO row : rows) {
+                SlotRef ref = slotOf(row.dentistId(), row.appointmentDateTime());
+                if (ref != null) {
+                    placements.put(row.appointmentId(), ref);
+                    occupancy.computeIfAbsent(ref.day(), k -> new DayOccupancy()).add(ref.slot());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int getSlotMinutes() {
+        return slotMinutes;
+    }
+
+    private void place(Integer appointmentId, SlotRef target) {
+        lock.readLock().lock();
+        try {
+            LocalDate from = trackedFrom;
+            SlotRef effectiveTarget = target != null && from != null && !target.day().date().isBefore(from) ? target : null;
+            placements.compute(appointmentId, (id, previous) -> {
+                if (previous != null && previous.equals(effectiveTarget)) {
+                    return previous;
+                }
+                if (previous != null) {
+                    DayOccupancy day = occupancy.get(previous.day());
+                    if (day != null) {
+                        day.remove(previous.slot());
+                    }
+                }
+                if (effectiveTarget != null) {
+                    occupancy.computeIfAbsent(effectiveTarget.day(), k -> new DayOccupancy()).add(effectiveTarget.slot());
+                }
+                return effectiveTarget;
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Slot an appointment time falls in, or null when it is outside business hours
+    private SlotRef slotOf(Integer dentistId, LocalDateTime dateTime) {
+        if (dentistId == null || dateTime == null || !BusinessHours.isOpen(dateTime)) {
+            return null;
+        }
+        LocalDate date = dateTime.toLocalDate();
+        long minutes = ChronoUnit.MINUTES.between(BusinessHours.openingTime(date.getDayOfWeek()), dateTime.toLocalTime());
+        return new SlotRef(new DentistDay(dentistId, date), (int) (minutes / slotMinutes));
+    }
+
+    private int slotsPerDay(LocalDate date) {
+        long minutes = ChronoUnit.MINUTES.between(BusinessHours.openingTime(date.getDayOfWeek()),
+                BusinessHours.closingTime(date.getDayOfWeek()));
+        return (int) Math.min(64, minutes / slotMinutes);
+    }
+
+    private record DentistDay(Integer dentistId, LocalDate date) {
+    }
+
+    private record SlotRef(DentistDay day, int slot) {
+    }
+
+    private static final class DayOccupancy {
+        private final short[] counts = new short[64];
+        private volatile long bits;
+
+        synchronized void add(int slot) {
+            if (slot < 64 && counts[slot]++ == 0) {
+                bits |= 1L << slot;
+            }
+        }
+
+        synchronized void remove(int slot) {
+            if (slot < 64 && counts[slot] > 0 && --counts[slot] == 0) {
+                bits &= ~(1L << slot);
+            }
+        }
+    }
+}
@@ -0,0 +1,488 @@
+package cs489.miu.dentalsurgeryapp.service.impl;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import cs489.miu.dentalsurgeryapp.dto.ArAgingDTO;
+import cs489.miu.dentalsurgeryapp.dto.ArAgingDTO.AgingBucket;
+import cs489.miu.dentalsurgeryapp.dto.BillRollupRebuildDTO;
+import cs489.miu.dentalsurgeryapp.dto.RevenueRowDTO;
+import cs489.miu.dentalsurgeryapp.model.PaymentStatus;
+import cs489.miu.dentalsurgeryapp.service.BillRollupService;
+import cs489.miu.dentalsurgeryapp.service.PatientBalanceService;
+import cs489.miu.dentalsurgeryapp.util.AddOrInsert;
+
+/**
+ * bill_rollup_entries records the rollup row and amount each bill is counted in. A sync
+ * locks the entries of its bills (in bill id order), compares them with the bills' current
+ * rows and moves the difference; rollup rows are updated in place and in key order, so
+ * concurrent changes add up instead of overwriting each other. A row whose bills have all
+ * moved away stays behind at zero, skipped by the reports, until the next rebuild.
+ *
+ * A rebuild reads bills joined to appointments in bill id ranges on parallel connections,
+ * sums each range on its own and merges the sums, then replaces both tables in one
+ * transaction. It first waits for syncs under way to complete; bills synced while it runs
+ * may have been read before their change, so they are synced again once it has committed.
+ */
+@Service
+public class BillRollupServiceImpl implements BillRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(BillRollupServiceImpl.class);
+
+    private static final int CHUNK = 500;
+    private static final int BATCH_SIZE = 1000;
+    private static final int FETCH_SIZE = 1000;
+
+    private static final String[] AGING_LABELS = {"0-30", "31-60", "61-90", "90+"};
+
+    private static final String CURRENT = "SELECT b.bill_id, a.appointmentDateTime, a.dentist_id, a.surgerylocation,"
+        + " b.payment_status, b.total_cost FROM bills b JOIN appointments a ON a.appointment_id = b.appointment_id";
+    private static final String COUNTED = "SELECT bill_id, appointment_day, dentist_id, surgery_location_id, payment_status, total_cents"
+        + " FROM bill_rollup_entries";
+    private static final String ADD = "UPDATE bill_daily_rollups SET bill_count = bill_count + ?, total_cents = total_cents + ?"
+        + " WHERE appointment_day = ? AND dentist_id = ? AND surgery_location_id = ? AND payment_status = ?";
+    private static final String INSERT_ROLLUP = "INSERT INTO bill_daily_rollups"
+        + " (bill_count, total_cents, appointment_day, dentist_id, surgery_location_id, payment_status) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_ENTRY = "INSERT INTO bill_rollup_entries"
+        + " (total_cents, appointment_day, dentist_id, surgery_location_id, payment_status, bill_id) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_ENTRY = "UPDATE bill_rollup_entries SET total_cents = ?, appointment_day = ?, dentist_id = ?,"
+        + " surgery_location_id = ?, payment_status = ? WHERE bill_id = ?";
+
+    // A rollup row
+    private record RollupKey(LocalDate day, int dentistId, int locationId, byte status) implements Comparable<RollupKey> {
+
+        private static final Comparator<RollupKey> ORDER = Comparator.comparing(RollupKey::day)
+            .thenComparingInt(RollupKey::dentistId)
+            .thenComparingInt(RollupKey::locationId)
+            .thenComparingInt(RollupKey::status);
+
+        @Override
+        public int compareTo(RollupKey other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    // Where a bill is counted, and for how much
+    private record Entry(int billId, RollupKey key, long cents) {
+    }
+
+    // Bill count and cents per rollup row
+    private static final class Totals {
+        private final Map<RollupKey, long[]> rows;
+
+        private Totals(Map<RollupKey, long[]> rows) {
+            this.rows = rows;
+        }
+
+        private void add(RollupKey key, long bills, long cents) {
+            long[] row = rows.computeIfAbsent(key, k -> new long[2]);
+            row[0] += bills;
+            row[1] += cents;
+        }
+    }
+
+    private record Partition(List<Entry> entries, Totals totals) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int partitions;
+    private final ExecutorService rebuildReaders = Executors.newVirtualThreadPerTaskExecutor();
+
+    // Syncs hold the read lock until their transaction completes; a rebuild takes the write
+    // lock only to wait for them and to start recording the bills synced while it runs
+    private final ReentrantReadWriteLock syncs = new ReentrantReadWriteLock();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private final Set<Integer> syncedDuringRebuild = ConcurrentHashMap.newKeySet();
+    private volatile boolean rebuilding;
+
+    public BillRollupServiceImpl(JdbcTemplate jdbcTemplate,
+                                 TransactionTemplate transactionTemplate,
+                                 @Value("${dentalsurgery.reports.rebuild-partitions:4}") int partitions) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.partitions = Math.max(1, partitions);
+    }
+
+    @Override
+    public ArAgingDTO getAging(LocalDate asOf, Integer dentistId, Integer locationId) {
+        StringBuilder sql = new StringBuilder("SELECT appointment_day, SUM(bill_count), SUM(total_cents) FROM bill_daily_rollups"
+            + " WHERE payment_status IN (?, ?) AND bill_count <> 0");
+        List<Object> args = new ArrayList<>(List.of(PaymentStatus.PENDING.getCode(), PaymentStatus.OVERDUE.getCode()));
+        if (dentistId != null) {
+            sql.append(" AND dentist_id = ?");
+            args.add(dentistId);
+        }
+        if (locationId != null) {
+            sql.append(" AND surgery_location_id = ?");
+            args.add(locationId);
+        }
+        sql.append(" GROUP BY appointment_day");
+
+        long[] bills = new long[AGING_LABELS.length];
+        long[] cents = new long[AGING_LABELS.length];
+        jdbcTemplate.query(sql.toString(), row -> {
+            long age = ChronoUnit.DAYS.between(row.getObject(1, LocalDate.class), asOf);
+            int bucket = age <= 30 ? 0 : age <= 60 ? 1 : age <= 90 ? 2 : 3;
+            bills[bucket] += row.getLong(2);
+            cents[bucket] += row.getLong(3);
+        }, args.toArray());
+
+        List<AgingBucket> buckets = new ArrayList<>();
+        long totalBills = 0;
+        long totalCents = 0;
+        for (int i = 0; i < AGING_LABELS.length; i++) {
+            buckets.add(new AgingBucket(AGING_LABELS[i], (int) bills[i], BigDecimal.valueOf(cents[i], 2)));
+            totalBills += bills[i];
+            totalCents += cents[i];
+        }
+        return new ArAgingDTO(asOf, buckets, (int) totalBills, BigDecimal.valueOf(totalCents, 2));
+    }
+
+    @Override
+    public List<RevenueRowDTO> getMonthlyRevenue(YearMonth from, YearMonth to, Grouping grouping) {
+        String column = grouping == Grouping.LOCATION ? "surgery_location_id" : "dentist_id";
+        // month -> dentist or location id -> {bills, billed cents, paid cents}
+        Map<YearMonth, Map<Integer, long[]>> months = new TreeMap<>();
+        jdbcTemplate.query("SELECT YEAR(appointment_day), MONTH(appointment_day), " + column + ", payment_status, SUM(bill_count), SUM(total_cents)"
+                + " FROM bill_daily_rollups WHERE appointment_day >= ? AND appointment_day < ? AND bill_count <> 0"
+                + " GROUP BY YEAR(appointment_day), MONTH(appointment_day), " + column + ", payment_status",
+            row -> {
+                PaymentStatus status = PaymentStatus.fromCode(row.getByte(4));
+                if (status == PaymentStatus.CANCELLED) {
+                    return;
+                }
+                long[] totals = months.computeIfAbsent(YearMonth.of(row.getInt(1), row.getInt(2)), m -> new TreeMap<>())
+                    .computeIfAbsent(row.getInt(3), id -> new long[3]);
+                totals[0] += row.getLong(5);
+                totals[1] += row.getLong(6);
+                if (status == PaymentStatus.PAID) {
+                    totals[2] += row.getLong(6);
+                }
+            },
+            Date.valueOf(from.atDay(1)), Date.valueOf(to.plusMonths(1).atDay(1)));
+        if (months.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Integer, String> names = new HashMap<>();
+        if (grouping == Grouping.LOCATION) {
+            jdbcTemplate.query("SELECT surgerylocation_id, name FROM surgerylocations",
+                row -> {
+                    names.put(row.getInt(1), row.getString(2));
+                });
+        } else {
+            jdbcTemplate.query("SELECT dentist_id, firstName, lastName FROM dentists",
+                row -> {
+                    names.put(row.getInt(1), row.getString(2) + " " + row.getString(3));
+                });
+        }
+        List<RevenueRowDTO> rows = new ArrayList<>();
+        months.forEach((month, byId) -> byId.forEach((id, totals) -> rows.add(new RevenueRowDTO(month.toString(), id,
+            names.get(id), (int) totals[0], BigDecimal.valueOf(totals[1], 2), BigDecimal.valueOf(totals[2], 2)))));
+        return rows;
+    }
+
+    @Override
+    public void sync(Connection connection, Collection<Integer> billIds, Collection<Integer> appointmentIds)
+            throws SQLException {
+        if (billIds.isEmpty() && appointmentIds.isEmpty()) {
+            return;
+        }
+        syncs.readLock().lock();
+        Set<Integer> ids = new TreeSet<>(billIds);
+        ids.addAll(billsOfAppointments(connection, appointmentIds));
+        if (rebuilding) {
+            syncedDuringRebuild.addAll(ids);
+        }
+        List<Integer> ordered = new ArrayList<>(ids);
+        for (int from = 0; from < ordered.size(); from += CHUNK) {
+            syncChunk(connection, ordered.subList(from, Math.min(ordered.size(), from + CHUNK)));
+        }
+    }
+
+    @Override
+    public void syncCompleted() {
+        while (syncs.getReadHoldCount() > 0) {
+            syncs.readLock().unlock();
+        }
+    }
+
+    @Override
+    @Scheduled(cron = "${dentalsurgery.reports.rebuild-cron:0 30 2 * * *}")
+    public BillRollupRebuildDTO rebuild() {
+        rebuildLock.lock();
+        try {
+            long started = System.nanoTime();
+            syncs.writeLock().lock();
+            try {
+                syncedDuringRebuild.clear();
+                rebuilding = true;
+            } finally {
+                syncs.writeLock().unlock();
+            }
+            try {
+                List<Partition> read = readPartitions();
+                Totals totals = new Totals(new HashMap<>());
+                int bills = 0;
+                for (Partition partition : read) {
+                    partition.totals().rows.forEach((key, row) -> totals.add(key, row[0], row[1]));
+                    bills += partition.entries().size();
+                }
+                transactionTemplate.executeWithoutResult(status -> replace(read, totals));
+
+                Set<Integer> synced = new TreeSet<>(syncedDuringRebuild);
+                resync(synced);
+                BillRollupRebuildDTO result = new BillRollupRebuildDTO(bills, totals.rows.size(), synced.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), LocalDateTime.now());
+                log.info("Billing rollups rebuilt: {} bills into {} rows, {} synced again, in {} ms",
+                    result.bills(), result.rollupRows(), result.resynced(), result.elapsedMillis());
+                return result;
+            } finally {
+                rebuilding = false;
+            }
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private List<Integer> billsOfAppointments(Connection connection, Collection<Integer> appointmentIds)
+            throws SQLException {
+        List<Integer> billIds = new ArrayList<>();
+        List<Integer> ids = new ArrayList<>(appointmentIds);
+        for (int from = 0; from < ids.size(); from += CHUNK) {
+            List<Integer> chunk = ids.subList(from, Math.min(ids.size(), from + CHUNK));
+            try (PreparedStatement select = connection.prepareStatement(
+                    "SELECT bill_id FROM bills WHERE appointment_id IN (" + placeholders(chunk.size()) + ")")) {
+                bind(select, chunk);
+                try (ResultSet row = select.executeQuery()) {
+                    while (row.next()) {
+                        billIds.add(row.getInt(1));
+                    }
+                }
+            }
+        }
+        return billIds;
+    }
+
+    private void syncChunk(Connection connection, List<Integer> billIds) throws SQLException {
+        Map<Integer, Entry> counted = new HashMap<>();
+        try (PreparedStatement select = connection.prepareStatement(COUNTED + " WHERE bill_id IN ("
+                + placeholders(billIds.size()) + ") ORDER BY bill_id FOR UPDATE")) {
+            bind(select, billIds);
+            try (ResultSet row = select.executeQuery()) {
+                while (row.next()) {
+                    Entry entry = countedEntry(row);
+                    counted.put(entry.billId(), entry);
+                }
+            }
+        }
+        Map<Integer, Entry> current = new HashMap<>();
+        try (PreparedStatement select = connection.prepareStatement(CURRENT + " WHERE b.bill_id IN ("
+                + placeholders(billIds.size()) + ")")) {
+            bind(select, billIds);
+            try (ResultSet row = select.executeQuery()) {
+                while (row.next()) {
+                    Entry entry = currentEntry(row);
+                    current.put(entry.billId(), entry);
+                }
+            }
+        }
+
+        Totals changes = new Totals(new TreeMap<>());
+        List<Entry> inserted = new ArrayList<>();
+        List<Entry> updated = new ArrayList<>();
+        List<Integer> deleted = new ArrayList<>();
+        for (Integer billId : billIds) {
+            Entry before = counted.get(billId);
+            Entry after = current.get(billId);
+            if (Objects.equals(before, after)) {
+                continue;
+            }
+            if (before != null) {
+                changes.add(before.key(), -1, -before.cents());
+            }
+            if (after == null) {
+                deleted.add(billId);
+            } else {
+                changes.add(after.key(), 1, after.cents());
+                (before == null ? inserted : updated).add(after);
+            }
+        }
+        if (changes.rows.isEmpty()) {
+            return;
+        }
+
+        try (PreparedStatement add = connection.prepareStatement(ADD)) {
+            for (Map.Entry<RollupKey, long[]> change : changes.rows.entrySet()) {
+                long[] row = change.getValue();
+                if (row[0] == 0 && row[1] == 0) {
+                    continue;
+                }
+                AddOrInsert.Write rollup = statement -> write(statement, change.getKey(), row[0], row[1]);
+                AddOrInsert.run(connection, add, rollup, INSERT_ROLLUP, rollup);
+            }
+        }
+        writeEntries(connection, UPDATE_ENTRY, updated);
+        writeEntries(connection, INSERT_ENTRY, inserted);
+        if (!deleted.isEmpty()) {
+            try (PreparedStatement delete = connection.prepareStatement(
+                    "DELETE FROM bill_rollup_entries WHERE bill_id IN (" + placeholders(deleted.size()) + ")")) {
+                bind(delete, deleted);
+                delete.executeUpdate();
+            }
+        }
+    }
+
+    private static void writeEntries(Connection connection, String sql, List<Entry> entries) throws SQLException {
+        if (entries.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (Entry entry : entries) {
+                setEntry(statement, entry);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    private List<Partition> readPartitions() {
+        int[] range = jdbcTemplate.queryForObject("SELECT MIN(bill_id), MAX(bill_id) FROM bills",
+            (row, rowNum) -> row.getObject(1) == null ? null : new int[] {row.getInt(1), row.getInt(2)});
+        if (range == null) {
+            return List.of();
+        }
+        long span = ((long) range[1] - range[0]) / partitions + 1;
+        List<CompletableFuture<Partition>> reads = new ArrayList<>();
+        for (long low = range[0]; low <= range[1]; low += span) {
+            int from = (int) low;
+            int to = (int) Math.min(range[1], low + span - 1);
+            reads.add(CompletableFuture.supplyAsync(() -> readPartition(from, to), rebuildReaders));
+        }
+        return reads.stream().map(CompletableFuture::join).toList();
+    }
+
+    // Bills of one id range, and their sums per rollup row
+    private Partition readPartition(int fromBillId, int toBillId) {
+        List<Entry> entries = new ArrayList<>();
+        Totals totals = new Totals(new HashMap<>());
+        jdbcTemplate.query(connection -> {
+            PreparedStatement select = connection.prepareStatement(CURRENT + " WHERE b.bill_id BETWEEN ? AND ?");
+            select.setFetchSize(FETCH_SIZE);
+            select.setInt(1, fromBillId);
+            select.setInt(2, toBillId);
+            return select;
+        }, (RowCallbackHandler) row -> {
+            Entry entry = currentEntry(row);
+            entries.add(entry);
+            totals.add(entry.key(), 1, entry.cents());
+        });
+        return new Partition(entries, totals);
+    }
+
+    private void replace(List<Partition> read, Totals totals) {
+        jdbcTemplate.update("DELETE FROM bill_rollup_entries");
+        jdbcTemplate.update("DELETE FROM bill_daily_rollups");
+        jdbcTemplate.batchUpdate(INSERT_ROLLUP, totals.rows.entrySet(), BATCH_SIZE,
+            (statement, row) -> setRollup(statement, row.getKey(), row.getValue()[0], row.getValue()[1]));
+        for (Partition partition : read) {
+            jdbcTemplate.batchUpdate(INSERT_ENTRY, partition.entries(), BATCH_SIZE, BillRollupServiceImpl::setEntry);
+        }
+    }
+
+    private void resync(Collection<Integer> billIds) {
+        if (billIds.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                sync(connection, billIds, List.of());
+                return null;
+            }));
+        } finally {
+            syncCompleted();
+        }
+    }
+
+    private static Entry countedEntry(ResultSet row) throws SQLException {
+        return new Entry(row.getInt(1), new RollupKey(row.getObject(2, LocalDate.class), row.getInt(3), row.getInt(4),
+            row.getByte(5)), row.getLong(6));
+    }
+
+    private static Entry currentEntry(ResultSet row) throws SQLException {
+        return new Entry(row.getInt(1), new RollupKey(row.getObject(2, LocalDateTime.class).toLocalDate(), row.getInt(3),
+            row.getInt(4), row.getByte(5)), PatientBalanceService.toCents(row.getBigDecimal(6)));
+    }
+
+    private static boolean write(PreparedStatement statement, RollupKey key, long bills, long cents) throws SQLException {
+        setRollup(statement, key, bills, cents);
+        return statement.executeUpdate() > 0;
+    }
+
+    // Parameter order of ADD and INSERT_ROLLUP
+    private static void setRollup(PreparedStatement statement, RollupKey key, long bills, long cents) throws SQLException {
+        statement.setLong(1, bills);
+        statement.setLong(2, cents);
+        statement.setObject(3, key.day());
+        statement.setInt(4, key.dentistId());
+        statement.setInt(5, key.locationId());
+        statement.setByte(6, key.status());
+    }
+
+    // Parameter order of INSERT_ENTRY and UPDATE_ENTRY
+    private static void setEntry(PreparedStatement statement, Entry entry) throws SQLException {
+        statement.setLong(1, entry.cents());
+        statement.setObject(2, entry.key().day());
+        statement.setInt(3, entry.key().dentistId());
+        statement.setInt(4, entry.key().locationId());
+        statement.setByte(5, entry.key().status());
+        statement.setInt(6, entry.billId());
+    }
+
+    private static void bind(PreparedStatement statement, List<Integer> ids) throws SQLException {
+        for (int i = 0; i < ids.size(); i++) {
+            statement.setInt(i + 1, ids.get(i));
+        }
+    }
+
+    private static String placeholders(int count) {
+        return String.join(",", Collections.nCopies(count, "?"));
+    }
+}
@@ -1,33 +1,58 @@
 package cs489.miu.dentalsurgeryapp.service.impl;
 
+import java.math.BigDecimal;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import cs489.miu.dentalsurgeryapp.model.Bill;
 import cs489.miu.dentalsurgeryapp.model.Patient;
 import cs489.miu.dentalsurgeryapp.model.Appointment;
+import cs489.miu.dentalsurgeryapp.model.PaymentStatus;
+import cs489.miu.dentalsurgeryapp.dto.BillFilterDTO;
+import cs489.miu.dentalsurgeryapp.dto.BillListItemDTO;
 import cs489.miu.dentalsurgeryapp.dto.BillResponseDTO;
+import cs489.miu.dentalsurgeryapp.dto.BillSort;
+import cs489.miu.dentalsurgeryapp.dto.KeysetCursor;
+import cs489.miu.dentalsurgeryapp.dto.KeysetPageDTO;
 import cs489.miu.dentalsurgeryapp.dto.BillResponseDTO.PatientBasicInfoDTO;
 import cs489.miu.dentalsurgeryapp.dto.BillResponseDTO.AppointmentBasicInfoDTO;
+import cs489.miu.dentalsurgeryapp.dto.PatientBalanceDTO;
 import cs489.miu.dentalsurgeryapp.repository.BillRepository;
+import cs489.miu.dentalsurgeryapp.repository.BillSpecifications;
 import cs489.miu.dentalsurgeryapp.service.BillService;
+import cs489.miu.dentalsurgeryapp.service.DashboardStatsService;
+import cs489.miu.dentalsurgeryapp.service.PatientBalanceService;
 import cs489.miu.dentalsurgeryapp.service.PatientService;
 import cs489.miu.dentalsurgeryapp.repository.AppointmentRepository;
 
 @Service
 public class BillServiceImpl implements BillService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final BillRepository billRepository;
     private final PatientService patientService;
     private final AppointmentRepository appointmentRepository;
+    private final DashboardStatsService dashboardStatsService;
+    private final PatientBalanceService patientBalanceService;
 
     public BillServiceImpl(BillRepository billRepository, 
                           PatientService patientService,
-                          AppointmentRepository appointmentRepository) {
+                          AppointmentRepository appointmentRepository,
+                          DashboardStatsService dashboardStatsService,
+                          PatientBalanceService patientBalanceService) {
         this.billRepository = billRepository;
         this.patientService = patientService;
         this.appointmentRepository = appointmentRepository;
+        this.dashboardStatsService = dashboardStatsService;
+        this.patientBalanceService = patientBalanceService;
     }
 
     @Override
@@ -49,18 +74,82 @@ public class BillServiceImpl implements BillService {
                 .toList();
     }
 
+    @Override
+    public KeysetPageDTO<BillListItemDTO> findBillsPage(BillFilterDTO filter, BillSort sort, boolean ascending,
+                                                        String cursor, boolean backward, int size) {
+        BillFilterDTO f = filter != null ? filter : BillFilterDTO.none();
+        BillSort order = sort != null ? sort : BillSort.DATE;
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        PaymentStatus status;
+        try {
+            status = PaymentStatus.fromName(f.paymentStatus());
+        } catch (IllegalArgumentException e) {
+            return new KeysetPageDTO<>(List.of(), null, null, pageSize); // No bill has an unknown status
+        }
+        Specification<Bill> spec = BillSpecifications.matching(blankToNull(f.patientName()), status,
+            f.minAmount(), f.maxAmount(), f.from(), f.to());
+
+        // Going back, rows are scanned in the reverse of the list order and flipped afterwards
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        boolean goingBack = backward && position != null;
+        boolean scanAscending = ascending != goingBack;
+        if (position != null) {
+            try {
+                spec = spec.and(order == BillSort.TOTAL_COST
+                    ? BillSpecifications.afterTotalCost(position.sortKeyAsDecimal(), position.id(), scanAscending)
+                    : BillSpecifications.afterAppointmentDate(position.sortKeyAsDateTime(), position.id(), scanAscending));
+            } catch (NumberFormatException | DateTimeParseException e) {
+                // Tampered cursor, or one from the other sort: start from the first page
+                position = null;
+                goingBack = false;
+                scanAscending = ascending;
+            }
+        }
+
+        // Fetch one extra row to learn whether another page exists in the scan direction
+        List<BillListItemDTO> rows = billRepository.findListItems(spec, order, scanAscending, pageSize + 1);
+        boolean moreInScanDirection = rows.size() > pageSize;
+        List<BillListItemDTO> content = new ArrayList<>(moreInScanDirection ? rows.subList(0, pageSize) : rows);
+        if (goingBack) {
+            Collections.reverse(content);
+        }
+        if (content.isEmpty()) {
+            return new KeysetPageDTO<>(content, null, null, pageSize);
+        }
+
+        boolean hasPrevious = goingBack ? moreInScanDirection : position != null;
+        boolean hasNext = goingBack || moreInScanDirection;
+        String previousCursor = hasPrevious ? cursorOf(content.get(0), order) : null;
+        String nextCursor = hasNext ? cursorOf(content.get(content.size() - 1), order) : null;
+        return new KeysetPageDTO<>(content, previousCursor, nextCursor, pageSize);
+    }
+
+    private static String cursorOf(BillListItemDTO row, BillSort sort) {
+        KeysetCursor cursor = sort == BillSort.TOTAL_COST
+            ? KeysetCursor.of(row.totalCost(), row.billId())
+            : KeysetCursor.of(row.appointmentDateTime(), row.billId());
+        return cursor.encode();
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.trim().isEmpty() ? null : value.trim();
+    }
+
     @Override
     public Bill getBillById(Integer id) {
         return billRepository.findById(id).orElse(null);
     }
 
     @Override
+    @Transactional // keeps the loaded bill managed, so the returned instance has its patient and appointment loaded
     public Bill updateBill(Bill bill) {
         // Preserve immutable relations (patient, appointment) and only update mutable fields
         Bill existing = billRepository.findById(bill.getBillId()).orElse(null);
         if (existing == null) {
             // If not found, fall back to save (will likely fail if relations are missing)
-            return billRepository.save(bill);
+            Bill saved = billRepository.save(bill);
+            dashboardStatsService.recordBillSaved(saved);
+            return saved;
         }
 
         // Update allowed fields
@@ -78,13 +167,16 @@ public class BillServiceImpl implements BillService {
             // Do not allow changing appointment on update; keep existing
         }
 
-        return billRepository.save(existing);
+        Bill saved = billRepository.save(existing);
+        dashboardStatsService.recordBillSaved(saved);
+        return saved;
     }
 
     @Override
     public boolean deleteBillById(Integer id) {
         if (billRepository.existsById(id)) {
             billRepository.deleteById(id);
+            dashboardStatsService.recordBillDeleted(id);
             return true;
         }
         return false;
@@ -99,7 +191,16 @@ public class BillServiceImpl implements BillService {
 
     @Override
     public List<BillResponseDTO> getBillsByPaymentStatus(String paymentStatus) {
-        return billRepository.findByPaymentStatusOrderByTotalCostDesc(paymentStatus).stream()
+        PaymentStatus status;
+        try {
+            status = PaymentStatus.fromName(paymentStatus);
+        } catch (IllegalArgumentException e) {
+            return List.of(); // No bill has an unknown status
+        }
+        if (status == null) {
+            return List.of();
+        }
+        return billRepository.findByPaymentStatusOrderByTotalCostDesc(status).stream()
                 .map(this::mapToDTO)
                 .toList();
     }
@@ -134,7 +235,9 @@ public class BillServiceImpl implements BillService {
         }
         
         // Bill doesn't exist, create new one
-        return billRepository.save(bill);
+        Bill saved = billRepository.save(bill);
+        dashboardStatsService.recordBillSaved(saved);
+        return saved;
     }
 
     private BillResponseDTO mapToDTO(Bill bill) {
@@ -163,29 +266,54 @@ public class BillServiceImpl implements BillService {
 
     @Override
     public boolean hasOutstandingBills(Integer patientId) {
-        try {
-            Patient patient = patientService.getPatientById(patientId);
-            if (patient == null) {
-                return false;
-            }
-            return billRepository.countUnpaidBillsByPatient(patient) > 0;
-        } catch (Exception e) {
-            return false;
-        }
+        return patientBalanceService.hasOutstanding(patientId);
+    }
+
+    @Override
+    public PatientBalanceDTO getOutstandingBalance(Integer patientId) {
+        return patientBalanceService.getBalance(patientId);
     }
 
     @Override
     public List<BillResponseDTO> getOutstandingBillsByPatientId(Integer patientId) {
-        try {
-            Patient patient = patientService.getPatientById(patientId);
-            if (patient == null) {
-                return List.of();
-            }
-            return billRepository.findUnpaidBillsByPatient(patient).stream()
-                    .map(this::mapToDTO)
-                    .toList();
-        } catch (Exception e) {
+        if (!patientBalanceService.hasOutstanding(patientId)) {
             return List.of();
         }
+        return billRepository.findUnpaidBillsByPatientId(patientId).stream()
+                .map(this::mapToDTO)
+                .toList();
+    }
+
+    @Override
+    public Bill getBillByAppointment(Appointment appointment) {
+        return billRepository.findByAppointment(appointment);
+    }
+
+    @Override
+    public Bill saveBillForAppointment(Appointment appointment, BigDecimal totalCost, String paymentStatus) {
+        Bill bill = billRepository.findByAppointment(appointment);
+        if (bill == null) {
+            if (totalCost == null) {
+                return null;
+            }
+            bill = new Bill();
+            bill.setPatient(appointment.getPatient());
+            bill.setAppointment(appointment);
+            bill.setStatus(PaymentStatus.PENDING);
+        }
+        if (totalCost != null) {
+            bill.setTotalCost(totalCost);
+        }
+        if (paymentStatus != null && !paymentStatus.isBlank()) {
+            bill.setPaymentStatus(paymentStatus);
+        }
+        Bill saved = billRepository.save(bill);
+        dashboardStatsService.recordBillSaved(saved);
+        return saved;
+    }
+
+    @Override
+    public Stream<Bill> streamAllBills() {
+        return billRepository.streamAllForExport();
     }
 }
@@ -0,0 +1,401 @@
+package cs489.miu.dentalsurgeryapp.service.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import cs489.miu.dentalsurgeryapp.dto.CalendarFeedDTO;
+import cs489.miu.dentalsurgeryapp.model.Address;
+import cs489.miu.dentalsurgeryapp.model.Appointment;
+import cs489.miu.dentalsurgeryapp.model.AppointmentSeries;
+import cs489.miu.dentalsurgeryapp.model.AppointmentStatus;
+import cs489.miu.dentalsurgeryapp.model.Dentist;
+import cs489.miu.dentalsurgeryapp.model.Patient;
+import cs489.miu.dentalsurgeryapp.model.SurgeryLocation;
+import cs489.miu.dentalsurgeryapp.repository.AppointmentRepository;
+import cs489.miu.dentalsurgeryapp.repository.AppointmentSeriesRepository;
+import cs489.miu.dentalsurgeryapp.repository.DentistRepository;
+import cs489.miu.dentalsurgeryapp.repository.SurgeryLocationRepository;
+import cs489.miu.dentalsurgeryapp.service.AvailabilityService;
+import cs489.miu.dentalsurgeryapp.service.CalendarFeedService;
+import cs489.miu.dentalsurgeryapp.util.AfterCommit;
+
+/**
+ * Incrementally maintained calendar feeds.
+ *
+ * A feed is loaded from the database the first time it is served. After that, committed
+ * appointment changes only mark the affected appointment ids dirty on the feeds that hold
+ * them (or should now hold them) and bump the feed version; the next request re-reads just
+ * those appointments, patches the VEVENT map and re-serializes. Marking and serving both
+ * lock the feed, so a version is never served with a change it does not include.
+ *
+ * Recurring series contribute one RRULE event each, covering the occurrences not expanded
+ * yet; a change to any series of the owner re-reads the owner's open series, which are few.
+ *
+ * ETags combine a per-start token with the feed version, so they cannot repeat across
+ * restarts. Feeds are dropped daily so appointments that left the window fall out.
+ */
+@Service
+public class CalendarFeedServiceImpl implements CalendarFeedService {
+
+    private static final DateTimeFormatter LOCAL_DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+    private static final DateTimeFormatter UTC_DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+    private static final int MAX_LINE_OCTETS = 75;
+
+    private record FeedKey(Owner owner, Integer id) {
+    }
+
+    private static final class Feed {
+        private final TreeMap<Integer, String> events = new TreeMap<>();
+        private final Set<Integer> dirty = new HashSet<>();
+        private final TreeMap<Integer, String> seriesEvents = new TreeMap<>();
+        private boolean seriesDirty;
+        private boolean loaded;
+        private long version;
+        private Instant lastModified = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        private long builtVersion = -1;
+        private byte[] body;
+    }
+
+    private final AppointmentRepository appointmentRepository;
+    private final AppointmentSeriesRepository appointmentSeriesRepository;
+    private final DentistRepository dentistRepository;
+    private final SurgeryLocationRepository surgeryLocationRepository;
+    private final AvailabilityService availabilityService;
+    private final int pastDays;
+    private final String startToken = Long.toString(System.currentTimeMillis(), 36);
+
+    private final Map<FeedKey, Feed> feeds = new ConcurrentHashMap<>();
+    // Loaded feeds each appointment currently appears in, so a move also updates the feed it left
+    private final Map<Integer, Set<FeedKey>> memberships = new ConcurrentHashMap<>();
+
+    public CalendarFeedServiceImpl(AppointmentRepository appointmentRepository,
+                                   AppointmentSeriesRepository appointmentSeriesRepository,
+                                   DentistRepository dentistRepository,
+                                   SurgeryLocationRepository surgeryLocationRepository,
+                                   AvailabilityService availabilityService,
+                                   @Value("${dentalsurgery.calendar.past-days:30}") int pastDays) {
+        this.appointmentRepository = appointmentRepository;
+        this.appointmentSeriesRepository = appointmentSeriesRepository;
+        this.dentistRepository = dentistRepository;
+        this.surgeryLocationRepository = surgeryLocationRepository;
+        this.availabilityService = availabilityService;
+        this.pastDays = Math.max(0, pastDays);
+    }
+
+    @Override
+    public CalendarFeedDTO getValidators(Owner owner, Integer id) {
+        Feed feed = feeds.get(new FeedKey(owner, id));
+        if (feed == null) {
+            return null;
+        }
+        synchronized (feed) {
+            return feed.body != null && feed.builtVersion == feed.version
+                    ? new CalendarFeedDTO(eTag(owner, id, feed.version), feed.lastModified, null)
+                    : null;
+        }
+    }
+
+    @Override
+    public Optional<CalendarFeedDTO> getFeed(Owner owner, Integer id) {
+        FeedKey key = new FeedKey(owner, id);
+        Feed feed = feeds.get(key);
+        if (feed == null) {
+            boolean exists = owner == Owner.DENTIST
+                    ? dentistRepository.existsById(id)
+                    : surgeryLocationRepository.existsById(id);
+            if (!exists) {
+                return Optional.empty();
+            }
+            feed = feeds.computeIfAbsent(key, k -> new Feed());
+        }
+        synchronized (feed) {
+            if (feed.body == null || feed.builtVersion != feed.version) {
+                refresh(key, feed);
+                feed.body = serialize(key, feed);
+                feed.builtVersion = feed.version;
+            }
+            return Optional.of(new CalendarFeedDTO(eTag(owner, id, feed.version), feed.lastModified, feed.body));
+        }
+    }
+
+    @Override
+    public void recordSaved(Appointment appointment) {
+        if (appointment == null || appointment.getAppointmentId() == null) {
+            return;
+        }
+        Integer appointmentId = appointment.getAppointmentId();
+        Integer dentistId = appointment.getDentist() != null ? appointment.getDentist().getDentistId() : null;
+        Integer locationId = appointment.getSurgeryLocation() != null ? appointment.getSurgeryLocation().getSurgeryLocationId() : null;
+        AfterCommit.run(() -> {
+            Set<FeedKey> keys = new HashSet<>(memberships.getOrDefault(appointmentId, Set.of()));
+            if (dentistId != null) {
+                keys.add(new FeedKey(Owner.DENTIST, dentistId));
+            }
+            if (locationId != null) {
+                keys.add(new FeedKey(Owner.SURGERY_LOCATION, locationId));
+            }
+            keys.forEach(key -> markDirty(key, appointmentId));
+        });
+    }
+
+    @Override
+    public void recordDeleted(Integer appointmentId) {
+        if (appointmentId != null) {
+            AfterCommit.run(() -> Set.copyOf(memberships.getOrDefault(appointmentId, Set.of()))
+                    .forEach(key -> markDirty(key, appointmentId)));
+        }
+    }
+
+    @Override
+    public void recordSeriesChanged(Integer dentistId, Integer surgeryLocationId) {
+        AfterCommit.run(() -> {
+            markSeriesDirty(new FeedKey(Owner.DENTIST, dentistId));
+            markSeriesDirty(new FeedKey(Owner.SURGERY_LOCATION, surgeryLocationId));
+        });
+    }
+
+    // Drop every feed so the window moves on; each is reloaded on its next request
+    @Scheduled(cron = "${dentalsurgery.calendar.reset-cron:0 10 0 * * *}")
+    public void reset() {
+        feeds.forEach((key, feed) -> {
+            synchronized (feed) {
+                feed.events.keySet().forEach(appointmentId -> leave(appointmentId, key));
+                feed.events.clear();
+                feed.dirty.clear();
+                feed.seriesEvents.clear();
+                feed.seriesDirty = false;
+                feed.loaded = false;
+                touch(feed);
+            }
+        });
+    }
+
+    private void markDirty(FeedKey key, Integer appointmentId) {
+        Feed feed = feeds.get(key);
+        if (feed == null) {
+            return; // Never served: it is loaded in full on its first request
+        }
+        synchronized (feed) {
+            if (feed.loaded) {
+                feed.dirty.add(appointmentId);
+            }
+            touch(feed);
+        }
+    }
+
+    private void markSeriesDirty(FeedKey key) {
+        Feed feed = feeds.get(key);
+        if (feed == null) {
+            return;
+        }
+        synchronized (feed) {
+            if (feed.loaded) {
+                feed.seriesDirty = true;
+            }
+            touch(feed);
+        }
+    }
+
+    private static void touch(Feed feed) {
+        feed.version++;
+        Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        // Last-Modified must move forward even when two changes land in the same second
+        feed.lastModified = now.isAfter(feed.lastModified) ? now : feed.lastModified.plusSeconds(1);
+    }
+
+    // Caller holds the feed lock
+    private void refresh(FeedKey key, Feed feed) {
+        LocalDateTime from = LocalDateTime.now().toLocalDate().minusDays(pastDays).atStartOfDay();
+        if (!feed.loaded) {
+            List<Appointment> appointments = key.owner() == Owner.DENTIST
+                    ? appointmentRepository.findForDentistCalendar(key.id(), from)
+                    : appointmentRepository.findForLocationCalendar(key.id(), from);
+            feed.events.clear();
+            for (Appointment appointment : appointments) {
+                place(key, feed, appointment);
+            }
+            feed.dirty.clear();
+            loadSeries(key, feed);
+            feed.loaded = true;
+            return;
+        }
+        if (feed.seriesDirty) {
+            loadSeries(key, feed);
+        }
+        if (feed.dirty.isEmpty()) {
+            return;
+        }
+        List<Integer> ids = new ArrayList<>(feed.dirty);
+        feed.dirty.clear();
+        for (Integer appointmentId : ids) {
+            if (feed.events.remove(appointmentId) != null) {
+                leave(appointmentId, key);
+            }
+        }
+        for (Appointment appointment : appointmentRepository.findForCalendarByIds(ids)) {
+            if (belongsTo(key, appointment) && !appointment.getAppointmentDateTime().isBefore(from)) {
+                place(key, feed, appointment);
+            }
+        }
+    }
+
+    private void loadSeries(FeedKey key, Feed feed) {
+        List<AppointmentSeries> open = key.owner() == Owner.DENTIST
+                ? appointmentSeriesRepository.findOpenForDentistCalendar(key.id())
+                : appointmentSeriesRepository.findOpenForLocationCalendar(key.id());
+        feed.seriesEvents.clear();
+        for (AppointmentSeries series : open) {
+            if (series.remaining() > 0) {
+                feed.seriesEvents.put(series.getSeriesId(), seriesVevent(key.owner(), series));
+            }
+        }
+        feed.seriesDirty = false;
+    }
+
+    private void place(FeedKey key, Feed feed, Appointment appointment) {
+        feed.events.put(appointment.getAppointmentId(), vevent(key.owner(), appointment));
+        memberships.computeIfAbsent(appointment.getAppointmentId(), id -> ConcurrentHashMap.newKeySet()).add(key);
+    }
+
+    private void leave(Integer appointmentId, FeedKey key) {
+        memberships.computeIfPresent(appointmentId, (id, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    private static boolean belongsTo(FeedKey key, Appointment appointment) {
+        Integer ownerId = key.owner() == Owner.DENTIST
+                ? appointment.getDentist().getDentistId()
+                : appointment.getSurgeryLocation().getSurgeryLocationId();
+        return key.id().equals(ownerId);
+    }
+
+    private byte[] serialize(FeedKey key, Feed feed) {
+        StringBuilder ics = new StringBuilder(256 + (feed.events.size() + feed.seriesEvents.size()) * 384);
+        line(ics, "BEGIN:VCALENDAR");
+        line(ics, "VERSION:2.0");
+        line(ics, "PRODID:-//Dental Surgery App//Appointments//EN");
+        line(ics, "CALSCALE:GREGORIAN");
+        line(ics, "METHOD:PUBLISH");
+        line(ics, "X-WR-CALNAME:" + escape((key.owner() == Owner.DENTIST ? "Dentist " : "Surgery location ") + key.id() + " appointments"));
+        feed.events.values().forEach(ics::append);
+        feed.seriesEvents.values().forEach(ics::append);
+        line(ics, "END:VCALENDAR");
+        return ics.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private String vevent(Owner owner, Appointment appointment) {
+        LocalDateTime start = appointment.getAppointmentDateTime();
+        Patient patient = appointment.getPatient();
+        Dentist dentist = appointment.getDentist();
+        String summary = appointment.getAppointmentType() + ": " + patient.getFirstName() + " " + patient.getLastName();
+        if (owner == Owner.SURGERY_LOCATION) {
+            summary += " with Dr. " + dentist.getFirstName() + " " + dentist.getLastName();
+        }
+
+        StringBuilder event = new StringBuilder(384);
+        line(event, "BEGIN:VEVENT");
+        line(event, "UID:appointment-" + appointment.getAppointmentId() + "@dentalsurgeryapp");
+        line(event, "DTSTAMP:" + UTC_DATE_TIME.format(Instant.now()));
+        line(event, "DTSTART:" + LOCAL_DATE_TIME.format(start));
+        line(event, "DTEND:" + LOCAL_DATE_TIME.format(start.plusMinutes(availabilityService.getSlotMinutes())));
+        line(event, "SUMMARY:" + escape(summary));
+        line(event, "LOCATION:" + escape(locationText(appointment.getSurgeryLocation())));
+        line(event, "DESCRIPTION:" + escape("Status: " + appointment.getAppointmentStatus()));
+        line(event, "STATUS:" + eventStatus(appointment.getAppointmentStatus()));
+        line(event, "END:VEVENT");
+        return event.toString();
+    }
+
+    // The occurrences of a series not expanded yet, as one recurring event
+    private String seriesVevent(Owner owner, AppointmentSeries series) {
+        LocalDateTime start = series.getNextStart();
+        Patient patient = series.getPatient();
+        Dentist dentist = series.getDentist();
+        String summary = series.getAppointmentType() + ": " + patient.getFirstName() + " " + patient.getLastName();
+        if (owner == Owner.SURGERY_LOCATION) {
+            summary += " with Dr. " + dentist.getFirstName() + " " + dentist.getLastName();
+        }
+
+        StringBuilder event = new StringBuilder(448);
+        line(event, "BEGIN:VEVENT");
+        line(event, "UID:series-" + series.getSeriesId() + "@dentalsurgeryapp");
+        line(event, "DTSTAMP:" + UTC_DATE_TIME.format(Instant.now()));
+        line(event, "DTSTART:" + LOCAL_DATE_TIME.format(start));
+        line(event, "DTEND:" + LOCAL_DATE_TIME.format(start.plusMinutes(availabilityService.getSlotMinutes())));
+        line(event, "RRULE:FREQ=WEEKLY;INTERVAL=" + series.getIntervalWeeks() + ";COUNT=" + series.remaining());
+        line(event, "SUMMARY:" + escape(summary));
+        line(event, "LOCATION:" + escape(locationText(series.getSurgeryLocation())));
+        line(event, "DESCRIPTION:" + escape("Recurring, occurrences " + (series.getMaterializedCount() + 1)
+                + " to " + series.getOccurrenceCount() + " of " + series.getOccurrenceCount()));
+        line(event, "STATUS:CONFIRMED");
+        line(event, "END:VEVENT");
+        return event.toString();
+    }
+
+    private static String locationText(SurgeryLocation location) {
+        Address address = location.getLocation();
+        if (address == null) {
+            return location.getName();
+        }
+        return location.getName() + ", " + address.getStreet() + ", " + address.getCity() + ", "
+                + address.getState() + " " + address.getZipcode();
+    }
+
+    private static String eventStatus(String appointmentStatus) {
+        if (AppointmentStatus.CANCELLED.name().equals(appointmentStatus)) {
+            return "CANCELLED";
+        }
+        return AppointmentStatus.PENDING.name().equals(appointmentStatus) ? "TENTATIVE" : "CONFIRMED";
+    }
+
+    private String eTag(Owner owner, Integer id, long version) {
+        return (owner == Owner.DENTIST ? "d" : "l") + id + "-" + startToken + "-" + version;
+    }
+
+    // TEXT value escaping (RFC 5545 3.3.11)
+    private static String escape(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.replace("\\", "\\\\")
+                .replace(";", "\\;")
+                .replace(",", "\\,")
+                .replace("\r\n", "\\n")
+                .replace("\n", "\\n");
+    }
+
+    // Content line folded at 75 octets, continuation lines starting with a space (RFC 5545 3.1)
+    private static void line(StringBuilder out, String content) {
+        int octets = 0;
+        for (int i = 0; i < content.length(); ) {
+            int codePoint = content.codePointAt(i);
+            int length = new String(Character.toChars(codePoint)).getBytes(StandardCharsets.UTF_8).length;
+            if (octets + length > MAX_LINE_OCTETS) {
+                out.append("\r\n ");
+                octets = 1;
+            }
+            out.appendCodePoint(codePoint);
+            octets += length;
+            i += Character.charCount(codePoint);
+        }
+        out.append("\r\n");
+    }
+}
@@ -0,0 +1,242 @@
+package cs489.miu.dentalsurgeryapp.service.impl;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import cs489.miu.dentalsurgeryapp.dto.AppointmentPlacementDTO;
+import cs489.miu.dentalsurgeryapp.dto.DashboardStatsDTO;
+import cs489.miu.dentalsurgeryapp.model.Appointment;
+import cs489.miu.dentalsurgeryapp.model.Bill;
+import cs489.miu.dentalsurgeryapp.repository.AppointmentRepository;
+import cs489.miu.dentalsurgeryapp.repository.BillRepository;
+import cs489.miu.dentalsurgeryapp.repository.DentistRepository;
+import cs489.miu.dentalsurgeryapp.repository.PatientRepository;
+import cs489.miu.dentalsurgeryapp.service.DashboardStatsService;
+import cs489.miu.dentalsurgeryapp.util.AfterCommit;
+
+/**
+ * Sysadmin dashboard counters.
+ *
+ * Patients and dentists are plain counters. Appointments are tracked per day for every
+ * appointment from {@code coveredFrom} (the day of the last rebuild) onwards, with the day
+ * each one is counted in, and unpaid bills as a set of ids; both make updates idempotent,
+ * so a change that a rebuild already picked up is never counted twice. Rebuild holds the
+ * write lock while it reads the tables so no update slips between the snapshot and the swap.
+ */
+@Service
+public class DashboardStatsServiceImpl implements DashboardStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(DashboardStatsServiceImpl.class);
+
+    private final PatientRepository patientRepository;
+    private final DentistRepository dentistRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final BillRepository billRepository;
+
+    private final AtomicLong patients = new AtomicLong();
+    private final AtomicLong dentists = new AtomicLong();
+    private final Map<Integer, LocalDate> appointmentDays = new ConcurrentHashMap<>();
+    private final Map<LocalDate, AtomicInteger> dayCounts = new ConcurrentHashMap<>();
+    private final Set<Integer> unpaidBills = ConcurrentHashMap.newKeySet();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile LocalDate coveredFrom;
+    private volatile LocalDateTime rebuiltAt;
+    private volatile long lastDrift;
+
+    public DashboardStatsServiceImpl(PatientRepository patientRepository,
+                                     DentistRepository dentistRepository,
+                                     AppointmentRepository appointmentRepository,
+                                     BillRepository billRepository) {
+        this.patientRepository = patientRepository;
+        this.dentistRepository = dentistRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.billRepository = billRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        DashboardStatsDTO stats = rebuild();
+        log.info("Dashboard counters built: {} patients, {} dentists, {} appointments today, {} unpaid bills",
+                stats.totalPatients(), stats.totalDentists(), stats.todayAppointments(), stats.pendingBills());
+    }
+
+    @Override
+    public DashboardStatsDTO getStats() {
+        AtomicInteger today = dayCounts.get(LocalDate.now());
+        return new DashboardStatsDTO(patients.get(), dentists.get(), today != null ? today.get() : 0,
+                unpaidBills.size(), rebuiltAt, lastDrift);
+    }
+
+    @Override
+    public void recordPatientCreated() {
+        AfterCommit.run(() -> adjust(patients, 1));
+    }
+
+    @Override
+    public void recordPatientDeleted() {
+        AfterCommit.run(() -> adjust(patients, -1));
+    }
+
+    @Override
+    public void recordDentistCreated() {
+        AfterCommit.run(() -> adjust(dentists, 1));
+    }
+
+    @Override
+    public void recordDentistDeleted() {
+        AfterCommit.run(() -> adjust(dentists, -1));
+    }
+
+    @Override
+    public void recordAppointmentSaved(Appointment appointment) {
+        if (appointment == null || appointment.getAppointmentId() == null) {
+            return;
+        }
+        Integer appointmentId = appointment.getAppointmentId();
+        LocalDate day = appointment.getAppointmentDateTime() != null ? appointment.getAppointmentDateTime().toLocalDate() : null;
+        AfterCommit.run(() -> placeAppointment(appointmentId, day));
+    }
+
+    @Override
+    public void recordAppointmentDeleted(Integer appointmentId) {
+        if (appointmentId != null) {
+            AfterCommit.run(() -> placeAppointment(appointmentId, null));
+        }
+    }
+
+    @Override
+    public void recordBillSaved(Bill bill) {
+        if (bill == null || bill.getBillId() == null) {
+            return;
+        }
+        Integer billId = bill.getBillId();
+        boolean unpaid = !"PAID".equals(bill.getPaymentStatus());
+        AfterCommit.run(() -> placeBill(billId, unpaid));
+    }
+
+    @Override
+    public void recordBillDeleted(Integer billId) {
+        if (billId != null) {
+            AfterCommit.run(() -> placeBill(billId, false));
+        }
+    }
+
+    @Override
+    public void recordBillsPaid(Collection<Integer> billIds) {
+        List<Integer> paid = List.copyOf(billIds);
+        if (!paid.isEmpty()) {
+            AfterCommit.run(() -> paid.forEach(billId -> placeBill(billId, false)));
+        }
+    }
+
+    @Override
+    @Scheduled(cron = "${dentalsurgery.dashboard-stats.rebuild-cron:0 0/15 * * * *}")
+    public DashboardStatsDTO rebuild() {
+        lock.writeLock().lock();
+        try {
+            LocalDate from = LocalDate.now();
+            long expectedPatients = patientRepository.count();
+            long expectedDentists = dentistRepository.count();
+            Map<Integer, LocalDate> expectedDays = new HashMap<>();
+            Map<LocalDate, AtomicInteger> expectedCounts = new HashMap<>();
+            for (AppointmentPlacementDTO row : appointmentRepository.findPlacementsFrom(from.atStartOfDay())) {
+                LocalDate day = row.appointmentDateTime().toLocalDate();
+                expectedDays.put(row.appointmentId(), day);
+                expectedCounts.computeIfAbsent(day, d -> new AtomicInteger()).incrementAndGet();
+            }
+            Set<Integer> expectedUnpaid = new HashSet<>(billRepository.findUnpaidBillIds());
+
+            if (rebuiltAt != null) {
+                AtomicInteger today = dayCounts.get(from);
+                AtomicInteger expectedToday = expectedCounts.get(from);
+                long drift = Math.abs(patients.get() - expectedPatients)
+                        + Math.abs(dentists.get() - expectedDentists)
+                        + Math.abs((today != null ? today.get() : 0) - (expectedToday != null ? expectedToday.get() : 0))
+                        + Math.abs(unpaidBills.size() - expectedUnpaid.size());
+                lastDrift = drift;
+                if (drift > 0) {
+                    log.warn("Dashboard counters drifted by {}; corrected from the tables", drift);
+                }
+            }
+
+            patients.set(expectedPatients);
+            dentists.set(expectedDentists);
+            appointmentDays.clear();
+            appointmentDays.putAll(expectedDays);
+            dayCounts.clear();
+            dayCounts.putAll(expectedCounts);
+            unpaidBills.clear();
+            unpaidBills.addAll(expectedUnpaid);
+            coveredFrom = from;
+            rebuiltAt = LocalDateTime.now();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return getStats();
+    }
+
+    private void adjust(AtomicLong counter, long delta) {
+        lock.readLock().lock();
+        try {
+            counter.updateAndGet(value -> Math.max(0, value + delta));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Move an appointment to the counter of its new day, or out of the index when day is null or not covered
+    private void placeAppointment(Integer appointmentId, LocalDate day) {
+        lock.readLock().lock();
+        try {
+            LocalDate from = coveredFrom;
+            LocalDate target = day != null && from != null && !day.isBefore(from) ? day : null;
+            appointmentDays.compute(appointmentId, (id, previous) -> {
+                if (previous != null && previous.equals(target)) {
+                    return previous;
+                }
+                if (previous != null) {
+                    AtomicInteger count = dayCounts.get(previous);
+                    if (count != null && count.decrementAndGet() <= 0) {
+                        dayCounts.remove(previous, count);
+                    }
+                }
+                if (target != null) {
+                    dayCounts.computeIfAbsent(target, d -> new AtomicInteger()).incrementAndGet();
+                }
+                return target;
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void placeBill(Integer billId, boolean unpaid) {
+        lock.readLock().lock();
+        try {
+            if (unpaid) {
+                unpaidBills.add(billId);
+            } else {
+                unpaidBills.remove(billId);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
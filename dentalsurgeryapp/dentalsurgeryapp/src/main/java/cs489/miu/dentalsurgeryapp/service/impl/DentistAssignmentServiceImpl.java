@@ -0,0 +1,233 @@
+package cs489.miu.dentalsurgeryapp.service.impl;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import cs489.miu.dentalsurgeryapp.dto.AppointmentRequestDTO;
+import cs489.miu.dentalsurgeryapp.exception.AppointmentLimitExceededException;
+import cs489.miu.dentalsurgeryapp.exception.OutstandingBillException;
+import cs489.miu.dentalsurgeryapp.model.Appointment;
+import cs489.miu.dentalsurgeryapp.model.Dentist;
+import cs489.miu.dentalsurgeryapp.repository.DentistRepository;
+import cs489.miu.dentalsurgeryapp.service.AppointmentSeriesService;
+import cs489.miu.dentalsurgeryapp.service.AppointmentService;
+import cs489.miu.dentalsurgeryapp.service.AvailabilityService;
+import cs489.miu.dentalsurgeryapp.service.DentistAssignmentService;
+import cs489.miu.dentalsurgeryapp.service.DentistWeeklyLoadService;
+import cs489.miu.dentalsurgeryapp.util.AfterCommit;
+
+/**
+ * One ranking per requested week, built on first use from the load index and the series'
+ * virtual occurrences (both in memory, so no count query per dentist) and kept for later
+ * bookings of that week. A ranking is a set of (load, dentist) ordered by load, one for
+ * all dentists and one per specialization, so the least-loaded dentist is the first entry
+ * and re-ranking a dentist after a committed change is a remove and an add, O(log n) per
+ * cached week. Past weeks are dropped as new ones are built, and everything is rebuilt
+ * nightly so drift corrected in the load index is picked up.
+ *
+ * The ranking only proposes a dentist; the booking still goes through the regular checks
+ * and the slot reservation, so a stale ranking can cost a retry but never a sixth booking.
+ */
+@Service
+public class DentistAssignmentServiceImpl implements DentistAssignmentService {
+
+    // Ranking key of all dentists, whatever their specialization
+    private static final String ALL = "";
+
+    private record Ranked(int load, int dentistId) implements Comparable<Ranked> {
+
+        @Override
+        public int compareTo(Ranked other) {
+            int byLoad = Integer.compare(load, other.load);
+            return byLoad != 0 ? byLoad : Integer.compare(dentistId, other.dentistId);
+        }
+    }
+
+    private static final class WeekRanking {
+        private final Map<Integer, Integer> loads = new HashMap<>();
+        private final Map<String, TreeSet<Ranked>> rankings = new HashMap<>();
+    }
+
+    private final DentistRepository dentistRepository;
+    private final AppointmentSeriesService appointmentSeriesService;
+    private final AvailabilityService availabilityService;
+    private final AppointmentService appointmentService;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // Specialization key of every dentist; null until first needed; guarded by lock
+    private Map<Integer, String> roster;
+    private final Map<LocalDate, WeekRanking> weeks = new HashMap<>();
+
+    public DentistAssignmentServiceImpl(DentistRepository dentistRepository,
+                                        @Lazy AppointmentSeriesService appointmentSeriesService,
+                                        AvailabilityService availabilityService,
+                                        @Lazy AppointmentService appointmentService) {
+        this.dentistRepository = dentistRepository;
+        this.appointmentSeriesService = appointmentSeriesService;
+        this.availabilityService = availabilityService;
+        this.appointmentService = appointmentService;
+    }
+
+    @Override
+    public Integer findLeastLoadedDentist(LocalDateTime dateTime, String specialization, Set<Integer> excludedDentistIds) {
+        lock.lock();
+        try {
+            WeekRanking week = weekOf(DentistWeeklyLoadService.weekStartOf(dateTime));
+            TreeSet<Ranked> ranking = week.rankings.get(keyOf(specialization));
+            if (ranking == null) {
+                return null;
+            }
+            for (Ranked candidate : ranking) {
+                if (candidate.load() >= DentistWeeklyLoadService.WEEKLY_LIMIT) {
+                    return null; // Everyone from here on is full as well
+                }
+                if (!excludedDentistIds.contains(candidate.dentistId())
+                        && availabilityService.isSlotFree(candidate.dentistId(), dateTime)) {
+                    return candidate.dentistId();
+                }
+            }
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Appointment bookWithLeastLoadedDentist(AppointmentRequestDTO appointmentDto) throws AppointmentLimitExceededException, OutstandingBillException {
+        if (appointmentDto.getAppointmentDate() == null || appointmentDto.getAppointmentTime() == null) {
+            throw new IllegalArgumentException("Appointment date and time are required");
+        }
+        LocalDateTime dateTime;
+        try {
+            dateTime = LocalDateTime.of(appointmentDto.getAppointmentDate(), LocalTime.parse(appointmentDto.getAppointmentTime()));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date or time format. Date: " +
+                appointmentDto.getAppointmentDate() + ", Time: " + appointmentDto.getAppointmentTime(), e);
+        }
+
+        Set<Integer> passedOver = new HashSet<>();
+        while (true) {
+            Integer dentistId = findLeastLoadedDentist(dateTime, appointmentDto.getSpecialization(), passedOver);
+            if (dentistId == null) {
+                String specialization = appointmentDto.getSpecialization();
+                throw new AppointmentLimitExceededException(
+                    String.format("No dentist%s is available on %s at %s: all have reached the limit of %d appointments for that week or are booked at that time.",
+                        specialization != null && !specialization.isBlank() ? " specializing in " + specialization.trim() : "",
+                        dateTime.toLocalDate(),
+                        dateTime.toLocalTime(),
+                        DentistWeeklyLoadService.WEEKLY_LIMIT)
+                );
+            }
+            appointmentDto.setDentistId(dentistId.longValue());
+            try {
+                return appointmentService.createAppointment(appointmentDto);
+            } catch (AppointmentLimitExceededException e) {
+                // Filled up since it was ranked: re-rank it and try the next one
+                passedOver.add(dentistId);
+                recordLoadChanged(dentistId);
+            }
+        }
+    }
+
+    @Override
+    public void recordLoadChanged(Integer dentistId) {
+        if (dentistId != null) {
+            AfterCommit.run(() -> rerank(dentistId));
+        }
+    }
+
+    @Override
+    public void recordDentistsChanged() {
+        AfterCommit.run(this::reset);
+    }
+
+    @Scheduled(cron = "${dentalsurgery.assignment.reset-cron:0 15 0 * * *}")
+    public void reset() {
+        lock.lock();
+        try {
+            roster = null;
+            weeks.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void rerank(Integer dentistId) {
+        lock.lock();
+        try {
+            if (roster == null || !roster.containsKey(dentistId)) {
+                return;
+            }
+            String specialization = roster.get(dentistId);
+            for (Map.Entry<LocalDate, WeekRanking> entry : weeks.entrySet()) {
+                WeekRanking week = entry.getValue();
+                Integer previous = week.loads.get(dentistId);
+                int load = loadOf(dentistId, entry.getKey());
+                if (previous != null && previous == load) {
+                    continue;
+                }
+                week.loads.put(dentistId, load);
+                for (String key : keysOf(specialization)) {
+                    TreeSet<Ranked> ranking = week.rankings.get(key);
+                    if (previous != null) {
+                        ranking.remove(new Ranked(previous, dentistId));
+                    }
+                    ranking.add(new Ranked(load, dentistId));
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Caller holds the lock
+    private WeekRanking weekOf(LocalDate weekStart) {
+        WeekRanking week = weeks.get(weekStart);
+        if (week != null) {
+            return week;
+        }
+        if (roster == null) {
+            Map<Integer, String> loaded = new HashMap<>();
+            for (Dentist dentist : dentistRepository.findAll()) {
+                loaded.put(dentist.getDentistId(), keyOf(dentist.getSpecialization()));
+            }
+            roster = loaded;
+        }
+        weeks.keySet().removeIf(cached -> cached.isBefore(DentistWeeklyLoadService.weekStartOf(LocalDateTime.now())));
+        week = new WeekRanking();
+        for (Map.Entry<Integer, String> dentist : roster.entrySet()) {
+            int load = loadOf(dentist.getKey(), weekStart);
+            week.loads.put(dentist.getKey(), load);
+            for (String key : keysOf(dentist.getValue())) {
+                week.rankings.computeIfAbsent(key, k -> new TreeSet<>()).add(new Ranked(load, dentist.getKey()));
+            }
+        }
+        weeks.put(weekStart, week);
+        return week;
+    }
+
+    private int loadOf(Integer dentistId, LocalDate weekStart) {
+        return (int) appointmentSeriesService.effectiveWeeklyLoad(dentistId, weekStart);
+    }
+
+    private static Set<String> keysOf(String specialization) {
+        return specialization.equals(ALL) ? Set.of(ALL) : Set.of(ALL, specialization);
+    }
+
+    private static String keyOf(String specialization) {
+        return specialization == null ? ALL : specialization.trim().toLowerCase(Locale.ROOT);
+    }
+}
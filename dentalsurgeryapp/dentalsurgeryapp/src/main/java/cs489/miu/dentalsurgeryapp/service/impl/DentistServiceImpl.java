@@ -3,6 +3,9 @@ package cs489.miu.dentalsurgeryapp.service.impl;
 
 import cs489.miu.dentalsurgeryapp.model.Dentist;
 import cs489.miu.dentalsurgeryapp.repository.DentistRepository;
+import cs489.miu.dentalsurgeryapp.repository.NaturalKeyUpsert;
+import cs489.miu.dentalsurgeryapp.service.DashboardStatsService;
+import cs489.miu.dentalsurgeryapp.service.DentistAssignmentService;
 import cs489.miu.dentalsurgeryapp.service.DentistService;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,16 +14,22 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 public class DentistServiceImpl implements DentistService {
 
     private final DentistRepository dentistRepository;
+    private final DashboardStatsService dashboardStatsService;
+    private final DentistAssignmentService dentistAssignmentService;
 
     @Autowired
-    public DentistServiceImpl(DentistRepository dentistRepository) {
+    public DentistServiceImpl(DentistRepository dentistRepository, DashboardStatsService dashboardStatsService,
+                              DentistAssignmentService dentistAssignmentService) {
         this.dentistRepository = dentistRepository;
+        this.dashboardStatsService = dashboardStatsService;
+        this.dentistAssignmentService = dentistAssignmentService;
     }
 
     @Override
@@ -31,6 +40,7 @@ public class DentistServiceImpl implements DentistService {
         
         // If dentist has an ID, it's an update - save directly
         if (dentist.getDentistId() != null) {
+            dentistAssignmentService.recordDentistsChanged();
             return dentistRepository.save(dentist);
         }
         
@@ -117,7 +127,9 @@ public class DentistServiceImpl implements DentistService {
                     existingDentist.setLastName(dentist.getLastName());
                     existingDentist.setSpecialization(dentist.getSpecialization());
                     existingDentist.setContactNumber(dentist.getContactNumber());
-                    existingDentist.setEmail(dentist.getEmail());
+                    // Blank means no email; stored as NULL so it cannot collide under uk_dentists_email
+                    existingDentist.setEmail(dentist.getEmail() == null || dentist.getEmail().isBlank() ? null : dentist.getEmail());
+                    dentistAssignmentService.recordDentistsChanged();
                     return dentistRepository.save(existingDentist);
                 });
     }
@@ -126,6 +138,8 @@ public class DentistServiceImpl implements DentistService {
     public boolean deleteDentistById(Integer dentistId) {
         if (dentistId != null && dentistRepository.existsById(dentistId)) {
             dentistRepository.deleteById(dentistId);
+            dashboardStatsService.recordDentistDeleted();
+            dentistAssignmentService.recordDentistsChanged();
             return true;
         }
         return false;
@@ -157,15 +171,31 @@ public class DentistServiceImpl implements DentistService {
 
     @Override
     public Dentist findOrCreateDentist(Dentist dentist) {
-        // Check if dentist exists by email (assuming email is unique identifier)
+        if (dentist.getDentistId() != null) {
+            return dentist; // Stored already, e.g. loaded by findDentistById for a booking
+        }
+
+        // Email is the dentist's natural key (uk_dentists_email): insert unless it is taken
         if (dentist.getEmail() != null && !dentist.getEmail().trim().isEmpty()) {
-            Dentist existingDentist = dentistRepository.findByEmailIgnoreCase(dentist.getEmail());
-            if (existingDentist != null) {
-                return existingDentist;
+            NaturalKeyUpsert.Upserted<Dentist> upserted = dentistRepository.insertIfAbsent(dentist);
+            if (upserted.inserted()) {
+                dashboardStatsService.recordDentistCreated();
+                dentistAssignmentService.recordDentistsChanged();
             }
+            return upserted.entity();
         }
         
-        // Dentist doesn't exist, create new one
-        return dentistRepository.save(dentist);
+        // Without an email there is nothing to deduplicate on. Stored dentists are returned above, so
+        // this save is an insert and counts as created, like an inserted() upsert
+        dentist.setEmail(null);
+        Dentist saved = dentistRepository.save(dentist);
+        dashboardStatsService.recordDentistCreated();
+        dentistAssignmentService.recordDentistsChanged();
+        return saved;
+    }
+
+    @Override
+    public Stream<Dentist> streamAllDentists() {
+        return dentistRepository.streamAllForExport();
     }
 }
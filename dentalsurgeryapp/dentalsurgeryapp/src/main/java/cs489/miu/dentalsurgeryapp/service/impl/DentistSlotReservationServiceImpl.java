@@ -0,0 +1,88 @@
+package cs489.miu.dentalsurgeryapp.service.impl;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import cs489.miu.dentalsurgeryapp.model.Appointment;
+import cs489.miu.dentalsurgeryapp.model.AppointmentStatus;
+import cs489.miu.dentalsurgeryapp.model.DentistWeekSlot;
+import cs489.miu.dentalsurgeryapp.repository.DentistWeekSlotRepository;
+import cs489.miu.dentalsurgeryapp.service.DentistSlotReservationService;
+import cs489.miu.dentalsurgeryapp.service.DentistWeeklyLoadService;
+
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+public class DentistSlotReservationServiceImpl implements DentistSlotReservationService {
+
+    private final DentistWeekSlotRepository slotRepository;
+
+    public DentistSlotReservationServiceImpl(DentistWeekSlotRepository slotRepository) {
+        this.slotRepository = slotRepository;
+    }
+
+    @Override
+    public boolean reserve(Appointment appointment) {
+        Integer appointmentId = appointment.getAppointmentId();
+        if (AppointmentStatus.CANCELLED.name().equals(appointment.getAppointmentStatus())
+                || appointment.getDentist() == null || appointment.getAppointmentDateTime() == null) {
+            release(appointmentId);
+            return true;
+        }
+
+        Integer dentistId = appointment.getDentist().getDentistId();
+        LocalDate weekStart = DentistWeeklyLoadService.weekStartOf(appointment.getAppointmentDateTime());
+
+        Optional<DentistWeekSlot> held = slotRepository.findByAppointmentId(appointmentId);
+        if (held.isPresent()) {
+            if (held.get().getDentistId().equals(dentistId) && held.get().getWeekStart().equals(weekStart)) {
+                return true; // Still in the same dentist's week
+            }
+            release(appointmentId);
+        }
+
+        Set<Integer> taken = new HashSet<>(slotRepository.findTakenSlotNumbers(dentistId, weekStart));
+
+        // Appointments booked before slots existed take their places first, so the limit
+        // counts them even though they may push the week past it
+        LocalDateTime start = weekStart.atStartOfDay();
+        List<Integer> unslotted = slotRepository.findUnslottedAppointmentIds(dentistId, start, start.plusWeeks(1), appointmentId);
+        for (Integer legacyId : unslotted) {
+            int slot = lowestFree(taken, Integer.MAX_VALUE);
+            slotRepository.save(new DentistWeekSlot(dentistId, weekStart, slot, legacyId));
+            taken.add(slot);
+        }
+
+        int slot = lowestFree(taken, DentistWeeklyLoadService.WEEKLY_LIMIT);
+        if (slot < 0) {
+            return false;
+        }
+        // A concurrent booking that took the same slot number first makes this insert fail on
+        // the unique key; the caller rolls back and retries with a fresh view of the week
+        slotRepository.saveAndFlush(new DentistWeekSlot(dentistId, weekStart, slot, appointmentId));
+        return true;
+    }
+
+    @Override
+    public void release(Integer appointmentId) {
+        if (appointmentId != null) {
+            slotRepository.deleteByAppointmentId(appointmentId);
+        }
+    }
+
+    private static int lowestFree(Set<Integer> taken, int max) {
+        for (int slot = 1; slot <= max; slot++) {
+            if (!taken.contains(slot)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+}
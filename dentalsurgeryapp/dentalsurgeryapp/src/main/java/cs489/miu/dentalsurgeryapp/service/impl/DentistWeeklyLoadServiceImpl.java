@@ -0,0 +1,235 @@
+package cs489.miu.dentalsurgeryapp.service.impl;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import cs489.miu.dentalsurgeryapp.dto.AppointmentPlacementDTO;
+import cs489.miu.dentalsurgeryapp.dto.DentistLoadIndexStatsDTO;
+import cs489.miu.dentalsurgeryapp.model.Appointment;
+import cs489.miu.dentalsurgeryapp.model.AppointmentStatus;
+import cs489.miu.dentalsurgeryapp.repository.AppointmentRepository;
+import cs489.miu.dentalsurgeryapp.service.DentistWeeklyLoadService;
+import cs489.miu.dentalsurgeryapp.util.AfterCommit;
+
+/**
+ * Dentist-by-week load index.
+ *
+ * The index covers every week from {@code coveredFrom} onwards (a configurable number of
+ * weeks before the current one). Two maps are kept: the per-(dentist, week) counters and,
+ * for every active appointment in the covered range, the (dentist, week) it is counted in.
+ * The second map makes updates idempotent: applying the committed state of an appointment
+ * only moves it between counters when its placement actually changes, so a change that was
+ * already picked up by a rebuild is never counted twice.
+ *
+ * Reads for weeks before {@code coveredFrom} fall through to a COUNT query and are reported
+ * as misses. Rebuild and reconcile hold the write lock while they read the table so that no
+ * update can slip between the snapshot and the swap.
+ */
+@Service
+public class DentistWeeklyLoadServiceImpl implements DentistWeeklyLoadService {
+
+    private static final Logger log = LoggerFactory.getLogger(DentistWeeklyLoadServiceImpl.class);
+
+    private final AppointmentRepository appointmentRepository;
+    private final int lookbackWeeks;
+
+    private final Map<DentistWeek, AtomicInteger> counts = new ConcurrentHashMap<>();
+    private final Map<Integer, DentistWeek> placements = new ConcurrentHashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile LocalDate coveredFrom;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final AtomicLong reconciliations = new AtomicLong();
+    private final AtomicLong lastDrift = new AtomicLong();
+    private final AtomicLong totalDrift = new AtomicLong();
+    private volatile LocalDateTime lastReconciledAt;
+
+    public DentistWeeklyLoadServiceImpl(AppointmentRepository appointmentRepository,
+                                        @Value("${dentalsurgery.load-index.lookback-weeks:1}") int lookbackWeeks) {
+        this.appointmentRepository = appointmentRepository;
+        this.lookbackWeeks = Math.max(0, lookbackWeeks);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        rebuild();
+        log.info("Dentist load index built: {} dentist-weeks, {} appointments from week {}",
+                counts.size(), placements.size(), coveredFrom);
+    }
+
+    @Override
+    public long getWeeklyLoadExcluding(Appointment appointment) {
+        DentistWeek key = DentistWeek.of(appointment.getDentist().getDentistId(), appointment.getAppointmentDateTime());
+        long load = getWeeklyLoad(key.dentistId(), key.weekStart());
+        if (appointment.getAppointmentId() != null && key.equals(placements.get(appointment.getAppointmentId()))) {
+            load--;
+        }
+        return load;
+    }
+
+    @Override
+    public long getWeeklyLoad(Integer dentistId, LocalDate weekStart) {
+        LocalDate from = coveredFrom;
+        if (from != null && !weekStart.isBefore(from)) {
+            hits.increment();
+            AtomicInteger count = counts.get(new DentistWeek(dentistId, weekStart));
+            return count != null ? count.get() : 0;
+        }
+        misses.increment();
+        LocalDateTime start = weekStart.atStartOfDay();
+        return appointmentRepository.countActiveByDentistIdBetween(dentistId, start, start.plusWeeks(1));
+    }
+
+    @Override
+    public void recordSaved(Appointment appointment) {
+        if (appointment == null || appointment.getAppointmentId() == null) {
+            return;
+        }
+        Integer appointmentId = appointment.getAppointmentId();
+        DentistWeek target = isCounted(appointment)
+                ? DentistWeek.of(appointment.getDentist().getDentistId(), appointment.getAppointmentDateTime())
+                : null;
+        AfterCommit.run(() -> place(appointmentId, target));
+    }
+
+    @Override
+    public void recordDeleted(Integer appointmentId) {
+        if (appointmentId != null) {
+            AfterCommit.run(() -> place(appointmentId, null));
+        }
+    }
+
+    @Override
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            LocalDate from = currentCoverageStart();
+            load(from, placements, counts);
+            coveredFrom = from;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${dentalsurgery.load-index.reconcile-interval-ms:600000}",
+               initialDelayString = "${dentalsurgery.load-index.reconcile-interval-ms:600000}")
+    public DentistLoadIndexStatsDTO reconcile() {
+        lock.writeLock().lock();
+        try {
+            LocalDate from = currentCoverageStart();
+            Map<Integer, DentistWeek> expectedPlacements = new HashMap<>();
+            Map<DentistWeek, AtomicInteger> expectedCounts = new HashMap<>();
+            load(from, expectedPlacements, expectedCounts);
+
+            long drift = 0;
+            Set<DentistWeek> keys = new HashSet<>(expectedCounts.keySet());
+            keys.addAll(counts.keySet());
+            for (DentistWeek key : keys) {
+                if (key.weekStart().isBefore(from)) {
+                    continue; // Aged out of the covered range, not drift
+                }
+                AtomicInteger expected = expectedCounts.get(key);
+                AtomicInteger actual = counts.get(key);
+                drift += Math.abs((expected != null ? expected.get() : 0) - (actual != null ? actual.get() : 0));
+            }
+
+            placements.clear();
+            placements.putAll(expectedPlacements);
+            counts.clear();
+            counts.putAll(expectedCounts);
+            coveredFrom = from;
+
+            reconciliations.incrementAndGet();
+            lastDrift.set(drift);
+            totalDrift.addAndGet(drift);
+            lastReconciledAt = LocalDateTime.now();
+            if (drift > 0) {
+                log.warn("Dentist load index drifted by {} appointment(s); corrected from the appointments table", drift);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return getStats();
+    }
+
+    @Override
+    public DentistLoadIndexStatsDTO getStats() {
+        long h = hits.sum();
+        long m = misses.sum();
+        double hitRate = h + m == 0 ? 1.0 : (double) h / (h + m);
+        return new DentistLoadIndexStatsDTO(h, m, hitRate, counts.size(), placements.size(), coveredFrom,
+                reconciliations.get(), lastDrift.get(), totalDrift.get(), lastReconciledAt);
+    }
+
+    // Move an appointment to its new (dentist, week) counter, or out of the index when target is null
+    private void place(Integer appointmentId, DentistWeek target) {
+        lock.readLock().lock();
+        try {
+            DentistWeek effectiveTarget = target != null && isCovered(target) ? target : null;
+            placements.compute(appointmentId, (id, previous) -> {
+                if (previous != null && previous.equals(effectiveTarget)) {
+                    return previous;
+                }
+                if (previous != null) {
+                    AtomicInteger count = counts.get(previous);
+                    if (count != null && count.decrementAndGet() <= 0) {
+                        counts.remove(previous, count);
+                    }
+                }
+                if (effectiveTarget != null) {
+                    counts.computeIfAbsent(effectiveTarget, k -> new AtomicInteger()).incrementAndGet();
+                }
+                return effectiveTarget;
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void load(LocalDate from, Map<Integer, DentistWeek> placementsOut, Map<DentistWeek, AtomicInteger> countsOut) {
+        List<AppointmentPlacementDTO> rows = appointmentRepository.findActivePlacementsFrom(from.atStartOfDay());
+        placementsOut.clear();
+        countsOut.clear();
+        for (AppointmentPlacementDTO row : rows) {
+            DentistWeek key = DentistWeek.of(row.dentistId(), row.appointmentDateTime());
+            placementsOut.put(row.appointmentId(), key);
+            countsOut.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+        }
+    }
+
+    private boolean isCovered(DentistWeek key) {
+        LocalDate from = coveredFrom;
+        return from != null && !key.weekStart().isBefore(from);
+    }
+
+    private LocalDate currentCoverageStart() {
+        return DentistWeeklyLoadService.weekStartOf(LocalDateTime.now()).minusWeeks(lookbackWeeks);
+    }
+
+    private static boolean isCounted(Appointment appointment) {
+        return appointment.getDentist() != null
+                && appointment.getDentist().getDentistId() != null
+                && appointment.getAppointmentDateTime() != null
+                && !AppointmentStatus.CANCELLED.name().equals(appointment.getAppointmentStatus());
+    }
+}
@@ -0,0 +1,189 @@
+package cs489.miu.dentalsurgeryapp.service.impl;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import cs489.miu.dentalsurgeryapp.dto.IdempotentResponseDTO;
+import cs489.miu.dentalsurgeryapp.service.IdempotencyService;
+
+/**
+ * Completed responses live in an access-ordered map capped at maxEntries (least recently
+ * replayed goes first) and expire ttl after they were stored. With jdbc enabled they are
+ * also written to idempotency_keys and read back on a miss, so they survive restarts and
+ * evictions and are shared between instances; coalescing of in-flight duplicates stays
+ * per instance.
+ *
+ * A claim either registers this request as the key's in-flight owner or waits on the
+ * owner's future. complete() stores the response before clearing the in-flight entry, so a
+ * request arriving in between finds one or the other.
+ */
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyServiceImpl.class);
+
+    private record InFlight(String requestHash, CompletableFuture<IdempotentResponseDTO> response) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration ttl;
+    private final Duration inFlightWait;
+    private final boolean jdbc;
+
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final LinkedHashMap<String, IdempotentResponseDTO> completed;
+
+    public IdempotencyServiceImpl(JdbcTemplate jdbcTemplate,
+                                  @Value("${dentalsurgery.idempotency.ttl:24h}") Duration ttl,
+                                  @Value("${dentalsurgery.idempotency.max-entries:10000}") int maxEntries,
+                                  @Value("${dentalsurgery.idempotency.in-flight-wait:30s}") Duration inFlightWait,
+                                  @Value("${dentalsurgery.idempotency.jdbc:false}") boolean jdbc) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttl = ttl;
+        this.inFlightWait = inFlightWait;
+        this.jdbc = jdbc;
+        this.completed = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, IdempotentResponseDTO> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    @Override
+    public Claim claim(String key, String requestHash) {
+        long deadline = System.nanoTime() + inFlightWait.toNanos();
+        while (true) {
+            IdempotentResponseDTO stored = lookup(key);
+            if (stored != null) {
+                return answered(stored, requestHash);
+            }
+            InFlight mine = new InFlight(requestHash, new CompletableFuture<>());
+            InFlight owner = inFlight.putIfAbsent(key, mine);
+            if (owner == null) {
+                // The previous owner may have completed between the lookup and putIfAbsent
+                stored = lookup(key);
+                if (stored != null) {
+                    inFlight.remove(key, mine);
+                    mine.response().complete(stored);
+                    return answered(stored, requestHash);
+                }
+                return new Claim(Outcome.PROCEED, null);
+            }
+            if (!owner.requestHash().equals(requestHash)) {
+                return new Claim(Outcome.MISMATCH, null);
+            }
+            try {
+                IdempotentResponseDTO response = owner.response().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (response != null) {
+                    return new Claim(Outcome.REPLAY, response);
+                }
+                // Released without a response: claim again, one of the waiters becomes the owner
+            } catch (TimeoutException e) {
+                return new Claim(Outcome.IN_PROGRESS, null);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return new Claim(Outcome.IN_PROGRESS, null);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+    }
+
+    @Override
+    public void complete(String key, IdempotentResponseDTO response) {
+        synchronized (completed) {
+            completed.put(key, response);
+        }
+        if (jdbc) {
+            try {
+                jdbcTemplate.update("INSERT INTO idempotency_keys (idempotency_key, request_hash, status, content_type, body, created_at)"
+                        + " VALUES (?, ?, ?, ?, ?, ?)", key, response.requestHash(), response.status(),
+                        response.contentType(), response.body(), Timestamp.from(response.storedAt()));
+            } catch (DuplicateKeyException e) {
+                // Another instance answered the same key first; both responses stand for it
+            } catch (DataAccessException e) {
+                log.warn("Could not persist the response for an idempotency key, it is kept in memory only", e);
+            }
+        }
+        InFlight owner = inFlight.remove(key);
+        if (owner != null) {
+            owner.response().complete(response);
+        }
+    }
+
+    @Override
+    public void release(String key) {
+        InFlight owner = inFlight.remove(key);
+        if (owner != null) {
+            owner.response().complete(null);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${dentalsurgery.idempotency.purge-interval-ms:300000}",
+               initialDelayString = "${dentalsurgery.idempotency.purge-interval-ms:300000}")
+    public void purgeExpired() {
+        Instant cutoff = Instant.now().minus(ttl);
+        synchronized (completed) {
+            completed.values().removeIf(response -> response.storedAt().isBefore(cutoff));
+        }
+        if (jdbc) {
+            int purged = jdbcTemplate.update("DELETE FROM idempotency_keys WHERE created_at < ?", Timestamp.from(cutoff));
+            if (purged > 0) {
+                log.debug("Purged {} expired idempotency keys", purged);
+            }
+        }
+    }
+
+    private IdempotentResponseDTO lookup(String key) {
+        Instant cutoff = Instant.now().minus(ttl);
+        synchronized (completed) {
+            IdempotentResponseDTO response = completed.get(key);
+            if (response != null) {
+                if (!response.storedAt().isBefore(cutoff)) {
+                    return response;
+                }
+                completed.remove(key);
+            }
+        }
+        if (!jdbc) {
+            return null;
+        }
+        List<IdempotentResponseDTO> rows = jdbcTemplate.query("SELECT request_hash, status, content_type, body, created_at"
+                + " FROM idempotency_keys WHERE idempotency_key = ? AND created_at >= ?",
+                (rs, rowNum) -> new IdempotentResponseDTO(rs.getString("request_hash"), rs.getInt("status"),
+                        rs.getString("content_type"), rs.getBytes("body"), rs.getTimestamp("created_at").toInstant()),
+                key, Timestamp.from(cutoff));
+        if (rows.isEmpty()) {
+            return null;
+        }
+        synchronized (completed) {
+            completed.put(key, rows.get(0));
+        }
+        return rows.get(0);
+    }
+
+    private static Claim answered(IdempotentResponseDTO stored, String requestHash) {
+        return stored.requestHash().equals(requestHash)
+                ? new Claim(Outcome.REPLAY, stored)
+                : new Claim(Outcome.MISMATCH, null);
+    }
+}
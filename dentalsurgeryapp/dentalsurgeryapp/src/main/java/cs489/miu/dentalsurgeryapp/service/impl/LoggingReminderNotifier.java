@@ -0,0 +1,53 @@
+package cs489.miu.dentalsurgeryapp.service.impl;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import cs489.miu.dentalsurgeryapp.dto.AppointmentReminderDTO;
+import cs489.miu.dentalsurgeryapp.service.ReminderNotifier;
+
+/**
+ * Local stand-in for a real reminder channel: logs each reminder and, when
+ * dentalsurgery.reminders.outbox-file is set, appends it to that file as one
+ * tab-separated line so tests and demos can check what would have been sent.
+ */
+@Service
+public class LoggingReminderNotifier implements ReminderNotifier {
+
+    private static final Logger log = LoggerFactory.getLogger(LoggingReminderNotifier.class);
+
+    private final Path outboxFile;
+    // A lock rather than synchronized: senders are virtual threads and must not pin their carrier during I/O
+    private final ReentrantLock outboxLock = new ReentrantLock();
+
+    public LoggingReminderNotifier(@Value("${dentalsurgery.reminders.outbox-file:}") String outboxFile) {
+        this.outboxFile = outboxFile.isBlank() ? null : Path.of(outboxFile);
+    }
+
+    @Override
+    public void send(AppointmentReminderDTO reminder) throws IOException {
+        log.info("Reminder ({} ahead) for appointment {} at {}: {} <{}> with {} at {}",
+                reminder.leadTime(), reminder.appointmentId(), reminder.appointmentDateTime(),
+                reminder.patientName(), reminder.patientEmail(), reminder.dentistName(), reminder.surgeryLocationName());
+        if (outboxFile != null) {
+            String line = String.join("\t", String.valueOf(reminder.appointmentId()), reminder.leadTime().toString(),
+                    String.valueOf(reminder.appointmentDateTime()), String.valueOf(reminder.patientEmail())) + System.lineSeparator();
+            outboxLock.lock();
+            try {
+                Files.writeString(outboxFile, line, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } finally {
+                outboxLock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package cs489.miu.dentalsurgeryapp.service.impl;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import cs489.miu.dentalsurgeryapp.dto.PatientBalanceDTO;
+import cs489.miu.dentalsurgeryapp.model.PaymentStatus;
+import cs489.miu.dentalsurgeryapp.service.PatientBalanceService;
+import cs489.miu.dentalsurgeryapp.util.AddOrInsert;
+
+/**
+ * Cached balances are tagged with the row version they were read at, and a reload only
+ * replaces an older copy, so a slow reader can never put back a balance that a committed
+ * change has already refreshed. A patient without a row is cached at version 0.
+ *
+ * Rows are updated in place (outstanding_cents = outstanding_cents + ?), so concurrent bill
+ * changes of one patient queue on the row lock instead of overwriting each other; rows are
+ * locked in patient id order to keep transactions touching several patients from
+ * deadlocking.
+ *
+ * Only this instance's own commits refresh the cache, so it is reread from the table on a
+ * schedule: that picks up commits of other instances (a higher version) and rows changed by
+ * SQL run outside the app (different figures at the same version), which are logged as drift.
+ */
+@Service
+public class PatientBalanceServiceImpl implements PatientBalanceService {
+
+    private static final Logger log = LoggerFactory.getLogger(PatientBalanceServiceImpl.class);
+
+    private static final int REFRESH_CHUNK = 500;
+
+    private static final String ADD = "UPDATE patient_balances SET outstanding_cents = outstanding_cents + ?,"
+        + " unpaid_count = unpaid_count + ?, version = version + 1 WHERE patient_id = ?";
+    private static final String INSERT = "INSERT INTO patient_balances (patient_id, outstanding_cents, unpaid_count, version)"
+        + " VALUES (?, ?, ?, 1)";
+    private static final String SUM_BILLS = "SELECT COALESCE(SUM(total_cost), 0), COUNT(*) FROM bills"
+        + " WHERE patient_id = ? AND payment_status <> " + PaymentStatus.PAID.getCode();
+    private static final String SET = "UPDATE patient_balances SET outstanding_cents = ?,"
+        + " unpaid_count = ?, version = version + 1 WHERE patient_id = ?";
+
+    private record Cached(long outstandingCents, int unpaidBills, long version) {
+    }
+
+    private static final Cached NOTHING_OWED = new Cached(0, 0, 0);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<Integer, Cached> balances = new ConcurrentHashMap<>();
+
+    public PatientBalanceServiceImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public PatientBalanceDTO getBalance(Integer patientId) {
+        Cached balance = cached(patientId);
+        return new PatientBalanceDTO(patientId, BigDecimal.valueOf(balance.outstandingCents(), 2), balance.unpaidBills());
+    }
+
+    @Override
+    public boolean hasOutstanding(Integer patientId) {
+        return patientId != null && cached(patientId).unpaidBills() > 0;
+    }
+
+    @Override
+    public void apply(Connection connection, Map<Integer, Change> changes) throws SQLException {
+        Map<Integer, Change> ordered = new TreeMap<>(changes);
+        ordered.values().removeIf(Change::isNone);
+        if (ordered.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement add = connection.prepareStatement(ADD)) {
+            for (Map.Entry<Integer, Change> entry : ordered.entrySet()) {
+                Integer patientId = entry.getKey();
+                Change change = entry.getValue();
+                AddOrInsert.run(connection, add,
+                    statement -> update(statement, patientId, change.outstandingCents(), change.unpaidBills()),
+                    INSERT, insert -> {
+                        insert.setInt(1, patientId);
+                        insert.setLong(2, change.outstandingCents());
+                        insert.setInt(3, change.unpaidBills());
+                        return insert.executeUpdate() > 0;
+                    });
+            }
+        }
+    }
+
+    @Override
+    public void resync(Connection connection, Collection<Integer> patientIds) throws SQLException {
+        if (patientIds.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement sum = connection.prepareStatement(SUM_BILLS);
+             PreparedStatement set = connection.prepareStatement(SET)) {
+            for (Integer patientId : new TreeSet<>(patientIds)) {
+                sum.setInt(1, patientId);
+                long outstandingCents;
+                int unpaidBills;
+                try (ResultSet row = sum.executeQuery()) {
+                    row.next();
+                    outstandingCents = PatientBalanceService.toCents(row.getBigDecimal(1));
+                    unpaidBills = row.getInt(2);
+                }
+                if (!update(set, patientId, outstandingCents, unpaidBills)) {
+                    apply(connection, Map.of(patientId, new Change(outstandingCents, unpaidBills)));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void refresh(Collection<Integer> patientIds) {
+        List<Integer> ids = new ArrayList<>(patientIds);
+        for (int from = 0; from < ids.size(); from += REFRESH_CHUNK) {
+            List<Integer> chunk = ids.subList(from, Math.min(ids.size(), from + REFRESH_CHUNK));
+            Map<Integer, Cached> loaded = load(chunk);
+            for (Integer patientId : chunk) {
+                balances.merge(patientId, loaded.getOrDefault(patientId, NOTHING_OWED), PatientBalanceServiceImpl::newer);
+            }
+        }
+    }
+
+    @Override
+    @Scheduled(cron = "${dentalsurgery.balances.reload-cron:0 * * * * *}")
+    public int reload() {
+        List<Integer> ids = new ArrayList<>(balances.keySet());
+        int moved = 0;
+        int drifted = 0;
+        for (int from = 0; from < ids.size(); from += REFRESH_CHUNK) {
+            List<Integer> chunk = ids.subList(from, Math.min(ids.size(), from + REFRESH_CHUNK));
+            Map<Integer, Cached> loaded = load(chunk);
+            for (Integer patientId : chunk) {
+                Cached stored = loaded.getOrDefault(patientId, NOTHING_OWED);
+                Cached previous = balances.get(patientId);
+                // A version cached since the read is newer than what was read
+                if (previous == null || stored.version() < previous.version() || stored.equals(previous)
+                        || !balances.replace(patientId, previous, stored)) {
+                    continue;
+                }
+                moved++;
+                if (stored.version() == previous.version()) {
+                    drifted++;
+                }
+            }
+        }
+        if (drifted > 0) {
+            log.warn("{} cached patient balances drifted from patient_balances at the same version; corrected from the table", drifted);
+        }
+        return moved;
+    }
+
+    private Cached cached(Integer patientId) {
+        Cached balance = balances.get(patientId);
+        if (balance != null) {
+            return balance;
+        }
+        Cached loaded = load(List.of(patientId)).getOrDefault(patientId, NOTHING_OWED);
+        return balances.merge(patientId, loaded, PatientBalanceServiceImpl::newer);
+    }
+
+    private Map<Integer, Cached> load(List<Integer> patientIds) {
+        if (patientIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Integer, Cached> loaded = new TreeMap<>();
+        jdbcTemplate.query("SELECT patient_id, outstanding_cents, unpaid_count, version FROM patient_balances"
+                + " WHERE patient_id IN (" + String.join(",", Collections.nCopies(patientIds.size(), "?")) + ")",
+            row -> {
+                loaded.put(row.getInt(1), new Cached(row.getLong(2), row.getInt(3), row.getLong(4)));
+            },
+            patientIds.toArray());
+        return loaded;
+    }
+
+    private static boolean update(PreparedStatement statement, Integer patientId, long outstandingCents, int unpaidBills)
+            throws SQLException {
+        statement.setLong(1, outstandingCents);
+        statement.setInt(2, unpaidBills);
+        statement.setInt(3, patientId);
+        return statement.executeUpdate() > 0;
+    }
+
+    private static Cached newer(Cached current, Cached loaded) {
+        return loaded.version() > current.version() ? loaded : current;
+    }
+}
@@ -3,8 +3,10 @@ package cs489.miu.dentalsurgeryapp.service.impl;
  
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
  
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import cs489.miu.dentalsurgeryapp.exception.PatientNotFoundException;
 import cs489.miu.dentalsurgeryapp.model.Address;
@@ -12,8 +14,10 @@ import cs489.miu.dentalsurgeryapp.model.Patient;
 import cs489.miu.dentalsurgeryapp.model.User;
 import cs489.miu.dentalsurgeryapp.dto.PatientResponseDTO;
 import cs489.miu.dentalsurgeryapp.dto.AddressResponseDTO;
+import cs489.miu.dentalsurgeryapp.repository.NaturalKeyUpsert;
 import cs489.miu.dentalsurgeryapp.repository.PatientRepository;
 import cs489.miu.dentalsurgeryapp.service.AddressService;
+import cs489.miu.dentalsurgeryapp.service.DashboardStatsService;
 import cs489.miu.dentalsurgeryapp.service.PatientService;
 
 @Service
@@ -21,10 +25,13 @@ public class PatientServiceImpl implements PatientService {
 
     private final PatientRepository patientRepository;
     private final AddressService addressService;
+    private final DashboardStatsService dashboardStatsService;
     
-    public PatientServiceImpl(PatientRepository patientRepository, AddressService addressService) {
+    public PatientServiceImpl(PatientRepository patientRepository, AddressService addressService,
+                              DashboardStatsService dashboardStatsService) {
         this.patientRepository = patientRepository;
         this.addressService = addressService;
+        this.dashboardStatsService = dashboardStatsService;
     }
 
     @Override
@@ -63,6 +70,7 @@ public class PatientServiceImpl implements PatientService {
     }
 
     @Override
+    @Transactional // keeps the loaded patient managed, so the returned instance has its address loaded
     public Patient updatePatient(Patient patient) throws PatientNotFoundException {
         // Get the existing patient to preserve the address relationship
         Patient existingPatient = patientRepository.findById(patient.getPatientId())
@@ -72,7 +80,8 @@ public class PatientServiceImpl implements PatientService {
         existingPatient.setFirstName(patient.getFirstName());
         existingPatient.setLastName(patient.getLastName());
         existingPatient.setContactNumber(patient.getContactNumber());
-        existingPatient.setEmail(patient.getEmail());
+        // Blank means no email; stored as NULL so it cannot collide under uk_patients_email
+        existingPatient.setEmail(patient.getEmail() == null || patient.getEmail().isBlank() ? null : patient.getEmail());
         existingPatient.setDob(patient.getDob());
         
         // Handle address update
@@ -92,6 +101,7 @@ public class PatientServiceImpl implements PatientService {
     public boolean deletePatientById(Integer id) {
         if (patientRepository.existsById(id)) {
             patientRepository.deleteById(id);
+            dashboardStatsService.recordPatientDeleted();
             return true;
         }
         return false;
@@ -128,23 +138,35 @@ public class PatientServiceImpl implements PatientService {
 
     @Override
     public Patient findOrCreatePatient(Patient patient) {
-        // Check if patient exists by email (assuming email is unique identifier)
-        if (patient.getEmail() != null && !patient.getEmail().trim().isEmpty()) {
-            Patient existingPatient = patientRepository.findByEmail(patient.getEmail());
-            if (existingPatient != null) {
-                return existingPatient;
-            }
+        if (patient.getPatientId() != null) {
+            return patient; // Stored already, e.g. loaded by getPatientById for a booking
         }
-        
-        // If patient has an address, use findOrCreate for address
-        if (patient.getAddress() != null) {
+
+        // If patient has a new address, use findOrCreate for address (its id goes into the upsert)
+        if (patient.getAddress() != null && patient.getAddress().getAddressId() == null) {
             Address managedAddress = addressService.findOrCreateAddress(patient.getAddress());
             patient.setAddress(managedAddress);
         }
         
-        // Patient doesn't exist, create new one
-        return patientRepository.save(patient);
+        // Email is the patient's natural key (uk_patients_email): insert unless it is taken
+        if (patient.getEmail() != null && !patient.getEmail().trim().isEmpty()) {
+            NaturalKeyUpsert.Upserted<Patient> upserted = patientRepository.insertIfAbsent(patient);
+            if (upserted.inserted()) {
+                dashboardStatsService.recordPatientCreated();
+            }
+            return upserted.entity();
+        }
+        
+        // Without an email there is nothing to deduplicate on. Stored patients are returned above, so
+        // this save is an insert and counts as created, like an inserted() upsert
+        patient.setEmail(null);
+        Patient saved = patientRepository.save(patient);
+        dashboardStatsService.recordPatientCreated();
+        return saved;
     }
 
+    @Override
+    public Stream<Patient> streamAllPatients() {
+        return patientRepository.streamAllForExport();
+    }
 }
-
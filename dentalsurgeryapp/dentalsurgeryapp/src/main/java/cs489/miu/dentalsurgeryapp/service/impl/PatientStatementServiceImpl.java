@@ -0,0 +1,429 @@
+package cs489.miu.dentalsurgeryapp.service.impl;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import cs489.miu.dentalsurgeryapp.dto.PatientStatementDTO;
+import cs489.miu.dentalsurgeryapp.dto.PatientStatementDTO.MonthAppointment;
+import cs489.miu.dentalsurgeryapp.dto.PatientStatementDTO.OutstandingBill;
+import cs489.miu.dentalsurgeryapp.dto.StatementRunDTO;
+import cs489.miu.dentalsurgeryapp.dto.StatementRunDTO.Status;
+import cs489.miu.dentalsurgeryapp.model.AppointmentStatus;
+import cs489.miu.dentalsurgeryapp.model.PaymentStatus;
+import cs489.miu.dentalsurgeryapp.service.PatientStatementService;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Patients are split into fixed ranges of partition-size ids. Each partition reads its
+ * patients, their unpaid bills and their appointments of the month with three range queries
+ * sorted by patient id, in one read-only transaction, then merge-joins the three lists and
+ * writes one statement per active patient to its file. Partitions run on virtual threads,
+ * at most parallelism at a time.
+ *
+ * A partition's file is written under a temporary name and moved into place, then its
+ * checkpoint records what it holds; a run skips the partitions that have a checkpoint. The
+ * partition size is kept in the month's manifest, so a resumed run splits the ids the same way.
+ */
+@Service
+public class PatientStatementServiceImpl implements PatientStatementService {
+
+    private static final Logger log = LoggerFactory.getLogger(PatientStatementServiceImpl.class);
+
+    private static final int FETCH_SIZE = 1000;
+    private static final String MANIFEST = "manifest.properties";
+    private static final String FILE_SUFFIX = ".ndjson.gz";
+    private static final String CHECKPOINT_SUFFIX = ".checkpoint";
+    private static final String TEMP_SUFFIX = ".tmp";
+    // How long shutdown waits for a running statement run before interrupting it
+    private static final long SHUTDOWN_WAIT_SECONDS = 30;
+
+    private static final String PATIENTS = "SELECT p.patient_id, p.firstName, p.lastName, p.email,"
+        + " ad.street, ad.city, ad.state, ad.zipcode"
+        + " FROM patients p LEFT JOIN addresses ad ON ad.address_id = p.billing_address_id"
+        + " WHERE p.patient_id >= ? AND p.patient_id < ? ORDER BY p.patient_id";
+    private static final String BILLS = "SELECT b.patient_id, b.bill_id, b.total_cost, b.payment_status,"
+        + " a.appointmentDateTime, a.appointmentType"
+        + " FROM bills b JOIN appointments a ON a.appointment_id = b.appointment_id"
+        + " WHERE b.patient_id >= ? AND b.patient_id < ? AND b.payment_status IN (?, ?) ORDER BY b.patient_id, b.bill_id";
+    private static final String APPOINTMENTS = "SELECT a.patient_id, a.appointment_id, a.appointmentDateTime,"
+        + " a.appointmentType, a.appointmentStatus, d.firstName, d.lastName, l.name"
+        + " FROM appointments a JOIN dentists d ON d.dentist_id = a.dentist_id"
+        + " JOIN surgerylocations l ON l.surgerylocation_id = a.surgerylocation"
+        + " WHERE a.patient_id >= ? AND a.patient_id < ? AND a.appointmentDateTime >= ? AND a.appointmentDateTime < ?"
+        + " ORDER BY a.patient_id, a.appointmentDateTime, a.appointment_id";
+
+    // Patient ids fromId (inclusive) to toId (exclusive)
+    private record Partition(int index, int fromId, int toId) {
+
+        private String name() {
+            return String.format("statements-p%05d", index);
+        }
+    }
+
+    private record PatientRow(int patientId, String firstName, String lastName, String email, String billingAddress) {
+    }
+
+    private record BillRow(int patientId, OutstandingBill bill) {
+    }
+
+    private record AppointmentRow(int patientId, MonthAppointment appointment) {
+    }
+
+    // One partition's rows, each list sorted by patient id
+    private record PartitionRows(List<PatientRow> patients, List<BillRow> bills, List<AppointmentRow> appointments) {
+    }
+
+    private static final class Run {
+        private final YearMonth month;
+        private final Path directory;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final long startedNanos = System.nanoTime();
+        private final AtomicInteger done = new AtomicInteger();
+        private final AtomicInteger resumed = new AtomicInteger();
+        private final LongAdder statements = new LongAdder();
+        private final LongAdder bills = new LongAdder();
+        private final LongAdder appointments = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+        private final AtomicReference<String> error = new AtomicReference<>();
+        private volatile int partitions;
+        private volatile Status status = Status.RUNNING;
+        private volatile LocalDateTime finishedAt;
+        private volatile long finishedNanos;
+
+        private Run(YearMonth month, Path directory) {
+            this.month = month;
+            this.directory = directory;
+        }
+
+        private StatementRunDTO snapshot() {
+            long elapsedNanos = (finishedAt != null ? finishedNanos : System.nanoTime()) - startedNanos;
+            long written = statements.sum();
+            double perSecond = elapsedNanos > 0 ? written * 1_000_000_000.0 / elapsedNanos : 0;
+            return new StatementRunDTO(month.toString(), status, directory.toString(), partitions, done.get(),
+                resumed.get(), written, bills.sum(), appointments.sum(), bytes.sum(), Math.round(perSecond * 10) / 10.0,
+                startedAt, finishedAt, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), error.get());
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectWriter jsonWriter;
+    private final Path baseDirectory;
+    private final int partitionSize;
+    private final Semaphore slots;
+    private final ExecutorService runner = Executors.newVirtualThreadPerTaskExecutor();
+    private final Object startLock = new Object();
+    private volatile Run current;
+
+    public PatientStatementServiceImpl(JdbcTemplate jdbcTemplate,
+                                       PlatformTransactionManager transactionManager,
+                                       ObjectMapper objectMapper,
+                                       @Value("${dentalsurgery.statements.dir:statements}") String directory,
+                                       @Value("${dentalsurgery.statements.partition-size:2000}") int partitionSize,
+                                       @Value("${dentalsurgery.statements.parallelism:4}") int parallelism) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        // one statement per line: no space between root values, the newline is written explicitly
+        this.jsonWriter = objectMapper.writer()
+            .withRootValueSeparator("")
+            .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.baseDirectory = Paths.get(directory);
+        this.partitionSize = Math.max(1, partitionSize);
+        this.slots = new Semaphore(Math.max(1, parallelism));
+    }
+
+    // Partitions already written keep their checkpoints, so a run cut short here resumes with the rest
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        runner.shutdown();
+        if (!runner.awaitTermination(SHUTDOWN_WAIT_SECONDS, TimeUnit.SECONDS)) {
+            log.warn("Statement run still writing after {} s; stopping it", SHUTDOWN_WAIT_SECONDS);
+            runner.shutdownNow();
+        }
+    }
+
+    @Override
+    public StatementRunDTO start(YearMonth month, boolean fresh) {
+        Run run;
+        synchronized (startLock) {
+            if (current != null && current.status == Status.RUNNING) {
+                throw new IllegalStateException("Statements for " + current.month + " are still being generated");
+            }
+            run = new Run(month, baseDirectory.resolve(month.toString()));
+            current = run;
+        }
+        runner.execute(() -> execute(run, fresh));
+        return run.snapshot();
+    }
+
+    @Override
+    public StatementRunDTO getProgress() {
+        Run run = current;
+        return run != null ? run.snapshot() : null;
+    }
+
+    // Last month's statements, once it is over
+    @Scheduled(cron = "${dentalsurgery.statements.cron:0 0 4 1 * *}")
+    public void startLastMonth() {
+        try {
+            start(YearMonth.now().minusMonths(1), false);
+        } catch (IllegalStateException e) {
+            log.warn("Scheduled statement run skipped: {}", e.getMessage());
+        }
+    }
+
+    private void execute(Run run, boolean fresh) {
+        try {
+            Files.createDirectories(run.directory);
+            if (fresh) {
+                clear(run.directory);
+            }
+            List<Partition> plan = plan(manifestPartitionSize(run));
+            run.partitions = plan.size();
+
+            List<CompletableFuture<Void>> writes = new ArrayList<>();
+            for (Partition partition : plan) {
+                if (Files.exists(run.directory.resolve(partition.name() + CHECKPOINT_SUFFIX))) {
+                    run.resumed.incrementAndGet();
+                    run.done.incrementAndGet();
+                    continue;
+                }
+                writes.add(CompletableFuture.runAsync(() -> write(run, partition), runner)
+                    .exceptionally(failure -> {
+                        log.error("Statement partition {} of {} failed", partition.index(), run.month, failure);
+                        run.error.compareAndSet(null, "Partition " + partition.index() + ": " + rootMessage(failure));
+                        return null;
+                    }));
+            }
+            CompletableFuture.allOf(writes.toArray(CompletableFuture[]::new)).join();
+        } catch (IOException | RuntimeException e) {
+            log.error("Statement run for {} failed", run.month, e);
+            run.error.compareAndSet(null, rootMessage(e));
+        }
+        run.finishedNanos = System.nanoTime();
+        run.finishedAt = LocalDateTime.now();
+        run.status = run.error.get() == null ? Status.COMPLETED : Status.FAILED;
+        StatementRunDTO result = run.snapshot();
+        log.info("Statements for {} {}: {} of {} partitions ({} resumed), {} statements, {} bytes, in {} ms ({}/s)",
+            result.month(), result.status(), result.partitionsDone(), result.partitions(), result.partitionsResumed(),
+            result.statements(), result.bytesWritten(), result.elapsedMillis(), result.statementsPerSecond());
+    }
+
+    private List<Partition> plan(int size) {
+        Integer maxId = jdbcTemplate.queryForObject("SELECT MAX(patient_id) FROM patients", Integer.class);
+        List<Partition> plan = new ArrayList<>();
+        if (maxId == null) {
+            return plan;
+        }
+        for (int index = 0; (long) index * size <= maxId; index++) {
+            long from = (long) index * size;
+            plan.add(new Partition(index, (int) from, (int) Math.min(Integer.MAX_VALUE, from + size)));
+        }
+        return plan;
+    }
+
+    private void write(Run run, Partition partition) {
+        slots.acquireUninterruptibly();
+        try {
+            PartitionRows rows = readOnlyTransaction.execute(status -> read(run.month, partition));
+            Path file = run.directory.resolve(partition.name() + FILE_SUFFIX);
+            Path temp = run.directory.resolve(partition.name() + FILE_SUFFIX + TEMP_SUFFIX);
+            long[] counts = render(run.month, rows, temp);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            long size = Files.size(file);
+
+            Properties checkpoint = new Properties();
+            checkpoint.setProperty("file", file.getFileName().toString());
+            checkpoint.setProperty("fromPatientId", String.valueOf(partition.fromId()));
+            checkpoint.setProperty("toPatientId", String.valueOf(partition.toId()));
+            checkpoint.setProperty("statements", String.valueOf(counts[0]));
+            checkpoint.setProperty("bills", String.valueOf(counts[1]));
+            checkpoint.setProperty("appointments", String.valueOf(counts[2]));
+            checkpoint.setProperty("bytes", String.valueOf(size));
+            store(checkpoint, run.directory.resolve(partition.name() + CHECKPOINT_SUFFIX));
+
+            run.statements.add(counts[0]);
+            run.bills.add(counts[1]);
+            run.appointments.add(counts[2]);
+            run.bytes.add(size);
+            run.done.incrementAndGet();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            slots.release();
+        }
+    }
+
+    private PartitionRows read(YearMonth month, Partition partition) {
+        List<BillRow> bills = new ArrayList<>();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement select = rangeQuery(connection.prepareStatement(BILLS), partition);
+            select.setByte(3, PaymentStatus.PENDING.getCode());
+            select.setByte(4, PaymentStatus.OVERDUE.getCode());
+            return select;
+        }, (RowCallbackHandler) row -> bills.add(new BillRow(row.getInt(1), new OutstandingBill(row.getInt(2),
+            row.getBigDecimal(3), PaymentStatus.fromCode(row.getByte(4)).name(),
+            row.getObject(5, LocalDateTime.class), row.getString(6)))));
+
+        List<AppointmentRow> appointments = new ArrayList<>();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement select = rangeQuery(connection.prepareStatement(APPOINTMENTS), partition);
+            select.setTimestamp(3, Timestamp.valueOf(month.atDay(1).atStartOfDay()));
+            select.setTimestamp(4, Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay()));
+            return select;
+        }, (RowCallbackHandler) row -> appointments.add(new AppointmentRow(row.getInt(1), new MonthAppointment(row.getInt(2),
+            row.getObject(3, LocalDateTime.class), row.getString(4), AppointmentStatus.fromCode(row.getByte(5)).name(),
+            row.getString(6) + " " + row.getString(7), row.getString(8)))));
+
+        // Without activity there is nothing to join the patients to
+        List<PatientRow> patients = new ArrayList<>();
+        if (!bills.isEmpty() || !appointments.isEmpty()) {
+            jdbcTemplate.query(connection -> rangeQuery(connection.prepareStatement(PATIENTS), partition),
+                (RowCallbackHandler) row -> patients.add(new PatientRow(row.getInt(1), row.getString(2), row.getString(3),
+                    row.getString(4), address(row))));
+        }
+        return new PartitionRows(patients, bills, appointments);
+    }
+
+    // Merge-joins the sorted lists and writes the statements; returns statements, bills and appointments written
+    private long[] render(YearMonth month, PartitionRows rows, Path file) throws IOException {
+        long[] counts = new long[3];
+        int bill = 0;
+        int appointment = 0;
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file), 64 * 1024);
+             JsonGenerator generator = jsonWriter.createGenerator(out)) {
+            for (PatientRow patient : rows.patients()) {
+                List<OutstandingBill> bills = new ArrayList<>();
+                BigDecimal total = BigDecimal.ZERO;
+                while (bill < rows.bills().size() && rows.bills().get(bill).patientId() <= patient.patientId()) {
+                    BillRow row = rows.bills().get(bill++);
+                    if (row.patientId() == patient.patientId()) {
+                        bills.add(row.bill());
+                        total = total.add(row.bill().totalCost());
+                    }
+                }
+                List<MonthAppointment> appointments = new ArrayList<>();
+                while (appointment < rows.appointments().size()
+                        && rows.appointments().get(appointment).patientId() <= patient.patientId()) {
+                    AppointmentRow row = rows.appointments().get(appointment++);
+                    if (row.patientId() == patient.patientId()) {
+                        appointments.add(row.appointment());
+                    }
+                }
+                if (bills.isEmpty() && appointments.isEmpty()) {
+                    continue;
+                }
+                jsonWriter.writeValue(generator, new PatientStatementDTO(month.toString(), patient.patientId(),
+                    patient.firstName(), patient.lastName(), patient.email(), patient.billingAddress(), bills, total,
+                    appointments));
+                generator.writeRaw('\n');
+                counts[0]++;
+                counts[1] += bills.size();
+                counts[2] += appointments.size();
+            }
+        }
+        return counts;
+    }
+
+    // The month's partition size: the one a previous run recorded, else the configured one
+    private int manifestPartitionSize(Run run) throws IOException {
+        Path manifest = run.directory.resolve(MANIFEST);
+        if (Files.exists(manifest)) {
+            Properties recorded = new Properties();
+            try (Reader reader = Files.newBufferedReader(manifest)) {
+                recorded.load(reader);
+            }
+            return Integer.parseInt(recorded.getProperty("partitionSize"));
+        }
+        Properties created = new Properties();
+        created.setProperty("month", run.month.toString());
+        created.setProperty("partitionSize", String.valueOf(partitionSize));
+        store(created, manifest);
+        return partitionSize;
+    }
+
+    // Removes what earlier runs of the month wrote
+    private static void clear(Path directory) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.equals(MANIFEST) || name.endsWith(FILE_SUFFIX) || name.endsWith(CHECKPOINT_SUFFIX)
+                        || name.endsWith(TEMP_SUFFIX)) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    private static void store(Properties properties, Path target) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + TEMP_SUFFIX);
+        try (Writer writer = Files.newBufferedWriter(temp)) {
+            properties.store(writer, null);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static PreparedStatement rangeQuery(PreparedStatement select, Partition partition) throws SQLException {
+        select.setFetchSize(FETCH_SIZE);
+        select.setInt(1, partition.fromId());
+        select.setInt(2, partition.toId());
+        return select;
+    }
+
+    private static String address(ResultSet row) throws SQLException {
+        if (row.getString(5) == null) {
+            return null;
+        }
+        return row.getString(5) + ", " + row.getString(6) + ", " + row.getString(7) + " " + row.getString(8);
+    }
+
+    private static String rootMessage(Throwable failure) {
+        Throwable cause = failure;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+    }
+}
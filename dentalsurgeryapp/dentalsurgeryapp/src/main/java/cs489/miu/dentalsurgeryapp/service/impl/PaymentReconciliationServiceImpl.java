@@ -0,0 +1,462 @@
+package cs489.miu.dentalsurgeryapp.service.impl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import cs489.miu.dentalsurgeryapp.dto.AuditEventDTO;
+import cs489.miu.dentalsurgeryapp.dto.PaymentReconciliationResultDTO;
+import cs489.miu.dentalsurgeryapp.dto.PaymentReconciliationResultDTO.Outcome;
+import cs489.miu.dentalsurgeryapp.dto.PaymentReconciliationResultDTO.RowResult;
+import cs489.miu.dentalsurgeryapp.model.PaymentStatus;
+import cs489.miu.dentalsurgeryapp.service.AuditJournalService;
+import cs489.miu.dentalsurgeryapp.service.BillRollupService;
+import cs489.miu.dentalsurgeryapp.service.DashboardStatsService;
+import cs489.miu.dentalsurgeryapp.service.PatientBalanceService;
+import cs489.miu.dentalsurgeryapp.service.PatientBalanceService.Change;
+import cs489.miu.dentalsurgeryapp.service.PaymentReconciliationService;
+
+/**
+ * Every unpaid bill is loaded once into in-memory indexes, by id and by (patient, amount),
+ * so matching a payment row costs a hash lookup. The file is read line by line; matched
+ * bills are settled a chunk at a time, each chunk in one transaction: the bills are locked
+ * in id order and checked to still be unpaid for the same amount, then set PAID with one
+ * UPDATE. Being plain SQL, the update bypasses the entity listeners, so the patient
+ * balances, billing rollups, audit journal and dashboard counters are moved here instead.
+ *
+ * Fields may be quoted; a quoted field must not span lines.
+ */
+@Service
+public class PaymentReconciliationServiceImpl implements PaymentReconciliationService {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentReconciliationServiceImpl.class);
+
+    // Bills settled per transaction, which also keeps IN lists within what every database accepts
+    private static final int CHUNK_SIZE = 1000;
+    private static final int FETCH_SIZE = 1000;
+
+    private static final String UNPAID = "SELECT bill_id, patient_id, total_cost FROM bills WHERE payment_status IN (?, ?)";
+
+    // An unpaid bill as loaded, or as locked when settling
+    private record UnpaidBill(int billId, int patientId, long cents, PaymentStatus status) {
+    }
+
+    private record PatientAmount(int patientId, long cents) {
+    }
+
+    // A parsed payment row
+    private record Payment(int line, Integer billId, Integer patientId, BigDecimal amount, String reference) {
+    }
+
+    // A payment matched to a bill, waiting for its chunk to be settled
+    private record Claim(Payment payment, UnpaidBill bill) {
+    }
+
+    // Positions of the known columns in the header, -1 when absent
+    private record Columns(int billId, int patientId, int amount, int reference) {
+
+        private static Columns of(List<String> header) {
+            int billId = -1;
+            int patientId = -1;
+            int amount = -1;
+            int reference = -1;
+            for (int i = 0; i < header.size(); i++) {
+                switch (header.get(i).toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]", "")) {
+                    case "billid", "bill" -> billId = i;
+                    case "patientid", "patient" -> patientId = i;
+                    case "amount", "amountpaid", "paidamount" -> amount = i;
+                    case "reference", "ref", "paymentreference" -> reference = i;
+                    default -> { } // Other columns are ignored
+                }
+            }
+            if (amount < 0 || (billId < 0 && patientId < 0)) {
+                throw new IllegalArgumentException(
+                    "The header must name an amount column and a billId or patientId column: " + String.join(",", header));
+            }
+            return new Columns(billId, patientId, amount, reference);
+        }
+
+        private static String get(List<String> fields, int column) {
+            if (column < 0 || column >= fields.size() || fields.get(column).isEmpty()) {
+                return null;
+            }
+            return fields.get(column);
+        }
+    }
+
+    // Unpaid bills by id, and their ids by patient and amount, oldest first
+    private static final class UnpaidIndex {
+        private final Map<Integer, UnpaidBill> byId = new HashMap<>();
+        private final Map<PatientAmount, ArrayDeque<Integer>> byPatientAmount = new HashMap<>();
+        // Bills already matched by this file, with the line that matched them
+        private final Map<Integer, Integer> claimedBy = new HashMap<>();
+
+        private UnpaidBill claim(int billId, int line) {
+            UnpaidBill bill = byId.remove(billId);
+            if (bill != null) {
+                claimedBy.put(billId, line);
+            }
+            return bill;
+        }
+
+        private UnpaidBill claimOldest(PatientAmount key, int line) {
+            ArrayDeque<Integer> ids = byPatientAmount.get(key);
+            while (ids != null && !ids.isEmpty()) {
+                UnpaidBill bill = claim(ids.pollFirst(), line);
+                if (bill != null) {
+                    return bill;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final class Report {
+        private final int limit;
+        private final List<RowResult> rows = new ArrayList<>();
+        private int received;
+        private int paid;
+        private int unmatched;
+        private int rejected;
+        private long paidCents;
+        private boolean truncated;
+
+        private Report(int limit) {
+            this.limit = limit;
+        }
+
+        private void add(Payment payment, Outcome outcome, String message) {
+            if (outcome == Outcome.UNMATCHED) {
+                unmatched++;
+            } else {
+                rejected++;
+            }
+            if (rows.size() < limit) {
+                rows.add(new RowResult(payment.line(), outcome, payment.billId(), payment.patientId(), payment.amount(),
+                    payment.reference(), message));
+            } else {
+                truncated = true;
+            }
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PatientBalanceService patientBalanceService;
+    private final BillRollupService billRollupService;
+    private final AuditJournalService auditJournalService;
+    private final DashboardStatsService dashboardStatsService;
+    private final int reportLimit;
+
+    public PaymentReconciliationServiceImpl(JdbcTemplate jdbcTemplate,
+                                            TransactionTemplate transactionTemplate,
+                                            PatientBalanceService patientBalanceService,
+                                            BillRollupService billRollupService,
+                                            AuditJournalService auditJournalService,
+                                            DashboardStatsService dashboardStatsService,
+                                            @Value("${dentalsurgery.reconciliation.report-limit:1000}") int reportLimit) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.patientBalanceService = patientBalanceService;
+        this.billRollupService = billRollupService;
+        this.auditJournalService = auditJournalService;
+        this.dashboardStatsService = dashboardStatsService;
+        this.reportLimit = Math.max(0, reportLimit);
+    }
+
+    @Override
+    public PaymentReconciliationResultDTO reconcile(InputStream csv) throws IOException {
+        long started = System.nanoTime();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8));
+        String header = reader.readLine();
+        if (header == null) {
+            throw new IllegalArgumentException("The payment file is empty");
+        }
+        Columns columns = Columns.of(fields(header.startsWith("\uFEFF") ? header.substring(1) : header));
+
+        UnpaidIndex index = loadUnpaid();
+        Report report = new Report(reportLimit);
+        List<Claim> chunk = new ArrayList<>(CHUNK_SIZE);
+        int line = 1;
+        String text;
+        while ((text = reader.readLine()) != null) {
+            line++;
+            if (text.isBlank()) {
+                continue;
+            }
+            report.received++;
+            Claim claim = match(line, fields(text), columns, index, report);
+            if (claim != null) {
+                chunk.add(claim);
+                if (chunk.size() == CHUNK_SIZE) {
+                    settle(chunk, report);
+                    chunk.clear();
+                }
+            }
+        }
+        settle(chunk, report);
+
+        PaymentReconciliationResultDTO result = new PaymentReconciliationResultDTO(report.received, report.paid,
+            report.unmatched, report.rejected, BigDecimal.valueOf(report.paidCents, 2),
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), report.truncated, report.rows);
+        log.info("Payment file reconciled: {} rows, {} bills paid ({}), {} unmatched, {} rejected, in {} ms",
+            result.received(), result.paid(), result.amountPaid(), result.unmatched(), result.rejected(), result.elapsedMillis());
+        return result;
+    }
+
+    private UnpaidIndex loadUnpaid() {
+        UnpaidIndex index = new UnpaidIndex();
+        Map<PatientAmount, List<Integer>> byPatientAmount = new HashMap<>();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement select = connection.prepareStatement(UNPAID);
+            select.setFetchSize(FETCH_SIZE);
+            select.setByte(1, PaymentStatus.PENDING.getCode());
+            select.setByte(2, PaymentStatus.OVERDUE.getCode());
+            return select;
+        }, row -> {
+            UnpaidBill bill = new UnpaidBill(row.getInt(1), row.getInt(2), PatientBalanceService.toCents(row.getBigDecimal(3)), null);
+            index.byId.put(bill.billId(), bill);
+            byPatientAmount.computeIfAbsent(new PatientAmount(bill.patientId(), bill.cents()), key -> new ArrayList<>(1))
+                .add(bill.billId());
+        });
+        byPatientAmount.forEach((key, ids) -> {
+            Collections.sort(ids);
+            index.byPatientAmount.put(key, new ArrayDeque<>(ids));
+        });
+        return index;
+    }
+
+    private static Claim match(int line, List<String> fields, Columns columns, UnpaidIndex index, Report report) {
+        String reference = Columns.get(fields, columns.reference());
+        String billText = Columns.get(fields, columns.billId());
+        String patientText = Columns.get(fields, columns.patientId());
+        String amountText = Columns.get(fields, columns.amount());
+        Payment unread = new Payment(line, null, null, null, reference);
+
+        Integer billId;
+        Integer patientId;
+        try {
+            billId = billText != null ? Integer.valueOf(billText) : null;
+            patientId = patientText != null ? Integer.valueOf(patientText) : null;
+        } catch (NumberFormatException e) {
+            report.add(unread, Outcome.REJECTED, "billId and patientId must be whole numbers");
+            return null;
+        }
+        if (billId == null && patientId == null) {
+            report.add(unread, Outcome.REJECTED, "billId or patientId is required");
+            return null;
+        }
+        if (amountText == null) {
+            report.add(new Payment(line, billId, patientId, null, reference), Outcome.REJECTED, "amount is required");
+            return null;
+        }
+        BigDecimal amount;
+        try {
+            amount = new BigDecimal(amountText.replace(",", ""));
+        } catch (NumberFormatException e) {
+            report.add(new Payment(line, billId, patientId, null, reference), Outcome.REJECTED,
+                "amount is not a number: " + amountText);
+            return null;
+        }
+        Payment payment = new Payment(line, billId, patientId, amount, reference);
+        if (amount.signum() <= 0 || amount.stripTrailingZeros().scale() > 2) {
+            report.add(payment, Outcome.REJECTED, "amount must be positive, in cents at most");
+            return null;
+        }
+        long cents = PatientBalanceService.toCents(amount);
+
+        if (billId == null) {
+            UnpaidBill bill = index.claimOldest(new PatientAmount(patientId, cents), line);
+            if (bill == null) {
+                report.add(payment, Outcome.UNMATCHED, "Patient " + patientId + " has no unpaid bill of " + amount.toPlainString());
+                return null;
+            }
+            return new Claim(payment, bill);
+        }
+        UnpaidBill bill = index.byId.get(billId);
+        if (bill == null) {
+            Integer claimedBy = index.claimedBy.get(billId);
+            report.add(payment, Outcome.UNMATCHED, claimedBy != null
+                ? "Bill " + billId + " is already paid by line " + claimedBy
+                : "No unpaid bill with ID " + billId);
+            return null;
+        }
+        if (patientId != null && bill.patientId() != patientId) {
+            report.add(payment, Outcome.UNMATCHED, "Bill " + billId + " belongs to another patient");
+            return null;
+        }
+        if (bill.cents() != cents) {
+            report.add(payment, Outcome.UNMATCHED, "Amount " + amount.toPlainString() + " does not match bill "
+                + billId + " (" + BigDecimal.valueOf(bill.cents(), 2).toPlainString() + ")");
+            return null;
+        }
+        return new Claim(payment, index.claim(billId, line));
+    }
+
+    private void settle(List<Claim> claims, Report report) {
+        if (claims.isEmpty()) {
+            return;
+        }
+        List<Claim> settled = new ArrayList<>(claims.size());
+        List<Claim> changed = new ArrayList<>();
+        List<AuditEventDTO> events = new ArrayList<>(claims.size());
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                Map<Integer, UnpaidBill> locked = lock(connection, claims);
+                for (Claim claim : claims) {
+                    UnpaidBill current = locked.get(claim.bill().billId());
+                    if (current != null && current.patientId() == claim.bill().patientId()
+                            && current.cents() == claim.bill().cents()) {
+                        settled.add(new Claim(claim.payment(), current));
+                    } else {
+                        changed.add(claim);
+                    }
+                }
+                if (settled.isEmpty()) {
+                    return null;
+                }
+
+                List<Integer> billIds = new ArrayList<>(settled.size());
+                Map<Integer, Change> balances = new HashMap<>();
+                String actor = AuditJournalService.currentActor();
+                LocalDateTime now = LocalDateTime.now();
+                for (Claim claim : settled) {
+                    UnpaidBill bill = claim.bill();
+                    billIds.add(bill.billId());
+                    balances.merge(bill.patientId(), new Change(-bill.cents(), -1), Change::plus);
+                    events.add(new AuditEventDTO(AuditJournalService.BILL, bill.billId(), "UPDATE", "paymentStatus",
+                        bill.status().name(), PaymentStatus.PAID.name(), actor, now));
+                }
+                markPaid(connection, billIds);
+                patientBalanceService.apply(connection, balances);
+                billRollupService.sync(connection, billIds, List.of());
+                if (auditJournalService.durability() == AuditJournalService.Durability.FLUSH_ON_COMMIT) {
+                    auditJournalService.write(connection, events);
+                }
+                dashboardStatsService.recordBillsPaid(billIds);
+                return null;
+            }));
+        } catch (DataAccessException e) {
+            String message = "Update failed with its chunk: " + e.getMostSpecificCause().getMessage();
+            for (Claim claim : claims) {
+                report.add(claim.payment(), Outcome.REJECTED, message);
+            }
+            return;
+        } finally {
+            billRollupService.syncCompleted();
+        }
+
+        Set<Integer> patientIds = new HashSet<>();
+        for (Claim claim : settled) {
+            patientIds.add(claim.bill().patientId());
+            report.paid++;
+            report.paidCents += claim.bill().cents();
+        }
+        patientBalanceService.refresh(patientIds);
+        if (!events.isEmpty() && auditJournalService.durability() == AuditJournalService.Durability.BEST_EFFORT) {
+            auditJournalService.append(events);
+        }
+        for (Claim claim : changed) {
+            report.add(claim.payment(), Outcome.UNMATCHED, "Bill " + claim.bill().billId() + " was paid or changed meanwhile");
+        }
+    }
+
+    // Locks the claimed bills in id order and returns those still unpaid
+    private static Map<Integer, UnpaidBill> lock(Connection connection, List<Claim> claims) throws SQLException {
+        Map<Integer, UnpaidBill> locked = new TreeMap<>();
+        List<Integer> billIds = new ArrayList<>(claims.size());
+        for (Claim claim : claims) {
+            billIds.add(claim.bill().billId());
+        }
+        try (PreparedStatement select = connection.prepareStatement("SELECT bill_id, patient_id, total_cost, payment_status"
+                + " FROM bills WHERE bill_id IN (" + placeholders(billIds.size()) + ") ORDER BY bill_id FOR UPDATE")) {
+            bind(select, billIds, 1);
+            try (ResultSet row = select.executeQuery()) {
+                while (row.next()) {
+                    PaymentStatus status = PaymentStatus.fromCode(row.getByte(4));
+                    if (status == PaymentStatus.PENDING || status == PaymentStatus.OVERDUE) {
+                        locked.put(row.getInt(1), new UnpaidBill(row.getInt(1), row.getInt(2),
+                            PatientBalanceService.toCents(row.getBigDecimal(3)), status));
+                    }
+                }
+            }
+        }
+        return locked;
+    }
+
+    private static void markPaid(Connection connection, List<Integer> billIds) throws SQLException {
+        try (PreparedStatement update = connection.prepareStatement(
+                "UPDATE bills SET payment_status = ? WHERE bill_id IN (" + placeholders(billIds.size()) + ")")) {
+            update.setByte(1, PaymentStatus.PAID.getCode());
+            bind(update, billIds, 2);
+            update.executeUpdate();
+        }
+    }
+
+    // Splits one CSV line; a quoted field may hold commas, and "" for a quote
+    private static List<String> fields(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private static void bind(PreparedStatement statement, List<Integer> ids, int first) throws SQLException {
+        for (int i = 0; i < ids.size(); i++) {
+            statement.setInt(first + i, ids.get(i));
+        }
+    }
+}
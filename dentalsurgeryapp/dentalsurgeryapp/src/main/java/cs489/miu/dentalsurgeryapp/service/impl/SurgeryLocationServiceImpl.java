@@ -13,6 +13,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
@@ -177,4 +178,9 @@ public class SurgeryLocationServiceImpl implements SurgeryLocationService {
         // Surgery location doesn't exist, create new one
         return surgeryLocationRepository.save(surgeryLocation);
     }
+
+    @Override
+    public Stream<SurgeryLocation> streamAllSurgeryLocations() {
+        return surgeryLocationRepository.streamAllForExport();
+    }
 }
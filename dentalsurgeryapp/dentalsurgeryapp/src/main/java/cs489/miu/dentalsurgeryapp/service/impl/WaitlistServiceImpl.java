@@ -0,0 +1,279 @@
+package cs489.miu.dentalsurgeryapp.service.impl;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import cs489.miu.dentalsurgeryapp.exception.AppointmentLimitExceededException;
+import cs489.miu.dentalsurgeryapp.exception.OutstandingBillException;
+import cs489.miu.dentalsurgeryapp.exception.PatientNotFoundException;
+import cs489.miu.dentalsurgeryapp.model.Appointment;
+import cs489.miu.dentalsurgeryapp.model.AppointmentStatus;
+import cs489.miu.dentalsurgeryapp.model.WaitlistEntry;
+import cs489.miu.dentalsurgeryapp.model.WaitlistStatus;
+import cs489.miu.dentalsurgeryapp.repository.AppointmentRepository;
+import cs489.miu.dentalsurgeryapp.repository.WaitlistEntryRepository;
+import cs489.miu.dentalsurgeryapp.service.AppointmentService;
+import cs489.miu.dentalsurgeryapp.service.DentistService;
+import cs489.miu.dentalsurgeryapp.service.PatientService;
+import cs489.miu.dentalsurgeryapp.service.SurgeryLocationService;
+import cs489.miu.dentalsurgeryapp.service.WaitlistService;
+import cs489.miu.dentalsurgeryapp.util.AfterCommit;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Waitlist with one in-memory queue per dentist, ordered by when the patient joined. A
+ * queue is loaded from idx_waitlist_dentist_status the first time its dentist frees a slot
+ * and then kept current by joins and withdrawals; the hourly expiry marks every queue for a
+ * reload, which also picks up entries joined through another instance.
+ *
+ * A backfill holds its dentist's queue lock from the "is the slot still free" check until
+ * the waiting patient is booked, so two cancellations of the same dentist are offered one
+ * after the other and never to the same slot or the same patient twice. Each entry is
+ * claimed with a conditional WAITING to OFFERED update before it is booked, which also keeps
+ * a withdrawal racing with the offer from being overridden.
+ */
+@Service
+public class WaitlistServiceImpl implements WaitlistService {
+
+    private static final Logger log = LoggerFactory.getLogger(WaitlistServiceImpl.class);
+
+    private static final Comparator<WaitlistEntry> FIRST_COME =
+            Comparator.comparing(WaitlistEntry::getCreatedAt).thenComparing(WaitlistEntry::getWaitlistEntryId);
+
+    // Waiting entries of one dentist; the lock also serializes backfills of that dentist
+    private static final class DentistQueue {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final TreeSet<WaitlistEntry> entries = new TreeSet<>(FIRST_COME);
+        private boolean loaded;
+    }
+
+    private final WaitlistEntryRepository waitlistEntryRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final AppointmentService appointmentService;
+    private final PatientService patientService;
+    private final DentistService dentistService;
+    private final SurgeryLocationService surgeryLocationService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<Integer, DentistQueue> queues = new ConcurrentHashMap<>();
+    private final ExecutorService backfills = Executors.newVirtualThreadPerTaskExecutor();
+
+    public WaitlistServiceImpl(WaitlistEntryRepository waitlistEntryRepository,
+                               AppointmentRepository appointmentRepository,
+                               @Lazy AppointmentService appointmentService,
+                               PatientService patientService,
+                               DentistService dentistService,
+                               SurgeryLocationService surgeryLocationService,
+                               TransactionTemplate transactionTemplate) {
+        this.waitlistEntryRepository = waitlistEntryRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.appointmentService = appointmentService;
+        this.patientService = patientService;
+        this.dentistService = dentistService;
+        this.surgeryLocationService = surgeryLocationService;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @PreDestroy
+    public void stop() {
+        backfills.shutdown();
+    }
+
+    @Override
+    public WaitlistEntry join(WaitlistEntry entry) {
+        LocalDateTime now = LocalDateTime.now();
+        if (entry.getEarliest() == null || entry.getLatest() == null || entry.getLatest().isBefore(entry.getEarliest())) {
+            throw new IllegalArgumentException("'latest' must not be before 'earliest'.");
+        }
+        if (!entry.getLatest().isAfter(now)) {
+            throw new IllegalArgumentException("The waiting window is already over.");
+        }
+        if (waitlistEntryRepository.existsByPatientIdAndDentistIdAndStatus(entry.getPatientId(), entry.getDentistId(), WaitlistStatus.WAITING)) {
+            throw new IllegalArgumentException("Patient " + entry.getPatientId() + " is already waiting for dentist " + entry.getDentistId() + ".");
+        }
+        entry.setWaitlistEntryId(null);
+        entry.setStatus(WaitlistStatus.WAITING);
+        entry.setCreatedAt(now);
+        entry.setOfferedAppointmentId(null);
+        WaitlistEntry saved = waitlistEntryRepository.save(entry);
+        AfterCommit.run(() -> withQueue(saved.getDentistId(), queue -> {
+            if (queue.loaded) {
+                queue.entries.add(saved);
+            }
+        }));
+        return saved;
+    }
+
+    @Override
+    public boolean withdraw(Integer waitlistEntryId) {
+        Optional<WaitlistEntry> entry = waitlistEntryRepository.findById(waitlistEntryId);
+        if (entry.isEmpty()) {
+            return false;
+        }
+        Integer updated = transactionTemplate.execute(status ->
+                waitlistEntryRepository.transition(waitlistEntryId, WaitlistStatus.WAITING, WaitlistStatus.WITHDRAWN));
+        if (updated == null || updated == 0) {
+            return false;
+        }
+        withQueue(entry.get().getDentistId(), queue -> queue.entries.removeIf(e -> e.getWaitlistEntryId().equals(waitlistEntryId)));
+        return true;
+    }
+
+    @Override
+    public Optional<WaitlistEntry> findById(Integer waitlistEntryId) {
+        return waitlistEntryRepository.findById(waitlistEntryId);
+    }
+
+    @Override
+    public List<WaitlistEntry> findForPatient(Integer patientId) {
+        return waitlistEntryRepository.findByPatientIdOrderByCreatedAtDesc(patientId);
+    }
+
+    @Override
+    public void recordSaved(Appointment appointment) {
+        if (appointment == null || appointment.getStatus() != AppointmentStatus.CANCELLED
+                || appointment.getDentist() == null || appointment.getSurgeryLocation() == null
+                || appointment.getAppointmentDateTime() == null
+                || !appointment.getAppointmentDateTime().isAfter(LocalDateTime.now())) {
+            return;
+        }
+        Integer dentistId = appointment.getDentist().getDentistId();
+        Integer locationId = appointment.getSurgeryLocation().getSurgeryLocationId();
+        LocalDateTime start = appointment.getAppointmentDateTime();
+        Integer patientId = appointment.getPatient() != null ? appointment.getPatient().getPatientId() : null;
+        // Off the cancelling request's thread: the patient who cancelled should not wait for the rebooking
+        AfterCommit.run(() -> backfills.execute(() -> {
+            try {
+                backfill(dentistId, locationId, start, patientId);
+            } catch (RuntimeException e) {
+                log.warn("Waitlist backfill failed for dentist {} at {}", dentistId, start, e);
+            }
+        }));
+    }
+
+    @Override
+    public Appointment backfill(Integer dentistId, Integer surgeryLocationId, LocalDateTime start, Integer excludePatientId) {
+        LocalDateTime now = LocalDateTime.now();
+        if (!start.isAfter(now)) {
+            return null;
+        }
+        DentistQueue queue = queues.computeIfAbsent(dentistId, id -> new DentistQueue());
+        queue.lock.lock();
+        try {
+            if (!queue.loaded) {
+                queue.entries.clear();
+                queue.entries.addAll(waitlistEntryRepository.findOpenByDentist(dentistId, WaitlistStatus.WAITING, now));
+                queue.loaded = true;
+            }
+            if (queue.entries.isEmpty() || appointmentRepository.existsActiveAt(dentistId, start)) {
+                return null;
+            }
+            for (Iterator<WaitlistEntry> it = queue.entries.iterator(); it.hasNext(); ) {
+                WaitlistEntry entry = it.next();
+                if (!entry.getLatest().isAfter(now)) {
+                    it.remove(); // Marked expired by the next expiry run
+                    continue;
+                }
+                if (entry.getPatientId().equals(excludePatientId) || !entry.fits(surgeryLocationId, start)) {
+                    continue;
+                }
+                if (!moveEntry(entry, WaitlistStatus.WAITING, WaitlistStatus.OFFERED)) {
+                    it.remove(); // Withdrawn or offered elsewhere since the queue was loaded
+                    continue;
+                }
+                try {
+                    Appointment booked = book(entry, surgeryLocationId, start);
+                    transactionTemplate.executeWithoutResult(status ->
+                            waitlistEntryRepository.setOfferedAppointment(entry.getWaitlistEntryId(), booked.getAppointmentId()));
+                    it.remove();
+                    log.info("Waitlist entry {} booked into appointment {} (dentist {}, {})",
+                            entry.getWaitlistEntryId(), booked.getAppointmentId(), dentistId, start);
+                    return booked;
+                } catch (OutstandingBillException | PatientNotFoundException e) {
+                    // This patient cannot be booked right now; they keep their place for the next slot
+                    moveEntry(entry, WaitlistStatus.OFFERED, WaitlistStatus.WAITING);
+                } catch (AppointmentLimitExceededException e) {
+                    // The week filled up again, nobody else can take the slot either
+                    moveEntry(entry, WaitlistStatus.OFFERED, WaitlistStatus.WAITING);
+                    return null;
+                } catch (RuntimeException e) {
+                    moveEntry(entry, WaitlistStatus.OFFERED, WaitlistStatus.WAITING);
+                    log.warn("Could not book waitlist entry {} into dentist {} at {}", entry.getWaitlistEntryId(), dentistId, start, e);
+                }
+            }
+            return null;
+        } finally {
+            queue.lock.unlock();
+        }
+    }
+
+    @Override
+    @Scheduled(cron = "${dentalsurgery.waitlist.expire-cron:0 0 * * * *}")
+    public int expireClosed() {
+        Integer expired = transactionTemplate.execute(status ->
+                waitlistEntryRepository.expireClosed(WaitlistStatus.WAITING, WaitlistStatus.EXPIRED, LocalDateTime.now()));
+        for (DentistQueue queue : queues.values()) {
+            queue.lock.lock();
+            try {
+                queue.loaded = false;
+                queue.entries.clear();
+            } finally {
+                queue.lock.unlock();
+            }
+        }
+        if (expired != null && expired > 0) {
+            log.debug("Expired {} waitlist entries", expired);
+        }
+        return expired != null ? expired : 0;
+    }
+
+    private Appointment book(WaitlistEntry entry, Integer surgeryLocationId, LocalDateTime start)
+            throws AppointmentLimitExceededException, OutstandingBillException, PatientNotFoundException {
+        Appointment appointment = new Appointment();
+        appointment.setAppointmentType(entry.getAppointmentType());
+        appointment.setStatus(AppointmentStatus.PENDING);
+        appointment.setAppointmentDateTime(start);
+        appointment.setPatient(patientService.getPatientById(entry.getPatientId()));
+        appointment.setDentist(dentistService.findDentistById(entry.getDentistId())
+                .orElseThrow(() -> new IllegalStateException("Dentist " + entry.getDentistId() + " no longer exists")));
+        appointment.setSurgeryLocation(surgeryLocationService.findSurgeryLocationById(surgeryLocationId)
+                .orElseThrow(() -> new IllegalStateException("Surgery location " + surgeryLocationId + " no longer exists")));
+        return appointmentService.addNewAppointment(appointment);
+    }
+
+    private boolean moveEntry(WaitlistEntry entry, WaitlistStatus from, WaitlistStatus to) {
+        Integer updated = transactionTemplate.execute(status ->
+                waitlistEntryRepository.transition(entry.getWaitlistEntryId(), from, to));
+        return updated != null && updated > 0;
+    }
+
+    private void withQueue(Integer dentistId, Consumer<DentistQueue> action) {
+        DentistQueue queue = queues.get(dentistId);
+        if (queue == null) {
+            return; // Not loaded yet; the first backfill reads the table
+        }
+        queue.lock.lock();
+        try {
+            action.accept(queue);
+        } finally {
+            queue.lock.unlock();
+        }
+    }
+}
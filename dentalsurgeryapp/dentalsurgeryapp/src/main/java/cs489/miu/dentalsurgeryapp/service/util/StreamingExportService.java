@@ -0,0 +1,206 @@
+package cs489.miu.dentalsurgeryapp.service.util;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Streams an entity table to the HTTP response as NDJSON or CSV without building a list.
+ * Rows come from a repository Stream query (fetch-size hinted) inside one read-only
+ * transaction; every {@code clearEvery} rows the output is flushed and the persistence
+ * context cleared, so memory use does not grow with the number of rows. The export's async
+ * request gets its own timeout; other async requests keep the default.
+ */
+@Service
+public class StreamingExportService {
+
+    public enum Format {
+        NDJSON(MediaType.APPLICATION_NDJSON, "ndjson"),
+        CSV(new MediaType("text", "csv", StandardCharsets.UTF_8), "csv");
+
+        private final MediaType mediaType;
+        private final String extension;
+
+        Format(MediaType mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        // null when the format is not supported
+        public static Format parse(String value) {
+            if (value == null) {
+                return NDJSON;
+            }
+            for (Format format : values()) {
+                if (format.extension.equals(value.trim().toLowerCase(Locale.ROOT))) {
+                    return format;
+                }
+            }
+            return null;
+        }
+    }
+
+    // One CSV column: header and how to read the value from the exported DTO
+    public record CsvColumn<D>(String header, Function<D, Object> value) {
+
+        // Column read from a nested DTO (address, patient, ...); empty when the nested DTO is null
+        public static <D, N> CsvColumn<D> nested(String header, Function<D, N> parent, Function<N, Object> value) {
+            return new CsvColumn<>(header, row -> {
+                N nested = parent.apply(row);
+                return nested == null ? null : value.apply(nested);
+            });
+        }
+    }
+
+    private final TransactionTemplate readOnlyTransaction;
+    private final EntityManager entityManager;
+    private final ObjectWriter jsonWriter;
+    private final int clearEvery;
+    private final CallableProcessingInterceptor exportTimeout;
+
+    public StreamingExportService(PlatformTransactionManager transactionManager,
+                                  EntityManager entityManager,
+                                  ObjectMapper objectMapper,
+                                  @Value("${dentalsurgery.export.clear-every:500}") int clearEvery,
+                                  @Value("${dentalsurgery.export.timeout:1h}") Duration timeout) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.entityManager = entityManager;
+        // one document per line: no space between root values, the newline is written explicitly
+        this.jsonWriter = objectMapper.writer()
+                .withRootValueSeparator("")
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.clearEvery = Math.max(1, clearEvery);
+        long timeoutMillis = timeout.toMillis();
+        // Runs after the handler returns, just before the response body's async processing starts
+        this.exportTimeout = new CallableProcessingInterceptor() {
+            @Override
+            public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+                if (request instanceof AsyncWebRequest asyncRequest) {
+                    asyncRequest.setTimeout(timeoutMillis);
+                }
+            }
+        };
+    }
+
+    /**
+     * Builds the streaming response for an export, or 400 for an unknown format.
+     * @param source opens the entity stream; called inside the export transaction and closed afterwards
+     * @param mapper entity to the DTO the list endpoint returns
+     * @param columns CSV layout of that DTO
+     */
+    public <E, D> ResponseEntity<StreamingResponseBody> export(String format, String name, Supplier<Stream<E>> source,
+                                                               Function<E, D> mapper, List<CsvColumn<D>> columns) {
+        Format parsed = Format.parse(format);
+        if (parsed == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            WebAsyncUtils.getAsyncManager(attributes.getRequest())
+                    .registerCallableInterceptor(StreamingExportService.class.getName(), exportTimeout);
+        }
+        StreamingResponseBody body = out -> readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<E> rows = source.get()) {
+                if (parsed == Format.CSV) {
+                    writeCsv(rows.iterator(), mapper, columns, out);
+                } else {
+                    writeNdjson(rows.iterator(), mapper, out);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(parsed.mediaType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(name + "." + parsed.extension).build().toString())
+                .body(body);
+    }
+
+    private <E, D> void writeNdjson(Iterator<E> rows, Function<E, D> mapper, OutputStream out) throws IOException {
+        try (JsonGenerator generator = jsonWriter.createGenerator(out)) {
+            long count = 0;
+            while (rows.hasNext()) {
+                jsonWriter.writeValue(generator, mapper.apply(rows.next()));
+                generator.writeRaw('\n');
+                if (++count % clearEvery == 0) {
+                    generator.flush();
+                    entityManager.clear();
+                }
+            }
+        }
+    }
+
+    private <E, D> void writeCsv(Iterator<E> rows, Function<E, D> mapper, List<CsvColumn<D>> columns, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(csvValue(columns.get(i).header()));
+        }
+        writer.write("\r\n");
+        long count = 0;
+        while (rows.hasNext()) {
+            D row = mapper.apply(rows.next());
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(csvValue(columns.get(i).value().apply(row)));
+            }
+            writer.write("\r\n");
+            if (++count % clearEvery == 0) {
+                writer.flush();
+                entityManager.clear();
+            }
+        }
+        writer.flush();
+    }
+
+    // RFC 4180: quote values containing separators, quotes or line breaks; double embedded quotes
+    private static String csvValue(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,36 @@
+package cs489.miu.dentalsurgeryapp.util;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+
+/**
+ * Adds a delta to a counter row, creating the row when there is none yet, on a connection
+ * shared by concurrent transactions: an insert that loses the race to create the row
+ * falls back to adding to the row the winner created.
+ */
+public final class AddOrInsert {
+
+    // Binds a row's parameters to the statement and runs it; true when a row was written
+    @FunctionalInterface
+    public interface Write {
+        boolean to(PreparedStatement statement) throws SQLException;
+    }
+
+    private AddOrInsert() {
+    }
+
+    public static void run(Connection connection, PreparedStatement add, Write addTo, String insertSql, Write insertInto)
+            throws SQLException {
+        if (addTo.to(add)) {
+            return;
+        }
+        try (PreparedStatement insert = connection.prepareStatement(insertSql)) {
+            insertInto.to(insert);
+        } catch (SQLIntegrityConstraintViolationException e) {
+            // Another transaction created the row first; add to it instead
+            addTo.to(add);
+        }
+    }
+}
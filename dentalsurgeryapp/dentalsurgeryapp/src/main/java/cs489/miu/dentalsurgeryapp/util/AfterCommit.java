@@ -0,0 +1,28 @@
+package cs489.miu.dentalsurgeryapp.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Runs in-memory bookkeeping only once the database change it mirrors is committed,
+ * so a rolled-back save never leaves caches ahead of the tables.
+ */
+public final class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    // Run after the current transaction commits, or right away when there is none
+    public static void run(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
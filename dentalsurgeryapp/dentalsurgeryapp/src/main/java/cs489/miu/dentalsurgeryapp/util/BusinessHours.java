@@ -0,0 +1,47 @@
+package cs489.miu.dentalsurgeryapp.util;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Surgery opening hours: Monday-Friday 8:00-18:00, Saturday 9:00-15:00, closed on Sunday.
+ * Shared by booking validation and the availability search so both agree on what a bookable time is.
+ */
+public final class BusinessHours {
+
+    public static final LocalTime WEEKDAY_OPEN = LocalTime.of(8, 0);
+    public static final LocalTime WEEKDAY_CLOSE = LocalTime.of(18, 0);
+    public static final LocalTime SATURDAY_OPEN = LocalTime.of(9, 0);
+    public static final LocalTime SATURDAY_CLOSE = LocalTime.of(15, 0);
+
+    private BusinessHours() {
+    }
+
+    // Opening time for the day, or null when closed
+    public static LocalTime openingTime(DayOfWeek day) {
+        return switch (day) {
+            case SUNDAY -> null;
+            case SATURDAY -> SATURDAY_OPEN;
+            default -> WEEKDAY_OPEN;
+        };
+    }
+
+    // Closing time (exclusive) for the day, or null when closed
+    public static LocalTime closingTime(DayOfWeek day) {
+        return switch (day) {
+            case SUNDAY -> null;
+            case SATURDAY -> SATURDAY_CLOSE;
+            default -> WEEKDAY_CLOSE;
+        };
+    }
+
+    public static boolean isOpen(LocalDateTime dateTime) {
+        LocalTime open = openingTime(dateTime.getDayOfWeek());
+        if (open == null) {
+            return false;
+        }
+        LocalTime time = dateTime.toLocalTime();
+        return !time.isBefore(open) && time.isBefore(closingTime(dateTime.getDayOfWeek()));
+    }
+}
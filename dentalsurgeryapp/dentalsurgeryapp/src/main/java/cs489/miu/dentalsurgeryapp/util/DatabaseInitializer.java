@@ -15,7 +15,7 @@ import java.util.stream.Collectors;
  * Database Initializer Utility
  * 
  * This utility helps with manual database initialization when you need to:
- * 1. Load data.sql manually (when spring.sql.init.mode=never)
+ * 1. Reload the local sample data (db/local/R__Local_sample_data.sql) manually
  * 2. Clean and reload database data
  * 3. Reset user data for testing
  * 
@@ -39,14 +39,14 @@ public class DatabaseInitializer implements CommandLineRunner {
     }
     
     /**
-     * Initialize database by running data.sql
+     * Initialize database by running the local sample data script
      */
     public void initializeDatabase() {
         try {
             System.out.println("🚀 Starting database initialization...");
             
-            // Read and execute data.sql
-            ClassPathResource resource = new ClassPathResource("data.sql");
+            // Read and execute the local sample data
+            ClassPathResource resource = new ClassPathResource("db/local/R__Local_sample_data.sql");
             String sqlContent = new BufferedReader(
                 new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))
                 .lines()
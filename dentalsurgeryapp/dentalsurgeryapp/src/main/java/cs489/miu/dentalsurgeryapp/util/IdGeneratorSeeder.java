@@ -0,0 +1,63 @@
+package cs489.miu.dentalsurgeryapp.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Addresses, appointments, bills, dentists and patients take their ids from the pooled id_generators table
+ * (so inserts can be JDBC-batched) instead of AUTO_INCREMENT. Rows created before the
+ * switch, or loaded by a seed script with explicit ids, are invisible to that table, so on
+ * startup each generator is moved past the highest id already in use.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class IdGeneratorSeeder implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(IdGeneratorSeeder.class);
+
+    // generator row, table, id column
+    private static final String[][] GENERATORS = {
+        {"addresses", "addresses", "address_id"},
+        {"appointments", "appointments", "appointment_id"},
+        {"bills", "bills", "bill_id"},
+        {"dentists", "dentists", "dentist_id"},
+        {"patients", "patients", "patient_id"}
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdGeneratorSeeder(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        for (String[] generator : GENERATORS) {
+            seed(generator[0], generator[1], generator[2]);
+        }
+    }
+
+    private void seed(String name, String table, String idColumn) {
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(" + idColumn + "), 0) FROM " + table, Long.class);
+        long next = (maxId != null ? maxId : 0) + 1;
+        int updated = jdbcTemplate.update(
+            "UPDATE id_generators SET next_val = ? WHERE sequence_name = ? AND next_val < ?", next, name, next);
+        if (updated == 0) {
+            Integer rows = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM id_generators WHERE sequence_name = ?", Integer.class, name);
+            if (rows == null || rows == 0) {
+                jdbcTemplate.update("INSERT INTO id_generators (sequence_name, next_val) VALUES (?, ?)", name, next);
+                updated = 1;
+            }
+        }
+        if (updated > 0) {
+            log.info("Id generator '{}' moved to {}", name, next);
+        }
+    }
+}
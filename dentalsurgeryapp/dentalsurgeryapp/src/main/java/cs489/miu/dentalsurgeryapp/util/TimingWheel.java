@@ -0,0 +1,118 @@
+package cs489.miu.dentalsurgeryapp.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel.
+ *
+ * Level 0 has one slot per tick; each level above has slots {@code wheelSize} times wider.
+ * An item goes into the lowest level whose span still reaches its deadline, so scheduling
+ * is O(levels) and advancing costs O(1) per tick plus the items that come due or cascade.
+ * When a higher-level slot comes around, its items are re-placed into the finer levels
+ * below. Deadlines beyond the top level wait in an overflow list that is re-checked each
+ * time the top level turns.
+ *
+ * Items fire on the first tick at or after their deadline. Not thread-safe: callers
+ * serialize access.
+ */
+public final class TimingWheel<T> {
+
+    private record Entry<T>(long tick, T item) {
+    }
+
+    private final long tickMillis;
+    private final int wheelSize;
+    private final long[] spans;
+    private final ArrayDeque<Entry<T>>[][] slots;
+    private final List<Entry<T>> overflow = new ArrayList<>();
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMillis, int wheelSize, int levels, long startMillis) {
+        if (tickMillis <= 0 || wheelSize < 2 || levels < 1) {
+            throw new IllegalArgumentException("Invalid timing wheel geometry");
+        }
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.spans = new long[levels];
+        this.slots = new ArrayDeque[levels][wheelSize];
+        long span = 1;
+        for (int level = 0; level < levels; level++) {
+            spans[level] = span;
+            for (int slot = 0; slot < wheelSize; slot++) {
+                slots[level][slot] = new ArrayDeque<>();
+            }
+            span = Math.multiplyExact(span, wheelSize);
+        }
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    /**
+     * Schedules an item.
+     * @return false, without scheduling it, when the deadline is not after the current tick
+     */
+    public boolean schedule(long deadlineMillis, T item) {
+        long tick = Math.ceilDiv(deadlineMillis, tickMillis);
+        if (tick <= currentTick) {
+            return false;
+        }
+        place(new Entry<>(tick, item));
+        size++;
+        return true;
+    }
+
+    // Moves the wheel up to the given time, handing every item that came due to the consumer
+    public void advanceTo(long nowMillis, Consumer<T> due) {
+        long target = nowMillis / tickMillis;
+        int top = spans.length - 1;
+        while (currentTick < target) {
+            currentTick++;
+            for (int level = top; level > 0; level--) {
+                if (currentTick % spans[level] == 0) {
+                    ArrayDeque<Entry<T>> slot = slots[level][slotIndex(currentTick, level)];
+                    List<Entry<T>> cascading = new ArrayList<>(slot);
+                    slot.clear();
+                    cascading.forEach(this::place);
+                    if (level == top && !overflow.isEmpty()) {
+                        List<Entry<T>> waiting = new ArrayList<>(overflow);
+                        overflow.clear();
+                        waiting.forEach(this::place);
+                    }
+                }
+            }
+            ArrayDeque<Entry<T>> slot = slots[0][slotIndex(currentTick, 0)];
+            Entry<T> entry;
+            while ((entry = slot.poll()) != null) {
+                size--;
+                due.accept(entry.item());
+            }
+        }
+    }
+
+    // Items scheduled and not yet due
+    public int size() {
+        return size;
+    }
+
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    private void place(Entry<T> entry) {
+        for (int level = 0; level < spans.length; level++) {
+            if (entry.tick() / spans[level] - currentTick / spans[level] < wheelSize) {
+                slots[level][slotIndex(entry.tick(), level)].add(entry);
+                return;
+            }
+        }
+        overflow.add(entry);
+    }
+
+    private int slotIndex(long tick, int level) {
+        return (int) ((tick / spans[level]) % wheelSize);
+    }
+}
@@ -0,0 +1,104 @@
+-- Sample data for the local profile only (it adds classpath:db/local to spring.flyway.locations).
+-- Runs after every versioned migration, so it writes the current schema: TINYINT status codes,
+-- the derived balance and rollup rows, and id_generators moved past the ids seeded here.
+-- Roles come from V1. Every user's password is 'admin123'.
+
+INSERT IGNORE INTO users (firstName, lastName, username, password, email,
+    enabled, accountNonExpired, accountNonLocked, credentialsNonExpired)
+VALUES
+  ('System', 'Administrator', 'admin', '$2a$10$.XjD86rqkylsO4FQ5eG/pu204QrVdCpM1ixVkA0Rli61GPC07tFFq',
+    'admin@dentalsurgery.com', 1, 1, 1, 1),
+  ('System', 'Administrator', 'admin2', '$2a$10$.XjD86rqkylsO4FQ5eG/pu204QrVdCpM1ixVkA0Rli61GPC07tFFq',
+    'admin2@dentalsurgery.com', 1, 1, 1, 1),
+  ('Test', 'User', 'testuser', '$2a$10$.XjD86rqkylsO4FQ5eG/pu204QrVdCpM1ixVkA0Rli61GPC07tFFq',
+    'test@dentalsurgery.com', 1, 1, 1, 1),
+  ('Jim', 'Brown', 'jim.b@gmail.com', '$2a$10$.XjD86rqkylsO4FQ5eG/pu204QrVdCpM1ixVkA0Rli61GPC07tFFq',
+    'jim.b@gmail.com', 1, 1, 1, 1),
+  ('Tony', 'Smith', 'tony.smith@southwest.dentists.org', '$2a$10$.XjD86rqkylsO4FQ5eG/pu204QrVdCpM1ixVkA0Rli61GPC07tFFq',
+    'tony.smith@southwest.dentists.org', 1, 1, 1, 1);
+
+INSERT IGNORE INTO dentists (dentist_id, firstName, lastName, email, contactNumber, specialization)
+VALUES
+  (1, 'Test', 'User', 'test@dentalsurgery.com', '555-0100', 'General Dentistry'),
+  (2, 'Tony', 'Smith', 'tony.smith@southwest.dentists.org', '555-0200', 'Orthodontics');
+
+INSERT IGNORE INTO patients (patient_id, firstName, lastName, email, contactNumber, dob)
+VALUES
+  (1, 'Test', 'User', 'test@dentalsurgery.com', '555-0100', '1990-01-15'),
+  (2, 'Jim', 'Brown', 'jim.b@gmail.com', '555-0300', '1985-05-20');
+
+-- Test User and Tony Smith are dentists, Jim Brown is a patient
+UPDATE users SET dentist_id = 1 WHERE username = 'testuser';
+UPDATE users SET dentist_id = 2 WHERE username = 'tony.smith@southwest.dentists.org';
+UPDATE users SET patient_id = 2 WHERE username = 'jim.b@gmail.com';
+
+INSERT INTO users_roles (user_id, role_id)
+SELECT u.user_id, r.role_id
+FROM users u
+JOIN roles r ON r.name = CASE u.username
+    WHEN 'admin' THEN 'SYSADMIN'
+    WHEN 'admin2' THEN 'SYSADMIN'
+    WHEN 'testuser' THEN 'DENTIST'
+    WHEN 'tony.smith@southwest.dentists.org' THEN 'DENTIST'
+    WHEN 'jim.b@gmail.com' THEN 'PATIENT'
+  END
+WHERE NOT EXISTS (SELECT 1 FROM users_roles ur WHERE ur.user_id = u.user_id AND ur.role_id = r.role_id);
+
+INSERT IGNORE INTO addresses (address_id, street, city, state, zipcode)
+VALUES
+  (1, '123 Main Street', 'Fairfield', 'IA', '52557'),
+  (2, '456 Oak Avenue', 'Des Moines', 'IA', '50309'),
+  (3, '789 Cedar Lane', 'Iowa City', 'IA', '52240');
+
+INSERT IGNORE INTO surgerylocations (surgerylocation_id, name, contactNumber, address_id)
+VALUES
+  (1, 'Main Dental Clinic', '(641) 555-1234', 1),
+  (2, 'Downtown Dental Care', '(515) 555-5678', 2),
+  (3, 'University Dental Center', '(319) 555-9012', 3);
+
+-- appointmentStatus: 2 SCHEDULED, 3 CONFIRMED, 7 COMPLETED
+INSERT IGNORE INTO appointments (appointment_id, appointmentDateTime, appointmentType, appointmentStatus,
+    patient_id, dentist_id, surgerylocation)
+VALUES
+  (1, '2025-10-22 09:00:00', 'Checkup', 2, 1, 1, 1),
+  (2, '2025-10-22 14:00:00', 'Cleaning', 3, 2, 2, 2),
+  (3, '2025-10-21 10:00:00', 'Filling', 7, 1, 2, 1),
+  (4, '2025-10-20 15:00:00', 'Root Canal', 7, 2, 1, 3);
+
+-- payment_status: 1 PENDING, 2 PAID
+INSERT IGNORE INTO bills (bill_id, total_cost, payment_status, patient_id, appointment_id)
+VALUES
+  (1, 150.00, 1, 1, 3),
+  (2, 450.00, 1, 2, 4),
+  (3, 200.00, 2, 1, 1);
+
+-- Derived rows the app keeps in step with the bills, built as V8 and V10 build them
+INSERT IGNORE INTO patient_balances (patient_id, outstanding_cents, unpaid_count, version)
+SELECT patient_id, SUM(ROUND(total_cost * 100)), COUNT(*), 1
+FROM bills
+WHERE payment_status <> 2
+GROUP BY patient_id;
+
+INSERT IGNORE INTO bill_rollup_entries (bill_id, appointment_day, dentist_id, surgery_location_id, payment_status, total_cents)
+SELECT b.bill_id, CAST(a.appointmentDateTime AS DATE), a.dentist_id, a.surgerylocation, b.payment_status,
+       ROUND(b.total_cost * 100)
+FROM bills b
+JOIN appointments a ON a.appointment_id = b.appointment_id;
+
+DELETE FROM bill_daily_rollups;
+INSERT INTO bill_daily_rollups (appointment_day, dentist_id, surgery_location_id, payment_status, bill_count, total_cents)
+SELECT appointment_day, dentist_id, surgery_location_id, payment_status, COUNT(*), SUM(total_cents)
+FROM bill_rollup_entries
+GROUP BY appointment_day, dentist_id, surgery_location_id, payment_status;
+
+-- The pooled generators hand out ids from next_val on, so move them past the seeded rows
+UPDATE id_generators SET next_val = GREATEST(next_val, (SELECT COALESCE(MAX(appointment_id), 0) + 1 FROM appointments))
+WHERE sequence_name = 'appointments';
+UPDATE id_generators SET next_val = GREATEST(next_val, (SELECT COALESCE(MAX(bill_id), 0) + 1 FROM bills))
+WHERE sequence_name = 'bills';
+UPDATE id_generators SET next_val = GREATEST(next_val, (SELECT COALESCE(MAX(patient_id), 0) + 1 FROM patients))
+WHERE sequence_name = 'patients';
+UPDATE id_generators SET next_val = GREATEST(next_val, (SELECT COALESCE(MAX(dentist_id), 0) + 1 FROM dentists))
+WHERE sequence_name = 'dentists';
+UPDATE id_generators SET next_val = GREATEST(next_val, (SELECT COALESCE(MAX(address_id), 0) + 1 FROM addresses))
+WHERE sequence_name = 'addresses';
@@ -0,0 +1,37 @@
+-- Billing rollups behind the finance reports: bill count and total per appointment day,
+-- dentist, surgery location and payment status. Moved in the transaction that changes a
+-- bill or moves its appointment, and rebuilt from the tables by a nightly job.
+
+CREATE TABLE bill_daily_rollups (
+  appointment_day date NOT NULL,
+  dentist_id int NOT NULL,
+  surgery_location_id int NOT NULL,
+  payment_status tinyint NOT NULL,
+  bill_count int NOT NULL,
+  total_cents bigint NOT NULL,
+  PRIMARY KEY (appointment_day, dentist_id, surgery_location_id, payment_status),
+  KEY idx_bill_daily_rollups_status_day (payment_status, appointment_day)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- The rollup row each bill is currently counted in, so a change moves exactly what the bill
+-- contributed before, and concurrent changes of one bill queue on its row lock
+CREATE TABLE bill_rollup_entries (
+  bill_id int NOT NULL,
+  appointment_day date NOT NULL,
+  dentist_id int NOT NULL,
+  surgery_location_id int NOT NULL,
+  payment_status tinyint NOT NULL,
+  total_cents bigint NOT NULL,
+  PRIMARY KEY (bill_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+INSERT INTO bill_rollup_entries (bill_id, appointment_day, dentist_id, surgery_location_id, payment_status, total_cents)
+SELECT b.bill_id, CAST(a.appointmentDateTime AS DATE), a.dentist_id, a.surgerylocation, b.payment_status,
+       ROUND(b.total_cost * 100)
+FROM bills b
+JOIN appointments a ON a.appointment_id = b.appointment_id;
+
+INSERT INTO bill_daily_rollups (appointment_day, dentist_id, surgery_location_id, payment_status, bill_count, total_cents)
+SELECT appointment_day, dentist_id, surgery_location_id, payment_status, COUNT(*), SUM(total_cents)
+FROM bill_rollup_entries
+GROUP BY appointment_day, dentist_id, surgery_location_id, payment_status;
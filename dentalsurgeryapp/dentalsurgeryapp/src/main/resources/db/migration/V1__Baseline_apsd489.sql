@@ -0,0 +1,119 @@
+-- Baseline: the apsd489 schema as dumped in "database scripts/apsd489_*.sql" (MySQL 8.0.43),
+-- from before migrations were introduced. A database that already has these tables is
+-- baselined at this version (spring.flyway.baseline-on-migrate) and only runs what follows.
+-- Columns the entities no longer map (patients.date_of_birth, phone, user_id and
+-- surgerylocations.addressId) are kept so existing rows stay intact.
+
+CREATE TABLE addresses (
+  address_id int NOT NULL AUTO_INCREMENT,
+  street varchar(100) NOT NULL,
+  city varchar(100) DEFAULT NULL,
+  state varchar(100) DEFAULT NULL,
+  zipcode varchar(100) DEFAULT NULL,
+  PRIMARY KEY (address_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE roles (
+  role_id int NOT NULL AUTO_INCREMENT,
+  name varchar(255) NOT NULL,
+  PRIMARY KEY (role_id),
+  CONSTRAINT UKofx66keruapi6vyqpv6f2or37 UNIQUE (name)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE dentists (
+  dentist_id int NOT NULL AUTO_INCREMENT,
+  contactNumber varchar(255) DEFAULT NULL,
+  email varchar(255) DEFAULT NULL,
+  firstName varchar(100) NOT NULL,
+  lastName varchar(100) NOT NULL,
+  specialization varchar(100) DEFAULT NULL,
+  PRIMARY KEY (dentist_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE surgerylocations (
+  surgerylocation_id int NOT NULL AUTO_INCREMENT,
+  contactNumber varchar(255) DEFAULT NULL,
+  name varchar(100) NOT NULL,
+  addressId int DEFAULT NULL,
+  address_id int DEFAULT NULL,
+  PRIMARY KEY (surgerylocation_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE patients (
+  patient_id int NOT NULL AUTO_INCREMENT,
+  contactNumber varchar(255) DEFAULT NULL,
+  date_of_birth date DEFAULT NULL,
+  dob date NOT NULL,
+  email varchar(255) DEFAULT NULL,
+  firstName varchar(100) NOT NULL,
+  lastName varchar(100) NOT NULL,
+  phone varchar(255) DEFAULT NULL,
+  billing_address_id int DEFAULT NULL,
+  user_id int DEFAULT NULL,
+  PRIMARY KEY (patient_id),
+  CONSTRAINT UK9tbsl3fmey0eofbm2xj69v4qs UNIQUE (user_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE users (
+  user_id int NOT NULL AUTO_INCREMENT,
+  accountNonExpired bit(1) NOT NULL,
+  accountNonLocked bit(1) NOT NULL,
+  credentialsNonExpired bit(1) NOT NULL,
+  email varchar(255) NOT NULL,
+  enabled bit(1) NOT NULL,
+  firstName varchar(255) NOT NULL,
+  lastName varchar(255) NOT NULL,
+  password varchar(255) NOT NULL,
+  username varchar(255) NOT NULL,
+  dentist_id int DEFAULT NULL,
+  patient_id int DEFAULT NULL,
+  PRIMARY KEY (user_id),
+  CONSTRAINT UK6dotkott2kjsp8vw4d0m25fb7 UNIQUE (email),
+  CONSTRAINT UKr43af9ap4edm43mmtq01oddj6 UNIQUE (username),
+  CONSTRAINT UKc065dbd8q3wbcj746u2r9b2x7 UNIQUE (dentist_id),
+  CONSTRAINT UK3nyemjrjidm9fenwmb23uc9os UNIQUE (patient_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE users_roles (
+  user_id int NOT NULL,
+  role_id int NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE appointments (
+  appointment_id int NOT NULL AUTO_INCREMENT,
+  appointmentDateTime datetime(6) NOT NULL,
+  appointmentStatus varchar(20) NOT NULL,
+  appointmentType varchar(50) NOT NULL,
+  dentist_id int NOT NULL,
+  patient_id int NOT NULL,
+  surgerylocation int NOT NULL,
+  PRIMARY KEY (appointment_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE bills (
+  bill_id int NOT NULL AUTO_INCREMENT,
+  payment_status varchar(20) NOT NULL,
+  total_cost decimal(10,2) NOT NULL,
+  appointment_id int NOT NULL,
+  patient_id int NOT NULL,
+  PRIMARY KEY (bill_id),
+  CONSTRAINT UK5rd0ntbb8g3vu5f5qcsoeqyyf UNIQUE (appointment_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- users and patients reference each other, so foreign keys go on once every table exists
+ALTER TABLE surgerylocations ADD CONSTRAINT FKiho355rigtlpw7pixo5sdu6n FOREIGN KEY (addressId) REFERENCES addresses (address_id);
+ALTER TABLE surgerylocations ADD CONSTRAINT FKeg4qcf5vd8bgycqaqmssj8qfo FOREIGN KEY (address_id) REFERENCES addresses (address_id);
+ALTER TABLE patients ADD CONSTRAINT FKlggak7ybtxnlhwobhy31jq7qa FOREIGN KEY (billing_address_id) REFERENCES addresses (address_id);
+ALTER TABLE patients ADD CONSTRAINT FKuwca24wcd1tg6pjex8lmc0y7 FOREIGN KEY (user_id) REFERENCES users (user_id);
+ALTER TABLE users ADD CONSTRAINT FK9tgv5fna8xoaonx2n1lom2ok0 FOREIGN KEY (dentist_id) REFERENCES dentists (dentist_id);
+ALTER TABLE users ADD CONSTRAINT FKa98w1ceplk9u7a6x4w9xn29jd FOREIGN KEY (patient_id) REFERENCES patients (patient_id);
+ALTER TABLE users_roles ADD CONSTRAINT FK2o0jvgh89lemvvo17cbqvdxaa FOREIGN KEY (user_id) REFERENCES users (user_id);
+ALTER TABLE users_roles ADD CONSTRAINT FKj6m8fwv7oqv74fcehir1a9ffy FOREIGN KEY (role_id) REFERENCES roles (role_id);
+ALTER TABLE appointments ADD CONSTRAINT FKqsnula0nj86s67otibu2j2hsv FOREIGN KEY (dentist_id) REFERENCES dentists (dentist_id);
+ALTER TABLE appointments ADD CONSTRAINT FK8exap5wmg8kmb1g1rx3by21yt FOREIGN KEY (patient_id) REFERENCES patients (patient_id);
+ALTER TABLE appointments ADD CONSTRAINT FKn58n9pp64gemhmj1m89431img FOREIGN KEY (surgerylocation) REFERENCES surgerylocations (surgerylocation_id);
+ALTER TABLE bills ADD CONSTRAINT FK78l7nfsfixemlb0cjarum9fdt FOREIGN KEY (appointment_id) REFERENCES appointments (appointment_id);
+ALTER TABLE bills ADD CONSTRAINT FKiklkhnj1odoll0m9otela7gb9 FOREIGN KEY (patient_id) REFERENCES patients (patient_id);
+
+-- Reference data from apsd489_roles.sql; the rest of the dumps is patient data, not schema
+INSERT INTO roles (role_id, name) VALUES (1, 'SYSADMIN'), (2, 'DENTIST'), (3, 'PATIENT');
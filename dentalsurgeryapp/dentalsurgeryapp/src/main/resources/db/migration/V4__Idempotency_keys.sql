@@ -0,0 +1,15 @@
+-- Responses to POST/PUT /dentalsugery/api/** requests sent with an Idempotency-Key, replayed
+-- to retries. Only written when dentalsurgery.idempotency.jdbc=true; rows older than
+-- dentalsurgery.idempotency.ttl are purged on a schedule.
+
+CREATE TABLE idempotency_keys (
+  idempotency_key char(64) NOT NULL,
+  request_hash char(64) NOT NULL,
+  status smallint NOT NULL,
+  content_type varchar(255) DEFAULT NULL,
+  body longblob NOT NULL,
+  created_at datetime(6) NOT NULL,
+  PRIMARY KEY (idempotency_key)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE INDEX idx_idempotency_keys_created_at ON idempotency_keys (created_at);
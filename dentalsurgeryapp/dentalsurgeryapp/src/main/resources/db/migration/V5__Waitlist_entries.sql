@@ -0,0 +1,20 @@
+-- Patients waiting for a freed slot of a dentist within a date window. Status is the
+-- WaitlistStatus code (1 waiting, 2 offered, 3 expired, 4 withdrawn); a null
+-- surgerylocation_id accepts any location.
+
+CREATE TABLE waitlist_entries (
+  waitlist_entry_id int NOT NULL AUTO_INCREMENT,
+  patient_id int NOT NULL,
+  dentist_id int NOT NULL,
+  surgerylocation_id int DEFAULT NULL,
+  earliest datetime(6) NOT NULL,
+  latest datetime(6) NOT NULL,
+  appointmentType varchar(50) NOT NULL,
+  status tinyint NOT NULL,
+  createdAt datetime(6) NOT NULL,
+  offered_appointment_id int DEFAULT NULL,
+  PRIMARY KEY (waitlist_entry_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE INDEX idx_waitlist_dentist_status ON waitlist_entries (dentist_id, status, latest);
+CREATE INDEX idx_waitlist_patient_status ON waitlist_entries (patient_id, status);
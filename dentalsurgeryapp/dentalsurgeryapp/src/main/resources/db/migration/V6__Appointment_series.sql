@@ -0,0 +1,29 @@
+-- Recurring appointment series. Occurrences are expanded into appointments only within a
+-- rolling horizon; materializedCount of them have been, nextStart is when the next one is
+-- due (null when none is left or the series was cancelled).
+
+CREATE TABLE appointment_series (
+  series_id int NOT NULL AUTO_INCREMENT,
+  patient_id int NOT NULL,
+  dentist_id int NOT NULL,
+  surgerylocation_id int NOT NULL,
+  appointmentType varchar(50) NOT NULL,
+  firstStart datetime(6) NOT NULL,
+  intervalWeeks int NOT NULL,
+  occurrenceCount int NOT NULL,
+  materializedCount int NOT NULL,
+  skippedCount int NOT NULL,
+  nextStart datetime(6) DEFAULT NULL,
+  createdAt datetime(6) NOT NULL,
+  cancelledAt datetime(6) DEFAULT NULL,
+  PRIMARY KEY (series_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE INDEX idx_series_next_start ON appointment_series (nextStart);
+CREATE INDEX idx_series_dentist_next ON appointment_series (dentist_id, nextStart);
+CREATE INDEX idx_series_location_next ON appointment_series (surgerylocation_id, nextStart);
+CREATE INDEX idx_series_patient_next ON appointment_series (patient_id, nextStart);
+
+ALTER TABLE appointment_series ADD CONSTRAINT fk_series_patient FOREIGN KEY (patient_id) REFERENCES patients (patient_id);
+ALTER TABLE appointment_series ADD CONSTRAINT fk_series_dentist FOREIGN KEY (dentist_id) REFERENCES dentists (dentist_id);
+ALTER TABLE appointment_series ADD CONSTRAINT fk_series_location FOREIGN KEY (surgerylocation_id) REFERENCES surgerylocations (surgerylocation_id);
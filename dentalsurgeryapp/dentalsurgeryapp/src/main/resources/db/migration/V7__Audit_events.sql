@@ -0,0 +1,19 @@
+-- Append-only change journal of appointments and bills: one row per changed field (a
+-- create lists the initial values, a delete has no field). Written in batches by the
+-- audit writer, or inside the changing transaction with
+-- dentalsurgery.audit.durability=flush-on-commit.
+
+CREATE TABLE audit_events (
+  audit_event_id bigint NOT NULL AUTO_INCREMENT,
+  entity_type varchar(20) NOT NULL,
+  entity_id int NOT NULL,
+  action varchar(10) NOT NULL,
+  field_name varchar(50) DEFAULT NULL,
+  old_value varchar(255) DEFAULT NULL,
+  new_value varchar(255) DEFAULT NULL,
+  actor varchar(100) NOT NULL,
+  occurred_at datetime(6) NOT NULL,
+  PRIMARY KEY (audit_event_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE INDEX idx_audit_events_entity ON audit_events (entity_type, entity_id, occurred_at);
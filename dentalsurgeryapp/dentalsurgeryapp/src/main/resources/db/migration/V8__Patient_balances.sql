@@ -0,0 +1,18 @@
+-- Outstanding balance of each patient: the total and the number of bills not PAID
+-- (payment_status code 2). Moved in the transaction that creates, changes or deletes a
+-- bill; version goes up with every change so cached copies can tell which is newer.
+-- Patients without a row owe nothing.
+
+CREATE TABLE patient_balances (
+  patient_id int NOT NULL,
+  outstanding_cents bigint NOT NULL,
+  unpaid_count int NOT NULL,
+  version bigint NOT NULL,
+  PRIMARY KEY (patient_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+INSERT INTO patient_balances (patient_id, outstanding_cents, unpaid_count, version)
+SELECT patient_id, SUM(ROUND(total_cost * 100)), COUNT(*), 1
+FROM bills
+WHERE payment_status <> 2
+GROUP BY patient_id;
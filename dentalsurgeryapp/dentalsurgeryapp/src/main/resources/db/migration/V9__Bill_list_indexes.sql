@@ -0,0 +1,5 @@
+-- Keyset pages of the admin bill list ordered by total cost (bill_id breaks ties), and the
+-- same order within one payment status. The date order walks idx_appointments_datetime_id.
+
+CREATE INDEX idx_bills_total_cost_id ON bills (total_cost, bill_id);
+CREATE INDEX idx_bills_status_total_cost ON bills (payment_status, total_cost, bill_id);
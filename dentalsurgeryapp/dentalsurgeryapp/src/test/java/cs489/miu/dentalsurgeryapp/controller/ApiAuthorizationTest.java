@@ -0,0 +1,94 @@
+package cs489.miu.dentalsurgeryapp.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.AuthorizationFilter;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Admin operations that live under the otherwise open /dentalsugery/api/ tree. Checked
+ * against the request authorization rules of the security filter chain directly, so the
+ * outcome does not depend on CSRF or on what the endpoint itself does.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:apiauthorization;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.sql.init.mode=never",
+        "dentalsurgery.reminders.enabled=false"
+})
+class ApiAuthorizationTest {
+
+    private static final Authentication ANONYMOUS = new AnonymousAuthenticationToken("key", "anonymousUser",
+            AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS"));
+    private static final Authentication PATIENT = user("ROLE_PATIENT");
+    private static final Authentication SYSADMIN = user("ROLE_SYSADMIN");
+
+    @Autowired
+    private SecurityFilterChain securityFilterChain;
+
+    private AuthorizationManager<HttpServletRequest> rules;
+
+    @BeforeEach
+    void setUp() {
+        rules = securityFilterChain.getFilters().stream()
+                .filter(AuthorizationFilter.class::isInstance)
+                .map(filter -> ((AuthorizationFilter) filter).getAuthorizationManager())
+                .findFirst()
+                .orElseThrow();
+    }
+
+    @Test
+    void paymentReconciliationIsForAdministratorsOnly() {
+        assertAdminOnly("POST", "/dentalsugery/api/bills/reconcile");
+    }
+
+    @Test
+    void statementRunsAreForAdministratorsOnly() {
+        assertAdminOnly("POST", "/dentalsugery/api/statements");
+        assertAdminOnly("GET", "/dentalsugery/api/statements/progress");
+    }
+
+    @Test
+    void auditHistoryIsForAdministratorsOnly() {
+        assertAdminOnly("GET", "/dentalsugery/api/appointments/12/history");
+        assertAdminOnly("GET", "/dentalsugery/api/bills/7/history");
+    }
+
+    @Test
+    void restOfTheApiStaysOpen() {
+        assertThat(granted(ANONYMOUS, "GET", "/dentalsugery/api/bills")).isTrue();
+        assertThat(granted(ANONYMOUS, "POST", "/dentalsugery/api/bills")).isTrue();
+        assertThat(granted(ANONYMOUS, "GET", "/dentalsugery/api/appointments/12")).isTrue();
+    }
+
+    private void assertAdminOnly(String method, String path) {
+        assertThat(granted(ANONYMOUS, method, path)).as("anonymous %s %s", method, path).isFalse();
+        assertThat(granted(PATIENT, method, path)).as("patient %s %s", method, path).isFalse();
+        assertThat(granted(SYSADMIN, method, path)).as("sysadmin %s %s", method, path).isTrue();
+    }
+
+    private boolean granted(Authentication authentication, String method, String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setServletPath(path);
+        return rules.authorize(() -> authentication, request).isGranted();
+    }
+
+    private static Authentication user(String role) {
+        return UsernamePasswordAuthenticationToken.authenticated("user", "n/a", AuthorityUtils.createAuthorityList(role));
+    }
+}
@@ -0,0 +1,291 @@
+package cs489.miu.dentalsurgeryapp.controller;
+
+import cs489.miu.dentalsurgeryapp.model.Address;
+import cs489.miu.dentalsurgeryapp.model.Appointment;
+import cs489.miu.dentalsurgeryapp.model.Bill;
+import cs489.miu.dentalsurgeryapp.model.Dentist;
+import cs489.miu.dentalsurgeryapp.model.Patient;
+import cs489.miu.dentalsurgeryapp.model.Role;
+import cs489.miu.dentalsurgeryapp.model.SurgeryLocation;
+import cs489.miu.dentalsurgeryapp.model.User;
+import cs489.miu.dentalsurgeryapp.repository.AddressRepository;
+import cs489.miu.dentalsurgeryapp.repository.AppointmentRepository;
+import cs489.miu.dentalsurgeryapp.repository.BillRepository;
+import cs489.miu.dentalsurgeryapp.repository.DentistRepository;
+import cs489.miu.dentalsurgeryapp.repository.PatientRepository;
+import cs489.miu.dentalsurgeryapp.repository.RoleRepository;
+import cs489.miu.dentalsurgeryapp.repository.SurgeryLocationRepository;
+import cs489.miu.dentalsurgeryapp.repository.UserRepository;
+import cs489.miu.dentalsurgeryapp.service.AppointmentService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Renders each list screen against an in-memory database with many distinct patients,
+ * dentists and locations and checks the number of SQL statements it issues stays at the
+ * size of its fetch plan. An association left out of a plan shows up as one extra
+ * statement per row (N+1), or as a LazyInitializationException now that OSIV is off.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:fetchplan;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.sql.init.mode=never",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        // statistics are global: keep the reminder ticker's window loads out of the counts
+        "dentalsurgery.reminders.enabled=false"
+})
+@AutoConfigureMockMvc
+class FetchPlanQueryCountTest {
+
+    private static final int ROWS = 8;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private DentistRepository dentistRepository;
+
+    @Autowired
+    private SurgeryLocationRepository surgeryLocationRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private BillRepository billRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    private Statistics statistics;
+    private Patient portalPatient;
+    private Dentist portalDentist;
+    private Appointment billedAppointment;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        billRepository.deleteAll();
+        appointmentRepository.deleteAll();
+        userRepository.deleteAll();
+        // including the ones the baseline migration seeds, each session creates its own
+        roleRepository.deleteAll();
+        patientRepository.deleteAll();
+        dentistRepository.deleteAll();
+        surgeryLocationRepository.deleteAll();
+        // addresses are unique by value, and every run recreates the same ones
+        addressRepository.deleteAll();
+
+        List<Patient> patients = new ArrayList<>();
+        List<Dentist> dentists = new ArrayList<>();
+        List<SurgeryLocation> locations = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            patients.add(patientRepository.save(patient(i)));
+            dentists.add(dentistRepository.save(dentist(i)));
+            locations.add(surgeryLocationRepository.save(location(i)));
+        }
+        portalPatient = patients.get(0);
+        portalDentist = dentists.get(0);
+
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withHour(9).withMinute(0).withSecond(0).withNano(0);
+        for (int i = 0; i < ROWS; i++) {
+            // the portal patient sees every dentist and the portal dentist sees every patient
+            Appointment forPatient = appointmentRepository.save(appointment(portalPatient, dentists.get(i),
+                    locations.get(i), start.plusDays(i)));
+            appointmentRepository.save(appointment(patients.get(i), portalDentist, locations.get(i),
+                    start.plusDays(i).plusHours(2)));
+            billRepository.save(bill(forPatient));
+            billedAppointment = forPatient;
+        }
+    }
+
+    @Test
+    void adminAppointmentListUsesOneFetchJoin() throws Exception {
+        // keyset page query and the dentist filter dropdown
+        assertStatementCount(get("/secured/appointment/list"), session("SYSADMIN", null), 2);
+    }
+
+    @Test
+    void billListIsOneProjectionQuery() throws Exception {
+        MockHttpSession session = session("SYSADMIN", null);
+        assertStatementCount(get("/secured/bill/list"), session, 1);
+        assertStatementCount(get("/secured/bill/list").param("status", "PENDING").param("sort", "amount"), session, 1);
+    }
+
+    @Test
+    void adminDashboardReadsMaintainedCounters() throws Exception {
+        assertStatementCount(get("/secured/dashboard"), session("SYSADMIN", null), 0);
+    }
+
+    @Test
+    void patientPortalPagesDoNotLoadPerRow() throws Exception {
+        MockHttpSession session = session("PATIENT", portalPatient);
+        // user and patient lookup, page query and count query
+        assertStatementCount(get("/dentalsurgeryapp/rolebase/patient/appointments"), session, 4);
+        // recent appointments and the status aggregation
+        assertStatementCount(get("/dentalsurgeryapp/rolebase/patient/dashboard"), session, 2);
+    }
+
+    @Test
+    void dentistPortalAppointmentsDoNotLoadPerRow() throws Exception {
+        // dentist lookup, page query and count query
+        assertStatementCount(get("/dentalsurgeryapp/rolebase/dentist/appointments"), session("DENTIST", null), 3);
+    }
+
+    @Test
+    void calendarFeedRevalidationSkipsTheDatabase() throws Exception {
+        String uri = "/dentalsugery/api/dentists/" + portalDentist.getDentistId() + "/calendar.ics";
+        // existence check, the feed query and the open recurring series
+        assertStatementCount(get(uri), new MockHttpSession(), 3);
+        String eTag = mockMvc.perform(get(uri)).andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        statistics.clear();
+        mockMvc.perform(get(uri).header("If-None-Match", eTag)).andExpect(status().isNotModified());
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void checkoutFindsTheBillThroughItsAppointment() throws Exception {
+        statistics.clear();
+        Bill bill = appointmentService.checkoutAppointment(billedAppointment.getAppointmentId(), new BigDecimal("95.00"), "PAID");
+        // appointment load and update, its previous key, the bill lookup by appointment_id and
+        // its update, and four for the weekly slot the fixture (saved without one) gets claimed
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(9);
+        assertThat(bill.getAppointment().getAppointmentStatus()).isEqualTo("CHECKOUT");
+        assertThat(bill.getTotalCost()).isEqualByComparingTo("95.00");
+        assertThat(billRepository.count()).isEqualTo(ROWS);
+    }
+
+    @Test
+    void billExportStreamsFromOneQueryWithItsOwnTimeout() throws Exception {
+        statistics.clear();
+        MvcResult started = mockMvc.perform(get("/dentalsugery/api/bills/export").session(session("SYSADMIN", null)))
+                .andExpect(request().asyncStarted()).andReturn();
+        assertThat(started.getRequest().getAsyncContext().getTimeout()).isEqualTo(Duration.ofHours(1).toMillis());
+        statistics.clear();
+        String body = mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(body.lines()).hasSize(ROWS);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    private void assertStatementCount(MockHttpServletRequestBuilder request,
+                                      MockHttpSession session, long expected) throws Exception {
+        statistics.clear();
+        mockMvc.perform(request.session(session)).andExpect(status().isOk());
+        assertThat(statistics.getPrepareStatementCount())
+                .as("SQL statements for %s", request.buildRequest(session.getServletContext()).getRequestURI())
+                .isLessThanOrEqualTo(expected);
+    }
+
+    private MockHttpSession session(String roleName, Patient patient) {
+        User user = new User(null, "Test", roleName, roleName.toLowerCase() + "-user", "password123",
+                "DENTIST".equals(roleName) ? portalDentist.getEmail() : roleName.toLowerCase() + "@example.com",
+                true, true, true, true);
+        // roles cascade from the user and are removed with it in setUp
+        user.setRoles(List.of(new Role(null, roleName)));
+        user.setPatient(patient);
+        user = userRepository.save(user);
+
+        MockHttpSession session = new MockHttpSession();
+        session.setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY, new SecurityContextImpl(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities())));
+        return session;
+    }
+
+    private static Patient patient(int i) {
+        Address address = new Address();
+        address.setStreet(i + " Main St");
+        address.setCity("Fairfield");
+        address.setState("IA");
+        address.setZipcode("5255" + i);
+
+        Patient patient = new Patient();
+        patient.setFirstName("Patient" + i);
+        patient.setLastName("Last" + i);
+        patient.setEmail("patient" + i + "@example.com");
+        patient.setDob(LocalDate.of(1990, 1, 1).plusYears(i));
+        patient.setAddress(address);
+        return patient;
+    }
+
+    private static Dentist dentist(int i) {
+        Dentist dentist = new Dentist();
+        dentist.setFirstName("Dentist" + i);
+        dentist.setLastName("Last" + i);
+        dentist.setEmail("dentist" + i + "@example.com");
+        dentist.setSpecialization("General");
+        return dentist;
+    }
+
+    private static SurgeryLocation location(int i) {
+        SurgeryLocation location = new SurgeryLocation();
+        location.setName("Surgery " + i);
+        return location;
+    }
+
+    private static Appointment appointment(Patient patient, Dentist dentist, SurgeryLocation location, LocalDateTime at) {
+        Appointment appointment = new Appointment();
+        appointment.setAppointmentType("CHECKUP");
+        appointment.setAppointmentStatus("SCHEDULED");
+        appointment.setAppointmentDateTime(at);
+        appointment.setPatient(patient);
+        appointment.setDentist(dentist);
+        appointment.setSurgeryLocation(location);
+        return appointment;
+    }
+
+    private static Bill bill(Appointment appointment) {
+        Bill bill = new Bill();
+        bill.setTotalCost(new BigDecimal("120.00"));
+        bill.setPaymentStatus("PENDING");
+        bill.setPatient(appointment.getPatient());
+        bill.setAppointment(appointment);
+        return bill;
+    }
+}
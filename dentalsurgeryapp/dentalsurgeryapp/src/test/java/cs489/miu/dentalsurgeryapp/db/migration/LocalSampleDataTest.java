@@ -0,0 +1,74 @@
+package cs489.miu.dentalsurgeryapp.db.migration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Boots the local profile, whose extra Flyway location seeds the sample data on top of the
+ * schema migrations, and checks the seeded users can log in and the pooled id generators
+ * start past the seeded ids.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:localsample;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "dentalsurgery.reminders.enabled=false"
+})
+@ActiveProfiles("local")
+class LocalSampleDataTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    void seededUsersLogInWithTheirRoles() {
+        assertLogin("admin", "ROLE_SYSADMIN");
+        assertLogin("testuser", "ROLE_DENTIST");
+        assertLogin("jim.b@gmail.com", "ROLE_PATIENT");
+    }
+
+    @Test
+    void seededRowsUseStatusCodesAndFeedTheDerivedTables() {
+        assertThat(jdbcTemplate.queryForList("SELECT appointmentStatus FROM appointments ORDER BY appointment_id",
+                Integer.class)).containsExactly(2, 3, 7, 7);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT outstanding_cents FROM patient_balances WHERE patient_id = 2", Long.class)).isEqualTo(45000L);
+        assertThat(jdbcTemplate.queryForObject("SELECT SUM(bill_count) FROM bill_daily_rollups", Integer.class))
+                .isEqualTo(3);
+    }
+
+    @Test
+    void idGeneratorsStartPastTheSeededIds() {
+        assertGeneratorPast("appointments", "appointments", "appointment_id");
+        assertGeneratorPast("bills", "bills", "bill_id");
+        assertGeneratorPast("patients", "patients", "patient_id");
+        assertGeneratorPast("dentists", "dentists", "dentist_id");
+        assertGeneratorPast("addresses", "addresses", "address_id");
+    }
+
+    private void assertLogin(String username, String role) {
+        UserDetails user = userDetailsService.loadUserByUsername(username);
+        assertThat(passwordEncoder.matches("admin123", user.getPassword())).isTrue();
+        assertThat(user.getAuthorities()).extracting(GrantedAuthority::getAuthority).contains(role);
+    }
+
+    private void assertGeneratorPast(String generator, String table, String idColumn) {
+        Long nextVal = jdbcTemplate.queryForObject(
+                "SELECT next_val FROM id_generators WHERE sequence_name = ?", Long.class, generator);
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(" + idColumn + ") FROM " + table, Long.class);
+        assertThat(nextVal).isGreaterThan(maxId);
+    }
+}
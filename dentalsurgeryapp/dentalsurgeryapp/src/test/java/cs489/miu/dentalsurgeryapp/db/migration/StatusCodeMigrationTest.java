@@ -0,0 +1,62 @@
+package cs489.miu.dentalsurgeryapp.db.migration;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationVersion;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs V2 over a V1 database holding free-text statuses: known spellings become their codes,
+ * and a value that is not a known status stops the migration instead of becoming PENDING.
+ */
+class StatusCodeMigrationTest {
+
+    @Test
+    void knownStatusesAreConverted() {
+        JdbcTemplate jdbcTemplate = atBaseline("statuses_known");
+        jdbcTemplate.update("INSERT INTO bills (payment_status, total_cost, appointment_id, patient_id) VALUES (' paid ', 10, 1, 1)");
+        jdbcTemplate.update("INSERT INTO bills (payment_status, total_cost, appointment_id, patient_id) VALUES ('Overdue', 10, 2, 1)");
+
+        flyway("statuses_known", MigrationVersion.fromVersion("2")).migrate();
+
+        assertThat(jdbcTemplate.queryForList("SELECT payment_status FROM bills ORDER BY bill_id", Integer.class))
+                .containsExactly(2, 3);
+    }
+
+    @Test
+    void unknownStatusesStopTheMigration() {
+        JdbcTemplate jdbcTemplate = atBaseline("statuses_unknown");
+        jdbcTemplate.update("INSERT INTO bills (payment_status, total_cost, appointment_id, patient_id) VALUES ('PAID', 10, 1, 1)");
+        jdbcTemplate.update("INSERT INTO bills (payment_status, total_cost, appointment_id, patient_id) VALUES ('Refunded', 10, 2, 1)");
+        jdbcTemplate.update("INSERT INTO bills (payment_status, total_cost, appointment_id, patient_id) VALUES ('', 10, 3, 1)");
+
+        assertThatThrownBy(() -> flyway("statuses_unknown", MigrationVersion.fromVersion("2")).migrate())
+                .hasStackTraceContaining("bills.payment_status")
+                .hasStackTraceContaining("Refunded");
+        assertThat(jdbcTemplate.queryForList("SELECT payment_status FROM bills ORDER BY bill_id", String.class))
+                .containsExactly("PAID", "Refunded", "");
+    }
+
+    private static JdbcTemplate atBaseline(String database) {
+        flyway(database, MigrationVersion.fromVersion("1")).migrate();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource(database));
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        return jdbcTemplate;
+    }
+
+    private static Flyway flyway(String database, MigrationVersion target) {
+        return Flyway.configure()
+                .dataSource(dataSource(database))
+                .locations("classpath:db/migration", "classpath:cs489/miu/dentalsurgeryapp/db/migration")
+                .target(target)
+                .load();
+    }
+
+    private static DriverManagerDataSource dataSource(String database) {
+        return new DriverManagerDataSource("jdbc:h2:mem:" + database + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+    }
+}
@@ -0,0 +1,195 @@
+package cs489.miu.dentalsurgeryapp.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cs489.miu.dentalsurgeryapp.service.impl.IdempotencyServiceImpl;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdempotencyKeyFilterTest {
+
+    private IdempotencyKeyFilter filter;
+    private AtomicInteger executions;
+    private int nextStatus;
+
+    @BeforeEach
+    void setUp() {
+        IdempotencyServiceImpl service = new IdempotencyServiceImpl(null, Duration.ofHours(1), 100, Duration.ofSeconds(10), false);
+        filter = new IdempotencyKeyFilter(service, new ObjectMapper());
+        executions = new AtomicInteger();
+        nextStatus = 201;
+    }
+
+    @Test
+    void retryIsReplayedWithoutRunningAgain() throws Exception {
+        MockHttpServletResponse first = send("key-1", "{\"totalCost\":10}", countingChain());
+        MockHttpServletResponse retry = send("key-1", "{\"totalCost\":10}", countingChain());
+
+        assertThat(executions).hasValue(1);
+        assertThat(retry.getStatus()).isEqualTo(201);
+        assertThat(retry.getContentAsString()).isEqualTo(first.getContentAsString()).isEqualTo("created 1 from {\"totalCost\":10}");
+        assertThat(retry.getHeader(IdempotencyKeyFilter.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(first.getHeader(IdempotencyKeyFilter.REPLAYED_HEADER)).isNull();
+    }
+
+    @Test
+    void sameKeyWithDifferentBodyIsRefused() throws Exception {
+        send("key-2", "{\"totalCost\":10}", countingChain());
+        MockHttpServletResponse reused = send("key-2", "{\"totalCost\":99}", countingChain());
+
+        assertThat(executions).hasValue(1);
+        assertThat(reused.getStatus()).isEqualTo(422);
+    }
+
+    @Test
+    void serverErrorsAreNotStored() throws Exception {
+        nextStatus = 500;
+        send("key-3", "{}", countingChain());
+        nextStatus = 201;
+        MockHttpServletResponse retry = send("key-3", "{}", countingChain());
+
+        assertThat(executions).hasValue(2);
+        assertThat(retry.getStatus()).isEqualTo(201);
+    }
+
+    @Test
+    void concurrentDuplicatesWaitForTheFirstRequest() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain slowChain = (request, response) -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            countingChain().doFilter(request, response);
+        };
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<MockHttpServletResponse>> responses = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                responses.add(pool.submit(() -> send("key-4", "{}", slowChain)));
+            }
+            Thread.sleep(200);
+            release.countDown();
+            for (Future<MockHttpServletResponse> response : responses) {
+                assertThat(response.get(5, TimeUnit.SECONDS).getContentAsString()).isEqualTo("created 1 from {}");
+            }
+            assertThat(executions).hasValue(1);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void streamedUploadsAndOversizedBodiesAreNotBuffered() throws Exception {
+        MockHttpServletRequest upload = request("/dentalsugery/api/bills/reconcile", "key-5", "billId,amount\n1,10.00\n");
+        filter.doFilter(upload, new MockHttpServletResponse(), countingChain());
+        filter.doFilter(upload, new MockHttpServletResponse(), countingChain());
+        assertThat(executions).hasValue(2);
+
+        MockHttpServletResponse oversized = send("key-6", "x".repeat(IdempotencyKeyFilter.MAX_BODY_BYTES + 1), countingChain());
+        assertThat(oversized.getStatus()).isEqualTo(413);
+        assertThat(executions).hasValue(2);
+    }
+
+    @Test
+    void keysAreScopedToTheCaller() throws Exception {
+        MockHttpServletResponse alice = sendAs("alice", "key-7", "{\"totalCost\":10}");
+        MockHttpServletResponse bob = sendAs("bob", "key-7", "{\"totalCost\":10}");
+        MockHttpServletResponse aliceRetry = sendAs("alice", "key-7", "{\"totalCost\":10}");
+
+        assertThat(executions).hasValue(2);
+        assertThat(bob.getHeader(IdempotencyKeyFilter.REPLAYED_HEADER)).isNull();
+        assertThat(bob.getContentAsString()).isEqualTo("created 2 from {\"totalCost\":10}");
+        assertThat(aliceRetry.getContentAsString()).isEqualTo(alice.getContentAsString());
+        assertThat(aliceRetry.getHeader(IdempotencyKeyFilter.REPLAYED_HEADER)).isEqualTo("true");
+
+        MockHttpServletRequest otherClient = request("/dentalsugery/api/bills", "key-7", "{\"totalCost\":10}");
+        otherClient.setRemoteAddr("10.0.0.9");
+        MockHttpServletResponse anonymous = new MockHttpServletResponse();
+        filter.doFilter(otherClient, anonymous, countingChain());
+        assertThat(anonymous.getHeader(IdempotencyKeyFilter.REPLAYED_HEADER)).isNull();
+        assertThat(executions).hasValue(3);
+    }
+
+    @Test
+    void cachedBodyCanBeReadWithAReadListener() throws Exception {
+        List<String> events = new ArrayList<>();
+        FilterChain asyncReader = (request, response) -> {
+            ServletInputStream in = request.getInputStream();
+            in.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    while (in.isReady() && !in.isFinished()) {
+                        events.add(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    events.add("done");
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    events.add("error");
+                }
+            });
+            ((HttpServletResponse) response).setStatus(201);
+        };
+
+        send("key-8", "{\"totalCost\":10}", asyncReader);
+
+        assertThat(events).containsExactly("{\"totalCost\":10}", "done");
+    }
+
+    private FilterChain countingChain() {
+        return (request, response) -> {
+            String body = new String(request.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            ((HttpServletResponse) response).setStatus(nextStatus);
+            response.setContentType("application/json");
+            response.getWriter().write("created " + executions.incrementAndGet() + " from " + body);
+        };
+    }
+
+    private MockHttpServletResponse send(String key, String body, FilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request("/dentalsugery/api/bills", key, body), response, chain);
+        return response;
+    }
+
+    private MockHttpServletResponse sendAs(String username, String key, String body) throws Exception {
+        MockHttpServletRequest request = request("/dentalsugery/api/bills", key, body);
+        request.setUserPrincipal(() -> username);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, countingChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String path, String key, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        request.addHeader(IdempotencyKeyFilter.HEADER, key);
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
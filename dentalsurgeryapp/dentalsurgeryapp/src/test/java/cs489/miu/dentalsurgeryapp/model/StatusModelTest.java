@@ -0,0 +1,50 @@
+package cs489.miu.dentalsurgeryapp.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class StatusModelTest {
+
+    @Test
+    void codes_areUniqueAndRoundTrip() {
+        assertThat(Arrays.stream(AppointmentStatus.values()).map(AppointmentStatus::getCode)).doesNotHaveDuplicates();
+        assertThat(Arrays.stream(PaymentStatus.values()).map(PaymentStatus::getCode)).doesNotHaveDuplicates();
+        for (AppointmentStatus status : AppointmentStatus.values()) {
+            assertThat(AppointmentStatus.fromCode(status.getCode())).isSameAs(status);
+        }
+        for (PaymentStatus status : PaymentStatus.values()) {
+            assertThat(PaymentStatus.fromCode(status.getCode())).isSameAs(status);
+        }
+    }
+
+    @Test
+    void fromName_acceptsLegacyText() {
+        assertThat(AppointmentStatus.fromName("Confirmed")).isEqualTo(AppointmentStatus.CONFIRMED);
+        assertThat(AppointmentStatus.fromName(" checkout ")).isEqualTo(AppointmentStatus.CHECKOUT);
+        assertThat(AppointmentStatus.fromName("Checked In")).isEqualTo(AppointmentStatus.CHECKIN);
+        assertThat(AppointmentStatus.fromName("no-show")).isEqualTo(AppointmentStatus.NO_SHOW);
+        assertThat(PaymentStatus.fromName("Paid")).isEqualTo(PaymentStatus.PAID);
+        assertThat(PaymentStatus.fromName("  ")).isNull();
+
+        assertThatThrownBy(() -> AppointmentStatus.fromName("Booked")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void stringAccessors_bridgeToTheEnum() {
+        Appointment appointment = new Appointment();
+        appointment.setAppointmentStatus("Confirmed");
+
+        assertThat(appointment.getStatus()).isEqualTo(AppointmentStatus.CONFIRMED);
+        assertThat(appointment.getAppointmentStatus()).isEqualTo("CONFIRMED");
+
+        Bill bill = new Bill();
+        bill.setPaymentStatus("paid");
+
+        assertThat(bill.getStatus()).isEqualTo(PaymentStatus.PAID);
+        assertThat(bill.getPaymentStatus()).isEqualTo("PAID");
+    }
+}
@@ -0,0 +1,85 @@
+package cs489.miu.dentalsurgeryapp.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Builds the schema from the Flyway migrations (H2 in MySQL mode), lets Hibernate validate
+ * the entities against it, and checks the repository hot paths are planned on their
+ * composite indexes rather than a scan or a single-column foreign key index.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:schemaexplain;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.sql.init.mode=never",
+        "dentalsurgery.reminders.enabled=false"
+})
+class SchemaIndexExplainTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void appointmentRangesUseTheBookingKeyAndPatientDateIndex() {
+        assertPlanUses("SELECT appointment_id FROM appointments WHERE dentist_id = 1"
+                + " AND appointmentDateTime >= '2025-01-01 00:00:00' AND appointmentDateTime < '2025-01-08 00:00:00'",
+                "uk_appointments_booking");
+        assertPlanUses("SELECT appointment_id FROM appointments WHERE patient_id = 1"
+                + " AND appointmentDateTime > '2025-01-01 00:00:00'",
+                "idx_appointments_patient_datetime");
+    }
+
+    @Test
+    void statusFiltersUseTheStatusIndexes() {
+        assertPlanUses("SELECT COUNT(*) FROM appointments WHERE patient_id = 1 AND appointmentStatus = 7",
+                "idx_appointments_patient_status");
+        assertPlanUses("SELECT COUNT(*) FROM bills WHERE patient_id = 1 AND payment_status <> 2",
+                "idx_bills_patient_status");
+    }
+
+    @Test
+    void billListSeeksUseTheTotalCostIndexes() {
+        assertPlanUses("SELECT bill_id FROM bills WHERE total_cost < 100"
+                + " ORDER BY total_cost DESC, bill_id DESC LIMIT 21", "idx_bills_total_cost_id");
+        assertPlanUses("SELECT bill_id FROM bills WHERE payment_status = 1 AND total_cost > 100"
+                + " ORDER BY total_cost, bill_id LIMIT 21", "idx_bills_status_total_cost");
+    }
+
+    @Test
+    void lookupsUseTheirIndexes() {
+        assertPlanUses("SELECT bill_id FROM bills WHERE appointment_id = 1", "UK5rd0ntbb8g3vu5f5qcsoeqyyf");
+        assertPlanUses("SELECT patient_id FROM patients WHERE email = 'a@example.com'", "uk_patients_email");
+        assertPlanUses("SELECT address_id FROM addresses WHERE street = '1 Main St' AND city = 'Fairfield'"
+                + " AND state = 'IA' AND zipcode = '52557'", "uk_addresses_full");
+    }
+
+    @Test
+    void naturalKeysAreUnique() {
+        assertThat(jdbcTemplate.queryForList("SELECT CONSTRAINT_NAME FROM INFORMATION_SCHEMA.TABLE_CONSTRAINTS"
+                + " WHERE CONSTRAINT_TYPE = 'UNIQUE'", String.class))
+                .extracting(name -> name.toLowerCase(Locale.ROOT))
+                .contains("uk_addresses_full", "uk_patients_email", "uk_dentists_email", "uk_appointments_booking");
+    }
+
+    @Test
+    void statusColumnsAreTinyint() {
+        assertThat(jdbcTemplate.queryForList("SELECT DATA_TYPE FROM INFORMATION_SCHEMA.COLUMNS"
+                + " WHERE (TABLE_NAME = 'APPOINTMENTS' AND COLUMN_NAME = 'APPOINTMENTSTATUS')"
+                + " OR (TABLE_NAME = 'BILLS' AND COLUMN_NAME = 'PAYMENT_STATUS')", String.class))
+                .containsExactly("TINYINT", "TINYINT");
+    }
+
+    private void assertPlanUses(String sql, String index) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+        assertThat(plan.toUpperCase(Locale.ROOT)).as(plan).contains(index.toUpperCase(Locale.ROOT));
+    }
+}
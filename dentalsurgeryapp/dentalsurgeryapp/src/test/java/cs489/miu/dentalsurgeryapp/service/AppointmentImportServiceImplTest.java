@@ -0,0 +1,210 @@
+package cs489.miu.dentalsurgeryapp.service;
+
+import cs489.miu.dentalsurgeryapp.dto.AppointmentImportResultDTO;
+import cs489.miu.dentalsurgeryapp.dto.AppointmentImportResultDTO.Outcome;
+import cs489.miu.dentalsurgeryapp.dto.AppointmentImportResultDTO.RowResult;
+import cs489.miu.dentalsurgeryapp.dto.AppointmentImportRowDTO;
+import cs489.miu.dentalsurgeryapp.model.Appointment;
+import cs489.miu.dentalsurgeryapp.model.Dentist;
+import cs489.miu.dentalsurgeryapp.model.Patient;
+import cs489.miu.dentalsurgeryapp.model.SurgeryLocation;
+import cs489.miu.dentalsurgeryapp.repository.AppointmentRepository;
+import cs489.miu.dentalsurgeryapp.repository.BillRepository;
+import cs489.miu.dentalsurgeryapp.repository.DentistRepository;
+import cs489.miu.dentalsurgeryapp.repository.DentistWeekSlotRepository;
+import cs489.miu.dentalsurgeryapp.repository.PatientRepository;
+import cs489.miu.dentalsurgeryapp.repository.SurgeryLocationRepository;
+import cs489.miu.dentalsurgeryapp.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.util.AopTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+
+/**
+ * Bulk import against an in-memory database: the outcome of every row, and a chunk whose
+ * insert fails leaving nothing behind.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:appointmentimport;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.sql.init.mode=never",
+        "dentalsurgery.reminders.enabled=false"
+})
+class AppointmentImportServiceImplTest {
+
+    @Autowired
+    private AppointmentImportService importService;
+
+    @Autowired
+    private DentistWeeklyLoadService dentistWeeklyLoadService;
+
+    @MockitoSpyBean
+    private DentistSlotReservationService slotReservationService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private DentistWeekSlotRepository slotRepository;
+
+    @Autowired
+    private BillRepository billRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private DentistRepository dentistRepository;
+
+    @Autowired
+    private SurgeryLocationRepository surgeryLocationRepository;
+
+    private Integer patientId;
+    private Integer dentistId;
+    private Integer locationId;
+    private Appointment existing;
+    private LocalDate week;
+
+    @BeforeEach
+    void setUp() {
+        slotRepository.deleteAll();
+        billRepository.deleteAll();
+        appointmentRepository.deleteAll();
+        userRepository.deleteAll();
+        patientRepository.deleteAll();
+        dentistRepository.deleteAll();
+        surgeryLocationRepository.deleteAll();
+
+        Patient patient = patientRepository.save(patient());
+        Dentist dentist = dentistRepository.save(dentist());
+        SurgeryLocation location = surgeryLocationRepository.save(location());
+        patientId = patient.getPatientId();
+        dentistId = dentist.getDentistId();
+        locationId = location.getSurgeryLocationId();
+
+        // One appointment already booked in the week the batch fills up
+        week = DentistWeeklyLoadService.weekStartOf(LocalDateTime.now().plusWeeks(3));
+        Appointment appointment = new Appointment();
+        appointment.setAppointmentType("CHECKUP");
+        appointment.setAppointmentStatus("SCHEDULED");
+        appointment.setAppointmentDateTime(monday().atTime(9, 0));
+        appointment.setPatient(patient);
+        appointment.setDentist(dentist);
+        appointment.setSurgeryLocation(location);
+        existing = appointmentRepository.save(appointment);
+        dentistWeeklyLoadService.rebuild();
+    }
+
+    @Test
+    void everyRowIsReportedCreatedDuplicateOrRejected() {
+        LocalDate tuesday = monday().plusDays(1);
+        LocalDate wednesday = monday().plusDays(2);
+        AppointmentImportResultDTO result = importService.importAppointments(List.of(
+                row(existing.getAppointmentDateTime(), null),
+                row(monday().atTime(10, 0), null),
+                row(monday().atTime(10, 0), "SCHEDULED"),
+                new AppointmentImportRowDTO(999999, dentistId, locationId, monday().atTime(12, 0), "CHECKUP", null),
+                row(monday().atTime(7, 0), null),
+                row(monday().atTime(13, 0), "LOST"),
+                row(monday().atTime(11, 0), null),
+                row(tuesday.atTime(9, 0), null),
+                row(tuesday.atTime(10, 0), null),
+                // The week is full by now: the booked appointment and four rows of this batch
+                row(wednesday.atTime(9, 0), null),
+                row(wednesday.atTime(9, 0), "CANCELLED"),
+                row(LocalDate.of(2020, 1, 5).atTime(10, 0), "COMPLETED")));
+
+        assertThat(result.rows()).extracting(RowResult::outcome).containsExactly(
+                Outcome.DUPLICATE, Outcome.CREATED, Outcome.DUPLICATE, Outcome.REJECTED, Outcome.REJECTED,
+                Outcome.REJECTED, Outcome.CREATED, Outcome.CREATED, Outcome.CREATED, Outcome.REJECTED,
+                Outcome.CREATED, Outcome.CREATED);
+        assertThat(result.received()).isEqualTo(12);
+        assertThat(result.created()).isEqualTo(6);
+        assertThat(result.duplicates()).isEqualTo(2);
+        assertThat(result.rejected()).isEqualTo(4);
+
+        assertThat(result.rows().get(0).appointmentId()).isEqualTo(existing.getAppointmentId());
+        assertThat(result.rows().get(2).message()).isEqualTo("Same appointment as row 2");
+        assertThat(result.rows().get(3).message()).isEqualTo("Patient not found with ID: 999999");
+        assertThat(result.rows().get(4).message()).contains("business hours");
+        assertThat(result.rows().get(5).message()).isEqualTo("Unknown appointmentStatus: LOST");
+        assertThat(result.rows().get(9).message()).contains("already has 5 appointments").contains(week.toString());
+        assertThat(result.rows()).filteredOn(row -> row.outcome() == Outcome.CREATED)
+                .allSatisfy(row -> assertThat(appointmentRepository.existsById(row.appointmentId())).isTrue());
+
+        assertThat(appointmentRepository.count()).isEqualTo(7);
+        assertThat(dentistWeeklyLoadService.getWeeklyLoad(dentistId, week)).isEqualTo(DentistWeeklyLoadService.WEEKLY_LIMIT);
+    }
+
+    @Test
+    void chunkIsRolledBackWholeWhenItsInsertFails() {
+        LocalDateTime failing = monday().plusDays(1).atTime(9, 0);
+        doThrow(new DataIntegrityViolationException("slot table unavailable"))
+                .when(AopTestUtils.<DentistSlotReservationService>getUltimateTargetObject(slotReservationService))
+                .reserve(argThat(appointment -> failing.equals(appointment.getAppointmentDateTime())));
+
+        AppointmentImportResultDTO result = importService.importAppointments(List.of(
+                row(LocalDate.of(2020, 1, 6).atTime(10, 0), "COMPLETED"),
+                row(monday().atTime(10, 0), null),
+                row(failing, null)));
+
+        assertThat(result.created()).isZero();
+        assertThat(result.rejected()).isEqualTo(3);
+        assertThat(result.rows()).allSatisfy(row -> {
+            assertThat(row.outcome()).isEqualTo(Outcome.REJECTED);
+            assertThat(row.message()).startsWith("Insert failed with its batch: ").contains("slot table unavailable");
+        });
+        assertThat(appointmentRepository.count()).isEqualTo(1);
+        assertThat(slotRepository.count()).isZero();
+        assertThat(dentistWeeklyLoadService.getWeeklyLoad(dentistId, week)).isEqualTo(1);
+    }
+
+    private LocalDate monday() {
+        return week.plusDays(1);
+    }
+
+    private AppointmentImportRowDTO row(LocalDateTime at, String status) {
+        return new AppointmentImportRowDTO(patientId, dentistId, locationId, at, "CHECKUP", status);
+    }
+
+    private static Patient patient() {
+        Patient patient = new Patient();
+        patient.setFirstName("Imported");
+        patient.setLastName("Patient");
+        patient.setEmail("import-patient@example.com");
+        patient.setDob(LocalDate.of(1990, 1, 1));
+        return patient;
+    }
+
+    private static Dentist dentist() {
+        Dentist dentist = new Dentist();
+        dentist.setFirstName("Import");
+        dentist.setLastName("Dentist");
+        dentist.setEmail("import-dentist@example.com");
+        dentist.setSpecialization("General");
+        return dentist;
+    }
+
+    private static SurgeryLocation location() {
+        SurgeryLocation location = new SurgeryLocation();
+        location.setName("Main");
+        return location;
+    }
+}
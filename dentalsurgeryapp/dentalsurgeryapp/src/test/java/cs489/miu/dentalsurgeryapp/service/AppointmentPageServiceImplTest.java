@@ -0,0 +1,198 @@
+package cs489.miu.dentalsurgeryapp.service;
+
+import cs489.miu.dentalsurgeryapp.dto.AppointmentFilterDTO;
+import cs489.miu.dentalsurgeryapp.dto.KeysetCursor;
+import cs489.miu.dentalsurgeryapp.dto.KeysetPageDTO;
+import cs489.miu.dentalsurgeryapp.model.Appointment;
+import cs489.miu.dentalsurgeryapp.model.Dentist;
+import cs489.miu.dentalsurgeryapp.model.Patient;
+import cs489.miu.dentalsurgeryapp.model.SurgeryLocation;
+import cs489.miu.dentalsurgeryapp.repository.AppointmentRepository;
+import cs489.miu.dentalsurgeryapp.repository.BillRepository;
+import cs489.miu.dentalsurgeryapp.repository.DentistRepository;
+import cs489.miu.dentalsurgeryapp.repository.DentistWeekSlotRepository;
+import cs489.miu.dentalsurgeryapp.repository.PatientRepository;
+import cs489.miu.dentalsurgeryapp.repository.SurgeryLocationRepository;
+import cs489.miu.dentalsurgeryapp.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Keyset pages of the admin appointment list against an in-memory database: newest first,
+ * appointments at the same time ordered by id, and a cursor that cannot be read starting
+ * over at the first page.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:appointmentpages;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.sql.init.mode=never",
+        "dentalsurgery.reminders.enabled=false"
+})
+class AppointmentPageServiceImplTest {
+
+    private static final LocalDateTime TIED = LocalDate.of(2030, 7, 9).atTime(10, 0);
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private DentistWeekSlotRepository slotRepository;
+
+    @Autowired
+    private BillRepository billRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private DentistRepository dentistRepository;
+
+    @Autowired
+    private SurgeryLocationRepository surgeryLocationRepository;
+
+    // Newest first: one later appointment, three at the same time, one earlier
+    private final List<Integer> expectedOrder = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        slotRepository.deleteAll();
+        billRepository.deleteAll();
+        appointmentRepository.deleteAll();
+        userRepository.deleteAll();
+        patientRepository.deleteAll();
+        dentistRepository.deleteAll();
+        surgeryLocationRepository.deleteAll();
+
+        Dentist dentist = dentistRepository.save(dentist());
+        SurgeryLocation location = surgeryLocationRepository.save(location());
+        Appointment latest = appointment(patient(0), dentist, location, TIED.plusDays(1));
+        List<Appointment> tied = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            tied.add(appointment(patient(i), dentist, location, TIED));
+        }
+        Appointment earliest = appointment(patient(4), dentist, location, TIED.minusDays(1));
+
+        expectedOrder.clear();
+        expectedOrder.add(latest.getAppointmentId());
+        tied.stream().map(Appointment::getAppointmentId).sorted((a, b) -> b - a).forEach(expectedOrder::add);
+        expectedOrder.add(earliest.getAppointmentId());
+    }
+
+    @Test
+    void pagesWalkForwardThroughTiesInIdOrder() {
+        KeysetPageDTO<Appointment> first = page(null, false);
+        assertThat(ids(first)).isEqualTo(expectedOrder.subList(0, 2));
+        assertThat(first.hasPrevious()).isFalse();
+        assertThat(first.hasNext()).isTrue();
+
+        // The cursor sits on the first of the tied rows; the next page must pick up the other two
+        KeysetPageDTO<Appointment> second = page(first.nextCursor(), false);
+        assertThat(ids(second)).isEqualTo(expectedOrder.subList(2, 4));
+        assertThat(second.hasPrevious()).isTrue();
+        assertThat(second.hasNext()).isTrue();
+
+        KeysetPageDTO<Appointment> last = page(second.nextCursor(), false);
+        assertThat(ids(last)).isEqualTo(expectedOrder.subList(4, 5));
+        assertThat(last.hasPrevious()).isTrue();
+        assertThat(last.hasNext()).isFalse();
+    }
+
+    @Test
+    void previousPagesLeadBackToTheFirstPage() {
+        KeysetPageDTO<Appointment> second = page(page(null, false).nextCursor(), false);
+        KeysetPageDTO<Appointment> last = page(second.nextCursor(), false);
+
+        KeysetPageDTO<Appointment> backToSecond = page(last.previousCursor(), true);
+        assertThat(ids(backToSecond)).isEqualTo(ids(second));
+        assertThat(backToSecond.hasPrevious()).isTrue();
+        assertThat(backToSecond.hasNext()).isTrue();
+
+        KeysetPageDTO<Appointment> backToFirst = page(backToSecond.previousCursor(), true);
+        assertThat(ids(backToFirst)).isEqualTo(expectedOrder.subList(0, 2));
+        assertThat(backToFirst.hasPrevious()).isFalse();
+        assertThat(backToFirst.hasNext()).isTrue();
+    }
+
+    @Test
+    void unreadableCursorsStartAtTheFirstPage() {
+        List<Integer> firstPage = expectedOrder.subList(0, 2);
+        String notADate = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(("yesterday|" + expectedOrder.get(2)).getBytes(StandardCharsets.UTF_8));
+        String notAnId = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((TIED + "|x").getBytes(StandardCharsets.UTF_8));
+
+        assertThat(ids(page(notADate, false))).isEqualTo(firstPage);
+        assertThat(ids(page(notADate, true))).isEqualTo(firstPage);
+        assertThat(ids(page(notAnId, false))).isEqualTo(firstPage);
+        assertThat(ids(page("%%not-base64%%", false))).isEqualTo(firstPage);
+        assertThat(ids(page(null, true))).isEqualTo(firstPage);
+        assertThat(page("%%not-base64%%", false).hasPrevious()).isFalse();
+
+        // A well-formed cursor past the last row is simply an empty page
+        String beyond = KeysetCursor.of(TIED.minusYears(1), 1).encode();
+        assertThat(page(beyond, false).content()).isEmpty();
+    }
+
+    private KeysetPageDTO<Appointment> page(String cursor, boolean backward) {
+        return appointmentService.findAppointmentsPage(AppointmentFilterDTO.none(), cursor, backward, 2);
+    }
+
+    private static List<Integer> ids(KeysetPageDTO<Appointment> page) {
+        return page.content().stream().map(Appointment::getAppointmentId).toList();
+    }
+
+    private Appointment appointment(Patient patient, Dentist dentist, SurgeryLocation location, LocalDateTime at) {
+        Appointment appointment = new Appointment();
+        appointment.setAppointmentType("CHECKUP");
+        appointment.setAppointmentStatus("SCHEDULED");
+        appointment.setAppointmentDateTime(at);
+        appointment.setPatient(patient);
+        appointment.setDentist(dentist);
+        appointment.setSurgeryLocation(location);
+        return appointmentRepository.save(appointment);
+    }
+
+    private Patient patient(int n) {
+        Patient patient = new Patient();
+        patient.setFirstName("Page");
+        patient.setLastName("Patient" + n);
+        patient.setEmail("page-patient-" + n + "@example.com");
+        patient.setDob(LocalDate.of(1990, 1, 1));
+        return patientRepository.save(patient);
+    }
+
+    private static Dentist dentist() {
+        Dentist dentist = new Dentist();
+        dentist.setFirstName("Page");
+        dentist.setLastName("Dentist");
+        dentist.setEmail("page-dentist@example.com");
+        dentist.setSpecialization("General");
+        return dentist;
+    }
+
+    private static SurgeryLocation location() {
+        SurgeryLocation location = new SurgeryLocation();
+        location.setName("Main");
+        return location;
+    }
+}
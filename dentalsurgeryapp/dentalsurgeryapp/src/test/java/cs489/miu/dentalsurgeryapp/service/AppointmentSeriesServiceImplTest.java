@@ -0,0 +1,128 @@
+package cs489.miu.dentalsurgeryapp.service;
+
+import cs489.miu.dentalsurgeryapp.exception.AppointmentLimitExceededException;
+import cs489.miu.dentalsurgeryapp.model.AppointmentSeries;
+import cs489.miu.dentalsurgeryapp.model.Dentist;
+import cs489.miu.dentalsurgeryapp.model.Patient;
+import cs489.miu.dentalsurgeryapp.model.SurgeryLocation;
+import cs489.miu.dentalsurgeryapp.repository.AppointmentRepository;
+import cs489.miu.dentalsurgeryapp.repository.AppointmentSeriesRepository;
+import cs489.miu.dentalsurgeryapp.service.impl.AppointmentSeriesServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class AppointmentSeriesServiceImplTest {
+
+    private static final int DENTIST_ID = 7;
+
+    @Mock
+    private AppointmentSeriesRepository seriesRepository;
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private AppointmentService appointmentService;
+
+    @Mock
+    private BillService billService;
+
+    @Mock
+    private DentistWeeklyLoadService dentistWeeklyLoadService;
+
+    @Mock
+    private CalendarFeedService calendarFeedService;
+
+    @Mock
+    private DentistAssignmentService dentistAssignmentService;
+
+    private AppointmentSeriesServiceImpl seriesService;
+    private AutoCloseable mocksCloseable;
+    private LocalDateTime firstStart;
+
+    @BeforeEach
+    void setUp() {
+        mocksCloseable = MockitoAnnotations.openMocks(this);
+        seriesService = new AppointmentSeriesServiceImpl(seriesRepository, appointmentRepository, appointmentService,
+                billService, dentistWeeklyLoadService, calendarFeedService, dentistAssignmentService,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), 8);
+        firstStart = LocalDate.now().plusWeeks(1).with(TemporalAdjusters.nextOrSame(DayOfWeek.TUESDAY)).atTime(9, 0);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        mocksCloseable.close();
+    }
+
+    @Test
+    void seriesIsRejectedWithEveryFullWeekBeforeAnythingIsSaved() {
+        LocalDate fullWeek = DentistWeeklyLoadService.weekStartOf(firstStart.plusWeeks(8));
+        when(dentistWeeklyLoadService.getWeeklyLoad(eq(DENTIST_ID), any())).thenReturn(1L);
+        when(dentistWeeklyLoadService.getWeeklyLoad(DENTIST_ID, fullWeek)).thenReturn((long) DentistWeeklyLoadService.WEEKLY_LIMIT);
+
+        assertThatThrownBy(() -> seriesService.createSeries(series(firstStart, 4, 26)))
+                .isInstanceOf(AppointmentLimitExceededException.class)
+                .hasMessageContaining("1 of the series' weeks (" + fullWeek + ")");
+
+        verify(dentistWeeklyLoadService, times(26)).getWeeklyLoad(eq(DENTIST_ID), any());
+        verify(seriesRepository, never()).save(any());
+        verify(appointmentService, never()).saveAppointment(any());
+    }
+
+    @Test
+    void virtualOccurrencesCountOnlyInTheirOwnWeeks() {
+        AppointmentSeries open = series(firstStart, 3, 10);
+        open.setMaterializedCount(2);
+        open.setNextStart(open.occurrenceStart(2));
+        when(seriesRepository.findOpenByDentistId(DENTIST_ID)).thenReturn(List.of(open));
+
+        LocalDate firstVirtualWeek = DentistWeeklyLoadService.weekStartOf(open.occurrenceStart(2));
+        assertThat(seriesService.countVirtualInWeek(DENTIST_ID, firstVirtualWeek)).isEqualTo(1);
+        assertThat(seriesService.countVirtualInWeek(DENTIST_ID, firstVirtualWeek.plusWeeks(21))).isEqualTo(1);
+        assertThat(seriesService.countVirtualInWeek(DENTIST_ID, firstVirtualWeek.plusWeeks(1))).isZero();
+        assertThat(seriesService.countVirtualInWeek(DENTIST_ID, firstVirtualWeek.plusWeeks(24))).isZero();
+        assertThat(seriesService.countVirtualInWeek(DENTIST_ID, firstVirtualWeek.minusWeeks(3))).isZero();
+        // The tails are loaded once and then answered from memory
+        verify(seriesRepository, times(1)).findOpenByDentistId(anyInt());
+    }
+
+    private static AppointmentSeries series(LocalDateTime firstStart, int intervalWeeks, int occurrenceCount) {
+        Patient patient = new Patient();
+        patient.setPatientId(11);
+        Dentist dentist = new Dentist();
+        dentist.setDentistId(DENTIST_ID);
+        SurgeryLocation location = new SurgeryLocation();
+        location.setSurgeryLocationId(3);
+        AppointmentSeries series = new AppointmentSeries();
+        series.setSeriesId(5);
+        series.setPatient(patient);
+        series.setDentist(dentist);
+        series.setSurgeryLocation(location);
+        series.setAppointmentType("ORTHO");
+        series.setFirstStart(firstStart);
+        series.setIntervalWeeks(intervalWeeks);
+        series.setOccurrenceCount(occurrenceCount);
+        series.setMaterializedCount(0);
+        series.setSkippedCount(0);
+        series.setNextStart(firstStart);
+        return series;
+    }
+}
@@ -0,0 +1,273 @@
+package cs489.miu.dentalsurgeryapp.service;
+
+import cs489.miu.dentalsurgeryapp.model.Address;
+import cs489.miu.dentalsurgeryapp.model.Appointment;
+import cs489.miu.dentalsurgeryapp.model.Bill;
+import cs489.miu.dentalsurgeryapp.model.Dentist;
+import cs489.miu.dentalsurgeryapp.model.DentistWeekSlot;
+import cs489.miu.dentalsurgeryapp.model.Patient;
+import cs489.miu.dentalsurgeryapp.model.SurgeryLocation;
+import cs489.miu.dentalsurgeryapp.repository.AddressRepository;
+import cs489.miu.dentalsurgeryapp.repository.AppointmentRepository;
+import cs489.miu.dentalsurgeryapp.repository.BillRepository;
+import cs489.miu.dentalsurgeryapp.repository.DentistRepository;
+import cs489.miu.dentalsurgeryapp.repository.DentistWeekSlotRepository;
+import cs489.miu.dentalsurgeryapp.repository.PatientRepository;
+import cs489.miu.dentalsurgeryapp.repository.RoleRepository;
+import cs489.miu.dentalsurgeryapp.repository.SurgeryLocationRepository;
+import cs489.miu.dentalsurgeryapp.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.util.AopTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Booking failures against an in-memory database. Two checkouts race for the last free slots
+ * of a dentist's week: the loser must fail with a conflict and leave nothing behind, not an
+ * UnexpectedRollbackException from retrying inside its rollback-only transaction. Only a lost
+ * slot race is retried at all, and only a bounded number of times.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:checkout;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.sql.init.mode=never",
+        "dentalsurgery.reminders.enabled=false"
+})
+class AppointmentServiceImplTest {
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @MockitoSpyBean
+    private DentistSlotReservationService slotReservationService;
+
+    @Autowired
+    private DentistWeekSlotRepository slotRepository;
+
+    @Autowired
+    private BillRepository billRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private DentistRepository dentistRepository;
+
+    @Autowired
+    private SurgeryLocationRepository surgeryLocationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    private final List<Appointment> unslotted = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        slotRepository.deleteAll();
+        billRepository.deleteAll();
+        appointmentRepository.deleteAll();
+        userRepository.deleteAll();
+        roleRepository.deleteAll();
+        patientRepository.deleteAll();
+        dentistRepository.deleteAll();
+        surgeryLocationRepository.deleteAll();
+        addressRepository.deleteAll();
+
+        Patient patient = patientRepository.save(patient());
+        Dentist dentist = dentistRepository.save(dentist());
+        SurgeryLocation location = surgeryLocationRepository.save(location());
+
+        // Three appointments hold slots 1-3 of the week; two booked before slots existed hold none
+        LocalDateTime monday = LocalDate.of(2030, 6, 3).atTime(9, 0);
+        for (int slot = 1; slot <= 3; slot++) {
+            Appointment held = appointment(patient, dentist, location, monday.plusHours(slot));
+            slotRepository.save(new DentistWeekSlot(dentist.getDentistId(),
+                    DentistWeeklyLoadService.weekStartOf(monday), slot, held.getAppointmentId()));
+        }
+        unslotted.clear();
+        unslotted.add(appointment(patient, dentist, location, monday.plusDays(1)));
+        unslotted.add(appointment(patient, dentist, location, monday.plusDays(2)));
+    }
+
+    @Test
+    void checkoutThatLosesTheSlotRaceFailsWithAConflict() throws Exception {
+        // Both checkouts read the week before either claims a slot: each gives the other
+        // appointment slot 4 and takes slot 5, so one of them hits the slot's unique key
+        CyclicBarrier bothRead = new CyclicBarrier(2);
+        doAnswer(invocation -> {
+            bothRead.await(10, TimeUnit.SECONDS);
+            return invocation.callRealMethod();
+        }).when(AopTestUtils.<DentistSlotReservationService>getUltimateTargetObject(slotReservationService)).reserve(any());
+
+        ExecutorService checkouts = Executors.newFixedThreadPool(2);
+        List<Future<Bill>> results = new ArrayList<>();
+        try {
+            for (Appointment appointment : unslotted) {
+                results.add(checkouts.submit(() -> appointmentService.checkoutAppointment(
+                        appointment.getAppointmentId(), new BigDecimal("60.00"), "PENDING")));
+            }
+            List<Bill> bills = new ArrayList<>();
+            List<Throwable> failures = new ArrayList<>();
+            for (Future<Bill> result : results) {
+                try {
+                    bills.add(result.get(30, TimeUnit.SECONDS));
+                } catch (ExecutionException e) {
+                    failures.add(e.getCause());
+                }
+            }
+
+            assertThat(bills).hasSize(1);
+            assertThat(failures).singleElement().satisfies(failure -> {
+                assertThat(failure).isInstanceOfAny(DataIntegrityViolationException.class, ConcurrencyFailureException.class);
+                if (failure instanceof DataIntegrityViolationException violation) {
+                    assertThat(DentistSlotReservationService.isSlotConflict(violation)).isTrue();
+                }
+            });
+        } finally {
+            checkouts.shutdownNow();
+        }
+
+        // The loser rolled back whole: one bill, one appointment checked out, five slots
+        assertThat(billRepository.count()).isEqualTo(1);
+        assertThat(unslotted).filteredOn(appointment -> "CHECKOUT".equals(
+                appointmentRepository.findById(appointment.getAppointmentId()).orElseThrow().getAppointmentStatus()))
+                .hasSize(1);
+        assertThat(slotRepository.count()).isEqualTo(5);
+    }
+
+    @Test
+    void bookingViolationOtherThanASlotRaceIsNotRetried() {
+        // Moving one appointment onto the other's time breaks uk_appointments_booking, not a slot key
+        Appointment moved = unslotted.get(1);
+        moved.setAppointmentDateTime(unslotted.get(0).getAppointmentDateTime());
+
+        assertThatThrownBy(() -> appointmentService.updateAppointment(moved))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        verify(AopTestUtils.<DentistSlotReservationService>getUltimateTargetObject(slotReservationService), times(1))
+                .reserve(any());
+    }
+
+    @Test
+    void bookingThatLosesASlotRaceIsRetriedAgainstTheFreshWeek() {
+        DentistSlotReservationService target = AopTestUtils.getUltimateTargetObject(slotReservationService);
+        doThrow(slotConflict()).doCallRealMethod().when(target).reserve(any());
+        Appointment booking = newBookingInTheNextWeek();
+
+        Appointment saved = appointmentService.saveAppointment(booking);
+
+        assertThat(saved.getAppointmentId()).isNotNull();
+        verify(target, times(2)).reserve(any());
+        assertThat(appointmentRepository.count()).isEqualTo(6);
+        assertThat(slotRepository.count()).isEqualTo(4);
+    }
+
+    @Test
+    void slotRaceRetriesStopAfterTheConfiguredAttempts() {
+        DentistSlotReservationService target = AopTestUtils.getUltimateTargetObject(slotReservationService);
+        doThrow(slotConflict()).when(target).reserve(any());
+        Appointment booking = newBookingInTheNextWeek();
+
+        assertThatThrownBy(() -> appointmentService.saveAppointment(booking))
+                .isInstanceOf(DataIntegrityViolationException.class);
+
+        // dentalsurgery.booking.max-attempts defaults to 6; every attempt was rolled back
+        verify(target, times(6)).reserve(any());
+        assertThat(booking.getAppointmentId()).isNull();
+        assertThat(appointmentRepository.count()).isEqualTo(5);
+        assertThat(slotRepository.count()).isEqualTo(3);
+    }
+
+    private Appointment newBookingInTheNextWeek() {
+        Appointment template = unslotted.get(0);
+        Appointment booking = new Appointment();
+        booking.setAppointmentType("CHECKUP");
+        booking.setAppointmentStatus("SCHEDULED");
+        booking.setAppointmentDateTime(template.getAppointmentDateTime().plusWeeks(1));
+        booking.setPatient(template.getPatient());
+        booking.setDentist(template.getDentist());
+        booking.setSurgeryLocation(template.getSurgeryLocation());
+        return booking;
+    }
+
+    private static DataIntegrityViolationException slotConflict() {
+        return new DataIntegrityViolationException("Duplicate entry for key 'uk_dentist_week_slot'");
+    }
+
+    private Appointment appointment(Patient patient, Dentist dentist, SurgeryLocation location, LocalDateTime at) {
+        Appointment appointment = new Appointment();
+        appointment.setAppointmentType("CHECKUP");
+        appointment.setAppointmentStatus("SCHEDULED");
+        appointment.setAppointmentDateTime(at);
+        appointment.setPatient(patient);
+        appointment.setDentist(dentist);
+        appointment.setSurgeryLocation(location);
+        return appointmentRepository.save(appointment);
+    }
+
+    private static Patient patient() {
+        Address address = new Address();
+        address.setStreet("1 Main St");
+        address.setCity("Fairfield");
+        address.setState("IA");
+        address.setZipcode("52556");
+
+        Patient patient = new Patient();
+        patient.setFirstName("Pat");
+        patient.setLastName("Ient");
+        patient.setEmail("checkout@example.com");
+        patient.setDob(LocalDate.of(1990, 1, 1));
+        patient.setAddress(address);
+        return patient;
+    }
+
+    private static Dentist dentist() {
+        Dentist dentist = new Dentist();
+        dentist.setFirstName("Dentist");
+        dentist.setLastName("One");
+        dentist.setEmail("checkout-dentist@example.com");
+        dentist.setSpecialization("General");
+        return dentist;
+    }
+
+    private static SurgeryLocation location() {
+        SurgeryLocation location = new SurgeryLocation();
+        location.setName("Main");
+        return location;
+    }
+}
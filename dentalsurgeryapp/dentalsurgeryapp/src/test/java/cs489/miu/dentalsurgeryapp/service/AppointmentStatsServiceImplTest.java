@@ -0,0 +1,94 @@
+package cs489.miu.dentalsurgeryapp.service;
+
+import cs489.miu.dentalsurgeryapp.dto.AppointmentStatsDTO;
+import cs489.miu.dentalsurgeryapp.dto.AppointmentStatusCountDTO;
+import cs489.miu.dentalsurgeryapp.model.AppointmentStatus;
+import cs489.miu.dentalsurgeryapp.repository.AppointmentRepository;
+import cs489.miu.dentalsurgeryapp.service.impl.AppointmentStatsServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AppointmentStatsServiceImplTest {
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    private AppointmentStatsServiceImpl statsService;
+    private LocalDateTime nextWeek;
+
+    @BeforeEach
+    void setUp() {
+        statsService = new AppointmentStatsServiceImpl(appointmentRepository, Duration.ofMinutes(5));
+        nextWeek = LocalDateTime.now().plusWeeks(1);
+    }
+
+    @Test
+    void getPatientStats_combinesStatusRows() {
+        when(appointmentRepository.countByStatusForPatient(eq(1), any())).thenReturn(List.of(
+                new AppointmentStatusCountDTO(AppointmentStatus.COMPLETED, 4L, 0L, null),
+                new AppointmentStatusCountDTO(AppointmentStatus.CANCELLED, 2L, 1L, nextWeek.minusDays(2)),
+                new AppointmentStatusCountDTO(AppointmentStatus.CONFIRMED, 3L, 2L, nextWeek)));
+
+        AppointmentStatsDTO stats = statsService.getPatientStats(1);
+
+        assertThat(stats.total()).isEqualTo(9);
+        assertThat(stats.upcoming()).isEqualTo(3);
+        assertThat(stats.past()).isEqualTo(6);
+        assertThat(stats.count(AppointmentStatus.COMPLETED)).isEqualTo(4);
+        assertThat(stats.count(AppointmentStatus.NO_SHOW)).isZero();
+        // the cancelled appointment is earlier but is not the next one to attend
+        assertThat(stats.nextAppointmentDateTime()).isEqualTo(nextWeek);
+    }
+
+    @Test
+    void getDentistStats_isCachedUntilEvicted() {
+        when(appointmentRepository.countByStatusForDentist(eq(7), any())).thenReturn(List.of(
+                new AppointmentStatusCountDTO(AppointmentStatus.CONFIRMED, 1L, 1L, nextWeek)));
+
+        statsService.getDentistStats(7);
+        statsService.getDentistStats(7);
+        verify(appointmentRepository, times(1)).countByStatusForDentist(eq(7), any());
+
+        statsService.evict(null, 7);
+        statsService.getDentistStats(7);
+        verify(appointmentRepository, times(2)).countByStatusForDentist(eq(7), any());
+    }
+
+    @Test
+    void evict_onlyDropsTheGivenOwner() {
+        when(appointmentRepository.countByStatusForPatient(any(), any())).thenReturn(List.of());
+
+        statsService.getPatientStats(1);
+        statsService.getPatientStats(2);
+        statsService.evict(1, null);
+        statsService.getPatientStats(1);
+        statsService.getPatientStats(2);
+
+        verify(appointmentRepository, times(2)).countByStatusForPatient(eq(1), any());
+        verify(appointmentRepository, times(1)).countByStatusForPatient(eq(2), any());
+    }
+
+    @Test
+    void getPatientStats_recomputesOnceTheNextAppointmentHasStarted() {
+        when(appointmentRepository.countByStatusForPatient(eq(3), any())).thenReturn(List.of(
+                new AppointmentStatusCountDTO(AppointmentStatus.CONFIRMED, 1L, 1L, LocalDateTime.now().minusSeconds(1))));
+
+        statsService.getPatientStats(3);
+        statsService.getPatientStats(3);
+
+        verify(appointmentRepository, times(2)).countByStatusForPatient(eq(3), any());
+    }
+}
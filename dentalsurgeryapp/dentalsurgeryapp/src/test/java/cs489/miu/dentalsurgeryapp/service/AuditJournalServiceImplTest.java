@@ -0,0 +1,95 @@
+package cs489.miu.dentalsurgeryapp.service;
+
+import cs489.miu.dentalsurgeryapp.dto.AuditEventDTO;
+import cs489.miu.dentalsurgeryapp.service.impl.AuditJournalServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class AuditJournalServiceImplTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private AuditJournalServiceImpl auditJournalService;
+    // Entity ids of the rows in each executed batch
+    private final List<List<Integer>> batches = new ArrayList<>();
+    private boolean databaseDown;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        auditJournalService = new AuditJournalServiceImpl(jdbcTemplate, AuditJournalService.Durability.BEST_EFFORT,
+                3, Duration.ofHours(1), 5);
+
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        List<Integer> rows = new ArrayList<>();
+        doAnswer(call -> rows.add(call.getArgument(1))).when(statement).setInt(eq(2), anyInt());
+        when(statement.executeBatch()).thenAnswer(call -> {
+            batches.add(List.copyOf(rows));
+            rows.clear();
+            return new int[0];
+        });
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenAnswer(call -> {
+            if (databaseDown) {
+                throw new DataAccessResourceFailureException("database down");
+            }
+            return ((ConnectionCallback<Object>) call.getArgument(0)).doInConnection(connection);
+        });
+    }
+
+    @Test
+    void queuedEventsAreWrittenInBatchesInQueueOrder() {
+        auditJournalService.append(events(1, 2, 3, 4));
+        auditJournalService.flush();
+
+        assertThat(batches).containsExactly(List.of(1, 2, 3), List.of(4));
+    }
+
+    @Test
+    void failedBatchIsWrittenFirstOnTheNextFlush() {
+        databaseDown = true;
+        auditJournalService.append(events(1, 2, 3, 4));
+        auditJournalService.flush();
+        assertThat(batches).isEmpty();
+
+        databaseDown = false;
+        auditJournalService.append(events(5));
+        auditJournalService.flush();
+
+        assertThat(batches).containsExactly(List.of(1, 2, 3), List.of(4, 5));
+    }
+
+    @Test
+    void eventsBeyondTheQueueCapAreDropped() {
+        auditJournalService.append(events(1, 2, 3, 4, 5, 6, 7));
+        auditJournalService.flush();
+
+        assertThat(batches.stream().flatMap(List::stream)).containsExactly(1, 2, 3, 4, 5);
+    }
+
+    private static List<AuditEventDTO> events(int... entityIds) {
+        return IntStream.of(entityIds)
+                .mapToObj(id -> new AuditEventDTO(AuditJournalService.APPOINTMENT, id, "UPDATE", "appointmentStatus",
+                        "SCHEDULED", "CONFIRMED", "system", LocalDateTime.now()))
+                .toList();
+    }
+}
@@ -0,0 +1,181 @@
+package cs489.miu.dentalsurgeryapp.service;
+
+import cs489.miu.dentalsurgeryapp.dto.AvailableSlotDTO;
+import cs489.miu.dentalsurgeryapp.model.Appointment;
+import cs489.miu.dentalsurgeryapp.model.AppointmentSeries;
+import cs489.miu.dentalsurgeryapp.model.Dentist;
+import cs489.miu.dentalsurgeryapp.model.Patient;
+import cs489.miu.dentalsurgeryapp.model.SurgeryLocation;
+import cs489.miu.dentalsurgeryapp.repository.AppointmentRepository;
+import cs489.miu.dentalsurgeryapp.repository.AppointmentSeriesRepository;
+import cs489.miu.dentalsurgeryapp.service.impl.AppointmentSeriesServiceImpl;
+import cs489.miu.dentalsurgeryapp.service.impl.AvailabilityServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class AvailabilityServiceImplTest {
+
+    private static final int DENTIST_ID = 4;
+    private static final int LOCATION_ID = 2;
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private AppointmentSeriesRepository seriesRepository;
+
+    @Mock
+    private DentistWeeklyLoadService dentistWeeklyLoadService;
+
+    private AppointmentSeriesServiceImpl seriesService;
+    private AvailabilityServiceImpl availabilityService;
+    private AutoCloseable mocksCloseable;
+    private LocalDate week;
+
+    @BeforeEach
+    void setUp() {
+        mocksCloseable = MockitoAnnotations.openMocks(this);
+        seriesService = new AppointmentSeriesServiceImpl(seriesRepository, appointmentRepository, mock(AppointmentService.class),
+                mock(BillService.class), dentistWeeklyLoadService, mock(CalendarFeedService.class),
+                mock(DentistAssignmentService.class), new TransactionTemplate(mock(PlatformTransactionManager.class)), 8);
+        availabilityService = new AvailabilityServiceImpl(appointmentRepository, seriesService, 30);
+        availabilityService.rebuild();
+        week = DentistWeeklyLoadService.weekStartOf(LocalDateTime.now().plusWeeks(2));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        mocksCloseable.close();
+    }
+
+    @Test
+    void weekFilledByVirtualSeriesOccurrencesOffersNoSlots() {
+        // Three booked appointments in the index and two series occurrences not expanded yet
+        when(dentistWeeklyLoadService.getWeeklyLoad(anyInt(), any())).thenReturn(0L);
+        when(dentistWeeklyLoadService.getWeeklyLoad(DENTIST_ID, week)).thenReturn(3L);
+        when(seriesRepository.findOpenByDentistId(DENTIST_ID)).thenReturn(List.of(
+                series(week.plusDays(2).atTime(9, 0)), series(week.plusDays(3).atTime(9, 0))));
+
+        assertThat(seriesService.effectiveWeeklyLoad(DENTIST_ID, week)).isEqualTo(DentistWeeklyLoadService.WEEKLY_LIMIT);
+        List<AvailableSlotDTO> slots = availabilityService.findFreeSlots(DENTIST_ID, LOCATION_ID,
+                week, week.plusDays(13), AvailabilityService.MAX_RESULTS);
+
+        assertThat(slots).isNotEmpty();
+        assertThat(slots).allSatisfy(slot -> assertThat(slot.start().toLocalDate()).isAfterOrEqualTo(week.plusWeeks(1)));
+    }
+
+    @Test
+    void daySlotsRunFromOpeningToTheLastFullSlotBeforeClosing() {
+        LocalDate monday = week.plusDays(1);
+        LocalDate saturday = week.plusDays(6);
+
+        List<AvailableSlotDTO> weekday = availabilityService.findFreeSlots(DENTIST_ID, LOCATION_ID, monday, monday, 100);
+        assertThat(weekday).hasSize(20);
+        assertThat(weekday.get(0).start()).isEqualTo(monday.atTime(8, 0));
+        assertThat(weekday.get(19).start()).isEqualTo(monday.atTime(17, 30));
+        assertThat(weekday.get(19).end()).isEqualTo(monday.atTime(18, 0));
+
+        List<AvailableSlotDTO> shortDay = availabilityService.findFreeSlots(DENTIST_ID, LOCATION_ID, saturday, saturday, 100);
+        assertThat(shortDay).hasSize(12);
+        assertThat(shortDay.get(0).start()).isEqualTo(saturday.atTime(9, 0));
+        assertThat(shortDay.get(11).start()).isEqualTo(saturday.atTime(14, 30));
+
+        assertThat(availabilityService.findFreeSlots(DENTIST_ID, LOCATION_ID, week, week, 100)).isEmpty();
+        assertThat(availabilityService.isSlotFree(DENTIST_ID, monday.atTime(8, 0))).isTrue();
+        assertThat(availabilityService.isSlotFree(DENTIST_ID, monday.atTime(7, 59))).isFalse();
+        assertThat(availabilityService.isSlotFree(DENTIST_ID, monday.atTime(18, 0))).isFalse();
+        assertThat(availabilityService.isSlotFree(DENTIST_ID, week.atTime(10, 0))).isFalse();
+    }
+
+    @Test
+    void firstAndLastSlotsOfTheDayAreTakenAndFreedByTheirAppointments() {
+        LocalDate monday = week.plusDays(1);
+        availabilityService.recordSaved(appointment(1, monday.atTime(8, 0), "SCHEDULED"));
+        availabilityService.recordSaved(appointment(2, monday.atTime(17, 45), "SCHEDULED"));
+        // A second appointment in the last slot keeps it taken until both are gone
+        availabilityService.recordSaved(appointment(3, monday.atTime(17, 30), "SCHEDULED"));
+
+        List<AvailableSlotDTO> free = availabilityService.findFreeSlots(DENTIST_ID, LOCATION_ID, monday, monday, 100);
+        assertThat(free).hasSize(18);
+        assertThat(free.get(0).start()).isEqualTo(monday.atTime(8, 30));
+        assertThat(free.get(17).start()).isEqualTo(monday.atTime(17, 0));
+        assertThat(availabilityService.isSlotFree(DENTIST_ID, monday.atTime(17, 59))).isFalse();
+        assertThat(availabilityService.isSlotFree(DENTIST_ID + 1, monday.atTime(8, 0))).isTrue();
+
+        availabilityService.recordSaved(appointment(2, monday.atTime(17, 45), "CANCELLED"));
+        assertThat(availabilityService.isSlotFree(DENTIST_ID, monday.atTime(17, 30))).isFalse();
+        availabilityService.recordDeleted(3);
+        assertThat(availabilityService.isSlotFree(DENTIST_ID, monday.atTime(17, 30))).isTrue();
+
+        // Moving the first appointment frees its old slot
+        availabilityService.recordSaved(appointment(1, monday.atTime(12, 0), "SCHEDULED"));
+        assertThat(availabilityService.isSlotFree(DENTIST_ID, monday.atTime(8, 0))).isTrue();
+        assertThat(availabilityService.isSlotFree(DENTIST_ID, monday.atTime(12, 15))).isFalse();
+    }
+
+    @Test
+    void weekAtTheLimitIsSkippedAndTheNextWeekOffered() {
+        when(dentistWeeklyLoadService.getWeeklyLoad(DENTIST_ID, week)).thenReturn((long) DentistWeeklyLoadService.WEEKLY_LIMIT);
+
+        List<AvailableSlotDTO> slots = availabilityService.findFreeSlots(DENTIST_ID, LOCATION_ID,
+                week, week.plusDays(13), 5);
+
+        assertThat(slots).hasSize(5);
+        assertThat(slots.get(0).start()).isEqualTo(week.plusWeeks(1).plusDays(1).atTime(8, 0));
+        assertThat(slots).allSatisfy(slot -> assertThat(slot.surgeryLocationId()).isEqualTo(LOCATION_ID));
+    }
+
+    @Test
+    void slotLengthMustFitTheHour() {
+        assertThatThrownBy(() -> new AvailabilityServiceImpl(appointmentRepository, seriesService, 25))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(new AvailabilityServiceImpl(appointmentRepository, seriesService, 15).getSlotMinutes()).isEqualTo(15);
+    }
+
+    private static Appointment appointment(int appointmentId, LocalDateTime at, String status) {
+        Dentist dentist = new Dentist();
+        dentist.setDentistId(DENTIST_ID);
+        Appointment appointment = new Appointment();
+        appointment.setAppointmentId(appointmentId);
+        appointment.setDentist(dentist);
+        appointment.setAppointmentDateTime(at);
+        appointment.setAppointmentStatus(status);
+        return appointment;
+    }
+
+    private static AppointmentSeries series(LocalDateTime firstStart) {
+        Patient patient = new Patient();
+        patient.setPatientId(11);
+        Dentist dentist = new Dentist();
+        dentist.setDentistId(DENTIST_ID);
+        SurgeryLocation location = new SurgeryLocation();
+        location.setSurgeryLocationId(LOCATION_ID);
+        AppointmentSeries series = new AppointmentSeries();
+        series.setPatient(patient);
+        series.setDentist(dentist);
+        series.setSurgeryLocation(location);
+        series.setAppointmentType("ORTHO");
+        series.setFirstStart(firstStart);
+        series.setIntervalWeeks(1);
+        series.setOccurrenceCount(1);
+        series.setMaterializedCount(0);
+        series.setSkippedCount(0);
+        series.setNextStart(firstStart);
+        return series;
+    }
+}
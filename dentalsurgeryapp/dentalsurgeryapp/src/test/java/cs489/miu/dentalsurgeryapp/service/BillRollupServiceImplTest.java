@@ -0,0 +1,228 @@
+package cs489.miu.dentalsurgeryapp.service;
+
+import cs489.miu.dentalsurgeryapp.dto.ArAgingDTO;
+import cs489.miu.dentalsurgeryapp.dto.BillRollupRebuildDTO;
+import cs489.miu.dentalsurgeryapp.dto.RevenueRowDTO;
+import cs489.miu.dentalsurgeryapp.model.Address;
+import cs489.miu.dentalsurgeryapp.model.Appointment;
+import cs489.miu.dentalsurgeryapp.model.Bill;
+import cs489.miu.dentalsurgeryapp.model.Dentist;
+import cs489.miu.dentalsurgeryapp.model.Patient;
+import cs489.miu.dentalsurgeryapp.model.SurgeryLocation;
+import cs489.miu.dentalsurgeryapp.repository.AddressRepository;
+import cs489.miu.dentalsurgeryapp.repository.AppointmentRepository;
+import cs489.miu.dentalsurgeryapp.repository.BillRepository;
+import cs489.miu.dentalsurgeryapp.repository.DentistRepository;
+import cs489.miu.dentalsurgeryapp.repository.PatientRepository;
+import cs489.miu.dentalsurgeryapp.repository.RoleRepository;
+import cs489.miu.dentalsurgeryapp.repository.SurgeryLocationRepository;
+import cs489.miu.dentalsurgeryapp.repository.UserRepository;
+import cs489.miu.dentalsurgeryapp.service.BillRollupService.Grouping;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the rollups against an in-memory database: bills created, paid, moved with their
+ * appointment and deleted through JPA must show up in the reports, and a rebuild from the
+ * tables must land on the same rows.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:billrollups;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.sql.init.mode=never",
+        "dentalsurgery.reminders.enabled=false"
+})
+class BillRollupServiceImplTest {
+
+    private static final LocalDate AS_OF = LocalDate.of(2030, 6, 30);
+
+    @Autowired
+    private BillRollupService billRollupService;
+
+    @Autowired
+    private BillRepository billRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private DentistRepository dentistRepository;
+
+    @Autowired
+    private SurgeryLocationRepository surgeryLocationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Dentist first;
+    private Dentist second;
+    private SurgeryLocation main;
+    private Bill recent;
+    private Bill older;
+    private Bill paid;
+
+    @BeforeEach
+    void setUp() {
+        billRepository.deleteAll();
+        appointmentRepository.deleteAll();
+        userRepository.deleteAll();
+        roleRepository.deleteAll();
+        patientRepository.deleteAll();
+        dentistRepository.deleteAll();
+        surgeryLocationRepository.deleteAll();
+        addressRepository.deleteAll();
+
+        Patient patient = patientRepository.save(patient());
+        first = dentistRepository.save(dentist(1));
+        second = dentistRepository.save(dentist(2));
+        main = surgeryLocationRepository.save(location("Main"));
+        SurgeryLocation annex = surgeryLocationRepository.save(location("Annex"));
+
+        recent = bill(patient, first, main, LocalDate.of(2030, 6, 20), "100.00", "PENDING");
+        older = bill(patient, second, main, LocalDate.of(2030, 5, 10), "50.00", "OVERDUE");
+        paid = bill(patient, first, annex, LocalDate.of(2030, 2, 1), "30.00", "PAID");
+    }
+
+    @Test
+    void reportsFollowCommittedBillAndAppointmentChanges() {
+        assertAging(billRollupService.getAging(AS_OF, null, null), "100.00", "50.00", "0.00", "0.00");
+        assertThat(billRollupService.getAging(AS_OF, second.getDentistId(), null).totalOutstanding())
+                .isEqualByComparingTo("50.00");
+        assertThat(billRollupService.getMonthlyRevenue(YearMonth.of(2030, 1), YearMonth.of(2030, 6), Grouping.DENTIST))
+                .containsExactly(
+                        new RevenueRowDTO("2030-02", first.getDentistId(), "Dentist1 Last1", 1, money("30.00"), money("30.00")),
+                        new RevenueRowDTO("2030-05", second.getDentistId(), "Dentist2 Last2", 1, money("50.00"), money("0.00")),
+                        new RevenueRowDTO("2030-06", first.getDentistId(), "Dentist1 Last1", 1, money("100.00"), money("0.00")));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            billRepository.findById(recent.getBillId()).orElseThrow().setPaymentStatus("PAID");
+            Appointment moved = appointmentRepository.findById(older.getAppointment().getAppointmentId()).orElseThrow();
+            moved.setDentist(first);
+            moved.setAppointmentDateTime(LocalDate.of(2030, 3, 15).atTime(10, 0));
+        });
+        billRepository.deleteById(paid.getBillId());
+        // Not committed, so not counted
+        transactionTemplate.executeWithoutResult(status -> {
+            billRepository.findById(older.getBillId()).orElseThrow().setPaymentStatus("PAID");
+            billRepository.flush();
+            status.setRollbackOnly();
+        });
+
+        assertAging(billRollupService.getAging(AS_OF, null, null), "0.00", "0.00", "0.00", "50.00");
+        assertThat(billRollupService.getMonthlyRevenue(YearMonth.of(2030, 1), YearMonth.of(2030, 6), Grouping.LOCATION))
+                .containsExactly(
+                        new RevenueRowDTO("2030-03", main.getSurgeryLocationId(), "Main", 1, money("50.00"), money("0.00")),
+                        new RevenueRowDTO("2030-06", main.getSurgeryLocationId(), "Main", 1, money("100.00"), money("100.00")));
+    }
+
+    @Test
+    void rebuildLandsOnTheMaintainedRows() {
+        transactionTemplate.executeWithoutResult(status ->
+                billRepository.findById(older.getBillId()).orElseThrow().setPaymentStatus("CANCELLED"));
+        List<Map<String, Object>> maintained = rollupRows();
+
+        BillRollupRebuildDTO result = billRollupService.rebuild();
+
+        assertThat(result.bills()).isEqualTo(3);
+        assertThat(rollupRows()).isEqualTo(maintained);
+        assertAging(billRollupService.getAging(AS_OF, null, null), "100.00", "0.00", "0.00", "0.00");
+    }
+
+    // Rows still counting a bill; a maintained row whose bills all moved away stays at zero
+    private List<Map<String, Object>> rollupRows() {
+        return jdbcTemplate.queryForList("SELECT appointment_day, dentist_id, surgery_location_id, payment_status, bill_count, total_cents"
+                + " FROM bill_daily_rollups WHERE bill_count <> 0"
+                + " ORDER BY appointment_day, dentist_id, surgery_location_id, payment_status");
+    }
+
+    private static void assertAging(ArAgingDTO aging, String... amounts) {
+        assertThat(aging.buckets()).extracting(ArAgingDTO.AgingBucket::label).containsExactly("0-30", "31-60", "61-90", "90+");
+        for (int i = 0; i < amounts.length; i++) {
+            assertThat(aging.buckets().get(i).amount()).isEqualByComparingTo(amounts[i]);
+        }
+    }
+
+    private Bill bill(Patient patient, Dentist dentist, SurgeryLocation location, LocalDate day, String amount, String status) {
+        Appointment appointment = new Appointment();
+        appointment.setAppointmentType("CHECKUP");
+        appointment.setAppointmentStatus("SCHEDULED");
+        appointment.setAppointmentDateTime(day.atTime(9, 0));
+        appointment.setPatient(patient);
+        appointment.setDentist(dentist);
+        appointment.setSurgeryLocation(location);
+        appointment = appointmentRepository.save(appointment);
+
+        Bill bill = new Bill();
+        bill.setTotalCost(new BigDecimal(amount));
+        bill.setPaymentStatus(status);
+        bill.setPatient(patient);
+        bill.setAppointment(appointment);
+        return billRepository.save(bill);
+    }
+
+    private static BigDecimal money(String amount) {
+        return new BigDecimal(amount);
+    }
+
+    private static Patient patient() {
+        Address address = new Address();
+        address.setStreet("1 Main St");
+        address.setCity("Fairfield");
+        address.setState("IA");
+        address.setZipcode("52556");
+
+        Patient patient = new Patient();
+        patient.setFirstName("Pat");
+        patient.setLastName("Ient");
+        patient.setEmail("rollups@example.com");
+        patient.setDob(LocalDate.of(1990, 1, 1));
+        patient.setAddress(address);
+        return patient;
+    }
+
+    private static Dentist dentist(int i) {
+        Dentist dentist = new Dentist();
+        dentist.setFirstName("Dentist" + i);
+        dentist.setLastName("Last" + i);
+        dentist.setEmail("rollups-dentist" + i + "@example.com");
+        dentist.setSpecialization("General");
+        return dentist;
+    }
+
+    private static SurgeryLocation location(String name) {
+        SurgeryLocation location = new SurgeryLocation();
+        location.setName(name);
+        return location;
+    }
+}
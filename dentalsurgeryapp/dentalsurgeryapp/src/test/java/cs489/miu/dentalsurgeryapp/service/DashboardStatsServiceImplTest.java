@@ -0,0 +1,128 @@
+package cs489.miu.dentalsurgeryapp.service;
+
+import cs489.miu.dentalsurgeryapp.dto.AppointmentPlacementDTO;
+import cs489.miu.dentalsurgeryapp.dto.DashboardStatsDTO;
+import cs489.miu.dentalsurgeryapp.model.Appointment;
+import cs489.miu.dentalsurgeryapp.model.Bill;
+import cs489.miu.dentalsurgeryapp.repository.AppointmentRepository;
+import cs489.miu.dentalsurgeryapp.repository.BillRepository;
+import cs489.miu.dentalsurgeryapp.repository.DentistRepository;
+import cs489.miu.dentalsurgeryapp.repository.PatientRepository;
+import cs489.miu.dentalsurgeryapp.service.impl.DashboardStatsServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DashboardStatsServiceImplTest {
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    @Mock
+    private DentistRepository dentistRepository;
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private BillRepository billRepository;
+
+    @InjectMocks
+    private DashboardStatsServiceImpl dashboardStatsService;
+
+    private LocalDateTime todayAtTen;
+
+    @BeforeEach
+    void setUp() {
+        todayAtTen = LocalDate.now().atTime(10, 0);
+        when(patientRepository.count()).thenReturn(12L);
+        when(dentistRepository.count()).thenReturn(3L);
+        when(appointmentRepository.findPlacementsFrom(any())).thenReturn(List.of(
+                new AppointmentPlacementDTO(1, 1, todayAtTen),
+                new AppointmentPlacementDTO(2, 2, todayAtTen.plusHours(2)),
+                new AppointmentPlacementDTO(3, 1, todayAtTen.plusDays(1))));
+        when(billRepository.findUnpaidBillIds()).thenReturn(List.of(10, 11));
+        dashboardStatsService.rebuild();
+    }
+
+    @Test
+    void rebuild_loadsCountersFromTheTables() {
+        DashboardStatsDTO stats = dashboardStatsService.getStats();
+
+        assertThat(stats.totalPatients()).isEqualTo(12);
+        assertThat(stats.totalDentists()).isEqualTo(3);
+        assertThat(stats.todayAppointments()).isEqualTo(2);
+        assertThat(stats.pendingBills()).isEqualTo(2);
+    }
+
+    @Test
+    void recordAppointmentSaved_movesBetweenDaysOnce() {
+        Appointment moved = appointment(3, todayAtTen.plusHours(4));
+
+        dashboardStatsService.recordAppointmentSaved(moved);
+        dashboardStatsService.recordAppointmentSaved(moved);
+        dashboardStatsService.recordAppointmentSaved(appointment(4, todayAtTen.plusHours(5)));
+        dashboardStatsService.recordAppointmentDeleted(1);
+
+        assertThat(dashboardStatsService.getStats().todayAppointments()).isEqualTo(3);
+    }
+
+    @Test
+    void recordBillSaved_onlyPaidLeavesThePendingCount() {
+        dashboardStatsService.recordBillSaved(bill(10, "PAID"));
+        dashboardStatsService.recordBillSaved(bill(11, "OVERDUE"));
+        dashboardStatsService.recordBillSaved(bill(12, "PENDING"));
+        dashboardStatsService.recordBillDeleted(11);
+
+        assertThat(dashboardStatsService.getStats().pendingBills()).isEqualTo(1);
+    }
+
+    @Test
+    void recordPatientAndDentistChanges_adjustCounters() {
+        dashboardStatsService.recordPatientCreated();
+        dashboardStatsService.recordPatientCreated();
+        dashboardStatsService.recordPatientDeleted();
+        dashboardStatsService.recordDentistDeleted();
+
+        DashboardStatsDTO stats = dashboardStatsService.getStats();
+        assertThat(stats.totalPatients()).isEqualTo(13);
+        assertThat(stats.totalDentists()).isEqualTo(2);
+    }
+
+    @Test
+    void rebuild_reportsAndCorrectsDrift() {
+        dashboardStatsService.recordPatientCreated();
+
+        DashboardStatsDTO stats = dashboardStatsService.rebuild();
+
+        assertThat(stats.totalPatients()).isEqualTo(12);
+        assertThat(stats.lastDrift()).isEqualTo(1);
+        verify(patientRepository, times(2)).count();
+    }
+
+    private static Appointment appointment(Integer id, LocalDateTime at) {
+        Appointment appointment = new Appointment();
+        appointment.setAppointmentId(id);
+        appointment.setAppointmentDateTime(at);
+        return appointment;
+    }
+
+    private static Bill bill(Integer id, String status) {
+        Bill bill = new Bill();
+        bill.setBillId(id);
+        bill.setPaymentStatus(status);
+        return bill;
+    }
+}
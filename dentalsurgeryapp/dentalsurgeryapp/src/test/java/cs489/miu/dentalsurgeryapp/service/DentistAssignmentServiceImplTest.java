@@ -0,0 +1,136 @@
+package cs489.miu.dentalsurgeryapp.service;
+
+import cs489.miu.dentalsurgeryapp.dto.AppointmentRequestDTO;
+import cs489.miu.dentalsurgeryapp.exception.AppointmentLimitExceededException;
+import cs489.miu.dentalsurgeryapp.model.Appointment;
+import cs489.miu.dentalsurgeryapp.model.Dentist;
+import cs489.miu.dentalsurgeryapp.repository.DentistRepository;
+import cs489.miu.dentalsurgeryapp.service.impl.DentistAssignmentServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class DentistAssignmentServiceImplTest {
+
+    private static final LocalDateTime SLOT = LocalDateTime.of(2030, 3, 12, 10, 0);
+
+    @Mock
+    private DentistRepository dentistRepository;
+
+    @Mock
+    private AppointmentSeriesService appointmentSeriesService;
+
+    @Mock
+    private AvailabilityService availabilityService;
+
+    @Mock
+    private AppointmentService appointmentService;
+
+    private DentistAssignmentServiceImpl assignmentService;
+    private final Map<Integer, Long> loads = new HashMap<>();
+    private AutoCloseable mocksCloseable;
+
+    @BeforeEach
+    void setUp() {
+        mocksCloseable = MockitoAnnotations.openMocks(this);
+        when(dentistRepository.findAll()).thenReturn(List.of(
+            dentist(1, "Orthodontics"), dentist(2, "orthodontics "), dentist(3, "General")));
+        when(appointmentSeriesService.effectiveWeeklyLoad(anyInt(), any(LocalDate.class)))
+            .thenAnswer(invocation -> loads.getOrDefault(invocation.<Integer>getArgument(0), 0L));
+        when(availabilityService.isSlotFree(anyInt(), any(LocalDateTime.class))).thenReturn(true);
+        assignmentService = new DentistAssignmentServiceImpl(dentistRepository, appointmentSeriesService,
+            availabilityService, appointmentService);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        mocksCloseable.close();
+    }
+
+    @Test
+    void leastLoadedDentistOfTheSpecializationIsPickedAndSkippedWhenBusy() {
+        loads.put(1, 3L);
+        loads.put(2, 1L);
+        loads.put(3, 4L);
+
+        assertThat(assignmentService.findLeastLoadedDentist(SLOT, null, Set.of())).isEqualTo(2);
+        assertThat(assignmentService.findLeastLoadedDentist(SLOT, " ORTHODONTICS", Set.of())).isEqualTo(2);
+
+        when(availabilityService.isSlotFree(2, SLOT)).thenReturn(false);
+        assertThat(assignmentService.findLeastLoadedDentist(SLOT, "Orthodontics", Set.of())).isEqualTo(1);
+        assertThat(assignmentService.findLeastLoadedDentist(SLOT, "Pediatrics", Set.of())).isNull();
+    }
+
+    @Test
+    void rankingFollowsCommittedChangesAndStopsAtTheWeeklyLimit() {
+        loads.put(1, 4L);
+        loads.put(2, 4L);
+        loads.put(3, 3L);
+        assertThat(assignmentService.findLeastLoadedDentist(SLOT, null, Set.of())).isEqualTo(3);
+
+        loads.put(3, 5L);
+        assignmentService.recordLoadChanged(3);
+        assertThat(assignmentService.findLeastLoadedDentist(SLOT, null, Set.of())).isEqualTo(1);
+
+        loads.put(1, 5L);
+        loads.put(2, 5L);
+        assignmentService.recordLoadChanged(1);
+        assignmentService.recordLoadChanged(2);
+        assertThat(assignmentService.findLeastLoadedDentist(SLOT, null, Set.of())).isNull();
+        verify(dentistRepository, times(1)).findAll();
+    }
+
+    @Test
+    void bookingMovesOnWhenTheChosenDentistFilledUpMeanwhile() throws Exception {
+        loads.put(1, 2L);
+        loads.put(3, 4L);
+        Appointment booked = new Appointment();
+        when(appointmentService.createAppointment(any(AppointmentRequestDTO.class))).thenAnswer(invocation -> {
+            AppointmentRequestDTO request = invocation.getArgument(0);
+            if (request.getDentistId() == 2L) {
+                loads.put(2, 5L);
+                throw new AppointmentLimitExceededException("full");
+            }
+            return booked;
+        });
+
+        AppointmentRequestDTO request = request();
+        assertThat(assignmentService.bookWithLeastLoadedDentist(request)).isSameAs(booked);
+        assertThat(request.getDentistId()).isEqualTo(1L);
+
+        when(appointmentService.createAppointment(any(AppointmentRequestDTO.class)))
+            .thenThrow(new AppointmentLimitExceededException("full"));
+        assertThrows(AppointmentLimitExceededException.class, () -> assignmentService.bookWithLeastLoadedDentist(request()));
+        verify(appointmentService, times(4)).createAppointment(any(AppointmentRequestDTO.class));
+    }
+
+    private static AppointmentRequestDTO request() {
+        AppointmentRequestDTO request = new AppointmentRequestDTO();
+        request.setDentistId(AppointmentRequestDTO.ANY_DENTIST_ID);
+        request.setAppointmentDate(SLOT.toLocalDate());
+        request.setAppointmentTime("10:00");
+        return request;
+    }
+
+    private static Dentist dentist(int id, String specialization) {
+        Dentist dentist = new Dentist();
+        dentist.setDentistId(id);
+        dentist.setSpecialization(specialization);
+        return dentist;
+    }
+}
@@ -2,6 +2,7 @@ package cs489.miu.dentalsurgeryapp.service;
 
 import cs489.miu.dentalsurgeryapp.model.Dentist;
 import cs489.miu.dentalsurgeryapp.repository.DentistRepository;
+import cs489.miu.dentalsurgeryapp.repository.NaturalKeyUpsert;
 import cs489.miu.dentalsurgeryapp.service.impl.DentistServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -25,6 +26,12 @@ public class DentistServiceImplTest {
     @Mock
     private DentistRepository dentistRepository;
 
+    @Mock
+    private DashboardStatsService dashboardStatsService;
+
+    @Mock
+    private DentistAssignmentService dentistAssignmentService;
+
     @InjectMocks
     private DentistServiceImpl dentistService;
 
@@ -61,18 +68,18 @@ public class DentistServiceImplTest {
 
     @Test
     void saveDentist_newDentist_callsFindOrCreateAndSaves() {
-        // repository returns null for findByEmailIgnoreCase -> will save
-        when(dentistRepository.findByEmailIgnoreCase(anyString())).thenReturn(null);
-        when(dentistRepository.save(any(Dentist.class))).thenAnswer(invocation -> {
+        // no dentist with that email yet -> the upsert inserts it
+        when(dentistRepository.insertIfAbsent(any(Dentist.class))).thenAnswer(invocation -> {
             Dentist d = invocation.getArgument(0);
             d.setDentistId(42);
-            return d;
+            return new NaturalKeyUpsert.Upserted<>(d, true);
         });
 
         Dentist saved = dentistService.saveDentist(sampleDentist);
 
-        verify(dentistRepository).findByEmailIgnoreCase("john.doe@example.com");
-        verify(dentistRepository).save(dentistCaptor.capture());
+        verify(dentistRepository).insertIfAbsent(dentistCaptor.capture());
+        verify(dentistRepository, never()).save(any());
+        verify(dashboardStatsService).recordDentistCreated();
 
         Dentist captured = dentistCaptor.getValue();
         assertThat(captured.getEmail()).isEqualTo("john.doe@example.com");
@@ -93,6 +100,27 @@ public class DentistServiceImplTest {
         assertThat(result.getDentistId()).isEqualTo(100);
     }
 
+    @Test
+    void findOrCreateDentist_withoutEmail_countsOnlyNewDentists() {
+        // a stored dentist without an email, as bookings pass it: not saved, not counted
+        Dentist stored = new Dentist();
+        stored.setDentistId(7);
+        stored.setFirstName("Jane");
+        stored.setLastName("Smith");
+
+        assertThat(dentistService.findOrCreateDentist(stored)).isSameAs(stored);
+        verifyNoInteractions(dentistRepository, dashboardStatsService);
+
+        // a new one is inserted and counted once
+        sampleDentist.setEmail(" ");
+        when(dentistRepository.save(sampleDentist)).thenReturn(sampleDentist);
+
+        dentistService.findOrCreateDentist(sampleDentist);
+
+        verify(dentistRepository).save(sampleDentist);
+        verify(dashboardStatsService, times(1)).recordDentistCreated();
+    }
+
     @Test
     void findDentistById_null_returnsEmpty() {
         Optional<Dentist> opt = dentistService.findDentistById(null);
@@ -0,0 +1,142 @@
+package cs489.miu.dentalsurgeryapp.service;
+
+import cs489.miu.dentalsurgeryapp.dto.AppointmentPlacementDTO;
+import cs489.miu.dentalsurgeryapp.dto.DentistLoadIndexStatsDTO;
+import cs489.miu.dentalsurgeryapp.model.Appointment;
+import cs489.miu.dentalsurgeryapp.model.Dentist;
+import cs489.miu.dentalsurgeryapp.repository.AppointmentRepository;
+import cs489.miu.dentalsurgeryapp.service.impl.DentistWeeklyLoadServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class DentistWeeklyLoadServiceImplTest {
+
+    private static final int DENTIST_ID = 3;
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    private DentistWeeklyLoadServiceImpl loadService;
+    private AutoCloseable mocksCloseable;
+    private LocalDate week;
+
+    @BeforeEach
+    void setUp() {
+        mocksCloseable = MockitoAnnotations.openMocks(this);
+        loadService = new DentistWeeklyLoadServiceImpl(appointmentRepository, 1);
+        week = DentistWeeklyLoadService.weekStartOf(LocalDateTime.now()).plusWeeks(2);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        mocksCloseable.close();
+    }
+
+    @Test
+    void rebuildCountsEachDentistWeekAndOlderWeeksFallBackToTheTable() {
+        when(appointmentRepository.findActivePlacementsFrom(any())).thenReturn(List.of(
+                placement(1, DENTIST_ID, week.atTime(10, 0)),
+                placement(2, DENTIST_ID, week.plusDays(3).atTime(9, 0)),
+                placement(3, DENTIST_ID, week.plusWeeks(1).atTime(9, 0)),
+                placement(4, DENTIST_ID + 1, week.atTime(10, 0))));
+        loadService.rebuild();
+
+        assertThat(loadService.getWeeklyLoad(DENTIST_ID, week)).isEqualTo(2);
+        assertThat(loadService.getWeeklyLoad(DENTIST_ID, week.plusWeeks(1))).isEqualTo(1);
+        assertThat(loadService.getWeeklyLoad(DENTIST_ID + 1, week)).isEqualTo(1);
+        assertThat(loadService.getWeeklyLoad(DENTIST_ID, week.plusWeeks(5))).isZero();
+        verify(appointmentRepository, never()).countActiveByDentistIdBetween(any(), any(), any());
+
+        LocalDate beforeCoverage = loadService.getStats().coveredFromWeek().minusWeeks(1);
+        when(appointmentRepository.countActiveByDentistIdBetween(eq(DENTIST_ID), any(), any())).thenReturn(4L);
+        assertThat(loadService.getWeeklyLoad(DENTIST_ID, beforeCoverage)).isEqualTo(4);
+
+        DentistLoadIndexStatsDTO stats = loadService.getStats();
+        assertThat(stats.hits()).isEqualTo(4);
+        assertThat(stats.misses()).isEqualTo(1);
+        assertThat(stats.trackedDentistWeeks()).isEqualTo(3);
+        assertThat(stats.trackedAppointments()).isEqualTo(4);
+    }
+
+    @Test
+    void savedAppointmentsMoveBetweenWeeksOnceAndCancelledOnesLeave() {
+        when(appointmentRepository.findActivePlacementsFrom(any())).thenReturn(List.of(
+                placement(1, DENTIST_ID, week.atTime(10, 0))));
+        loadService.rebuild();
+
+        Appointment moved = appointment(1, week.plusWeeks(1).atTime(10, 0), "SCHEDULED");
+        loadService.recordSaved(moved);
+        loadService.recordSaved(moved);
+        assertThat(loadService.getWeeklyLoad(DENTIST_ID, week)).isZero();
+        assertThat(loadService.getWeeklyLoad(DENTIST_ID, week.plusWeeks(1))).isEqualTo(1);
+        assertThat(loadService.getWeeklyLoadExcluding(moved)).isZero();
+        assertThat(loadService.getWeeklyLoadExcluding(appointment(2, week.plusWeeks(1).atTime(11, 0), "SCHEDULED")))
+                .isEqualTo(1);
+
+        loadService.recordSaved(appointment(1, week.plusWeeks(1).atTime(10, 0), "CANCELLED"));
+        assertThat(loadService.getWeeklyLoad(DENTIST_ID, week.plusWeeks(1))).isZero();
+
+        loadService.recordSaved(appointment(5, week.atTime(9, 0), "SCHEDULED"));
+        loadService.recordDeleted(5);
+        loadService.recordDeleted(5);
+        assertThat(loadService.getWeeklyLoad(DENTIST_ID, week)).isZero();
+        assertThat(loadService.getStats().trackedAppointments()).isZero();
+    }
+
+    @Test
+    void reconcileReportsAndCorrectsDrift() {
+        when(appointmentRepository.findActivePlacementsFrom(any())).thenReturn(List.of(
+                placement(1, DENTIST_ID, week.atTime(10, 0)),
+                placement(2, DENTIST_ID, week.atTime(11, 0))));
+        loadService.rebuild();
+
+        // Changed behind the index's back: one appointment gone, two added in another week
+        when(appointmentRepository.findActivePlacementsFrom(any())).thenReturn(List.of(
+                placement(1, DENTIST_ID, week.atTime(10, 0)),
+                placement(6, DENTIST_ID, week.plusWeeks(1).atTime(9, 0)),
+                placement(7, DENTIST_ID, week.plusWeeks(1).atTime(10, 0))));
+
+        DentistLoadIndexStatsDTO stats = loadService.reconcile();
+        assertThat(stats.lastDrift()).isEqualTo(3);
+        assertThat(stats.totalDrift()).isEqualTo(3);
+        assertThat(stats.reconciliations()).isEqualTo(1);
+        assertThat(stats.lastReconciledAt()).isNotNull();
+        assertThat(loadService.getWeeklyLoad(DENTIST_ID, week)).isEqualTo(1);
+        assertThat(loadService.getWeeklyLoad(DENTIST_ID, week.plusWeeks(1))).isEqualTo(2);
+
+        // After the correction an update already in the table is not counted twice
+        loadService.recordSaved(appointment(6, week.plusWeeks(1).atTime(9, 0), "SCHEDULED"));
+        stats = loadService.reconcile();
+        assertThat(stats.lastDrift()).isZero();
+        assertThat(stats.totalDrift()).isEqualTo(3);
+        assertThat(stats.reconciliations()).isEqualTo(2);
+        assertThat(loadService.getWeeklyLoad(DENTIST_ID, week.plusWeeks(1))).isEqualTo(2);
+    }
+
+    private static AppointmentPlacementDTO placement(int appointmentId, int dentistId, LocalDateTime at) {
+        return new AppointmentPlacementDTO(appointmentId, dentistId, at);
+    }
+
+    private static Appointment appointment(int appointmentId, LocalDateTime at, String status) {
+        Dentist dentist = new Dentist();
+        dentist.setDentistId(DENTIST_ID);
+        Appointment appointment = new Appointment();
+        appointment.setAppointmentId(appointmentId);
+        appointment.setDentist(dentist);
+        appointment.setAppointmentDateTime(at);
+        appointment.setAppointmentStatus(status);
+        return appointment;
+    }
+}
@@ -0,0 +1,123 @@
+package cs489.miu.dentalsurgeryapp.service;
+
+import cs489.miu.dentalsurgeryapp.service.PatientBalanceService.Change;
+import cs489.miu.dentalsurgeryapp.service.impl.PatientBalanceServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+class PatientBalanceServiceImplTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private PatientBalanceServiceImpl patientBalanceService;
+    // patient_balances: patient id -> {outstanding cents, unpaid count, version}
+    private final Map<Integer, long[]> rows = new HashMap<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        doAnswer(call -> {
+            RowCallbackHandler handler = call.getArgument(1);
+            for (int i = 2; i < call.getArguments().length; i++) {
+                long[] row = rows.get((Integer) call.getArgument(i));
+                if (row != null) {
+                    handler.processRow(resultSet(call.getArgument(i), row));
+                }
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+        patientBalanceService = new PatientBalanceServiceImpl(jdbcTemplate);
+    }
+
+    @Test
+    void balancesAreReadOnceAndOnlyReplacedByNewerVersions() {
+        rows.put(1, new long[] {12_050, 2, 3});
+
+        assertThat(patientBalanceService.getBalance(1).outstandingAmount()).isEqualByComparingTo("120.50");
+        assertThat(patientBalanceService.hasOutstanding(1)).isTrue();
+        assertThat(patientBalanceService.hasOutstanding(2)).isFalse();
+        assertThat(patientBalanceService.hasOutstanding(2)).isFalse();
+        verify(jdbcTemplate, times(2)).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+
+        rows.put(1, new long[] {0, 0, 4});
+        rows.put(2, new long[] {500, 1, 1});
+        patientBalanceService.refresh(List.of(1, 2));
+        assertThat(patientBalanceService.hasOutstanding(1)).isFalse();
+        assertThat(patientBalanceService.getBalance(2).unpaidBills()).isEqualTo(1);
+
+        // A reload that read an older version does not undo a newer one
+        rows.put(1, new long[] {12_050, 2, 3});
+        patientBalanceService.refresh(List.of(1));
+        assertThat(patientBalanceService.hasOutstanding(1)).isFalse();
+    }
+
+    @Test
+    void reloadPicksUpChangesMadeOutsideThisInstance() {
+        rows.put(1, new long[] {12_050, 2, 3});
+        rows.put(2, new long[] {500, 1, 1});
+        patientBalanceService.hasOutstanding(1);
+        patientBalanceService.hasOutstanding(2);
+        patientBalanceService.hasOutstanding(3);
+
+        // Another instance paid patient 1's bills; SQL outside the app cleared patient 2's row
+        rows.put(1, new long[] {0, 0, 4});
+        rows.put(2, new long[] {0, 0, 1});
+
+        assertThat(patientBalanceService.reload()).isEqualTo(2);
+        assertThat(patientBalanceService.hasOutstanding(1)).isFalse();
+        assertThat(patientBalanceService.hasOutstanding(2)).isFalse();
+        assertThat(patientBalanceService.reload()).isZero();
+    }
+
+    @Test
+    void changesAreAddedInPatientOrderAndMissingRowsAreCreated() throws Exception {
+        Connection connection = mock(Connection.class);
+        PreparedStatement add = mock(PreparedStatement.class);
+        PreparedStatement insert = mock(PreparedStatement.class);
+        when(connection.prepareStatement(startsWith("UPDATE"))).thenReturn(add);
+        when(connection.prepareStatement(startsWith("INSERT"))).thenReturn(insert);
+        List<Integer> updated = new ArrayList<>();
+        doAnswer(call -> updated.add(call.getArgument(1))).when(add).setInt(eq(3), anyInt());
+        // Patient 7 has no row yet, and another transaction creates it before our insert
+        when(add.executeUpdate()).thenReturn(1, 0, 1);
+        when(insert.executeUpdate()).thenThrow(new SQLIntegrityConstraintViolationException("duplicate"));
+
+        Map<Integer, Change> changes = new HashMap<>();
+        changes.put(7, new Change(2_000, 1));
+        changes.put(3, new Change(-1_000, -1));
+        changes.put(5, Change.NONE);
+        patientBalanceService.apply(connection, changes);
+
+        assertThat(updated).containsExactly(3, 7, 7);
+        verify(insert).setInt(1, 7);
+        assertThat(PatientBalanceService.toCents(new BigDecimal("19.999"))).isEqualTo(2_000);
+    }
+
+    private static ResultSet resultSet(Integer patientId, long[] row) throws Exception {
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.getInt(1)).thenReturn(patientId);
+        when(resultSet.getLong(2)).thenReturn(row[0]);
+        when(resultSet.getInt(3)).thenReturn((int) row[1]);
+        when(resultSet.getLong(4)).thenReturn(row[2]);
+        return resultSet;
+    }
+}
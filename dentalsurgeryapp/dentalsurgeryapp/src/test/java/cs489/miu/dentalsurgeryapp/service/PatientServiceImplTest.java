@@ -3,6 +3,7 @@ package cs489.miu.dentalsurgeryapp.service;
 import cs489.miu.dentalsurgeryapp.exception.PatientNotFoundException;
 import cs489.miu.dentalsurgeryapp.model.Address;
 import cs489.miu.dentalsurgeryapp.model.Patient;
+import cs489.miu.dentalsurgeryapp.repository.NaturalKeyUpsert;
 import cs489.miu.dentalsurgeryapp.repository.PatientRepository;
 import cs489.miu.dentalsurgeryapp.service.impl.PatientServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
@@ -31,6 +32,9 @@ class PatientServiceImplTest {
     @Mock
     private AddressService addressService;
 
+    @Mock
+    private DashboardStatsService dashboardStatsService;
+
     @InjectMocks
     private PatientServiceImpl patientService;
 
@@ -52,17 +56,19 @@ class PatientServiceImplTest {
         newPatient.setContactNumber("555-1234");
         newPatient.setEmail("john.doe@example.com");
         newPatient.setDob(LocalDate.of(1990, 1, 1));
-        newPatient.setAddress(address);
+        // as submitted: the same address, not saved yet
+        newPatient.setAddress(new Address(null, address.getStreet(), address.getCity(), address.getState(), address.getZipcode()));
     }
 
     @Test
     void addNewPatient_createsNew_whenEmailDoesNotExist() {
         // Arrange
-        when(patientRepository.findByEmail(eq("john.doe@example.com"))).thenReturn(null);
         when(addressService.findOrCreateAddress(any(Address.class))).thenReturn(address);
-        Patient saved = clonePatient(newPatient);
-        saved.setPatientId(1);
-        when(patientRepository.save(any(Patient.class))).thenReturn(saved);
+        when(patientRepository.insertIfAbsent(any(Patient.class))).thenAnswer(invocation -> {
+            Patient inserted = invocation.getArgument(0);
+            inserted.setPatientId(1);
+            return new NaturalKeyUpsert.Upserted<>(inserted, true);
+        });
 
         // Act
         Patient result = patientService.addNewPatient(newPatient);
@@ -71,7 +77,8 @@ class PatientServiceImplTest {
         assertThat(result.getPatientId()).isEqualTo(1);
         assertThat(result.getAddress()).isEqualTo(address);
         verify(addressService).findOrCreateAddress(any(Address.class));
-        verify(patientRepository).save(any(Patient.class));
+        verify(patientRepository, never()).save(any());
+        verify(dashboardStatsService).recordPatientCreated();
     }
 
     @Test
@@ -79,7 +86,8 @@ class PatientServiceImplTest {
         // Arrange
         Patient existing = clonePatient(newPatient);
         existing.setPatientId(2);
-        when(patientRepository.findByEmail(eq("john.doe@example.com"))).thenReturn(existing);
+        when(addressService.findOrCreateAddress(any(Address.class))).thenReturn(address);
+        when(patientRepository.insertIfAbsent(any(Patient.class))).thenReturn(new NaturalKeyUpsert.Upserted<>(existing, false));
 
         // Act
         Patient result = patientService.addNewPatient(newPatient);
@@ -87,7 +95,22 @@ class PatientServiceImplTest {
         // Assert
         assertThat(result).isEqualTo(existing);
         verify(patientRepository, never()).save(any());
-        verify(addressService, never()).findOrCreateAddress(any());
+        verify(dashboardStatsService, never()).recordPatientCreated();
+    }
+
+    @Test
+    void findOrCreatePatient_returnsStoredPatient_unchanged() {
+        // Arrange: a patient loaded for a booking, with a dob the entity constraints would now refuse
+        newPatient.setPatientId(3);
+        newPatient.setAddress(address);
+        newPatient.setDob(null);
+
+        // Act
+        Patient result = patientService.findOrCreatePatient(newPatient);
+
+        // Assert
+        assertThat(result).isSameAs(newPatient);
+        verifyNoInteractions(patientRepository, addressService, dashboardStatsService);
     }
 
     @Test
@@ -0,0 +1,244 @@
+package cs489.miu.dentalsurgeryapp.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cs489.miu.dentalsurgeryapp.dto.StatementRunDTO;
+import cs489.miu.dentalsurgeryapp.dto.StatementRunDTO.Status;
+import cs489.miu.dentalsurgeryapp.model.Address;
+import cs489.miu.dentalsurgeryapp.model.Appointment;
+import cs489.miu.dentalsurgeryapp.model.Bill;
+import cs489.miu.dentalsurgeryapp.model.Dentist;
+import cs489.miu.dentalsurgeryapp.model.Patient;
+import cs489.miu.dentalsurgeryapp.model.SurgeryLocation;
+import cs489.miu.dentalsurgeryapp.repository.AddressRepository;
+import cs489.miu.dentalsurgeryapp.repository.AppointmentRepository;
+import cs489.miu.dentalsurgeryapp.repository.BillRepository;
+import cs489.miu.dentalsurgeryapp.repository.DentistRepository;
+import cs489.miu.dentalsurgeryapp.repository.PatientRepository;
+import cs489.miu.dentalsurgeryapp.repository.RoleRepository;
+import cs489.miu.dentalsurgeryapp.repository.SurgeryLocationRepository;
+import cs489.miu.dentalsurgeryapp.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Generates statements against an in-memory database, two patient ids per partition, and
+ * reads the files back; a second run must only redo the partitions without a checkpoint.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:statements;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.sql.init.mode=never",
+        "dentalsurgery.reminders.enabled=false",
+        "dentalsurgery.statements.partition-size=2"
+})
+class PatientStatementServiceImplTest {
+
+    private static final YearMonth MONTH = YearMonth.of(2030, 6);
+
+    @TempDir
+    static Path statements;
+
+    @DynamicPropertySource
+    static void statementDirectory(DynamicPropertyRegistry registry) {
+        registry.add("dentalsurgery.statements.dir", () -> statements.toString());
+    }
+
+    @Autowired
+    private PatientStatementService patientStatementService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private BillRepository billRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private DentistRepository dentistRepository;
+
+    @Autowired
+    private SurgeryLocationRepository surgeryLocationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    private Patient owing;
+    private Patient visiting;
+
+    @BeforeEach
+    void setUp() {
+        billRepository.deleteAll();
+        appointmentRepository.deleteAll();
+        userRepository.deleteAll();
+        roleRepository.deleteAll();
+        patientRepository.deleteAll();
+        dentistRepository.deleteAll();
+        surgeryLocationRepository.deleteAll();
+        addressRepository.deleteAll();
+
+        owing = patientRepository.save(patient(1));
+        visiting = patientRepository.save(patient(2));
+        Patient settled = patientRepository.save(patient(3));
+        Dentist dentist = dentistRepository.save(dentist());
+        SurgeryLocation location = surgeryLocationRepository.save(location());
+
+        // An older unpaid bill and a paid visit in the month
+        bill(appointment(owing, dentist, location, LocalDate.of(2030, 3, 2).atTime(9, 0)), "75.00", "OVERDUE");
+        bill(appointment(owing, dentist, location, LocalDate.of(2030, 6, 4).atTime(9, 0)), "20.00", "PAID");
+        // A visit in the month and none owed
+        appointment(visiting, dentist, location, LocalDate.of(2030, 6, 30).atTime(16, 0));
+        // Nothing owed and no visit in the month: no statement
+        bill(appointment(settled, dentist, location, LocalDate.of(2030, 5, 31).atTime(16, 0)), "40.00", "PAID");
+        appointment(settled, dentist, location, LocalDate.of(2030, 7, 1).atTime(9, 0));
+    }
+
+    @Test
+    void writesOneStatementPerActivePatientAndResumesFromCheckpoints() throws Exception {
+        StatementRunDTO run = awaitRun(patientStatementService.start(MONTH, true));
+
+        assertThat(run.status()).isEqualTo(Status.COMPLETED);
+        assertThat(run.partitionsDone()).isEqualTo(run.partitions());
+        assertThat(run.partitionsResumed()).isZero();
+        assertThat(run.statements()).isEqualTo(2);
+        assertThat(run.bills()).isEqualTo(1);
+        assertThat(run.appointments()).isEqualTo(2);
+
+        List<JsonNode> written = readStatements();
+        assertThat(written).extracting(node -> node.get("patientId").asInt())
+                .containsExactlyInAnyOrder(owing.getPatientId(), visiting.getPatientId());
+        JsonNode owingStatement = written.stream()
+                .filter(node -> node.get("patientId").asInt() == owing.getPatientId()).findFirst().orElseThrow();
+        assertThat(owingStatement.get("month").asText()).isEqualTo("2030-06");
+        assertThat(owingStatement.get("billingAddress").asText()).isEqualTo("1 Main St, Fairfield, IA 52556");
+        assertThat(owingStatement.get("totalOutstanding").decimalValue()).isEqualByComparingTo("75.00");
+        assertThat(owingStatement.get("outstandingBills").get(0).get("paymentStatus").asText()).isEqualTo("OVERDUE");
+        assertThat(owingStatement.get("appointments")).hasSize(1);
+
+        // Lose the visiting patient's partition; the next run redoes only that one
+        String lost = String.format("statements-p%05d", visiting.getPatientId() / 2);
+        Files.delete(statements.resolve("2030-06").resolve(lost + ".checkpoint"));
+        Files.delete(statements.resolve("2030-06").resolve(lost + ".ndjson.gz"));
+
+        StatementRunDTO resumed = awaitRun(patientStatementService.start(MONTH, false));
+
+        assertThat(resumed.status()).isEqualTo(Status.COMPLETED);
+        assertThat(resumed.partitionsResumed()).isEqualTo(run.partitions() - 1);
+        assertThat(resumed.statements()).isEqualTo(visiting.getPatientId() / 2 == owing.getPatientId() / 2 ? 2 : 1);
+        assertThat(readStatements()).hasSize(2);
+    }
+
+    private StatementRunDTO awaitRun(StatementRunDTO started) throws InterruptedException {
+        assertThat(started.month()).isEqualTo(MONTH.toString());
+        for (int i = 0; i < 300; i++) {
+            StatementRunDTO progress = patientStatementService.getProgress();
+            if (progress.status() != Status.RUNNING) {
+                return progress;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Statement run did not finish");
+    }
+
+    private List<JsonNode> readStatements() throws Exception {
+        List<JsonNode> statementsRead = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(statements.resolve("2030-06"), "*.ndjson.gz")) {
+            for (Path file : files) {
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                        new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        statementsRead.add(objectMapper.readTree(line));
+                    }
+                }
+            }
+        }
+        return statementsRead;
+    }
+
+    private Appointment appointment(Patient patient, Dentist dentist, SurgeryLocation location, LocalDateTime at) {
+        Appointment appointment = new Appointment();
+        appointment.setAppointmentType("CHECKUP");
+        appointment.setAppointmentStatus("SCHEDULED");
+        appointment.setAppointmentDateTime(at);
+        appointment.setPatient(patient);
+        appointment.setDentist(dentist);
+        appointment.setSurgeryLocation(location);
+        return appointmentRepository.save(appointment);
+    }
+
+    private void bill(Appointment appointment, String amount, String status) {
+        Bill bill = new Bill();
+        bill.setTotalCost(new BigDecimal(amount));
+        bill.setPaymentStatus(status);
+        bill.setPatient(appointment.getPatient());
+        bill.setAppointment(appointment);
+        billRepository.save(bill);
+    }
+
+    private static Patient patient(int i) {
+        Address address = new Address();
+        address.setStreet(i + " Main St");
+        address.setCity("Fairfield");
+        address.setState("IA");
+        address.setZipcode("52556");
+
+        Patient patient = new Patient();
+        patient.setFirstName("Pat" + i);
+        patient.setLastName("Ient");
+        patient.setEmail("statements" + i + "@example.com");
+        patient.setDob(LocalDate.of(1990, 1, 1));
+        patient.setAddress(address);
+        return patient;
+    }
+
+    private static Dentist dentist() {
+        Dentist dentist = new Dentist();
+        dentist.setFirstName("Dentist");
+        dentist.setLastName("One");
+        dentist.setEmail("statements-dentist@example.com");
+        dentist.setSpecialization("General");
+        return dentist;
+    }
+
+    private static SurgeryLocation location() {
+        SurgeryLocation location = new SurgeryLocation();
+        location.setName("Main");
+        return location;
+    }
+}
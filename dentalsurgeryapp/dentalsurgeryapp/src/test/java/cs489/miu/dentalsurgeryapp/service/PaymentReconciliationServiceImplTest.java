@@ -0,0 +1,228 @@
+package cs489.miu.dentalsurgeryapp.service;
+
+import cs489.miu.dentalsurgeryapp.dto.PaymentReconciliationResultDTO;
+import cs489.miu.dentalsurgeryapp.dto.PaymentReconciliationResultDTO.Outcome;
+import cs489.miu.dentalsurgeryapp.dto.PaymentReconciliationResultDTO.RowResult;
+import cs489.miu.dentalsurgeryapp.model.Address;
+import cs489.miu.dentalsurgeryapp.model.Appointment;
+import cs489.miu.dentalsurgeryapp.model.Bill;
+import cs489.miu.dentalsurgeryapp.model.Dentist;
+import cs489.miu.dentalsurgeryapp.model.Patient;
+import cs489.miu.dentalsurgeryapp.model.SurgeryLocation;
+import cs489.miu.dentalsurgeryapp.repository.AddressRepository;
+import cs489.miu.dentalsurgeryapp.repository.AppointmentRepository;
+import cs489.miu.dentalsurgeryapp.repository.BillRepository;
+import cs489.miu.dentalsurgeryapp.repository.DentistRepository;
+import cs489.miu.dentalsurgeryapp.repository.PatientRepository;
+import cs489.miu.dentalsurgeryapp.repository.RoleRepository;
+import cs489.miu.dentalsurgeryapp.repository.SurgeryLocationRepository;
+import cs489.miu.dentalsurgeryapp.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Runs a payment file against an in-memory database: the paid bills must be PAID, and the
+ * balance ledger, rollups and audit journal, which the plain SQL update bypasses, must follow.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:reconciliation;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.sql.init.mode=never",
+        "dentalsurgery.reminders.enabled=false",
+        "dentalsurgery.audit.durability=flush-on-commit"
+})
+class PaymentReconciliationServiceImplTest {
+
+    @Autowired
+    private PaymentReconciliationService paymentReconciliationService;
+
+    @Autowired
+    private PatientBalanceService patientBalanceService;
+
+    @Autowired
+    private BillRollupService billRollupService;
+
+    @Autowired
+    private AuditJournalService auditJournalService;
+
+    @Autowired
+    private BillRepository billRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private DentistRepository dentistRepository;
+
+    @Autowired
+    private SurgeryLocationRepository surgeryLocationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    private Patient first;
+    private Patient second;
+    private Bill byId;
+    private Bill olderSameAmount;
+    private Bill newerSameAmount;
+    private Bill mismatched;
+
+    @BeforeEach
+    void setUp() {
+        billRepository.deleteAll();
+        appointmentRepository.deleteAll();
+        userRepository.deleteAll();
+        roleRepository.deleteAll();
+        patientRepository.deleteAll();
+        dentistRepository.deleteAll();
+        surgeryLocationRepository.deleteAll();
+        addressRepository.deleteAll();
+
+        first = patientRepository.save(patient(1));
+        second = patientRepository.save(patient(2));
+        Dentist dentist = dentistRepository.save(dentist());
+        SurgeryLocation location = surgeryLocationRepository.save(location());
+
+        LocalDateTime day = LocalDate.of(2030, 6, 3).atTime(9, 0);
+        byId = bill(first, dentist, location, day, "120.00", "PENDING");
+        olderSameAmount = bill(second, dentist, location, day.plusHours(1), "45.50", "OVERDUE");
+        newerSameAmount = bill(second, dentist, location, day.plusHours(2), "45.50", "PENDING");
+        mismatched = bill(second, dentist, location, day.plusHours(3), "80.00", "PENDING");
+    }
+
+    @Test
+    void paysMatchedBillsAndReportsTheRest() throws Exception {
+        PaymentReconciliationResultDTO result = reconcile(
+                "\uFEFFBill ID,Patient ID,Amount,Reference\n"
+                + byId.getBillId() + ",," + "120.00,TX-1\n"
+                + "," + second.getPatientId() + ",\"45.5\",TX-2\n"
+                + byId.getBillId() + ",,120.00,TX-3\n"
+                + mismatched.getBillId() + ",,79.99,TX-4\n"
+                + "," + first.getPatientId() + ",10.00,TX-5\n"
+                + "abc,,10.00,TX-6\n"
+                + "\n");
+
+        assertThat(result.received()).isEqualTo(6);
+        assertThat(result.paid()).isEqualTo(2);
+        assertThat(result.amountPaid()).isEqualByComparingTo("165.50");
+        assertThat(result.unmatched()).isEqualTo(3);
+        assertThat(result.rejected()).isEqualTo(1);
+        assertThat(result.rows()).extracting(RowResult::line, RowResult::outcome, RowResult::reference).containsExactly(
+                tuple(4, Outcome.UNMATCHED, "TX-3"),
+                tuple(5, Outcome.UNMATCHED, "TX-4"),
+                tuple(6, Outcome.UNMATCHED, "TX-5"),
+                tuple(7, Outcome.REJECTED, "TX-6"));
+        assertThat(result.rows().get(0).message()).isEqualTo("Bill " + byId.getBillId() + " is already paid by line 2");
+
+        // The oldest bill of the amount is paid first
+        assertThat(status(byId)).isEqualTo("PAID");
+        assertThat(status(olderSameAmount)).isEqualTo("PAID");
+        assertThat(status(newerSameAmount)).isEqualTo("PENDING");
+        assertThat(status(mismatched)).isEqualTo("PENDING");
+
+        assertThat(patientBalanceService.hasOutstanding(first.getPatientId())).isFalse();
+        assertThat(patientBalanceService.getBalance(second.getPatientId()).outstandingAmount()).isEqualByComparingTo("125.50");
+        assertThat(billRollupService.getAging(LocalDate.of(2030, 6, 30), null, null).totalOutstanding())
+                .isEqualByComparingTo("125.50");
+        assertThat(auditJournalService.findHistory(AuditJournalService.BILL, olderSameAmount.getBillId()))
+                .anySatisfy(event -> {
+                    assertThat(event.fieldName()).isEqualTo("paymentStatus");
+                    assertThat(event.oldValue()).isEqualTo("OVERDUE");
+                    assertThat(event.newValue()).isEqualTo("PAID");
+                });
+
+        // The same file again pays nothing more
+        PaymentReconciliationResultDTO again = reconcile("billId,amount\n" + byId.getBillId() + ",120.00\n");
+        assertThat(again.paid()).isZero();
+        assertThat(again.rows().get(0).message()).isEqualTo("No unpaid bill with ID " + byId.getBillId());
+    }
+
+    @Test
+    void headerMustNameTheAmountAndABillOrPatient() {
+        assertThatThrownBy(() -> reconcile("reference,amount\nTX-1,10.00\n"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> reconcile(""))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private PaymentReconciliationResultDTO reconcile(String csv) throws Exception {
+        return paymentReconciliationService.reconcile(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private String status(Bill bill) {
+        return billRepository.findById(bill.getBillId()).orElseThrow().getPaymentStatus();
+    }
+
+    private Bill bill(Patient patient, Dentist dentist, SurgeryLocation location, LocalDateTime at, String amount, String status) {
+        Appointment appointment = new Appointment();
+        appointment.setAppointmentType("CHECKUP");
+        appointment.setAppointmentStatus("SCHEDULED");
+        appointment.setAppointmentDateTime(at);
+        appointment.setPatient(patient);
+        appointment.setDentist(dentist);
+        appointment.setSurgeryLocation(location);
+        appointment = appointmentRepository.save(appointment);
+
+        Bill bill = new Bill();
+        bill.setTotalCost(new BigDecimal(amount));
+        bill.setPaymentStatus(status);
+        bill.setPatient(patient);
+        bill.setAppointment(appointment);
+        return billRepository.save(bill);
+    }
+
+    private static Patient patient(int i) {
+        Address address = new Address();
+        address.setStreet(i + " Main St");
+        address.setCity("Fairfield");
+        address.setState("IA");
+        address.setZipcode("52556");
+
+        Patient patient = new Patient();
+        patient.setFirstName("Pat" + i);
+        patient.setLastName("Ient");
+        patient.setEmail("reconciliation" + i + "@example.com");
+        patient.setDob(LocalDate.of(1990, 1, 1));
+        patient.setAddress(address);
+        return patient;
+    }
+
+    private static Dentist dentist() {
+        Dentist dentist = new Dentist();
+        dentist.setFirstName("Dentist");
+        dentist.setLastName("One");
+        dentist.setEmail("reconciliation-dentist@example.com");
+        dentist.setSpecialization("General");
+        return dentist;
+    }
+
+    private static SurgeryLocation location() {
+        SurgeryLocation location = new SurgeryLocation();
+        location.setName("Main");
+        return location;
+    }
+}
@@ -0,0 +1,154 @@
+package cs489.miu.dentalsurgeryapp.service;
+
+import cs489.miu.dentalsurgeryapp.exception.OutstandingBillException;
+import cs489.miu.dentalsurgeryapp.model.Appointment;
+import cs489.miu.dentalsurgeryapp.model.Dentist;
+import cs489.miu.dentalsurgeryapp.model.Patient;
+import cs489.miu.dentalsurgeryapp.model.SurgeryLocation;
+import cs489.miu.dentalsurgeryapp.model.WaitlistEntry;
+import cs489.miu.dentalsurgeryapp.model.WaitlistStatus;
+import cs489.miu.dentalsurgeryapp.repository.AppointmentRepository;
+import cs489.miu.dentalsurgeryapp.repository.WaitlistEntryRepository;
+import cs489.miu.dentalsurgeryapp.service.impl.WaitlistServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class WaitlistServiceImplTest {
+
+    private static final int DENTIST_ID = 7;
+    private static final int LOCATION_ID = 3;
+    private static final int CANCELLING_PATIENT_ID = 100;
+
+    @Mock
+    private WaitlistEntryRepository waitlistEntryRepository;
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private AppointmentService appointmentService;
+
+    @Mock
+    private PatientService patientService;
+
+    @Mock
+    private DentistService dentistService;
+
+    @Mock
+    private SurgeryLocationService surgeryLocationService;
+
+    private WaitlistServiceImpl waitlistService;
+    private AutoCloseable mocksCloseable;
+    private LocalDateTime slot;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        mocksCloseable = MockitoAnnotations.openMocks(this);
+        waitlistService = new WaitlistServiceImpl(waitlistEntryRepository, appointmentRepository, appointmentService,
+                patientService, dentistService, surgeryLocationService,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        slot = LocalDateTime.now().plusDays(3).withNano(0);
+
+        when(patientService.getPatientById(anyInt())).thenAnswer(call -> {
+            Patient patient = new Patient();
+            patient.setPatientId(call.getArgument(0));
+            return patient;
+        });
+        Dentist dentist = new Dentist();
+        dentist.setDentistId(DENTIST_ID);
+        when(dentistService.findDentistById(DENTIST_ID)).thenReturn(Optional.of(dentist));
+        SurgeryLocation location = new SurgeryLocation();
+        location.setSurgeryLocationId(LOCATION_ID);
+        when(surgeryLocationService.findSurgeryLocationById(LOCATION_ID)).thenReturn(Optional.of(location));
+        when(waitlistEntryRepository.transition(anyInt(), any(), any())).thenReturn(1);
+        when(appointmentService.addNewAppointment(any())).thenAnswer(call -> {
+            Appointment appointment = call.getArgument(0);
+            appointment.setAppointmentId(500 + appointment.getPatient().getPatientId());
+            return appointment;
+        });
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (mocksCloseable != null) {
+            mocksCloseable.close();
+        }
+    }
+
+    @Test
+    void freedSlotGoesToLongestWaitingPatientThatFits() {
+        WaitlistEntry otherLocation = entry(1, 11, LOCATION_ID + 1, slot.minusDays(1), slot.plusDays(1));
+        WaitlistEntry tooLate = entry(2, 12, null, slot.plusHours(1), slot.plusDays(1));
+        WaitlistEntry cancelledIt = entry(3, CANCELLING_PATIENT_ID, null, slot.minusDays(1), slot.plusDays(1));
+        WaitlistEntry fits = entry(4, 14, LOCATION_ID, slot.minusDays(1), slot);
+        WaitlistEntry alsoFits = entry(5, 15, null, slot.minusDays(1), slot.plusDays(1));
+        queue(otherLocation, tooLate, cancelledIt, fits, alsoFits);
+
+        Appointment booked = waitlistService.backfill(DENTIST_ID, LOCATION_ID, slot, CANCELLING_PATIENT_ID);
+
+        assertThat(booked.getPatient().getPatientId()).isEqualTo(14);
+        assertThat(booked.getAppointmentDateTime()).isEqualTo(slot);
+        assertThat(booked.getAppointmentType()).isEqualTo("CLEANING");
+        verify(waitlistEntryRepository).transition(4, WaitlistStatus.WAITING, WaitlistStatus.OFFERED);
+        verify(waitlistEntryRepository).setOfferedAppointment(4, 514);
+        verify(waitlistEntryRepository, never()).transition(eq(5), any(), any());
+    }
+
+    @Test
+    void entryClaimedElsewhereIsSkipped() throws Exception {
+        queue(entry(1, 11, null, slot.minusDays(1), slot.plusDays(1)), entry(2, 12, null, slot.minusDays(1), slot.plusDays(1)));
+        when(waitlistEntryRepository.transition(1, WaitlistStatus.WAITING, WaitlistStatus.OFFERED)).thenReturn(0);
+
+        Appointment booked = waitlistService.backfill(DENTIST_ID, LOCATION_ID, slot, CANCELLING_PATIENT_ID);
+
+        assertThat(booked.getPatient().getPatientId()).isEqualTo(12);
+        verify(appointmentService, times(1)).addNewAppointment(any());
+    }
+
+    @Test
+    void slotTakenAgainIsNotOffered() {
+        queue(entry(1, 11, null, slot.minusDays(1), slot.plusDays(1)));
+        when(appointmentRepository.existsActiveAt(DENTIST_ID, slot)).thenReturn(true);
+
+        assertThat(waitlistService.backfill(DENTIST_ID, LOCATION_ID, slot, CANCELLING_PATIENT_ID)).isNull();
+        verify(waitlistEntryRepository, never()).transition(anyInt(), any(), any());
+    }
+
+    @Test
+    void patientWithOutstandingBillsKeepsTheirPlace() throws Exception {
+        queue(entry(1, 11, null, slot.minusDays(1), slot.plusDays(1)), entry(2, 12, null, slot.minusDays(1), slot.plusDays(1)));
+        doThrow(new OutstandingBillException("unpaid"))
+                .when(appointmentService).addNewAppointment(argThat(a -> a != null && a.getPatient().getPatientId() == 11));
+
+        Appointment booked = waitlistService.backfill(DENTIST_ID, LOCATION_ID, slot, CANCELLING_PATIENT_ID);
+
+        assertThat(booked.getPatient().getPatientId()).isEqualTo(12);
+        verify(waitlistEntryRepository).transition(1, WaitlistStatus.OFFERED, WaitlistStatus.WAITING);
+        verify(waitlistEntryRepository, never()).setOfferedAppointment(eq(1), any());
+    }
+
+    private void queue(WaitlistEntry... entries) {
+        when(waitlistEntryRepository.findOpenByDentist(eq(DENTIST_ID), eq(WaitlistStatus.WAITING), any()))
+                .thenReturn(List.of(entries));
+    }
+
+    private WaitlistEntry entry(int id, int patientId, Integer locationId, LocalDateTime earliest, LocalDateTime latest) {
+        return new WaitlistEntry(id, patientId, DENTIST_ID, locationId, earliest, latest, "CLEANING",
+                WaitlistStatus.WAITING, LocalDateTime.now().minusDays(10).plusMinutes(id), null);
+    }
+}
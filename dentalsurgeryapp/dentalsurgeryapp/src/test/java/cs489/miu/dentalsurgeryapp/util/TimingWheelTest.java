@@ -0,0 +1,68 @@
+package cs489.miu.dentalsurgeryapp.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTest {
+
+    private static final long START = 1_000_000L;
+
+    @Test
+    void itemsFireOnTheirTickAcrossLevels() {
+        // 1 ms ticks, 4 slots per level: levels span 4, 16 and 64 ticks, beyond that overflows
+        TimingWheel<String> wheel = new TimingWheel<>(1, 4, 3, START);
+        wheel.schedule(START + 3, "level0");
+        wheel.schedule(START + 13, "level1");
+        wheel.schedule(START + 50, "level2");
+        wheel.schedule(START + 200, "overflow");
+        assertThat(wheel.size()).isEqualTo(4);
+
+        List<String> fired = new ArrayList<>();
+        List<Long> firedAt = new ArrayList<>();
+        for (long now = START + 1; now <= START + 200; now++) {
+            long at = now;
+            wheel.advanceTo(now, item -> {
+                fired.add(item);
+                firedAt.add(at - START);
+            });
+        }
+
+        assertThat(fired).containsExactly("level0", "level1", "level2", "overflow");
+        assertThat(firedAt).containsExactly(3L, 13L, 50L, 200L);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void advancingPastSeveralTicksFiresEverythingDue() {
+        TimingWheel<Integer> wheel = new TimingWheel<>(10, 8, 2, START);
+        for (int i = 1; i <= 30; i++) {
+            wheel.schedule(START + i * 10L, i);
+        }
+
+        List<Integer> fired = new ArrayList<>();
+        wheel.advanceTo(START + 155, fired::add);
+
+        assertThat(fired).hasSize(15).isSorted();
+        assertThat(wheel.size()).isEqualTo(15);
+    }
+
+    @Test
+    void deadlinesNotAfterTheCurrentTickAreRejected() {
+        TimingWheel<String> wheel = new TimingWheel<>(1000, 64, 4, START);
+
+        assertThat(wheel.schedule(START, "now")).isFalse();
+        assertThat(wheel.schedule(START - 5000, "past")).isFalse();
+        // rounds up to the next whole tick rather than firing early
+        assertThat(wheel.schedule(START + 1, "soon")).isTrue();
+
+        List<String> fired = new ArrayList<>();
+        wheel.advanceTo(START + 999, fired::add);
+        assertThat(fired).isEmpty();
+        wheel.advanceTo(START + 1000, fired::add);
+        assertThat(fired).containsExactly("soon");
+    }
+}